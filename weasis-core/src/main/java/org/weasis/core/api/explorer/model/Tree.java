@@ -12,17 +12,26 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tree where each element can be located directly. The reading methods are not blocking: the
+ * successors of an element are returned as an immutable list, which is rebuilt only when the
+ * children change.
+ */
 public class Tree<T> {
 
   private final T head;
 
   private final ArrayList<Tree<T>> leafs = new ArrayList<>();
 
-  private Tree<T> parent = null;
+  private volatile List<T> successors = List.of();
+
+  private volatile Tree<T> parent = null;
 
-  private HashMap<T, Tree<T>> locate = new HashMap<>();
+  private Map<T, Tree<T>> locate = new ConcurrentHashMap<>();
 
   public Tree(T head) {
     this.head = head;
@@ -30,8 +39,9 @@ public Tree(T head) {
   }
 
   public synchronized void addLeaf(T root, T leaf) {
-    if (locate.containsKey(root)) {
-      locate.get(root).addLeaf(leaf);
+    Tree<T> t = getTree(root);
+    if (t != null) {
+      t.addLeaf(leaf);
     } else {
       addLeaf(root).addLeaf(leaf);
     }
@@ -40,6 +50,7 @@ public synchronized void addLeaf(T root, T leaf) {
   private synchronized Tree<T> addLeaf(T leaf) {
     Tree<T> t = new Tree<>(leaf);
     leafs.add(t);
+    updateSuccessors();
     t.parent = this;
     t.locate = this.locate;
     locate.put(leaf, t);
@@ -47,9 +58,15 @@ private synchronized Tree<T> addLeaf(T leaf) {
   }
 
   public synchronized void removeLeaf(T leaf) {
-    Tree<T> t = locate.remove(leaf);
+    Tree<T> t = leaf == null ? null : locate.remove(leaf);
     if (t != null) {
-      t.parent.leafs.remove(t);
+      Tree<T> p = t.parent;
+      if (p != null) {
+        synchronized (p) {
+          p.leafs.remove(t);
+          p.updateSuccessors();
+        }
+      }
       t.parent = null;
       t.locate = null;
     }
@@ -58,6 +75,7 @@ public synchronized void removeLeaf(T leaf) {
   public synchronized Tree<T> setAsParent(T parentRoot) {
     Tree<T> t = new Tree<>(parentRoot);
     t.leafs.add(this);
+    t.updateSuccessors();
     this.parent = t;
     t.locate = this.locate;
     t.locate.put(head, this);
@@ -65,27 +83,35 @@ public synchronized Tree<T> setAsParent(T parentRoot) {
     return t;
   }
 
+  private void updateSuccessors() {
+    List<T> list = new ArrayList<>(leafs.size());
+    for (Tree<T> leaf : leafs) {
+      list.add(leaf.head);
+    }
+    successors = List.copyOf(list);
+  }
+
   public T getHead() {
     return head;
   }
 
-  public synchronized Tree<T> getTree(T element) {
-    return locate.get(element);
+  public Tree<T> getTree(T element) {
+    Map<T, Tree<T>> map = locate;
+    return element == null || map == null ? null : map.get(element);
   }
 
-  public synchronized Tree<T> getParent() {
+  public Tree<T> getParent() {
     return parent;
   }
 
-  public synchronized Collection<T> getSuccessors(T root) {
-    Collection<T> successors = new ArrayList<>();
+  /**
+   * @param root the element
+   * @return the immutable list of the children of the element, or an empty list when the element
+   *     is not in the tree
+   */
+  public Collection<T> getSuccessors(T root) {
     Tree<T> tree = getTree(root);
-    if (null != tree) {
-      for (Tree<T> leaf : tree.leafs) {
-        successors.add(leaf.head);
-      }
-    }
-    return successors;
+    return tree == null ? List.of() : tree.successors;
   }
 
   public Collection<Tree<T>> getSubTrees() {
@@ -94,7 +120,7 @@ public Collection<Tree<T>> getSubTrees() {
 
   public static <T> Collection<T> getSuccessors(T of, Collection<Tree<T>> in) {
     for (Tree<T> tree : in) {
-      if (tree.locate.containsKey(of)) {
+      if (tree.getTree(of) != null) {
         return tree.getSuccessors(of);
       }
     }
@@ -109,6 +135,7 @@ public String toString() {
   public synchronized void clear() {
     locate.clear();
     leafs.clear();
+    updateSuccessors();
     locate.put(head, this);
   }
 
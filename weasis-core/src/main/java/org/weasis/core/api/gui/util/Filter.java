@@ -18,6 +18,16 @@
 public abstract class Filter<T> {
   public abstract boolean passes(T item);
 
+  /**
+   * Allows keeping the result of the filter on a collection. The version must change each time the
+   * result of {@link #passes(Object)} can change for the same item.
+   *
+   * @return the version of the filter, or -1 when the result cannot be kept (default)
+   */
+  public long getVersion() {
+    return -1;
+  }
+
   public Iterator<T> filter(Iterator<T> iterator) {
     return new FilterIterator(iterator);
   }
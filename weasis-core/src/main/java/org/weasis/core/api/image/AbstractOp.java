@@ -11,11 +11,14 @@
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import org.weasis.core.util.LangUtil;
 
 public abstract class AbstractOp implements ImageOpNode {
 
+  // Modified with setParam() for updating the version, except the outputs
   protected HashMap<String, Object> params;
+  private long paramsVersion;
 
   protected AbstractOp() {
     params = new HashMap<>();
@@ -28,18 +31,56 @@ protected AbstractOp(AbstractOp op) {
 
   @Override
   public void clearParams() {
-    params.clear();
+    if (!params.isEmpty()) {
+      params.clear();
+      paramsVersion++;
+    }
   }
 
   @Override
   public void clearIOCache() {
     for (String key : params.keySet()) {
-      if (key.startsWith("op.input") || key.startsWith("op.output")) { // NON-NLS
-        params.put(key, null);
+      if (key.startsWith(Param.INPUT_PREFIX) || key.startsWith(Param.OUTPUT_PREFIX)) {
+        putParam(key, null);
       }
     }
   }
 
+  /**
+   * @return the version of the parameters, which is incremented when a parameter other than an
+   *     output is modified
+   */
+  long getParamsVersion() {
+    return paramsVersion;
+  }
+
+  private void putParam(String key, Object value) {
+    Object old = params.put(key, value);
+    if (!key.startsWith(Param.OUTPUT_PREFIX) && isModified(key, old, value)) {
+      paramsVersion++;
+    }
+  }
+
+  private static boolean isModified(String key, Object old, Object value) {
+    if (key.startsWith(Param.INPUT_PREFIX)) {
+      // The images are compared by reference
+      return old != value;
+    }
+    if (old == value) {
+      // The same instance set again may have been modified
+      return !isImmutable(value);
+    }
+    return !Objects.equals(old, value);
+  }
+
+  private static boolean isImmutable(Object value) {
+    return value == null
+        || value instanceof String
+        || value instanceof Number
+        || value instanceof Boolean
+        || value instanceof Enum<?>;
+  }
+
   @Override
   public Object getParam(String key) {
     if (key == null) {
@@ -51,21 +92,24 @@ public Object getParam(String key) {
   @Override
   public void setParam(String key, Object value) {
     if (key != null) {
-      params.put(key, value);
+      putParam(key, value);
     }
   }
 
   @Override
   public void setAllParameters(Map<String, Object> map) {
     if (map != null) {
-      params.putAll(map);
+      map.forEach(this::setParam);
     }
   }
 
   @Override
   public void removeParam(String key) {
-    if (key != null) {
+    if (key != null && params.containsKey(key)) {
       params.remove(key);
+      if (!key.startsWith(Param.OUTPUT_PREFIX)) {
+        paramsVersion++;
+      }
     }
   }
 
@@ -76,7 +120,7 @@ public boolean isEnabled() {
 
   @Override
   public void setEnabled(boolean enabled) {
-    params.put(Param.ENABLE, enabled);
+    putParam(Param.ENABLE, enabled);
   }
 
   @Override
@@ -87,7 +131,7 @@ public String getName() {
   @Override
   public void setName(String name) {
     if (name != null) {
-      params.put(Param.NAME, name);
+      putParam(Param.NAME, name);
     }
   }
 
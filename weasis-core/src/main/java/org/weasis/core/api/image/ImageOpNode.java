@@ -19,8 +19,11 @@ final class Param {
     public static final String NAME = "op.display.name";
     public static final String ENABLE = "op.enable";
 
-    public static final String INPUT_IMG = "op.input.img";
-    public static final String OUTPUT_IMG = "op.output.img";
+    public static final String INPUT_PREFIX = "op.input";
+    public static final String OUTPUT_PREFIX = "op.output";
+
+    public static final String INPUT_IMG = INPUT_PREFIX + ".img";
+    public static final String OUTPUT_IMG = OUTPUT_PREFIX + ".img";
 
     private Param() {}
   }
@@ -37,6 +40,14 @@ private Param() {}
 
   Object getParam(String key);
 
+  /**
+   * Sets a parameter of the operation. A value must not be modified once it has been set: a new
+   * value must be set, or the modified value must be set again, so that the operation is executed
+   * again by its manager.
+   *
+   * @param key the key of the parameter
+   * @param value the value of the parameter
+   */
   void setParam(String key, Object value);
 
   void setAllParameters(Map<String, Object> map);
@@ -45,8 +56,19 @@ private Param() {}
 
   void clearParams();
 
-  /** Clear all the parameter values starting by "op.input" or "op.output" */
+  /**
+   * Clear all the parameter values starting by {@link Param#INPUT_PREFIX} or {@link
+   * Param#OUTPUT_PREFIX}
+   */
   void clearIOCache();
 
   void handleImageOpEvent(ImageOpEvent event);
+
+  /**
+   * @return false when the output depends on a state which is not in the parameters, then the
+   *     operation is executed again at each processing even if its parameters have not changed
+   */
+  default boolean isCacheable() {
+    return true;
+  }
 }
@@ -11,7 +11,9 @@
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -32,8 +34,22 @@ public enum Position {
 
   private final HashMap<String, ImageOpNode> nodes;
   private final List<ImageOpNode> operations;
+  // Parameters and output of the last execution of each node
+  private final Map<ImageOpNode, NodeState> states;
+  private volatile List<NodeTiming> lastTimings = List.of();
   private String name;
 
+  /**
+   * Execution time of an operation during the last processing.
+   *
+   * @param name the name of the operation
+   * @param nanoTime the duration in nanoseconds
+   * @param reused true when the previous output has been reused without processing
+   */
+  public record NodeTiming(String name, long nanoTime, boolean reused) {}
+
+  private record NodeState(long paramsVersion, Object output) {}
+
   public SimpleOpManager() {
     this(IMAGE_OP_NAME);
   }
@@ -41,12 +57,14 @@ public SimpleOpManager() {
   public SimpleOpManager(String name) {
     this.operations = new ArrayList<>();
     this.nodes = new HashMap<>();
+    this.states = new IdentityHashMap<>();
     setName(name);
   }
 
   public SimpleOpManager(SimpleOpManager som) {
     this.operations = new ArrayList<>();
     this.nodes = new HashMap<>();
+    this.states = new IdentityHashMap<>();
     setName(som.name);
 
     som.nodes.forEach(
@@ -113,6 +131,7 @@ public void addImageOperationAction(ImageOpNode action, Position pos, ImageOpNod
 
   public void removeImageOperationAction(ImageOpNode action) {
     if (action != null) {
+      states.remove(action);
       boolean remove = operations.remove(action);
       if (nodes.remove(action.getName()) == null && remove) {
         for (Entry<String, ImageOpNode> entry : nodes.entrySet()) {
@@ -130,6 +149,7 @@ public void removeAllImageOperationAction() {
     clearNodeParams();
     operations.clear();
     nodes.clear();
+    states.clear();
   }
 
   @Override
@@ -144,6 +164,7 @@ public void clearNodeIOCache() {
     for (ImageOpNode node : operations) {
       node.clearIOCache();
     }
+    states.clear();
   }
 
   @Override
@@ -205,33 +226,98 @@ public void resetLastNodeOutputImage() {
     }
   }
 
+  /**
+   * Process the operations in the order of the list. An operation is executed only when its input
+   * image or one of its parameters has changed since its last execution, otherwise its previous
+   * output is reused. So when a parameter is modified, only the operations from this node to the
+   * end of the list are executed again. An operation which is not cacheable (see {@link
+   * ImageOpNode#isCacheable()}) is always executed.
+   *
+   * @return the output image of the last operation
+   */
   @Override
   public PlanarImage process() {
     PlanarImage source = getFirstNodeInputImage();
     if (source != null && source.width() > 0) {
+      List<NodeTiming> timings = new ArrayList<>(operations.size());
       for (int i = 0; i < operations.size(); i++) {
         ImageOpNode op = operations.get(i);
+        long start = System.nanoTime();
+        boolean reused = false;
         try {
           if (i > 0) {
             op.setParam(Param.INPUT_IMG, operations.get(i - 1).getParam(Param.OUTPUT_IMG));
           }
-          if (op.isEnabled()) {
-            op.process();
+          // Evaluated before the execution which may compute the state it depends on
+          boolean cacheable = op.isCacheable();
+          if (cacheable && isUpToDate(op)) {
+            reused = true;
           } else {
-            // Skip this operation
-            op.setParam(Param.OUTPUT_IMG, op.getParam(Param.INPUT_IMG));
+            if (op.isEnabled()) {
+              op.process();
+            } else {
+              // Skip this operation
+              op.setParam(Param.OUTPUT_IMG, op.getParam(Param.INPUT_IMG));
+            }
+            if (cacheable) {
+              saveState(op);
+            } else {
+              states.remove(op);
+            }
           }
         } catch (Exception e) {
           LOGGER.error("Image {} failed", op.getParam(Param.NAME), e);
           op.setParam(Param.OUTPUT_IMG, op.getParam(Param.INPUT_IMG));
+          states.remove(op);
         }
+        timings.add(new NodeTiming(op.getName(), System.nanoTime() - start, reused));
       }
+      lastTimings = List.copyOf(timings);
+      LOGGER.trace("{} timings: {}", name, lastTimings);
     } else {
       clearNodeIOCache();
     }
     return getLastNodeOutputImage();
   }
 
+  /**
+   * @return the execution time of each operation during the last processing
+   */
+  public List<NodeTiming> getLastTimings() {
+    return lastTimings;
+  }
+
+  private boolean isUpToDate(ImageOpNode op) {
+    NodeState state = states.get(op);
+    if (state == null) {
+      return false;
+    }
+    Object output = op.getParam(Param.OUTPUT_IMG);
+    return output != null
+        && output == state.output()
+        && state.paramsVersion() == getParamsVersion(op);
+  }
+
+  private void saveState(ImageOpNode op) {
+    long version = getParamsVersion(op);
+    if (version < 0) {
+      states.remove(op);
+    } else {
+      states.put(op, new NodeState(version, op.getParam(Param.OUTPUT_IMG)));
+    }
+  }
+
+  /**
+   * Returns the version of the parameters, or -1 when not available. The parameters must be
+   * replaced instead of being modified in place, see {@link ImageOpNode#setParam(String, Object)}.
+   */
+  private static long getParamsVersion(ImageOpNode op) {
+    if (op instanceof AbstractOp abstractOp) {
+      return abstractOp.getParamsVersion();
+    }
+    return -1;
+  }
+
   @Override
   public Object getParamValue(String opName, String param) {
     if (opName != null && param != null) {
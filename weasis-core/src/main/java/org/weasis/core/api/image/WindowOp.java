@@ -78,6 +78,13 @@ public void process() throws Exception {
     params.put(Param.OUTPUT_IMG, result);
   }
 
+  @Override
+  public boolean isCacheable() {
+    // The rendering depends on the min and max of the image which are computed when loading it
+    ImageElement imageElement = (ImageElement) params.get(P_IMAGE_ELEMENT);
+    return imageElement == null || imageElement.isImageAvailable();
+  }
+
   public WlPresentation getWlPresentation() {
     boolean pixelPadding =
         LangUtil.getNULLtoTrue((Boolean) getParam(ActionW.IMAGE_PIX_PADDING.cmd()));
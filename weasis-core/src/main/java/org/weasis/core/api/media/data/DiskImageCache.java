@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.media.data;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.util.FileUtil;
+import org.weasis.core.util.StringUtil;
+import org.weasis.opencv.data.FileRawImage;
+import org.weasis.opencv.data.PlanarImage;
+
+/**
+ * Cache of decoded images stored on the local disk with the raw format of {@link FileRawImage}
+ * (.wcv). It is a second level below {@link NativeCache}: reading a raw image is much faster than
+ * decoding again a compressed image (e.g. JPEG 2000 or JPEG-LS).
+ *
+ * <p>The size of the cache is limited and the least recently used images are removed first. The
+ * index is an append-only journal: an image file is only registered after being fully written,
+ * and at opening the entries without file and the files without entry (after a crash) are
+ * removed.
+ */
+public class DiskImageCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DiskImageCache.class);
+
+  static final String JOURNAL = "journal.idx"; // NON-NLS
+  static final String EXTENSION = ".wcv"; // NON-NLS
+  private static final String TMP_EXTENSION = ".tmp"; // NON-NLS
+  private static final char ADD = 'A';
+  private static final char READ = 'R';
+  private static final char DELETE = 'D';
+  private static final int MIN_JOURNAL_COMPACTION = 2000;
+
+  private final Path directory;
+  // Access order: the first entry is the least recently used
+  private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+  private volatile long maxSize;
+  private long size;
+  private int journalLines;
+  private Writer journal;
+  private boolean opened;
+
+  public DiskImageCache(File directory, long maxSize) {
+    this.directory = directory.toPath();
+    this.maxSize = maxSize;
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Set the maximum size of the cache.
+   *
+   * @param maxSize the size in bytes, 0 disables the cache
+   */
+  public synchronized void setMaxSize(long maxSize) {
+    this.maxSize = Math.max(0, maxSize);
+    if (opened) {
+      trimToSize();
+    }
+  }
+
+  public boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  public synchronized long getSize() {
+    return size;
+  }
+
+  public synchronized int getEntryCount() {
+    return entries.size();
+  }
+
+  /**
+   * @param key the unique identifier of the image
+   * @return the decoded image or null if not in the cache
+   */
+  public PlanarImage get(String key) {
+    File file = getFile(key);
+    if (file != null) {
+      try {
+        return new FileRawImage(file).read();
+      } catch (Exception e) {
+        LOGGER.warn("Cannot read the cached image {}", file, e);
+        remove(key);
+      }
+    }
+    return null;
+  }
+
+  private synchronized File getFile(String key) {
+    if (!isEnabled() || !open()) {
+      return null;
+    }
+    String name = getFileName(key);
+    if (entries.get(name) == null) {
+      return null;
+    }
+    File file = directory.resolve(name).toFile();
+    if (!file.isFile()) {
+      removeEntry(name, false);
+      return null;
+    }
+    appendJournal(READ, name, -1);
+    return file;
+  }
+
+  /**
+   * Store a decoded image. The image is written outside the lock in a temporary file which is
+   * renamed when complete.
+   *
+   * @param key the unique identifier of the image
+   * @param image the decoded image
+   */
+  public void put(String key, PlanarImage image) {
+    if (image == null || !isEnabled() || image.physicalBytes() > maxSize || !open()) {
+      return;
+    }
+    String name = getFileName(key);
+    Path tmp = null;
+    try {
+      tmp = Files.createTempFile(directory, "img_", TMP_EXTENSION); // NON-NLS
+      new FileRawImage(tmp.toFile()).write(image);
+      long length = Files.size(tmp);
+      synchronized (this) {
+        Files.move(
+            tmp,
+            directory.resolve(name),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        tmp = null;
+        Long previous = entries.put(name, length);
+        if (previous != null) {
+          size -= previous;
+        }
+        size += length;
+        appendJournal(ADD, name, length);
+        trimToSize();
+      }
+    } catch (Exception e) {
+      LOGGER.warn("Cannot write the image in the disk cache", e);
+    } finally {
+      if (tmp != null) {
+        FileUtil.delete(tmp.toFile());
+      }
+    }
+  }
+
+  public synchronized void remove(String key) {
+    if (opened) {
+      removeEntry(getFileName(key), true);
+    }
+  }
+
+  /** Remove all the images of the cache. */
+  public synchronized void clear() {
+    if (open()) {
+      for (String name : entries.keySet()) {
+        FileUtil.delete(directory.resolve(name).toFile());
+      }
+      entries.clear();
+      size = 0;
+      rebuildJournal();
+    }
+  }
+
+  public synchronized void close() {
+    if (journal != null) {
+      try {
+        journal.close();
+      } catch (IOException e) {
+        LOGGER.error("Cannot close the journal of the disk cache", e);
+      }
+      journal = null;
+    }
+    opened = false;
+  }
+
+  static String getFileName(String key) {
+    return StringUtil.bytesToMD5(key.getBytes(StandardCharsets.UTF_8)) + EXTENSION;
+  }
+
+  private void removeEntry(String name, boolean deleteFile) {
+    Long length = entries.remove(name);
+    if (length != null) {
+      size -= length;
+      if (deleteFile) {
+        FileUtil.delete(directory.resolve(name).toFile());
+      }
+      appendJournal(DELETE, name, -1);
+    }
+  }
+
+  private void trimToSize() {
+    Iterator<Entry<String, Long>> iterator = entries.entrySet().iterator();
+    while (size > maxSize && iterator.hasNext()) {
+      Entry<String, Long> eldest = iterator.next();
+      iterator.remove();
+      size -= eldest.getValue();
+      // Delete the file before the journal entry: a crash between both is fixed at opening
+      FileUtil.delete(directory.resolve(eldest.getKey()).toFile());
+      appendJournal(DELETE, eldest.getKey(), -1);
+    }
+  }
+
+  private synchronized boolean open() {
+    if (opened) {
+      return journal != null;
+    }
+    opened = true;
+    try {
+      Files.createDirectories(directory);
+      readJournal();
+      checkFiles();
+      trimToSize();
+      rebuildJournal();
+      LOGGER.info(
+          "Disk image cache: {} images, {} MB in {}", // NON-NLS
+          entries.size(),
+          size / (1024 * 1024),
+          directory);
+    } catch (IOException e) {
+      LOGGER.error("Cannot open the disk image cache {}", directory, e);
+    }
+    return journal != null;
+  }
+
+  private void readJournal() throws IOException {
+    Path path = directory.resolve(JOURNAL);
+    if (!Files.isReadable(path)) {
+      return;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] parts = line.split(" ");
+        // Ignore the corrupted lines, typically the last one after a crash
+        if (parts.length < 2 || parts[0].length() != 1) {
+          continue;
+        }
+        switch (parts[0].charAt(0)) {
+          case ADD -> {
+            if (parts.length == 3) {
+              try {
+                entries.put(parts[1], Long.parseLong(parts[2]));
+              } catch (NumberFormatException e) {
+                // Ignore this line
+              }
+            }
+          }
+          case READ -> entries.get(parts[1]);
+          case DELETE -> entries.remove(parts[1]);
+          default -> {
+            // Ignore this line
+          }
+        }
+      }
+    }
+  }
+
+  private void checkFiles() throws IOException {
+    size = 0;
+    Iterator<Entry<String, Long>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Entry<String, Long> entry = iterator.next();
+      Path path = directory.resolve(entry.getKey());
+      if (Files.isRegularFile(path) && Files.size(path) == entry.getValue()) {
+        size += entry.getValue();
+      } else {
+        iterator.remove();
+        FileUtil.delete(path.toFile());
+      }
+    }
+    // Remove the temporary files and the files not registered in the journal
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path path : stream) {
+        String name = path.getFileName().toString();
+        if (!JOURNAL.equals(name) && !entries.containsKey(name)) {
+          FileUtil.delete(path.toFile());
+        }
+      }
+    }
+  }
+
+  private void rebuildJournal() {
+    if (journal != null) {
+      try {
+        journal.close();
+      } catch (IOException e) {
+        LOGGER.error("Cannot close the journal of the disk cache", e);
+      }
+      journal = null;
+    }
+    Path path = directory.resolve(JOURNAL);
+    Path tmp = directory.resolve(JOURNAL + TMP_EXTENSION);
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+        for (Map.Entry<String, Long> entry : entries.entrySet()) {
+          writeLine(writer, ADD, entry.getKey(), entry.getValue());
+        }
+      }
+      Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      journalLines = entries.size();
+      journal =
+          Files.newBufferedWriter(
+              path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      LOGGER.error("Cannot write the journal of the disk cache", e);
+    }
+  }
+
+  private void appendJournal(char action, String name, long length) {
+    if (journal == null) {
+      return;
+    }
+    try {
+      writeLine(journal, action, name, length);
+      journal.flush();
+      journalLines++;
+    } catch (IOException e) {
+      LOGGER.error("Cannot write the journal of the disk cache", e);
+    }
+    if (journalLines > MIN_JOURNAL_COMPACTION && journalLines > 2 * entries.size()) {
+      rebuildJournal();
+    }
+  }
+
+  private static void writeLine(Writer writer, char action, String name, long length)
+      throws IOException {
+    writer.write(action);
+    writer.write(' ');
+    writer.write(name);
+    if (length >= 0) {
+      writer.write(' ');
+      writer.write(Long.toString(length));
+    }
+    writer.write('\n');
+  }
+}
@@ -14,9 +14,8 @@
 import java.awt.image.IndexColorModel;
 import java.awt.image.RenderedImage;
 import java.util.Map;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import org.opencv.core.Core.MinMaxLocResult;
 import org.opencv.core.CvType;
@@ -30,7 +29,7 @@
 import org.weasis.core.api.image.cv.CvUtil;
 import org.weasis.core.api.image.measure.MeasurementsAdapter;
 import org.weasis.core.api.image.util.Unit;
-import org.weasis.core.api.util.ThreadUtil;
+import org.weasis.core.api.media.data.ImageLoader.Priority;
 import org.weasis.core.util.MathUtil;
 import org.weasis.opencv.data.ImageCV;
 import org.weasis.opencv.data.LookupTableCV;
@@ -45,12 +44,17 @@
 public class ImageElement extends MediaElement {
   private static final Logger LOGGER = LoggerFactory.getLogger(ImageElement.class);
 
-  public static final ExecutorService IMAGE_LOADER =
-      ThreadUtil.buildNewSingleThreadExecutor("Image Loader"); // NON-NLS
+  public static final ImageLoader IMAGE_LOADER =
+      new ImageLoader("Image Loader", ImageLoader.getDefaultPoolSize()); // NON-NLS
 
   private static final NativeCache<ImageElement, PlanarImage> mCache =
       new NativeCache<>(Runtime.getRuntime().maxMemory() / 2) {
 
+        @Override
+        protected double getCost(ImageElement key, PlanarImage img) {
+          return key == null ? 1.0 : key.getDecodingCost();
+        }
+
         @Override
         protected void afterEntryRemove(ImageElement key, PlanarImage img) {
           if (key != null) {
@@ -67,7 +71,7 @@ protected void afterEntryRemove(ImageElement key, PlanarImage img) {
         }
       };
 
-  protected boolean readable = true;
+  protected volatile boolean readable = true;
 
   protected double pixelSizeX = 1.0;
   protected double pixelSizeY = 1.0;
@@ -86,9 +90,30 @@ public static int getNumberOfImagesInCache() {
     return mCache.size();
   }
 
+  /**
+   * @return the maximum size in bytes of the native memory used by the image cache
+   */
+  public static long getCacheMaxMemory() {
+    return mCache.getMaxNativeMemory();
+  }
+
+  /**
+   * @return the size in bytes of the native memory currently used by the image cache
+   */
+  public static long getCacheUsedMemory() {
+    return mCache.getUsedNativeMemory();
+  }
+
+  /**
+   * @return the hit ratio, the evictions and the resident bytes of the image cache
+   */
+  public static NativeCache.Statistics getCacheStatistics() {
+    return mCache.getStatistics();
+  }
+
   protected void findMinMaxValues(PlanarImage img, boolean exclude8bitImage)
       throws OutOfMemoryError {
-    // This function can be called several times from the inner class Load.
+    // This function can be called several times from different threads.
     // Do not compute min and max it has already been done
 
     if (img != null && !isImageAvailable()) {
@@ -243,7 +268,36 @@ public MeasurementsAdapter getMeasurementAdapter(Unit displayUnit, Point offset)
   }
 
   public boolean isImageInCache() {
-    return mCache.get(this) != null;
+    return mCache.containsKey(this);
+  }
+
+  /**
+   * @return the decoded image if it is in the cache, otherwise null without loading it
+   */
+  public PlanarImage getImageInCache() {
+    return mCache.peek(this);
+  }
+
+  /**
+   * Keep the decoded image in the cache until {@link #unpinImage()} is called, typically while
+   * the image is displayed.
+   */
+  public void pinImage() {
+    mCache.pin(this);
+  }
+
+  public void unpinImage() {
+    mCache.unpin(this);
+  }
+
+  /**
+   * Returns the relative cost of decoding the image again when it has been removed from the cache.
+   * An image requiring a decompression should return a value higher than 1.0.
+   *
+   * @return the decoding cost, 1.0 for an uncompressed image
+   */
+  public double getDecodingCost() {
+    return 1.0;
   }
 
   public void removeImageFromCache() {
@@ -374,7 +428,8 @@ public String toString() {
     return getMediaURI().toString();
   }
 
-  public synchronized PlanarImage getImage(OpManager manager, boolean findMinMax) {
+  public PlanarImage getImage(OpManager manager, boolean findMinMax) {
+    // Do not hold the monitor of this element while decoding
     try {
       return getCacheImage(startImageLoading(), manager, findMinMax);
     } catch (OutOfMemoryError e1) {
@@ -387,7 +442,8 @@ public synchronized PlanarImage getImage(OpManager manager, boolean findMinMax)
     }
   }
 
-  private PlanarImage getCacheImage(PlanarImage cacheImage, OpManager manager, boolean findMinMax) {
+  private synchronized PlanarImage getCacheImage(
+      PlanarImage cacheImage, OpManager manager, boolean findMinMax) {
     if (findMinMax) {
       try {
         findMinMaxValues(cacheImage, true);
@@ -418,51 +474,89 @@ public PlanarImage getImage() {
     return getImage(null);
   }
 
+  /**
+   * Request the decoding of the image without waiting for the result. Nothing is done when the
+   * image is already in the cache or cannot be read.
+   *
+   * @param priority the priority of the decoding request
+   * @return the future of the decoded image or null if there is nothing to load
+   */
+  public Future<PlanarImage> preloadImage(Priority priority) {
+    return preloadImage(priority, null);
+  }
+
+  /**
+   * Request the decoding of the image without waiting for the result. Nothing is done when the
+   * image is already in the cache or cannot be read.
+   *
+   * @param priority the priority of the decoding request
+   * @param onLoaded the action executed by the decoding thread once the image is in the cache, can
+   *     be null
+   * @return the future of the decoded image or null if there is nothing to load
+   */
+  public Future<PlanarImage> preloadImage(Priority priority, Runnable onLoaded) {
+    if (readable && mCache.peek(this) == null) {
+      return IMAGE_LOADER.load(this, priority, onLoaded);
+    }
+    return null;
+  }
+
   private PlanarImage startImageLoading() throws OutOfMemoryError {
-    PlanarImage cacheImage;
-    if ((cacheImage = mCache.get(this)) == null && readable && setAsLoading()) {
+    PlanarImage cacheImage = mCache.get(this);
+    boolean retry = true;
+    // Only one retry when a prefetching request has been cancelled before being promoted
+    for (int i = 0; i < 2 && retry && cacheImage == null && readable; i++) {
+      retry = false;
       LOGGER.debug("Asking for reading image: {}", this);
-      Load ref = new Load();
-      Future<PlanarImage> future = IMAGE_LOADER.submit(ref);
-      PlanarImage img = null;
+      Future<PlanarImage> future = IMAGE_LOADER.load(this, Priority.DISPLAY);
       try {
-        img = future.get();
+        cacheImage = future.get();
       } catch (InterruptedException e) {
         // Re-assert the thread's interrupted status
         Thread.currentThread().interrupt();
         // We don't need the result, so cancel the task too
         future.cancel(true);
+      } catch (CancellationException e) {
+        cacheImage = mCache.peek(this);
+        retry = true;
       } catch (ExecutionException e) {
         if (e.getCause() instanceof OutOfMemoryError memoryError) {
-          setAsLoaded();
           throw memoryError;
-        } else {
-          readable = false;
-          LOGGER.error("Cannot read pixel data!: {}", this, e);
         }
+        readable = false;
+        LOGGER.error("Cannot read pixel data!: {}", this, e);
       }
+    }
+    return cacheImage;
+  }
+
+  /**
+   * Decode the image and put it in the cache. This method is called by the decoding threads of
+   * {@link #IMAGE_LOADER}.
+   */
+  PlanarImage readImage() throws Exception {
+    PlanarImage cacheImage = mCache.peek(this);
+    if (cacheImage != null || !readable) {
+      return cacheImage;
+    }
+    setAsLoading();
+    try {
+      PlanarImage img = loadImage();
       if (img != null) {
         readable = img.width() > 0;
         if (readable) {
           mCache.put(this, img);
-          cacheImage = img;
           this.setTag(TagW.ImageCache, true);
+          return img;
         }
       }
+      return null;
+    } finally {
       setAsLoaded();
     }
-    return cacheImage;
   }
 
   public boolean isReadable() {
     return readable;
   }
-
-  class Load implements Callable<PlanarImage> {
-
-    @Override
-    public PlanarImage call() throws Exception {
-      return loadImage();
-    }
-  }
 }
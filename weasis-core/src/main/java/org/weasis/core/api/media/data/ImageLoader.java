@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.media.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import org.weasis.core.api.util.ThreadUtil;
+import org.weasis.opencv.data.PlanarImage;
+
+/**
+ * Multithreaded executor decoding the images of {@link ImageElement}. The pending requests are
+ * ordered by {@link Priority} and then by submission order. Only one decoding task can exist for
+ * an image: a new request for an image already in the queue returns the same future and raises
+ * its priority when required.
+ *
+ * <p>Tasks submitted with the standard {@link java.util.concurrent.ExecutorService} methods get the
+ * {@link Priority#BACKGROUND} priority.
+ */
+public class ImageLoader extends ThreadPoolExecutor {
+
+  /** Number of decoding threads. A value lower than 1 means an automatic value. */
+  public static final String P_LOADER_THREADS = "weasis.image.loader.threads";
+
+  public enum Priority {
+    /** Image requested by a view for being displayed */
+    DISPLAY,
+    /** Image expected to be displayed soon (e.g. next images in the scrolling direction) */
+    PREFETCH,
+    /** Image loaded in advance without any user interaction */
+    BACKGROUND
+  }
+
+  private final AtomicLong sequence = new AtomicLong();
+  private final Map<ImageElement, ImageTask> pending = new ConcurrentHashMap<>();
+
+  public ImageLoader(String name, int nThreads) {
+    super(
+        nThreads,
+        nThreads,
+        30L,
+        TimeUnit.SECONDS,
+        new PriorityBlockingQueue<>(),
+        ThreadUtil.getThreadFactory(name));
+    allowCoreThreadTimeOut(true);
+  }
+
+  public static int getDefaultPoolSize() {
+    return Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+  }
+
+  /**
+   * Set the number of decoding threads.
+   *
+   * @param nThreads the number of threads, a value lower than 1 applies the default value
+   */
+  public void setPoolSize(int nThreads) {
+    int size = nThreads < 1 ? getDefaultPoolSize() : nThreads;
+    if (size > getMaximumPoolSize()) {
+      setMaximumPoolSize(size);
+      setCorePoolSize(size);
+    } else {
+      setCorePoolSize(size);
+      setMaximumPoolSize(size);
+    }
+  }
+
+  /**
+   * Request the decoding of an image. When the image is already queued, the existing request is
+   * returned and its priority is raised if the new priority is higher.
+   *
+   * @param image the image to decode
+   * @param priority the priority of the request
+   * @return the future of the decoded image
+   */
+  Future<PlanarImage> load(ImageElement image, Priority priority) {
+    return load(image, priority, null);
+  }
+
+  /**
+   * Request the decoding of an image and run an action once the decoding has succeeded.
+   *
+   * @param image the image to decode
+   * @param priority the priority of the request
+   * @param onLoaded the action executed by the decoding thread, or immediately when the decoding
+   *     has already succeeded. It is not executed when the request is cancelled or fails. Can be
+   *     null.
+   * @return the future of the decoded image
+   */
+  Future<PlanarImage> load(ImageElement image, Priority priority, Runnable onLoaded) {
+    ImageTask task = request(image, priority);
+    if (onLoaded != null) {
+      task.whenLoaded(onLoaded);
+    }
+    return task;
+  }
+
+  private ImageTask request(ImageElement image, Priority priority) {
+    while (true) {
+      ImageTask task = pending.get(image);
+      if (task != null) {
+        if (!task.isCancelled()) {
+          promote(task, priority);
+          return task;
+        }
+        pending.remove(image, task);
+      } else {
+        ImageTask newTask = new ImageTask(image, priority, sequence.getAndIncrement());
+        if (pending.putIfAbsent(image, newTask) == null) {
+          execute(newTask);
+          return newTask;
+        }
+      }
+    }
+  }
+
+  /**
+   * @param image the image
+   * @return true if a decoding request of this image is queued or running
+   */
+  public boolean isPending(ImageElement image) {
+    return image != null && pending.containsKey(image);
+  }
+
+  /**
+   * Cancel the queued request of an image. A request with the {@link Priority#DISPLAY} priority or
+   * already running is never cancelled.
+   *
+   * @param image the image
+   * @return true if the request has been cancelled
+   */
+  public boolean cancel(ImageElement image) {
+    ImageTask task = image == null ? null : pending.get(image);
+    return task != null && cancel(task);
+  }
+
+  /**
+   * Cancel the queued requests matching the predicate, typically the images that are not close
+   * anymore to the displayed position. A request with the {@link Priority#DISPLAY} priority or
+   * already running is never cancelled.
+   *
+   * @param filter the predicate on the images to cancel
+   * @return the number of cancelled requests
+   */
+  public int cancelIf(Predicate<ImageElement> filter) {
+    int count = 0;
+    for (Entry<ImageElement, ImageTask> entry : pending.entrySet()) {
+      if (filter.test(entry.getKey()) && cancel(entry.getValue())) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private boolean cancel(ImageTask task) {
+    if (task.priority != Priority.DISPLAY && getQueue().remove(task)) {
+      return task.cancel(false);
+    }
+    return false;
+  }
+
+  private void promote(ImageTask task, Priority priority) {
+    if (priority.ordinal() < task.priority.ordinal() && getQueue().remove(task)) {
+      // The task is not in the queue anymore, the priority can be changed safely
+      task.priority = priority;
+      super.execute(task);
+    }
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    if (command instanceof PriorityTask<?>) {
+      super.execute(command);
+    } else {
+      super.execute(newTaskFor(command, null));
+    }
+  }
+
+  @Override
+  protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+    return new PriorityTask<>(
+        Executors.callable(runnable, value), Priority.BACKGROUND, sequence.getAndIncrement());
+  }
+
+  @Override
+  protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+    return new PriorityTask<>(callable, Priority.BACKGROUND, sequence.getAndIncrement());
+  }
+
+  static class PriorityTask<T> extends FutureTask<T> implements Comparable<PriorityTask<?>> {
+    protected volatile Priority priority;
+    private final long order;
+
+    PriorityTask(Callable<T> callable, Priority priority, long order) {
+      super(callable);
+      this.priority = priority;
+      this.order = order;
+    }
+
+    public Priority getPriority() {
+      return priority;
+    }
+
+    @Override
+    public int compareTo(PriorityTask<?> o) {
+      int c = Integer.compare(priority.ordinal(), o.priority.ordinal());
+      return c == 0 ? Long.compare(order, o.order) : c;
+    }
+  }
+
+  private class ImageTask extends PriorityTask<PlanarImage> {
+    private final ImageElement image;
+    private final List<Runnable> loadedActions = new ArrayList<>();
+
+    ImageTask(ImageElement image, Priority priority, long order) {
+      super(image::readImage, priority, order);
+      this.image = image;
+    }
+
+    void whenLoaded(Runnable action) {
+      synchronized (loadedActions) {
+        if (!isDone()) {
+          loadedActions.add(action);
+          return;
+        }
+      }
+      if (state() == State.SUCCESS) {
+        action.run();
+      }
+    }
+
+    @Override
+    protected void done() {
+      pending.remove(image, this);
+      List<Runnable> actions;
+      synchronized (loadedActions) {
+        actions = new ArrayList<>(loadedActions);
+        loadedActions.clear();
+      }
+      if (state() == State.SUCCESS) {
+        actions.forEach(Runnable::run);
+      }
+    }
+  }
+}
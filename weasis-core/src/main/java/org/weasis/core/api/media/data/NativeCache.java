@@ -12,59 +12,208 @@
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import org.weasis.opencv.data.PlanarImage;
 
+/**
+ * Cache of images stored in native memory, limited by the size of the native buffers.
+ *
+ * <p>The reading access is lock-free: each entry records its last access time. When the memory
+ * limit is reached, the entries are evicted according to a score combining the time since the
+ * last access, the size of the image and its re-loading cost (see {@link #getCost(Object,
+ * PlanarImage)}). The pinned entries (e.g. the displayed images) are never evicted.
+ *
+ * @param <K> the key type
+ * @param <V> the image type
+ */
 public abstract class NativeCache<K, V extends PlanarImage> extends AbstractMap<K, V> {
 
-  protected final Map<K, V> hash;
+  protected final Map<K, Node<V>> hash;
+  private final Map<K, Integer> pinned;
   private final long maxNativeMemory;
   private final AtomicLong useNativeMemory;
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+  private final LongAdder evictedBytes = new LongAdder();
 
   protected NativeCache(long maxNativeMemory) {
     this.maxNativeMemory = maxNativeMemory;
     this.useNativeMemory = new AtomicLong(0);
-    this.hash = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true));
+    this.hash = new ConcurrentHashMap<>(64);
+    this.pinned = new ConcurrentHashMap<>();
+  }
+
+  protected static final class Node<V> {
+    private final V value;
+    private final long bytes;
+    private final double cost;
+    private volatile long lastAccess;
+
+    Node(V value, long bytes, double cost) {
+      this.value = value;
+      this.bytes = bytes;
+      this.cost = cost;
+      this.lastAccess = System.nanoTime();
+    }
+
+    public V getValue() {
+      return value;
+    }
+  }
+
+  /**
+   * Statistics of the cache. The hits and the misses are only counted by {@link #get(Object)}, the
+   * lookup of the images to display, and not by the other lookups like {@link #peek(Object)} or
+   * {@link #containsKey(Object)}.
+   */
+  public record Statistics(
+      long hitCount,
+      long missCount,
+      long evictionCount,
+      long evictedBytes,
+      long residentBytes,
+      int size) {
+
+    public double hitRatio() {
+      long total = hitCount + missCount;
+      return total == 0 ? Double.NaN : (double) hitCount / total;
+    }
   }
 
   @Override
   public V get(Object key) {
-    return hash.get(key);
+    Node<V> node = hash.get(key);
+    if (node == null) {
+      missCount.increment();
+      return null;
+    }
+    node.lastAccess = System.nanoTime();
+    hitCount.increment();
+    return node.value;
+  }
+
+  /**
+   * Returns the value without updating its last access time and the statistics.
+   *
+   * @param key the key
+   * @return the value or null if the key is not in the cache
+   */
+  public V peek(Object key) {
+    Node<V> node = hash.get(key);
+    return node == null ? null : node.value;
+  }
+
+  public long getMaxNativeMemory() {
+    return maxNativeMemory;
+  }
+
+  public long getUsedNativeMemory() {
+    return useNativeMemory.get();
+  }
+
+  public Statistics getStatistics() {
+    return new Statistics(
+        hitCount.sum(),
+        missCount.sum(),
+        evictionCount.sum(),
+        evictedBytes.sum(),
+        useNativeMemory.get(),
+        hash.size());
   }
 
   public boolean isMemoryAvailable() {
     return useNativeMemory.get() < maxNativeMemory;
   }
 
+  /**
+   * Prevent the entry of this key to be evicted until {@link #unpin(Object)} is called. The key
+   * can be pinned before being in the cache and can be pinned several times.
+   *
+   * @param key the key to pin
+   */
+  public void pin(K key) {
+    if (key != null) {
+      pinned.merge(key, 1, Integer::sum);
+    }
+  }
+
+  public void unpin(K key) {
+    if (key != null) {
+      pinned.computeIfPresent(key, (k, v) -> v > 1 ? v - 1 : null);
+    }
+  }
+
+  public boolean isPinned(K key) {
+    return key != null && pinned.containsKey(key);
+  }
+
+  /**
+   * Returns the cost of re-loading an image after being evicted. The default value is 1.0, a
+   * higher value keeps the entry longer in the cache.
+   *
+   * @param key the key
+   * @param value the image
+   * @return the cost relative to an uncompressed image
+   */
+  protected double getCost(K key, V value) {
+    return 1.0;
+  }
+
   public void expungeStaleEntries() {
-    if (!isMemoryAvailable()) {
-      synchronized (hash) {
-        List<K> remKeys = new ArrayList<>();
+    // Only one thread evicts, the other ones continue with a temporary overflow
+    if (!isMemoryAvailable() && evictionLock.tryLock()) {
+      try {
         // 5% of max memory + diff
         long maxfreeSize = maxNativeMemory / 20 + (useNativeMemory.get() - maxNativeMemory);
-        long freeSize = 0;
+        if (maxfreeSize <= 0) {
+          return;
+        }
 
-        for (Map.Entry<K, V> e : hash.entrySet()) {
-          freeSize += physicalBytes(e.getValue());
-          if (freeSize > maxfreeSize) {
-            break;
+        long now = System.nanoTime();
+        List<Candidate<K, V>> candidates = new ArrayList<>();
+        for (Map.Entry<K, Node<V>> e : hash.entrySet()) {
+          if (!pinned.containsKey(e.getKey())) {
+            Node<V> node = e.getValue();
+            // The score increases with the idle time and the size and decreases with the cost
+            double idle = Math.max(1L, now - node.lastAccess);
+            double score = idle * Math.max(1L, node.bytes) / node.cost;
+            candidates.add(new Candidate<>(e.getKey(), node, score));
           }
-          remKeys.add(e.getKey());
         }
+        candidates.sort((a, b) -> Double.compare(b.score, a.score));
 
-        for (K key : remKeys) {
-          V val = hash.remove(key);
-          useNativeMemory.addAndGet(-physicalBytes(val));
-          afterEntryRemove(key, val);
+        long freeSize = 0;
+        for (Candidate<K, V> c : candidates) {
+          if (freeSize >= maxfreeSize) {
+            break;
+          }
+          if (hash.remove(c.key, c.node)) {
+            freeSize += c.node.bytes;
+            useNativeMemory.addAndGet(-c.node.bytes);
+            evictionCount.increment();
+            evictedBytes.add(c.node.bytes);
+            afterEntryRemove(c.key, c.node.value);
+          }
         }
+      } finally {
+        evictionLock.unlock();
       }
     }
   }
 
+  private record Candidate<K, V>(K key, Node<V> node, double score) {}
+
   private long physicalBytes(V val) {
     if (val != null) {
       return val.physicalBytes();
@@ -77,17 +226,25 @@ private long physicalBytes(V val) {
   @Override
   public V put(K key, V value) {
     expungeStaleEntries();
-    V result = hash.put(key, value);
-    useNativeMemory.addAndGet(physicalBytes(value));
-    useNativeMemory.addAndGet(-physicalBytes(result));
-    return result;
+    long bytes = physicalBytes(value);
+    Node<V> result = hash.put(key, new Node<>(value, bytes, Math.max(getCost(key, value), 0.01)));
+    useNativeMemory.addAndGet(bytes);
+    if (result != null) {
+      useNativeMemory.addAndGet(-result.bytes);
+      return result.value;
+    }
+    return null;
   }
 
   @SuppressWarnings("unchecked")
   @Override
   public V remove(Object key) {
-    V val = hash.remove(key);
-    useNativeMemory.addAndGet(-physicalBytes(val));
+    Node<V> node = hash.remove(key);
+    V val = null;
+    if (node != null) {
+      useNativeMemory.addAndGet(-node.bytes);
+      val = node.value;
+    }
     afterEntryRemove((K) key, val);
     return val;
   }
@@ -103,9 +260,12 @@ public int size() {
     return hash.size();
   }
 
+  /** Returns an unmodifiable snapshot of the entries. */
   @Override
   public Set<Entry<K, V>> entrySet() {
-    return hash.entrySet();
+    Set<Entry<K, V>> set = new HashSet<>();
+    hash.forEach((k, n) -> set.add(new SimpleImmutableEntry<>(k, n.value)));
+    return Collections.unmodifiableSet(set);
   }
 
   @Override
@@ -115,21 +275,11 @@ public boolean containsKey(Object key) {
 
   @Override
   public boolean containsValue(Object value) {
-    return hash.containsValue(value);
-  }
-
-  @Override
-  public int hashCode() {
-    return hash.hashCode();
-  }
-
-  @Override
-  public boolean equals(Object obj) {
-    if (this == obj) return true;
-    if (!super.equals(obj)) return false;
-    if (getClass() != obj.getClass()) return false;
-    @SuppressWarnings("rawtypes")
-    NativeCache other = (NativeCache) obj;
-    return hash.equals(other.hash);
+    for (Node<V> node : hash.values()) {
+      if (Objects.equals(node.value, value)) {
+        return true;
+      }
+    }
+    return false;
   }
 }
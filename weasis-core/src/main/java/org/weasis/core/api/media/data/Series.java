@@ -20,11 +20,15 @@
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
+import java.util.WeakHashMap;
 import javax.swing.SwingUtilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,7 +54,13 @@
 
   private PropertyChangeSupport propertyChange = null;
   protected final List<E> medias;
+  // Sorted views of the medias, updated on each addition
   protected final Map<Comparator<E>, List<E>> sortedMedias = new HashMap<>(6);
+  // Filtered views of the medias, only for the filters having a version
+  private final Map<Filter<E>, Map<Comparator<E>, FilteredMedias<E>>> filteredMedias =
+      new WeakHashMap<>();
+  // Values of the medias by tag, built on the first lookup of a tag and updated on each addition
+  private final Map<TagW, Set<Object>> mediaValueIndex = new HashMap<>(4);
   protected final Comparator<E> mediaOrder;
   protected SeriesImporter seriesLoader;
   private long fileSize;
@@ -90,56 +100,162 @@ private static DataFlavor createConstant(String mt, String prn) {
     }
   }
 
-  protected void resetSortedMediasMap() {
-    if (!sortedMedias.isEmpty()) {
-      sortedMedias.clear();
-    }
+  private record FilteredMedias<E>(long version, List<E> list) {}
+
+  protected synchronized void resetSortedMediasMap() {
+    sortedMedias.clear();
+    filteredMedias.clear();
   }
 
   @Override
   public List<E> getSortedMedias(Comparator<E> comparator) {
     // Do not sort when it is the default order.
     if (comparator != null && !comparator.equals(mediaOrder)) {
-      return sortedMedias.computeIfAbsent(
-          comparator,
-          k -> {
-            List<E> sorted = new ArrayList<>(medias);
-            sorted.sort(comparator);
-            return sorted;
-          });
+      synchronized (this) {
+        return sortedMedias.computeIfAbsent(
+            comparator,
+            k -> {
+              List<E> sorted = new ArrayList<>(medias);
+              sorted.sort(comparator);
+              return sorted;
+            });
+      }
     }
     return medias;
   }
 
+  /**
+   * Returns the medias accepted by the filter in the order of the comparator. The list is kept
+   * until the version of the filter changes and is updated when medias are added.
+   *
+   * @return the filtered medias, or null when the filter has no version
+   */
+  private List<E> getFilteredMedias(Filter<E> filter, Comparator<E> sort) {
+    long version = filter.getVersion();
+    if (version < 0) {
+      return null;
+    }
+    Comparator<E> key = sort == null || sort.equals(mediaOrder) ? null : sort;
+    synchronized (this) {
+      Map<Comparator<E>, FilteredMedias<E>> views =
+          filteredMedias.computeIfAbsent(filter, f -> new HashMap<>(4));
+      FilteredMedias<E> view = views.get(key);
+      if (view == null || view.version() != version) {
+        view =
+            new FilteredMedias<>(version, Filter.makeList(filter.filter(getSortedMedias(key))));
+        views.put(key, view);
+      }
+      return view.list();
+    }
+  }
+
   @Override
   public void add(E media) {
-    medias.add(media);
-    resetSortedMediasMap();
+    synchronized (this) {
+      medias.add(media);
+      indexMedia(media);
+      insertInViews(media);
+    }
   }
 
   @Override
   public void add(int index, E media) {
-    medias.add(index, media);
-    resetSortedMediasMap();
+    synchronized (this) {
+      medias.add(index, media);
+      indexMedia(media);
+      insertInViews(media);
+    }
   }
 
   @Override
   public void addAll(Collection<? extends E> c) {
-    medias.addAll(c);
-    resetSortedMediasMap();
+    synchronized (this) {
+      medias.addAll(c);
+      c.forEach(this::indexMedia);
+      insertAllInViews(c);
+    }
   }
 
   @Override
   public void addAll(int index, Collection<? extends E> c) {
-    medias.addAll(index, c);
-    resetSortedMediasMap();
+    synchronized (this) {
+      medias.addAll(index, c);
+      c.forEach(this::indexMedia);
+      insertAllInViews(c);
+    }
+  }
+
+  private static <E> void insertSorted(List<E> list, E media, Comparator<E> comparator) {
+    int index = Collections.binarySearch(list, media, comparator);
+    if (index < 0) {
+      index = -(index + 1);
+    } else {
+      // Keep the insertion order for the equal elements like a stable sort
+      while (index < list.size() && comparator.compare(list.get(index), media) == 0) {
+        index++;
+      }
+    }
+    list.add(index, media);
+  }
+
+  private void insertInViews(E media) {
+    if (media == null) {
+      return;
+    }
+    sortedMedias.forEach((comparator, list) -> insertSorted(list, media, comparator));
+    for (Entry<Filter<E>, Map<Comparator<E>, FilteredMedias<E>>> entry :
+        filteredMedias.entrySet()) {
+      Filter<E> filter = entry.getKey();
+      Iterator<Entry<Comparator<E>, FilteredMedias<E>>> iter =
+          entry.getValue().entrySet().iterator();
+      while (iter.hasNext()) {
+        Entry<Comparator<E>, FilteredMedias<E>> view = iter.next();
+        Comparator<E> comparator = view.getKey() == null ? mediaOrder : view.getKey();
+        if (comparator == null) {
+          // The position in the default order is unknown
+          iter.remove();
+        } else if (filter.passes(media)) {
+          insertSorted(view.getValue().list(), media, comparator);
+        }
+      }
+    }
+  }
+
+  private void insertAllInViews(Collection<? extends E> c) {
+    if (c.size() == 1) {
+      insertInViews(c.iterator().next());
+      return;
+    }
+    // Sorting a list made of two sorted parts is almost linear
+    sortedMedias.forEach(
+        (comparator, list) -> {
+          list.addAll(c);
+          list.sort(comparator);
+        });
+    filteredMedias.clear();
+  }
+
+  private void indexMedia(E media) {
+    if (media != null) {
+      for (Entry<TagW, Set<Object>> entry : mediaValueIndex.entrySet()) {
+        Object val = media.getTagValue(entry.getKey());
+        if (val != null) {
+          entry.getValue().add(val);
+        }
+      }
+    }
+  }
+
+  /** Returns the list giving a direct access by index, or null when the filter must be iterated. */
+  private List<E> getIndexedMedias(Filter<E> filter, Comparator<E> sort) {
+    return filter == null ? getSortedMedias(sort) : getFilteredMedias(filter, sort);
   }
 
   @Override
   public final E getMedia(MEDIA_POSITION position, Filter<E> filter, Comparator<E> sort) {
-    List<E> sortedList = getSortedMedias(sort);
+    List<E> sortedList = getIndexedMedias(filter, sort);
     synchronized (this) {
-      if (filter == null) {
+      if (sortedList != null) {
         int size = sortedList.size();
         if (size == 0) {
           return null;
@@ -156,7 +272,7 @@ public final E getMedia(MEDIA_POSITION position, Filter<E> filter, Comparator<E>
         }
         return sortedList.get(pos);
       } else {
-        Iterable<E> iter = filter.filter(sortedList);
+        Iterable<E> iter = filter.filter(getSortedMedias(sort));
         Iterator<E> list = iter.iterator();
         if (list.hasNext()) {
           E val = list.next();
@@ -177,6 +293,7 @@ public final E getMedia(MEDIA_POSITION position, Filter<E> filter, Comparator<E>
             if (k == pos) {
               return elem;
             }
+            k++;
           }
           return val;
         } else {
@@ -211,23 +328,29 @@ public final Iterable<E> getMedias(Filter<E> filter, Comparator<E> sort) {
 
   @Override
   public final List<E> copyOfMedias(Filter<E> filter, Comparator<E> sort) {
-    List<E> sortedList = getSortedMedias(sort);
-    return filter == null
-        ? new ArrayList<>(sortedList)
-        : Filter.makeList(filter.filter(sortedList));
+    List<E> filteredList = filter == null ? null : getFilteredMedias(filter, sort);
+    synchronized (this) {
+      if (filteredList != null) {
+        return new ArrayList<>(filteredList);
+      }
+      List<E> sortedList = getSortedMedias(sort);
+      return filter == null
+          ? new ArrayList<>(sortedList)
+          : Filter.makeList(filter.filter(sortedList));
+    }
   }
 
   @Override
   public final E getMedia(int index, Filter<E> filter, Comparator<E> sort) {
-    List<E> sortedList = getSortedMedias(sort);
+    List<E> sortedList = getIndexedMedias(filter, sort);
     synchronized (this) {
-      if (filter == null) {
+      if (sortedList != null) {
         if (index >= 0 && index < sortedList.size()) {
           return sortedList.get(index);
         }
       } else {
         if (index >= 0) {
-          Iterable<E> iter = filter.filter(sortedList);
+          Iterable<E> iter = filter.filter(getSortedMedias(sort));
           int k = 0;
           for (E elem : iter) {
             if (k == index) {
@@ -247,13 +370,17 @@ public void dispose() {
     medias.forEach(
         m -> {
           if (m instanceof ImageElement imageElement) {
+            ImageElement.IMAGE_LOADER.cancel(imageElement);
             // Removing from cache will close the image stream
             imageElement.removeImageFromCache();
           }
           m.dispose();
         });
 
-    medias.clear();
+    synchronized (this) {
+      medias.clear();
+      mediaValueIndex.clear();
+    }
     resetSortedMediasMap();
 
     Optional.ofNullable((Thumbnail) getTagValue(TagW.Thumbnail)).ifPresent(Thumbnail::dispose);
@@ -320,7 +447,11 @@ public void firePropertyChange(final ObservableEvent event) {
 
   @Override
   public int size(Filter<E> filter) {
+    List<E> filteredList = filter == null ? null : getFilteredMedias(filter, null);
     synchronized (this) {
+      if (filteredList != null) {
+        return filteredList.size();
+      }
       return filter == null ? medias.size() : Filter.size(filter.filter(medias));
     }
   }
@@ -415,14 +546,22 @@ public void setFocused(boolean focused) {
   }
 
   public boolean hasMediaContains(TagW tag, Object val) {
-    if (val != null) {
+    if (val != null && tag != null) {
       synchronized (this) {
-        for (E media : medias) {
-          Object val2 = media.getTagValue(tag);
-          if (val.equals(val2)) {
-            return true;
-          }
-        }
+        Set<Object> values =
+            mediaValueIndex.computeIfAbsent(
+                tag,
+                t -> {
+                  Set<Object> set = new HashSet<>();
+                  for (E media : medias) {
+                    Object v = media.getTagValue(t);
+                    if (v != null) {
+                      set.add(v);
+                    }
+                  }
+                  return set;
+                });
+        return values.contains(val);
       }
     }
     return false;
@@ -325,7 +325,7 @@ private void loadThumbnail(
         }
       } else {
         Load ref = new Load(file);
-        // loading images sequentially, only one thread pool
+        // Shared decoding pool, the thumbnails have the background priority
         Future<PlanarImage> future = ImageElement.IMAGE_LOADER.submit(ref);
         PlanarImage thumb = null;
         try {
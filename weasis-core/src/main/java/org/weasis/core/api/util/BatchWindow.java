@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Groups the items received one by one, typically the files received by a DICOM transfer, and
+ * passes them by batch to an action. A batch is processed when it reaches the maximum size or when
+ * its first item has waited for the maximum delay.
+ *
+ * <p>The action is called while holding the lock of this object, so the batches are processed in
+ * order. It must be fast, for instance by submitting the batch to an executor.
+ *
+ * @param <T> the type of the items
+ */
+public final class BatchWindow<T> implements AutoCloseable {
+
+  private final int maxSize;
+  private final long maxDelay;
+  private final Consumer<List<T>> action;
+  private List<T> items;
+  private long generation;
+  private boolean closed;
+
+  /**
+   * @param maxSize the maximum number of items of a batch
+   * @param maxDelay the maximum time in milliseconds an item waits before being processed
+   * @param action the action processing a batch
+   */
+  public BatchWindow(int maxSize, long maxDelay, Consumer<List<T>> action) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("The size of a batch must be at least 1");
+    }
+    this.maxSize = maxSize;
+    this.maxDelay = maxDelay;
+    this.action = Objects.requireNonNull(action);
+    this.items = new ArrayList<>();
+  }
+
+  /**
+   * Adds an item to the current batch. When the window is closed, the item is processed
+   * immediately.
+   *
+   * @param item the item to add
+   */
+  public synchronized void add(T item) {
+    items.add(item);
+    if (closed || items.size() >= maxSize) {
+      processBatch();
+    } else if (items.size() == 1) {
+      long batch = generation;
+      CompletableFuture.runAsync(
+          () -> flush(batch), CompletableFuture.delayedExecutor(maxDelay, TimeUnit.MILLISECONDS));
+    }
+  }
+
+  /** Processes the items of the current batch without waiting. */
+  public synchronized void flush() {
+    if (!items.isEmpty()) {
+      processBatch();
+    }
+  }
+
+  /**
+   * @return the number of items waiting in the current batch
+   */
+  public synchronized int getPendingSize() {
+    return items.size();
+  }
+
+  /** Processes the remaining items, the next items are processed one by one. */
+  @Override
+  public synchronized void close() {
+    flush();
+    closed = true;
+  }
+
+  private synchronized void flush(long batch) {
+    if (generation == batch && !items.isEmpty()) {
+      processBatch();
+    }
+  }
+
+  private void processBatch() {
+    List<T> batch = items;
+    items = new ArrayList<>();
+    generation++;
+    action.accept(batch);
+  }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executor shared by all the downloads of the application.
+ *
+ * <p>The number of concurrent downloads is adjusted with an AIMD algorithm (additive increase,
+ * multiplicative decrease): the concurrency increases slowly while there are pending downloads and
+ * the latency of the server remains stable, and it decreases quickly when the latency increases or
+ * when the server reports an overload. The tasks of the different groups (e.g. series) are executed
+ * alternately.
+ *
+ * <p>The throughput is measured for each group and for all the downloads.
+ */
+public class DownloadEngine {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DownloadEngine.class);
+
+  static final double BACKOFF_RATIO = 0.7;
+  static final double LATENCY_TOLERANCE = 2.0;
+  // Latency variations below this value are not considered as an overload
+  private static final long MIN_LATENCY_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(20);
+  // Number of samples before re-evaluating the minimum latency
+  private static final int LATENCY_WINDOW = 500;
+
+  private final ThreadPoolExecutor executor;
+  private final int maxConcurrency;
+  private final AtomicLong sequence = new AtomicLong();
+  private final Map<Object, Meter> meters = new ConcurrentHashMap<>();
+  private final Meter total = new Meter();
+
+  // Guarded by this
+  private double limit;
+  private int inFlight;
+  private long minLatency = Long.MAX_VALUE;
+  private double smoothedLatency;
+  private int latencySamples;
+  private long lastDecrease;
+
+  /**
+   * @param name the name prefix of the threads
+   * @param initialConcurrency the number of concurrent downloads at the beginning
+   * @param maxConcurrency the maximum number of concurrent downloads
+   */
+  public DownloadEngine(String name, int initialConcurrency, int maxConcurrency) {
+    this.maxConcurrency = Math.max(1, maxConcurrency);
+    this.limit = Math.min(Math.max(initialConcurrency, 1), this.maxConcurrency);
+    int size = (int) limit;
+    this.executor =
+        new ThreadPoolExecutor(
+            size,
+            size,
+            60L,
+            TimeUnit.SECONDS,
+            new PriorityBlockingQueue<>(
+                64,
+                Comparator.comparingInt((Runnable r) -> ((RankedTask<?>) r).rank)
+                    .thenComparingLong(r -> ((RankedTask<?>) r).sequence)),
+            ThreadUtil.getThreadFactory(name));
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  public synchronized int getConcurrency() {
+    return (int) limit;
+  }
+
+  /**
+   * Executes the tasks and waits until all of them are completed. When the current thread is
+   * interrupted, the tasks not completed are cancelled.
+   *
+   * @param group the group of the tasks (e.g. a series), used for alternating the groups and for
+   *     measuring the throughput
+   * @param tasks the tasks to execute
+   * @return the list of futures in the same order as the tasks
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public <T> List<Future<T>> invokeAll(Object group, Collection<? extends Callable<T>> tasks)
+      throws InterruptedException {
+    Objects.requireNonNull(group);
+    Meter meter = meters.computeIfAbsent(group, k -> new Meter());
+    List<Future<T>> futures = new ArrayList<>(tasks.size());
+    for (Callable<T> task : tasks) {
+      RankedTask<T> f =
+          new RankedTask<>(task, meter.submitted.getAndIncrement(), sequence.getAndIncrement());
+      futures.add(f);
+      executor.execute(f);
+    }
+    try {
+      for (Future<T> f : futures) {
+        try {
+          f.get();
+        } catch (CancellationException | ExecutionException ignore) {
+          // Handled by the caller
+        }
+      }
+    } catch (InterruptedException e) {
+      futures.forEach(f -> f.cancel(true));
+      throw e;
+    }
+    return futures;
+  }
+
+  /**
+   * Starts measuring a download. One of the methods {@link Transfer#completed(long)} or {@link
+   * Transfer#failed(boolean)} must be called at the end of the download.
+   *
+   * @param group the group of the download (e.g. a series)
+   * @return the measurement of the download
+   */
+  public Transfer startTransfer(Object group) {
+    synchronized (this) {
+      if (inFlight == 0) {
+        // Measure the global throughput from the end of the idle period
+        total.reset();
+      }
+      inFlight++;
+    }
+    return new Transfer(group);
+  }
+
+  /**
+   * @return the throughput of all the downloads in bytes per second
+   */
+  public double getThroughput() {
+    return total.getRate();
+  }
+
+  /**
+   * @param group the group of downloads
+   * @return the throughput of the group in bytes per second
+   */
+  public double getThroughput(Object group) {
+    Meter meter = group == null ? null : meters.get(group);
+    return meter == null ? 0.0 : meter.getRate();
+  }
+
+  /**
+   * Remove the statistics of a group which has no more downloads.
+   *
+   * @param group the group of downloads
+   */
+  public void removeGroup(Object group) {
+    if (group != null) {
+      meters.remove(group);
+    }
+  }
+
+  private synchronized void endTransfer(
+      Transfer transfer, long bytes, boolean success, boolean overload) {
+    inFlight--;
+    long now = System.nanoTime();
+    if (success) {
+      total.add(transfer.start, now, bytes);
+      if (transfer.group != null) {
+        meters.computeIfAbsent(transfer.group, k -> new Meter()).add(transfer.start, now, bytes);
+      }
+      if (transfer.latency > 0) {
+        updateLatency(transfer.latency);
+      }
+      if (smoothedLatency > Math.max(LATENCY_TOLERANCE * minLatency, MIN_LATENCY_THRESHOLD)) {
+        decrease(now);
+      } else if (!executor.getQueue().isEmpty()) {
+        // Increase by one for a whole round of concurrent downloads
+        limit = Math.min(maxConcurrency, limit + 1.0 / limit);
+      }
+    } else if (overload) {
+      decrease(now);
+    }
+    applyLimit();
+  }
+
+  private void updateLatency(long latency) {
+    latencySamples++;
+    if (latencySamples > LATENCY_WINDOW) {
+      // Allow the reference latency to follow the changes of the network
+      latencySamples = 1;
+      minLatency = (long) smoothedLatency;
+    }
+    minLatency = Math.min(minLatency, latency);
+    smoothedLatency = smoothedLatency == 0 ? latency : smoothedLatency * 0.9 + latency * 0.1;
+  }
+
+  private void decrease(long now) {
+    // Only one decrease for the downloads started before the previous one
+    if (now - lastDecrease > smoothedLatency) {
+      limit = Math.max(1.0, limit * BACKOFF_RATIO);
+      lastDecrease = now;
+      LOGGER.debug("Reduce the number of concurrent downloads to {}", (int) limit);
+    }
+  }
+
+  private void applyLimit() {
+    int size = (int) limit;
+    int current = executor.getCorePoolSize();
+    if (size > current) {
+      executor.setMaximumPoolSize(size);
+      executor.setCorePoolSize(size);
+    } else if (size < current) {
+      executor.setCorePoolSize(size);
+      executor.setMaximumPoolSize(size);
+    }
+  }
+
+  public final class Transfer {
+    private final Object group;
+    private final long start;
+    private volatile long latency;
+    private final AtomicInteger state = new AtomicInteger();
+
+    private Transfer(Object group) {
+      this.group = group;
+      this.start = System.nanoTime();
+    }
+
+    /** Records the latency of the server, to call when the response headers are received. */
+    public void responseReceived() {
+      if (latency == 0) {
+        latency = Math.max(1L, System.nanoTime() - start);
+      }
+    }
+
+    /**
+     * @param bytes the number of bytes transferred
+     */
+    public void completed(long bytes) {
+      if (state.compareAndSet(0, 1)) {
+        endTransfer(this, Math.max(0L, bytes), true, false);
+      }
+    }
+
+    /**
+     * Ends a download which has been interrupted or has failed. Does nothing when the transfer has
+     * already ended.
+     *
+     * @param overload true when the server is overloaded (e.g. HTTP 503 or a timeout)
+     */
+    public void failed(boolean overload) {
+      if (state.compareAndSet(0, 1)) {
+        endTransfer(this, 0L, false, overload);
+      }
+    }
+  }
+
+  private static final class RankedTask<T> extends FutureTask<T> {
+    private final int rank;
+    private final long sequence;
+
+    RankedTask(Callable<T> callable, int rank, long sequence) {
+      super(callable);
+      this.rank = rank;
+      this.sequence = sequence;
+    }
+  }
+
+  private static final class Meter {
+    private final AtomicInteger submitted = new AtomicInteger();
+    private long bytes;
+    private long firstStart;
+    private long lastEnd;
+
+    synchronized void add(long start, long end, long length) {
+      if (bytes == 0 && lastEnd == 0 || start < firstStart) {
+        firstStart = start;
+      }
+      lastEnd = Math.max(lastEnd, end);
+      bytes += length;
+    }
+
+    synchronized void reset() {
+      bytes = 0;
+      firstStart = 0;
+      lastEnd = 0;
+    }
+
+    synchronized double getRate() {
+      long elapsed = lastEnd - firstStart;
+      return elapsed <= 0 ? 0.0 : bytes * 1.0e9 / elapsed;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Loads the slices of a stack concurrently, typically for decoding the images of a series into a
+ * volume. Each worker takes the next index of the stack, so the number of images being decoded (and
+ * the number of files open at the same time) never exceeds the number of workers.
+ */
+public final class ParallelIngest {
+
+  /**
+   * Maximum number of images decoded at the same time. Some systems limit to 1024 the number of
+   * files open by a process.
+   */
+  public static final int MAX_OPEN_FILES = 256;
+
+  @FunctionalInterface
+  public interface SliceTask {
+
+    /**
+     * @param index the index of the slice in the stack
+     * @throws Exception when the slice cannot be loaded, stops loading the other slices
+     */
+    void load(int index) throws Exception;
+  }
+
+  @FunctionalInterface
+  public interface SliceLoader<T> {
+
+    /**
+     * @param index the index of the slice in the stack
+     * @return the loaded slice
+     * @throws Exception when the slice cannot be loaded
+     */
+    T load(int index) throws Exception;
+  }
+
+  private ParallelIngest() {}
+
+  /**
+   * @return the number of workers suitable for decoding images
+   */
+  public static int getDefaultParallelism() {
+    return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), MAX_OPEN_FILES));
+  }
+
+  /**
+   * Loads the slices from the index {@code from} (inclusive) to {@code to} (exclusive) and waits
+   * until all of them are loaded. The slices are taken in the order of the stack.
+   *
+   * @param name the name prefix of the threads
+   * @param from the first index
+   * @param to the last index (exclusive)
+   * @param parallelism the maximum number of slices loaded at the same time
+   * @param task the loading of one slice, called concurrently from different threads
+   * @param progress called from the worker thread each time a slice is loaded, can be null
+   * @throws InterruptedException if the current thread is interrupted while waiting, the loading of
+   *     the remaining slices is cancelled
+   * @throws ExecutionException if the loading of a slice has thrown an exception
+   */
+  public static void forEach(
+      String name, int from, int to, int parallelism, SliceTask task, IntConsumer progress)
+      throws InterruptedException, ExecutionException {
+    int count = to - from;
+    if (count <= 0) {
+      return;
+    }
+    AtomicInteger next = new AtomicInteger(from);
+    AtomicBoolean stopped = new AtomicBoolean();
+    Runnable worker =
+        () -> {
+          int index;
+          while (!stopped.get()
+              && !Thread.currentThread().isInterrupted()
+              && (index = next.getAndIncrement()) < to) {
+            try {
+              task.load(index);
+            } catch (RuntimeException e) {
+              stopped.set(true);
+              throw e;
+            } catch (Exception e) {
+              stopped.set(true);
+              throw new CompletionException(e);
+            }
+            if (progress != null) {
+              progress.accept(index);
+            }
+          }
+        };
+
+    int nbThreads = Math.max(1, Math.min(parallelism, count));
+    ExecutorService executor = ThreadUtil.buildNewFixedThreadExecutor(nbThreads, name);
+    try {
+      List<Future<?>> futures = new ArrayList<>(nbThreads);
+      for (int i = 0; i < nbThreads; i++) {
+        futures.add(executor.submit(worker));
+      }
+      for (Future<?> f : futures) {
+        try {
+          f.get();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof CompletionException ce) {
+            throw new ExecutionException(ce.getCause());
+          }
+          throw e;
+        }
+      }
+    } finally {
+      stopped.set(true);
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Loads the slices from the index {@code from} (inclusive) to {@code to} (exclusive) with a
+   * single pool of workers, and gives them in the order of the stack. At most {@code maxAhead}
+   * slices are loaded or waiting to be taken, which bounds the memory of the slices in advance.
+   *
+   * @param name the name prefix of the threads
+   * @param from the first index
+   * @param to the last index (exclusive)
+   * @param parallelism the maximum number of slices loaded at the same time
+   * @param maxAhead the maximum number of slices loaded in advance of the one taken
+   * @param loader the loading of one slice, called concurrently from different threads
+   * @return the slices to take in the order of the stack, must be closed for stopping the workers
+   */
+  public static <T> OrderedSlices<T> loadOrdered(
+      String name, int from, int to, int parallelism, int maxAhead, SliceLoader<T> loader) {
+    return new OrderedSlices<>(name, from, to, parallelism, maxAhead, loader);
+  }
+
+  /** The slices loaded concurrently and taken in the order of the stack by a single thread. */
+  public static final class OrderedSlices<T> implements AutoCloseable {
+    private final ExecutorService executor;
+    private final ArrayDeque<Future<T>> pending;
+    private final SliceLoader<T> loader;
+    private final int to;
+    private int next;
+
+    private OrderedSlices(
+        String name, int from, int to, int parallelism, int maxAhead, SliceLoader<T> loader) {
+      int count = Math.max(0, to - from);
+      int nbThreads = Math.max(1, Math.min(parallelism, count));
+      this.executor = ThreadUtil.buildNewFixedThreadExecutor(nbThreads, name);
+      this.pending = new ArrayDeque<>();
+      this.loader = loader;
+      this.to = to;
+      this.next = from;
+      int window = Math.max(nbThreads, maxAhead);
+      while (next < to && pending.size() < window) {
+        submitNext();
+      }
+    }
+
+    private void submitNext() {
+      int index = next++;
+      pending.add(executor.submit(() -> loader.load(index)));
+    }
+
+    /**
+     * @return true if there are slices to take
+     */
+    public boolean hasNext() {
+      return !pending.isEmpty();
+    }
+
+    /**
+     * Waits for the next slice of the stack and starts loading a new one.
+     *
+     * @return the next slice of the stack
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @throws ExecutionException if the loading of the slice has thrown an exception
+     */
+    public T take() throws InterruptedException, ExecutionException {
+      Future<T> future = pending.poll();
+      if (future == null) {
+        throw new NoSuchElementException();
+      }
+      if (next < to) {
+        submitNext();
+      }
+      return future.get();
+    }
+
+    /** Cancels the slices which have not been taken and stops the workers. */
+    @Override
+    public void close() {
+      pending.forEach(f -> f.cancel(true));
+      pending.clear();
+      executor.shutdownNow();
+    }
+  }
+}
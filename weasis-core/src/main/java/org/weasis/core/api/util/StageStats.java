@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.util;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of items, cumulated processing time and elapsed time of a stage of a pipeline. The items
+ * can be added concurrently from different threads.
+ */
+public final class StageStats {
+  private final String name;
+  private final long startTime = System.nanoTime();
+  private final AtomicInteger count = new AtomicInteger();
+  private final AtomicLong busyTime = new AtomicLong();
+  private volatile long elapsedTime = -1;
+
+  public StageStats(String name) {
+    this.name = name;
+  }
+
+  /**
+   * @param start the value of {@link System#nanoTime()} when the processing of the item started
+   */
+  public void add(long start) {
+    busyTime.addAndGet(System.nanoTime() - start);
+    count.incrementAndGet();
+  }
+
+  /** Stops the elapsed time of the stage */
+  public void stop() {
+    elapsedTime = System.nanoTime() - startTime;
+  }
+
+  public int getCount() {
+    return count.get();
+  }
+
+  /**
+   * @return the elapsed time in milliseconds since the creation of the stage until it is stopped
+   */
+  public long getElapsedTime() {
+    long time = elapsedTime;
+    return TimeUnit.NANOSECONDS.toMillis(time < 0 ? System.nanoTime() - startTime : time);
+  }
+
+  /**
+   * @return the number of items per second
+   */
+  public double getThroughput() {
+    long elapsedMs = getElapsedTime();
+    return elapsedMs == 0 ? 0.0 : count.get() * 1000.0 / elapsedMs;
+  }
+
+  /**
+   * @return the average processing time of an item in milliseconds
+   */
+  public double getLatency() {
+    int nb = count.get();
+    return nb == 0 ? 0.0 : busyTime.get() / (nb * 1_000_000.0);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        Locale.ENGLISH,
+        "%s: %d items in %d ms (%.1f items/s, %.2f ms per item)", // NON-NLS
+        name,
+        getCount(),
+        getElapsedTime(),
+        getThroughput(),
+        getLatency());
+  }
+}
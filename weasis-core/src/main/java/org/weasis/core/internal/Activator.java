@@ -36,6 +36,8 @@
 import org.weasis.core.api.gui.util.GuiExecutor;
 import org.weasis.core.api.gui.util.GuiUtils;
 import org.weasis.core.api.media.data.Codec;
+import org.weasis.core.api.media.data.ImageElement;
+import org.weasis.core.api.media.data.ImageLoader;
 import org.weasis.core.api.media.data.MediaElement;
 import org.weasis.core.api.service.AuditLog;
 import org.weasis.core.api.service.BundlePreferences;
@@ -68,6 +70,8 @@ public void start(BundleContext bundleContext) throws Exception {
     bundleContext.addServiceListener(this, BundleTools.createServiceFilter(Codec.class));
 
     initLoggerAndAudit(properties);
+    ImageElement.IMAGE_LOADER.setPoolSize(
+        properties.getIntProperty(ImageLoader.P_LOADER_THREADS, 0));
 
     // FIXME do not use system property
     File file = ResourceUtil.getResource("presets.xml");
@@ -148,6 +148,8 @@ public enum ZoomType {
   protected int tileOffset;
 
   protected final ImageViewerEventManager<E> eventManager;
+  protected final SlicePrefetcher<E> prefetcher;
+  private E pinnedImage;
 
   protected DefaultView2d(ImageViewerEventManager<E> eventManager) {
     this(eventManager, null);
@@ -160,6 +162,7 @@ protected DefaultView2d(ImageViewerEventManager<E> eventManager, ViewModel viewM
     this.tileOffset = 0;
 
     this.imageLayer = new RenderedImageLayer<>();
+    this.prefetcher = new SlicePrefetcher<>();
     actionsInView.put(ActionW.LENS.cmd(), false);
     initActionWState();
     this.graphicMouseHandler = new GraphicMouseHandler<>(this);
@@ -508,6 +511,7 @@ protected void setImage(E img) {
                         actionsInView.get(ActionW.SPATIAL_UNIT.cmd())));
       }
 
+      updateImageCache(null);
       // Force the update for null image
       imageLayer.setEnableDispOperations(true);
       imageLayer.setImage(null, null);
@@ -532,6 +536,7 @@ protected void setImage(E img) {
                           actionsInView.get(ActionW.SPATIAL_UNIT.cmd())));
         }
         actionsInView.put(ActionW.PREPROCESSING.cmd(), null);
+        prefetcher.countDisplayedImage(img);
 
         updateCanvas(img, false);
 
@@ -579,6 +584,40 @@ protected void setImage(E img) {
         lens.updateImage();
         lens.updateZoom();
       }
+      if (updateGraphics) {
+        updateImageCache(img);
+      }
+    }
+  }
+
+  /**
+   * Keep the displayed image in the cache and request the preloading of the images around it
+   * according to the scrolling direction and velocity.
+   *
+   * @param img the displayed image
+   */
+  protected void updateImageCache(E img) {
+    if (pinnedImage != img) {
+      if (pinnedImage != null) {
+        pinnedImage.unpinImage();
+      }
+      if (img != null) {
+        img.pinImage();
+      }
+      pinnedImage = img;
+    }
+    if (img == null) {
+      prefetcher.stop();
+    } else {
+      // The image layer has just decoded the displayed image, read it from the cache without
+      // decoding it again when it has already been evicted (the last size of the series is used)
+      PlanarImage image = img.getImageInCache();
+      prefetcher.update(
+          series,
+          getFrameIndex(),
+          (Filter<E>) actionsInView.get(ActionW.FILTERED_SERIES.cmd()),
+          getCurrentSortComparator(),
+          image == null ? 0L : image.physicalBytes());
     }
   }
 
@@ -75,6 +75,11 @@ public ExportImage(ViewCanvas<E> view2d) {
     setImage(view2d.getImage());
   }
 
+  @Override
+  protected void updateImageCache(E img) {
+    // No pinning and preloading for exporting a single view
+  }
+
   public double getImagePrintingResolution() {
     return imagePrintingResolution;
   }
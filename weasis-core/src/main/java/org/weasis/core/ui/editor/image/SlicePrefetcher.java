@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.ui.editor.image;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.explorer.ObservableEvent;
+import org.weasis.core.api.explorer.model.DataExplorerModel;
+import org.weasis.core.api.gui.util.Filter;
+import org.weasis.core.api.gui.util.GuiUtils;
+import org.weasis.core.api.media.data.ImageElement;
+import org.weasis.core.api.media.data.ImageLoader;
+import org.weasis.core.api.media.data.ImageLoader.Priority;
+import org.weasis.core.api.media.data.MediaSeries;
+import org.weasis.core.api.media.data.SeriesEvent;
+import org.weasis.core.api.media.data.TagW;
+
+/**
+ * Preloads the images around the current position of a view. The scrolling velocity and direction
+ * are measured from the successive frame indexes (mouse wheel, slider, cine or synchronization)
+ * and the number of images to preload in the scrolling direction is adapted accordingly. The
+ * native memory used by the preloaded images of all the visible views is limited to a part of the
+ * image cache. A {@link SeriesEvent.Action#PRELOADING} event is fired each time a preloaded image
+ * is in the cache, for updating the preloading progress of the series.
+ *
+ * @param <E> the image type
+ */
+public class SlicePrefetcher<E extends ImageElement> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SlicePrefetcher.class);
+
+  /** Maximum number of images preloaded in the scrolling direction. 0 disables the preloading. */
+  public static final String P_MAX_SLICES = "weasis.prefetch.max.slices";
+
+  /** Duration (in seconds) of scrolling anticipated by the preloading */
+  private static final double LOOKAHEAD_TIME = 0.5;
+  /** Minimum number of images preloaded in the scrolling direction */
+  private static final int MIN_AHEAD = 2;
+  /** Number of images preloaded in the opposite direction */
+  private static final int BEHIND = 2;
+  /** Part of the image cache that can be used by the preloading of all the views */
+  private static final double CACHE_RATIO = 0.5;
+  /** Above this delay (in nanoseconds) between two images, the scrolling is considered stopped */
+  private static final long IDLE_DELAY = 1_000_000_000L;
+
+  private static final Set<SlicePrefetcher<?>> ACTIVE = ConcurrentHashMap.newKeySet();
+  private static final AtomicLong HIT = new AtomicLong();
+  private static final AtomicLong MISS = new AtomicLong();
+
+  private final int maxAhead;
+  private final List<E> requested = new ArrayList<>();
+  private MediaSeries<E> series;
+  private int lastIndex = -1;
+  private long lastTime;
+  private double velocity;
+  private int direction = 1;
+  private long imageBytes;
+
+  public SlicePrefetcher() {
+    this(GuiUtils.getUICore().getSystemPreferences().getIntProperty(P_MAX_SLICES, 32));
+  }
+
+  public SlicePrefetcher(int maxAhead) {
+    this.maxAhead = Math.max(0, maxAhead);
+  }
+
+  /**
+   * Count whether the image to display has been loaded in advance. Must be called before
+   * displaying the image.
+   *
+   * @param image the image to display
+   */
+  public void countDisplayedImage(E image) {
+    if (maxAhead > 0 && image != null && image.isReadable()) {
+      if (image.isImageInCache()) {
+        HIT.incrementAndGet();
+      } else {
+        MISS.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Update the scrolling state and request the images to preload.
+   *
+   * @param series the series of the view
+   * @param index the index of the displayed image
+   * @param filter the filter applied on the series
+   * @param sort the sort order of the series
+   * @param imageBytes the estimated size in bytes of one decoded image, or 0 when unknown then the
+   *     last size given for the series is used
+   */
+  public void update(
+      MediaSeries<E> series, int index, Filter<E> filter, Comparator<E> sort, long imageBytes) {
+    if (maxAhead == 0) {
+      return;
+    }
+    if (series == null || index < 0) {
+      stop();
+      return;
+    }
+
+    long now = System.nanoTime();
+    if (series != this.series) {
+      this.series = series;
+      this.imageBytes = 0L;
+      velocity = 0.0;
+      direction = 1;
+    } else if (index != lastIndex) {
+      long elapsed = now - lastTime;
+      int step = index - lastIndex;
+      if (elapsed < IDLE_DELAY) {
+        double speed = Math.abs(step) * 1.0e9 / Math.max(elapsed, 1L);
+        // Exponential smoothing of the velocity (images per second)
+        velocity = velocity == 0.0 ? speed : 0.5 * velocity + 0.5 * speed;
+      } else {
+        velocity = 0.0;
+      }
+      direction = step > 0 ? 1 : -1;
+    }
+    lastIndex = index;
+    lastTime = now;
+    if (imageBytes > 0) {
+      this.imageBytes = imageBytes;
+    }
+    ACTIVE.add(this);
+
+    int ahead = Math.max(MIN_AHEAD, (int) Math.ceil(velocity * LOOKAHEAD_TIME));
+    ahead = Math.min(Math.min(ahead, maxAhead), getMaxImagesInBudget(this.imageBytes));
+    int behind = Math.min(BEHIND, ahead);
+
+    List<E> window = new ArrayList<>(ahead + behind);
+    for (int i = 1; i <= ahead; i++) {
+      addImage(window, series, index + i * direction, filter, sort, Priority.PREFETCH);
+    }
+    for (int i = 1; i <= behind; i++) {
+      addImage(window, series, index - i * direction, filter, sort, Priority.BACKGROUND);
+    }
+    cancelOutside(window);
+  }
+
+  private void addImage(
+      List<E> window,
+      MediaSeries<E> series,
+      int index,
+      Filter<E> filter,
+      Comparator<E> sort,
+      Priority priority) {
+    if (index >= 0) {
+      E img = series.getMedia(index, filter, sort);
+      if (img != null) {
+        window.add(img);
+        if (requested.contains(img)) {
+          // Already notified when loaded, only update the priority
+          img.preloadImage(priority);
+        } else {
+          img.preloadImage(priority, () -> firePreloading(series, img));
+        }
+      }
+    }
+  }
+
+  private static void firePreloading(MediaSeries<?> series, ImageElement img) {
+    if (series.getTagValue(TagW.ExplorerModel) instanceof DataExplorerModel model) {
+      model.firePropertyChange(
+          new ObservableEvent(
+              ObservableEvent.BasicAction.ADD,
+              model,
+              null,
+              new SeriesEvent(SeriesEvent.Action.PRELOADING, series, img)));
+    }
+  }
+
+  private void cancelOutside(List<E> window) {
+    ImageLoader loader = ImageElement.IMAGE_LOADER;
+    for (E img : requested) {
+      if (!window.contains(img)) {
+        loader.cancel(img);
+      }
+    }
+    requested.clear();
+    requested.addAll(window);
+  }
+
+  private static int getMaxImagesInBudget(long imageBytes) {
+    if (imageBytes <= 0) {
+      return MIN_AHEAD;
+    }
+    long budget =
+        (long) (ImageElement.getCacheMaxMemory() * CACHE_RATIO) / Math.max(1, ACTIVE.size());
+    return (int) Math.max(1L, Math.min(Integer.MAX_VALUE, budget / imageBytes));
+  }
+
+  /** Cancel the pending requests and remove this prefetcher from the memory budget. */
+  public void stop() {
+    if (series != null) {
+      LOGGER.debug("Preloading hits: {}, misses: {}", HIT.get(), MISS.get()); // NON-NLS
+    }
+    cancelOutside(List.of());
+    ACTIVE.remove(this);
+    series = null;
+    lastIndex = -1;
+    velocity = 0.0;
+  }
+
+  public double getVelocity() {
+    return velocity;
+  }
+
+  public int getDirection() {
+    return direction;
+  }
+
+  public static long getHitCount() {
+    return HIT.get();
+  }
+
+  public static long getMissCount() {
+    return MISS.get();
+  }
+
+  /**
+   * @return the ratio of displayed images that were already in the cache, or NaN if no image has
+   *     been displayed
+   */
+  public static double getHitRatio() {
+    long hit = HIT.get();
+    long total = hit + MISS.get();
+    return total == 0 ? Double.NaN : (double) hit / total;
+  }
+
+  public static void resetCounters() {
+    HIT.set(0);
+    MISS.set(0);
+  }
+}
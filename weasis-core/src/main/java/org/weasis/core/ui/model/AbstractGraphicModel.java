@@ -28,17 +28,20 @@
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.swing.JOptionPane;
 import org.weasis.core.Messages;
+import org.weasis.core.api.gui.Image2DViewer;
 import org.weasis.core.api.gui.util.ActionW;
 import org.weasis.core.api.image.util.MeasurableLayer;
 import org.weasis.core.api.media.data.ImageElement;
 import org.weasis.core.ui.editor.image.Canvas;
 import org.weasis.core.ui.editor.image.MeasureToolBar;
 import org.weasis.core.ui.editor.image.ViewCanvas;
+import org.weasis.core.ui.model.GraphicSpatialIndex.GraphicList;
 import org.weasis.core.ui.model.graphic.DragGraphic;
 import org.weasis.core.ui.model.graphic.Graphic;
 import org.weasis.core.ui.model.graphic.GraphicLabel;
@@ -86,6 +89,11 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
   private final Predicate<Graphic> isLayerVisible = g -> g.getLayer().getVisible();
   private final Predicate<Graphic> isGraphicSelected = Graphic::getSelected;
 
+  // Guarded by the lock of models
+  private final GraphicSpatialIndex spatialIndex = new GraphicSpatialIndex();
+  // The list wrapped by models, which counts its modifications for the spatial index
+  private GraphicList graphicList;
+
   protected AbstractGraphicModel() {
     this(null);
   }
@@ -93,7 +101,8 @@ protected AbstractGraphicModel() {
   protected AbstractGraphicModel(List<ReferencedSeries> referencedSeries) {
     setReferencedSeries(referencedSeries);
     this.layers = Collections.synchronizedList(new ArrayList<>());
-    this.models = Collections.synchronizedList(new ArrayList<>());
+    this.graphicList = new GraphicList();
+    this.models = Collections.synchronizedList(graphicList);
   }
 
   @XmlElementWrapper(name = "graphics")
@@ -148,7 +157,8 @@ public void setReferencedSeries(List<ReferencedSeries> referencedSeries) {
   @Override
   public void setModels(List<Graphic> models) {
     if (models != null) {
-      this.models = Collections.synchronizedList(models);
+      this.graphicList = new GraphicList(models);
+      this.models = Collections.synchronizedList(graphicList);
       this.layers = Collections.synchronizedList(getLayerList());
     }
   }
@@ -343,10 +353,11 @@ public List<Graphic> getSelectedAllGraphicsIntersecting(
     ArrayList<Graphic> selectedGraphicList = new ArrayList<>();
     if (rectangle != null) {
       synchronized (models) {
+        Set<Graphic> candidates = getCandidates(rectangle, transform);
         for (int i = models.size() - 1; i >= 0; i--) {
           Graphic graphic = models.get(i);
           GraphicLayer layer = graphic.getLayer();
-          if (layer.getVisible() && layer.getSelectable()) {
+          if (candidates.contains(graphic) && layer.getVisible() && layer.getSelectable()) {
 
             Rectangle graphBounds = graphic.getBounds(transform);
 
@@ -382,10 +393,11 @@ public List<Graphic> getSelectedAllGraphicsIntersecting(
     ArrayList<Graphic> selectedGraphicList = new ArrayList<>();
     if (rectangle != null) {
       synchronized (models) {
+        Set<Graphic> candidates = getCandidates(rectangle, transform);
         for (int i = models.size() - 1; i >= 0; i--) {
           Graphic graphic = models.get(i);
           GraphicLayer layer = graphic.getLayer();
-          if (layer.getVisible() && layer.getSelectable()) {
+          if (candidates.contains(graphic) && layer.getVisible() && layer.getSelectable()) {
 
             List<Area> selectedAreaList = new ArrayList<>();
 
@@ -436,12 +448,18 @@ public List<Graphic> getSelectedAllGraphicsIntersecting(
   @Override
   public Optional<Graphic> getFirstGraphicIntersecting(MouseEventDouble mouseEvent) {
     final Point2D mousePt = mouseEvent.getImageCoordinates();
+    AffineTransform transform =
+        mouseEvent.getSource() instanceof Image2DViewer<?> viewer
+            ? viewer.getAffineTransform()
+            : null;
     Graphic firstSelectedGraph = null;
     synchronized (models) {
+      Set<Graphic> candidates =
+          getCandidates(new Rectangle2D.Double(mousePt.getX(), mousePt.getY(), 0, 0), transform);
       for (int i = models.size() - 1; i >= 0; i--) {
         Graphic g = models.get(i);
         GraphicLayer l = g.getLayer();
-        if (l.getVisible() && l.getSelectable()) {
+        if (candidates.contains(g) && l.getVisible() && l.getSelectable()) {
           if (g.isOnGraphicLabel(mouseEvent)) {
             if (g.getSelected()) {
               return Optional.of(g);
@@ -579,7 +597,10 @@ public void deleteSelectedGraphics(Canvas canvas, Boolean warningMessage) {
 
   @Override
   public void clear() {
-    models.clear();
+    synchronized (models) {
+      models.clear();
+      spatialIndex.clear();
+    }
   }
 
   @Override
@@ -599,11 +620,36 @@ public void draw(
         inverseTransform.createTransformedShape(viewClip == null ? g2d.getClipBounds() : viewClip);
     Rectangle2D bound = area == null ? null : area.getBounds2D();
 
+    final Set<Graphic> candidates;
+    if (bound == null) {
+      candidates = null;
+    } else {
+      synchronized (models) {
+        candidates = getCandidates(bound, transform);
+      }
+    }
+
     g2d.translate(0.5, 0.5);
-    models.forEach(g -> applyPaint(g, g2d, transform, bound));
+    models.forEach(
+        g -> {
+          if (candidates == null || candidates.contains(g)) {
+            applyPaint(g, g2d, transform, bound);
+          }
+        });
     g2d.translate(-0.5, -0.5);
   }
 
+  /**
+   * @param area the area in image coordinates
+   * @param transform the transform of the view
+   * @return the graphics which may intersect the area according to the spatial index. Must be
+   *     called with the lock of models.
+   */
+  private Set<Graphic> getCandidates(Rectangle2D area, AffineTransform transform) {
+    spatialIndex.update(graphicList);
+    return spatialIndex.getCandidates(area, transform);
+  }
+
   private static void applyPaint(
       Graphic graphic, Graphics2D g2d, AffineTransform transform, Rectangle2D bounds) {
     if (graphic.getLayer().getVisible()) {
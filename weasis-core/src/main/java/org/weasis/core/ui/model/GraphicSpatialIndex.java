@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.ui.model;
+
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.weasis.core.api.gui.util.GeomUtil;
+import org.weasis.core.ui.model.graphic.Graphic;
+import org.weasis.core.ui.model.graphic.GraphicLabel;
+import org.weasis.core.ui.model.utils.bean.AdvancedShape;
+
+/**
+ * Uniform grids of the graphic bounds and of the label anchors in image coordinates, for finding
+ * the graphics near a point or an area without computing the geometry of all the graphics.
+ *
+ * <p>The index is synchronized with the list of graphics before each query. The whole list is
+ * compared only when it has been modified, otherwise only the graphics which have notified a
+ * change of their shape or of their label are indexed again. A label has a fixed size in the view,
+ * so its anchor is indexed and the query area is enlarged by the size of the largest label at the
+ * scale of the view. The graphics with decorations of fixed size in the view or which cover too
+ * many cells are always returned as candidates.
+ *
+ * <p>This class is not thread-safe, the calls must be synchronized on the list of graphics.
+ */
+final class GraphicSpatialIndex {
+
+  static final double CELL_SIZE = 64.0;
+  private static final int MAX_CELLS_BY_GRAPHIC = 1024;
+
+  /** List of the graphics which counts its modifications, including the replacements. */
+  static final class GraphicList extends ArrayList<Graphic> {
+
+    GraphicList() {
+      super();
+    }
+
+    GraphicList(Collection<? extends Graphic> graphics) {
+      super(graphics);
+    }
+
+    int getModCount() {
+      return modCount;
+    }
+
+    @Override
+    public Graphic set(int index, Graphic element) {
+      modCount++;
+      return super.set(index, element);
+    }
+  }
+
+  private static final class Entry {
+    private Shape shape;
+    private Float lineThickness;
+    private boolean unindexed;
+    private boolean shapeIndexed;
+    private int minX;
+    private int minY;
+    private int maxX;
+    private int maxY;
+    private Rectangle2D labelBounds;
+    private Double labelOffsetX;
+    private Double labelOffsetY;
+    private boolean labelIndexed;
+    private int labelX;
+    private int labelY;
+    private double labelSize;
+    private long stamp;
+  }
+
+  private final Map<Graphic, Entry> entries = new IdentityHashMap<>();
+  private final Map<Long, List<Graphic>> cells = new HashMap<>();
+  private final Map<Long, List<Graphic>> labelCells = new HashMap<>();
+  private final Set<Graphic> unindexed = Collections.newSetFromMap(new IdentityHashMap<>());
+  // Written by the listener of the graphics, which can be called without the lock of the list
+  private final Set<Graphic> changed =
+      Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+  private final PropertyChangeListener changeListener =
+      evt -> {
+        if (evt.getSource() instanceof Graphic graphic) {
+          graphicChanged(graphic);
+        }
+      };
+  private GraphicList graphicList;
+  private int graphicListModCount;
+  private float maxLineThickness;
+  private double maxLabelSize;
+  private boolean maxSizeExpired;
+  private long stamp;
+
+  /**
+   * Adds the new graphics, indexes again the modified graphics and removes the graphics which are
+   * not in the list anymore.
+   *
+   * @param graphics the graphics of the model
+   */
+  void update(GraphicList graphics) {
+    List<Graphic> modified;
+    synchronized (changed) {
+      modified = changed.isEmpty() ? List.of() : new ArrayList<>(changed);
+      changed.clear();
+    }
+
+    if (graphics != graphicList || graphics.getModCount() != graphicListModCount) {
+      graphicList = graphics;
+      graphicListModCount = graphics.getModCount();
+      synchronize(graphics);
+    } else {
+      for (Graphic graphic : modified) {
+        Entry entry = entries.get(graphic);
+        if (entry != null && isModified(graphic, entry)) {
+          remove(graphic, entry);
+          insert(graphic, entry);
+        }
+      }
+    }
+
+    if (maxSizeExpired) {
+      maxSizeExpired = false;
+      maxLineThickness = 0;
+      maxLabelSize = 0;
+      for (Entry entry : entries.values()) {
+        updateMaxSize(entry);
+      }
+    }
+  }
+
+  /**
+   * Notifies that the shape or the label of a graphic has changed, it is indexed again at the next
+   * update.
+   *
+   * @param graphic the modified graphic
+   */
+  void graphicChanged(Graphic graphic) {
+    changed.add(graphic);
+  }
+
+  private void synchronize(List<Graphic> graphics) {
+    stamp++;
+    int size = 0;
+    for (Graphic graphic : graphics) {
+      Entry entry = entries.get(graphic);
+      if (entry == null) {
+        entry = new Entry();
+        entries.put(graphic, entry);
+        graphic.addPropertyChangeListener(changeListener);
+        insert(graphic, entry);
+      } else if (isModified(graphic, entry)) {
+        remove(graphic, entry);
+        insert(graphic, entry);
+      }
+      if (entry.stamp != stamp) {
+        entry.stamp = stamp;
+        size++;
+      }
+    }
+
+    if (size != entries.size()) {
+      Iterator<Map.Entry<Graphic, Entry>> it = entries.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<Graphic, Entry> e = it.next();
+        if (e.getValue().stamp != stamp) {
+          remove(e.getKey(), e.getValue());
+          e.getKey().removePropertyChangeListener(changeListener);
+          it.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * @param area the area in image coordinates
+   * @param transform the transform of the view, the margin of the handles, the line thickness and
+   *     the labels depends on its scaling factor
+   * @return the graphics which may intersect the area, including all the graphics which are not
+   *     indexed
+   */
+  Set<Graphic> getCandidates(Rectangle2D area, AffineTransform transform) {
+    Set<Graphic> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+    candidates.addAll(unindexed);
+    if (area == null) {
+      return candidates;
+    }
+
+    double scale = GeomUtil.extractScalingFactor(transform);
+    // Same tolerance as the repaint bounds and the handle selection, with some more pixels
+    double margin = (Graphic.HANDLE_SIZE * 1.5 + maxLineThickness / 2.0 + 2) / scale;
+    addCandidates(cells, area, margin, candidates);
+    if (transform == null) {
+      // Without transform, the label is not located from its anchor
+      labelCells.values().forEach(candidates::addAll);
+    } else {
+      // The label can be on any side of its anchor according to the rotation and the flip
+      addCandidates(labelCells, area, (maxLabelSize + 2) / scale, candidates);
+    }
+    return candidates;
+  }
+
+  private static void addCandidates(
+      Map<Long, List<Graphic>> cells, Rectangle2D area, double margin, Set<Graphic> candidates) {
+    if (cells.isEmpty()) {
+      return;
+    }
+    int minX = getCell(area.getMinX() - margin);
+    int minY = getCell(area.getMinY() - margin);
+    int maxX = getCell(area.getMaxX() + margin);
+    int maxY = getCell(area.getMaxY() + margin);
+
+    if (((long) maxX - minX + 1) * ((long) maxY - minY + 1) > cells.size()) {
+      for (Map.Entry<Long, List<Graphic>> cell : cells.entrySet()) {
+        long key = cell.getKey();
+        int x = (int) (key >> 32);
+        int y = (int) key;
+        if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+          candidates.addAll(cell.getValue());
+        }
+      }
+    } else {
+      for (int x = minX; x <= maxX; x++) {
+        for (int y = minY; y <= maxY; y++) {
+          List<Graphic> list = cells.get(getKey(x, y));
+          if (list != null) {
+            candidates.addAll(list);
+          }
+        }
+      }
+    }
+  }
+
+  void clear() {
+    entries.keySet().forEach(g -> g.removePropertyChangeListener(changeListener));
+    entries.clear();
+    cells.clear();
+    labelCells.clear();
+    unindexed.clear();
+    changed.clear();
+    graphicList = null;
+    maxLineThickness = 0;
+    maxLabelSize = 0;
+    maxSizeExpired = false;
+  }
+
+  private static boolean isModified(Graphic graphic, Entry entry) {
+    GraphicLabel graphicLabel = getLabel(graphic);
+    return entry.shape != graphic.getShape()
+        || !Objects.equals(entry.lineThickness, graphic.getLineThickness())
+        || entry.labelBounds != (graphicLabel == null ? null : graphicLabel.getLabelBounds())
+        || graphicLabel != null
+            && (!Objects.equals(entry.labelOffsetX, graphicLabel.getOffsetX())
+                || !Objects.equals(entry.labelOffsetY, graphicLabel.getOffsetY()));
+  }
+
+  private static GraphicLabel getLabel(Graphic graphic) {
+    GraphicLabel graphicLabel = graphic.getGraphicLabel();
+    return graphicLabel == null || graphicLabel.getLabels() == null ? null : graphicLabel;
+  }
+
+  private void updateMaxSize(Entry entry) {
+    if (entry.lineThickness != null) {
+      maxLineThickness = Math.max(maxLineThickness, entry.lineThickness);
+    }
+    if (entry.labelIndexed) {
+      maxLabelSize = Math.max(maxLabelSize, entry.labelSize);
+    }
+  }
+
+  private void insert(Graphic graphic, Entry entry) {
+    Shape shape = graphic.getShape();
+    entry.shape = shape;
+    entry.lineThickness = graphic.getLineThickness();
+    entry.unindexed = false;
+    entry.shapeIndexed = false;
+    insertLabel(graphic, entry);
+    updateMaxSize(entry);
+
+    // The decorations of an advanced shape have a fixed size in the view
+    Rectangle2D bounds =
+        shape == null || shape instanceof AdvancedShape ? null : shape.getBounds2D();
+    if (bounds != null) {
+      entry.minX = getCell(bounds.getMinX());
+      entry.minY = getCell(bounds.getMinY());
+      entry.maxX = getCell(bounds.getMaxX());
+      entry.maxY = getCell(bounds.getMaxY());
+      long nbCells = ((long) entry.maxX - entry.minX + 1) * ((long) entry.maxY - entry.minY + 1);
+      if (nbCells <= MAX_CELLS_BY_GRAPHIC) {
+        for (int x = entry.minX; x <= entry.maxX; x++) {
+          for (int y = entry.minY; y <= entry.maxY; y++) {
+            cells.computeIfAbsent(getKey(x, y), _ -> new ArrayList<>(4)).add(graphic);
+          }
+        }
+        entry.shapeIndexed = true;
+        return;
+      }
+    }
+    // A graphic without shape is not painted, but it is kept in the candidates as before
+    entry.unindexed = true;
+    unindexed.add(graphic);
+  }
+
+  private void insertLabel(Graphic graphic, Entry entry) {
+    GraphicLabel graphicLabel = getLabel(graphic);
+    Rectangle2D labelBounds = graphicLabel == null ? null : graphicLabel.getLabelBounds();
+    entry.labelBounds = labelBounds;
+    entry.labelIndexed = false;
+    if (labelBounds != null) {
+      entry.labelOffsetX = graphicLabel.getOffsetX();
+      entry.labelOffsetY = graphicLabel.getOffsetY();
+      double offsetX = entry.labelOffsetX == null ? 0 : entry.labelOffsetX;
+      double offsetY = entry.labelOffsetY == null ? 0 : entry.labelOffsetY;
+      // The label is painted from its anchor with the size of the bounds in the view
+      entry.labelX = getCell(labelBounds.getX() + offsetX);
+      entry.labelY = getCell(labelBounds.getY() + offsetY);
+      entry.labelSize = Math.hypot(labelBounds.getWidth(), labelBounds.getHeight());
+      entry.labelIndexed = true;
+      labelCells.computeIfAbsent(getKey(entry.labelX, entry.labelY), _ -> new ArrayList<>(4))
+          .add(graphic);
+    } else {
+      entry.labelOffsetX = null;
+      entry.labelOffsetY = null;
+    }
+  }
+
+  private void remove(Graphic graphic, Entry entry) {
+    if (entry.lineThickness != null && entry.lineThickness >= maxLineThickness
+        || entry.labelIndexed && entry.labelSize >= maxLabelSize) {
+      // The maximum sizes are computed again at the end of the update
+      maxSizeExpired = true;
+    }
+    if (entry.labelIndexed) {
+      removeFromCell(labelCells, getKey(entry.labelX, entry.labelY), graphic);
+      entry.labelIndexed = false;
+    }
+    if (entry.unindexed) {
+      unindexed.remove(graphic);
+    } else if (entry.shapeIndexed) {
+      for (int x = entry.minX; x <= entry.maxX; x++) {
+        for (int y = entry.minY; y <= entry.maxY; y++) {
+          removeFromCell(cells, getKey(x, y), graphic);
+        }
+      }
+    }
+  }
+
+  private static void removeFromCell(Map<Long, List<Graphic>> cells, Long key, Graphic graphic) {
+    List<Graphic> list = cells.get(key);
+    if (list != null) {
+      list.removeIf(g -> g == graphic);
+      if (list.isEmpty()) {
+        cells.remove(key);
+      }
+    }
+  }
+
+  private static int getCell(double value) {
+    return (int) Math.floor(value / CELL_SIZE);
+  }
+
+  private static long getKey(int x, int y) {
+    return ((long) x << 32) | (y & 0xFFFFFFFFL);
+  }
+}
@@ -15,6 +15,7 @@
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -60,6 +61,9 @@
   private OpManager preprocessing;
   private E sourceImage;
   private PlanarImage displayImage;
+  // Java image converted from displayImage, reused while the display operations are unchanged
+  private BufferedImage displaySurface;
+  private PlanarImage displaySurfaceSource;
   private Boolean visible = true;
   private boolean enableDispOperations = true;
   private Point offset;
@@ -234,7 +238,7 @@ public void drawImage(Graphics2D g2d) {
         g2d.setRenderingHint(
             RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
       }
-      g2d.drawImage(ImageConversion.toBufferedImage(displayImage), 0, 0, null);
+      g2d.drawImage(getDisplaySurface(), 0, 0, null);
     } catch (Exception e) {
       LOGGER.error("Cannot draw the image", e);
       if ("java.io.IOException: closed".equals(e.getMessage())) { // NON-NLS
@@ -244,6 +248,7 @@ public void drawImage(Graphics2D g2d) {
         if (sourceImage.isImageInCache()) {
           sourceImage.removeImageFromCache();
         }
+        releaseDisplaySurface();
         disOpManager.setFirstNode(getSourceRenderedImage());
         updateDisplayOperations();
       }
@@ -387,17 +392,38 @@ public void drawImageForPrinter(Graphics2D g2d, double viewScale, Canvas canvas)
       g2d.setRenderingHint(
           RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
     }
-    g2d.drawImage(
-        ImageConversion.toBufferedImage(displayImage),
-        AffineTransform.getScaleInstance(rx, ry),
-        null);
+    g2d.drawImage(getDisplaySurface(), AffineTransform.getScaleInstance(rx, ry), null);
 
     g2d.setClip(clip);
   }
 
+  /**
+   * Returns the Java image of the display image. The conversion from the native image is only done
+   * when the display operations produce a new image, and not at each repaint (e.g. when drawing a
+   * graphic over the image).
+   *
+   * @return the image to draw
+   */
+  private BufferedImage getDisplaySurface() {
+    PlanarImage img = displayImage;
+    if (displaySurface == null || displaySurfaceSource != img) {
+      // Release the previous image before allocating the new one
+      releaseDisplaySurface();
+      displaySurface = ImageConversion.toBufferedImage(img);
+      displaySurfaceSource = img;
+    }
+    return displaySurface;
+  }
+
+  private void releaseDisplaySurface() {
+    displaySurface = null;
+    displaySurfaceSource = null;
+  }
+
   public void dispose() {
     sourceImage = null;
     displayImage = null;
+    releaseDisplaySurface();
     listenerList.clear();
     opListeners.clear();
   }
@@ -417,6 +443,7 @@ public void removeLayerChangeListener(ImageLayerChangeListener<E> listener) {
 
   public void fireImageChanged() {
     if (displayImage == null) {
+      releaseDisplaySurface();
       PlanarImage imgSource = disOpManager.getFirstNodeInputImage();
       disOpManager.clearNodeIOCache();
       disOpManager.setFirstNode(imgSource);
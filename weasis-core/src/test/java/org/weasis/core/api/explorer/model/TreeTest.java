@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.explorer.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TreeTest {
+
+  @Test
+  void testSuccessors() {
+    Tree<String> tree = new Tree<>("root"); // NON-NLS
+    tree.addLeaf("root", "a"); // NON-NLS
+    tree.addLeaf("root", "b"); // NON-NLS
+    tree.addLeaf("a", "a1"); // NON-NLS
+
+    Collection<String> children = tree.getSuccessors("root"); // NON-NLS
+    assertEquals(List.of("a", "b"), children); // NON-NLS
+    assertEquals(List.of("a1"), tree.getSuccessors("a")); // NON-NLS
+    assertEquals("a", tree.getTree("a1").getParent().getHead()); // NON-NLS
+    assertTrue(tree.getSuccessors("unknown").isEmpty()); // NON-NLS
+    assertTrue(tree.getSuccessors(null).isEmpty());
+    assertThrows(UnsupportedOperationException.class, () -> children.remove("a")); // NON-NLS
+
+    tree.getTree("root").removeLeaf("a"); // NON-NLS
+    assertEquals(List.of("b"), tree.getSuccessors("root")); // NON-NLS
+    assertNull(tree.getTree("a")); // NON-NLS
+    // The previous list is not modified
+    assertEquals(List.of("a", "b"), children); // NON-NLS
+
+    tree.clear();
+    assertTrue(tree.getSuccessors("root").isEmpty()); // NON-NLS
+    assertNotNull(tree.getTree("root")); // NON-NLS
+  }
+}
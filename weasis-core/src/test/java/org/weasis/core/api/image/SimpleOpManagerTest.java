@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.image;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.weasis.core.api.image.SimpleOpManager.NodeTiming;
+import org.weasis.opencv.data.PlanarImage;
+
+class SimpleOpManagerTest {
+  private static final String P_VALUE = "value"; // NON-NLS
+
+  private SimpleOpManager manager;
+  private CountingOp op1;
+  private CountingOp op2;
+  private PlanarImage source;
+
+  static class CountingOp extends AbstractOp {
+    int count;
+
+    CountingOp(String name) {
+      setName(name);
+    }
+
+    @Override
+    public CountingOp copy() {
+      return new CountingOp(getName());
+    }
+
+    @Override
+    public void process() {
+      count++;
+      params.put(Param.OUTPUT_IMG, mock(PlanarImage.class));
+    }
+  }
+
+  /** Node whose output depends on a state which is not in its parameters */
+  static class LoadingOp extends CountingOp {
+    boolean loaded;
+
+    LoadingOp(String name) {
+      super(name);
+    }
+
+    @Override
+    public void process() {
+      super.process();
+      loaded = true;
+    }
+
+    @Override
+    public boolean isCacheable() {
+      return loaded;
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    source = mock(PlanarImage.class);
+    when(source.width()).thenReturn(10);
+    op1 = new CountingOp("op1"); // NON-NLS
+    op2 = new CountingOp("op2"); // NON-NLS
+    manager = new SimpleOpManager();
+    manager.addImageOperationAction(op1);
+    manager.addImageOperationAction(op2);
+    manager.setFirstNode(source);
+  }
+
+  @Test
+  void testOnlyModifiedNodesAreProcessed() {
+    PlanarImage result = manager.process();
+    assertNotNull(result);
+    assertEquals(1, op1.count);
+    assertEquals(1, op2.count);
+
+    assertSame(result, manager.process());
+    assertEquals(1, op1.count);
+    assertEquals(1, op2.count);
+    List<NodeTiming> timings = manager.getLastTimings();
+    assertEquals(2, timings.size());
+    assertTrue(timings.get(0).reused());
+    assertTrue(timings.get(1).reused());
+
+    manager.setParamValue("op2", P_VALUE, 1.0); // NON-NLS
+    manager.process();
+    assertEquals(1, op1.count);
+    assertEquals(2, op2.count);
+    assertFalse(manager.getLastTimings().get(1).reused());
+
+    // Same value: nothing to process
+    manager.setParamValue("op2", P_VALUE, 1.0); // NON-NLS
+    manager.process();
+    assertEquals(2, op2.count);
+
+    // Modifying the first node processes the next ones
+    manager.setParamValue("op1", P_VALUE, 2.0); // NON-NLS
+    manager.process();
+    assertEquals(2, op1.count);
+    assertEquals(3, op2.count);
+  }
+
+  @Test
+  void testInputAndCacheChanges() {
+    manager.process();
+    op1.setEnabled(false);
+    assertSame(source, op1.getParam(ImageOpNode.Param.INPUT_IMG));
+    manager.process();
+    assertEquals(1, op1.count);
+    assertEquals(2, op2.count);
+    assertSame(source, op2.getParam(ImageOpNode.Param.INPUT_IMG));
+
+    PlanarImage source2 = mock(PlanarImage.class);
+    when(source2.width()).thenReturn(10);
+    op1.setEnabled(true);
+    manager.setFirstNode(source2);
+    manager.process();
+    assertEquals(2, op1.count);
+    assertEquals(3, op2.count);
+
+    manager.clearNodeIOCache();
+    manager.setFirstNode(source2);
+    manager.process();
+    assertEquals(3, op1.count);
+    assertEquals(4, op2.count);
+  }
+
+  @Test
+  void testModifiedParameterValue() {
+    double[] values = {1.0, 2.0};
+    manager.setParamValue("op2", P_VALUE, values); // NON-NLS
+    manager.process();
+    assertEquals(1, op2.count);
+
+    // The same instance set again after being modified
+    values[0] = 3.0;
+    manager.setParamValue("op2", P_VALUE, values); // NON-NLS
+    manager.process();
+    assertEquals(1, op1.count);
+    assertEquals(2, op2.count);
+
+    // The arrays are not compared by content
+    manager.setParamValue("op2", P_VALUE, values.clone()); // NON-NLS
+    manager.process();
+    assertEquals(3, op2.count);
+
+    // Removing a parameter, then a missing one
+    op2.removeParam(P_VALUE);
+    manager.process();
+    assertEquals(4, op2.count);
+    op2.removeParam(P_VALUE);
+    manager.process();
+    assertEquals(4, op2.count);
+  }
+
+  @Test
+  void testNodeDependingOnExternalState() {
+    // Like the window/level which depends on the min and max computed when loading the image
+    LoadingOp op = new LoadingOp("op0"); // NON-NLS
+    manager.addImageOperationAction(op, SimpleOpManager.Position.BEFORE, op1);
+    manager.setFirstNode(source);
+
+    manager.process();
+    assertEquals(1, op.count);
+    assertEquals(1, op2.count);
+
+    // The output of the first execution was built before the state was available
+    manager.process();
+    assertEquals(2, op.count);
+    assertEquals(2, op2.count);
+
+    manager.process();
+    assertEquals(2, op.count);
+    assertEquals(2, op2.count);
+    assertTrue(manager.getLastTimings().getFirst().reused());
+
+    // The external state is reset without modifying the parameters
+    op.loaded = false;
+    manager.process();
+    assertEquals(3, op.count);
+    assertEquals(3, op2.count);
+  }
+}
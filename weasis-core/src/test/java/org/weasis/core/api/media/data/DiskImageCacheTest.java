@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.media.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedConstruction;
+import org.mockito.Mockito;
+import org.weasis.opencv.data.FileRawImage;
+import org.weasis.opencv.data.PlanarImage;
+
+class DiskImageCacheTest {
+  @TempDir Path dir;
+
+  private MockedConstruction<FileRawImage> rawImages;
+
+  @BeforeEach
+  void setUp() {
+    // Write a file of the size of the image instead of the raw image, no native library required
+    rawImages =
+        Mockito.mockConstruction(
+            FileRawImage.class,
+            (raw, context) -> {
+              File file = (File) context.arguments().getFirst();
+              doAnswer(
+                      inv -> {
+                        PlanarImage img = inv.getArgument(0);
+                        Files.write(file.toPath(), new byte[(int) img.physicalBytes()]);
+                        return null;
+                      })
+                  .when(raw)
+                  .write(any());
+              when(raw.read()).thenAnswer(inv -> mock(inv.getMethod().getReturnType()));
+            });
+  }
+
+  @AfterEach
+  void tearDown() {
+    rawImages.close();
+  }
+
+  private static PlanarImage image(long bytes) {
+    PlanarImage img = mock(PlanarImage.class);
+    when(img.physicalBytes()).thenReturn(bytes);
+    return img;
+  }
+
+  private Path getFile(String key) {
+    return dir.resolve(DiskImageCache.getFileName(key));
+  }
+
+  @Test
+  void testPutAndGet() {
+    DiskImageCache cache = new DiskImageCache(dir.toFile(), 1000);
+    cache.put("a", image(100)); // NON-NLS
+    assertNotNull(cache.get("a")); // NON-NLS
+    assertNull(cache.get("b")); // NON-NLS
+    assertEquals(1, cache.getEntryCount());
+    assertEquals(100, cache.getSize());
+    assertTrue(Files.isRegularFile(getFile("a"))); // NON-NLS
+
+    // Larger than the cache
+    cache.put("c", image(2000)); // NON-NLS
+    assertNull(cache.get("c")); // NON-NLS
+
+    cache.remove("a"); // NON-NLS
+    assertNull(cache.get("a")); // NON-NLS
+    assertFalse(Files.exists(getFile("a"))); // NON-NLS
+    assertEquals(0, cache.getSize());
+    cache.close();
+  }
+
+  @Test
+  void testEvictLeastRecentlyUsed() {
+    DiskImageCache cache = new DiskImageCache(dir.toFile(), 250);
+    cache.put("a", image(100)); // NON-NLS
+    cache.put("b", image(100)); // NON-NLS
+    assertNotNull(cache.get("a")); // NON-NLS
+    cache.put("c", image(100)); // NON-NLS
+
+    assertEquals(2, cache.getEntryCount());
+    assertEquals(200, cache.getSize());
+    assertNull(cache.get("b")); // NON-NLS
+    assertFalse(Files.exists(getFile("b"))); // NON-NLS
+    assertNotNull(cache.get("a")); // NON-NLS
+    assertNotNull(cache.get("c")); // NON-NLS
+
+    cache.setMaxSize(150);
+    assertEquals(1, cache.getEntryCount());
+    assertNull(cache.get("a")); // NON-NLS
+    cache.close();
+  }
+
+  @Test
+  void testReopenAfterTruncatedJournal() throws Exception {
+    DiskImageCache cache = new DiskImageCache(dir.toFile(), 1000);
+    cache.put("a", image(100)); // NON-NLS
+    cache.put("b", image(200)); // NON-NLS
+    cache.close();
+
+    // Simulate a crash while writing the last entry and a temporary file not renamed
+    Path journal = dir.resolve(DiskImageCache.JOURNAL);
+    String content = Files.readString(journal, StandardCharsets.UTF_8);
+    String lastEntry = "A " + DiskImageCache.getFileName("b") + " 200\n"; // NON-NLS
+    assertTrue(content.endsWith(lastEntry));
+    String truncated = content.substring(0, content.length() - lastEntry.length() + 10);
+    Files.writeString(journal, truncated, StandardCharsets.UTF_8);
+    Path tmp = Files.createFile(dir.resolve("img_1.tmp")); // NON-NLS
+
+    DiskImageCache reopened = new DiskImageCache(dir.toFile(), 1000);
+    assertNotNull(reopened.get("a")); // NON-NLS
+    assertNull(reopened.get("b")); // NON-NLS
+    assertEquals(1, reopened.getEntryCount());
+    assertEquals(100, reopened.getSize());
+    // The files without a valid entry are removed
+    assertFalse(Files.exists(getFile("b"))); // NON-NLS
+    assertFalse(Files.exists(tmp));
+
+    reopened.put("b", image(200)); // NON-NLS
+    reopened.close();
+    DiskImageCache reopened2 = new DiskImageCache(dir.toFile(), 1000);
+    assertNotNull(reopened2.get("b")); // NON-NLS
+    assertEquals(300, reopened2.getSize());
+    reopened2.close();
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.media.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.weasis.core.api.media.data.ImageLoader.Priority;
+import org.weasis.opencv.data.PlanarImage;
+
+class ImageLoaderTest {
+  private final List<ImageElement> decoded = new CopyOnWriteArrayList<>();
+  private ImageLoader loader;
+  private CountDownLatch latch;
+
+  @BeforeEach
+  void setUp() {
+    loader = new ImageLoader("Test Loader", 1); // NON-NLS
+    latch = new CountDownLatch(1);
+    // Block the unique thread to fill the queue
+    loader.submit(
+        () -> {
+          latch.await();
+          return null;
+        });
+  }
+
+  @AfterEach
+  void tearDown() {
+    latch.countDown();
+    loader.shutdownNow();
+  }
+
+  private ImageElement mockImage() throws Exception {
+    ImageElement img = mock(ImageElement.class);
+    when(img.readImage())
+        .thenAnswer(
+            invocation -> {
+              decoded.add(img);
+              return null;
+            });
+    return img;
+  }
+
+  @Test
+  void testPriorityOrder() throws Exception {
+    ImageElement img1 = mockImage();
+    ImageElement img2 = mockImage();
+    ImageElement img3 = mockImage();
+    loader.load(img1, Priority.BACKGROUND);
+    loader.load(img2, Priority.PREFETCH);
+    Future<PlanarImage> last = loader.load(img3, Priority.DISPLAY);
+    Future<PlanarImage> first = loader.load(img1, Priority.BACKGROUND);
+
+    latch.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    assertTrue(last.isDone());
+    assertEquals(List.of(img3, img2, img1), decoded);
+  }
+
+  @Test
+  void testSameRequestAndPromotion() throws Exception {
+    ImageElement img1 = mockImage();
+    ImageElement img2 = mockImage();
+    Future<PlanarImage> f1 = loader.load(img1, Priority.BACKGROUND);
+    loader.load(img2, Priority.PREFETCH);
+    assertSame(f1, loader.load(img1, Priority.DISPLAY));
+    assertTrue(loader.isPending(img1));
+
+    latch.countDown();
+    loader.shutdown();
+    assertTrue(loader.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(List.of(img1, img2), decoded);
+    assertFalse(loader.isPending(img1));
+  }
+
+  @Test
+  void testCancel() throws Exception {
+    ImageElement img1 = mockImage();
+    ImageElement img2 = mockImage();
+    ImageElement img3 = mockImage();
+    Future<PlanarImage> f1 = loader.load(img1, Priority.PREFETCH);
+    Future<PlanarImage> f2 = loader.load(img2, Priority.DISPLAY);
+    loader.load(img3, Priority.BACKGROUND);
+
+    assertTrue(loader.cancel(img1));
+    assertTrue(f1.isCancelled());
+    assertFalse(loader.cancel(img2));
+    assertEquals(1, loader.cancelIf(img -> img != img2));
+
+    latch.countDown();
+    f2.get(5, TimeUnit.SECONDS);
+    assertEquals(List.of(img2), decoded);
+  }
+
+  @Test
+  void testLoadedAction() throws Exception {
+    List<ImageElement> loaded = new CopyOnWriteArrayList<>();
+    ImageElement img1 = mockImage();
+    ImageElement img2 = mockImage();
+    Future<PlanarImage> f1 = loader.load(img1, Priority.PREFETCH, () -> loaded.add(img1));
+    loader.load(img2, Priority.PREFETCH, () -> loaded.add(img2));
+    loader.cancel(img2);
+
+    latch.countDown();
+    f1.get(5, TimeUnit.SECONDS);
+    loader.shutdown();
+    assertTrue(loader.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(List.of(img1), loaded);
+  }
+}
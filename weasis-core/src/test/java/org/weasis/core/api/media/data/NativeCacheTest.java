@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.media.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.weasis.opencv.data.PlanarImage;
+
+class NativeCacheTest {
+  private final List<String> removed = new ArrayList<>();
+  private NativeCache<String, PlanarImage> cache;
+
+  @BeforeEach
+  void setUp() {
+    cache =
+        new NativeCache<>(100) {
+          @Override
+          protected void afterEntryRemove(String key, PlanarImage val) {
+            removed.add(key);
+          }
+        };
+  }
+
+  private static PlanarImage image(long bytes) {
+    PlanarImage img = mock(PlanarImage.class);
+    when(img.physicalBytes()).thenReturn(bytes);
+    return img;
+  }
+
+  @Test
+  void testEvictLeastRecentlyUsed() throws InterruptedException {
+    cache.put("a", image(40)); // NON-NLS
+    cache.put("b", image(40)); // NON-NLS
+    Thread.sleep(20);
+    assertNotNull(cache.get("a")); // NON-NLS
+    cache.put("c", image(40)); // NON-NLS
+    assertEquals(120, cache.getUsedNativeMemory());
+    assertFalse(cache.isMemoryAvailable());
+
+    cache.put("d", image(10)); // NON-NLS
+    assertEquals(List.of("b"), removed); // NON-NLS
+    assertTrue(cache.containsKey("a")); // NON-NLS
+    assertEquals(90, cache.getUsedNativeMemory());
+    assertEquals(1, cache.getStatistics().evictionCount());
+    assertEquals(40, cache.getStatistics().evictedBytes());
+  }
+
+  @Test
+  void testPinnedEntriesAreNotEvicted() throws InterruptedException {
+    cache.pin("a"); // NON-NLS
+    cache.put("a", image(60)); // NON-NLS
+    Thread.sleep(20);
+    cache.put("b", image(50)); // NON-NLS
+    cache.put("c", image(10)); // NON-NLS
+    assertEquals(List.of("b"), removed); // NON-NLS
+    assertTrue(cache.isPinned("a")); // NON-NLS
+
+    cache.unpin("a"); // NON-NLS
+    assertFalse(cache.isPinned("a")); // NON-NLS
+  }
+
+  @Test
+  void testStatistics() {
+    cache.put("a", image(10)); // NON-NLS
+    assertNotNull(cache.get("a")); // NON-NLS
+    assertNull(cache.get("b")); // NON-NLS
+    // The internal lookups are not counted
+    assertNotNull(cache.peek("a")); // NON-NLS
+    assertNull(cache.peek("b")); // NON-NLS
+    assertTrue(cache.containsKey("a")); // NON-NLS
+    NativeCache.Statistics stats = cache.getStatistics();
+    assertEquals(1, stats.hitCount());
+    assertEquals(1, stats.missCount());
+    assertEquals(0.5, stats.hitRatio());
+    assertEquals(10, stats.residentBytes());
+    assertEquals(1, stats.size());
+
+    assertNotNull(cache.remove("a")); // NON-NLS
+    assertEquals(0, cache.getStatistics().residentBytes());
+  }
+}
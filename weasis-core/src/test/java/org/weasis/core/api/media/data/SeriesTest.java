@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.media.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.weasis.core.api.gui.util.Filter;
+import org.weasis.core.api.media.data.MediaSeries.MEDIA_POSITION;
+
+class SeriesTest {
+
+  private static final Comparator<MediaElement> BY_NAME = Comparator.comparing(SeriesTest::getName);
+
+  private static MediaElement buildMedia(String name) {
+    MediaElement media = Mockito.mock(MediaElement.class);
+    Mockito.when(media.getTagValue(TagW.FileName)).thenReturn(name);
+    return media;
+  }
+
+  private static Series<MediaElement> buildSeries() {
+    return new Series<>(TagW.SubseriesInstanceUID, "1.2.3", null) { // NON-NLS
+      @Override
+      public String getMimeType() {
+        return null;
+      }
+
+      @Override
+      public void addMedia(MediaElement media) {
+        add(media);
+      }
+
+      @Override
+      public MediaElement getFirstSpecialElement() {
+        return null;
+      }
+    };
+  }
+
+  private static String getName(MediaElement media) {
+    return (String) media.getTagValue(TagW.FileName);
+  }
+
+  private static List<String> getNames(Iterable<MediaElement> medias) {
+    List<String> names = new ArrayList<>();
+    medias.forEach(m -> names.add(getName(m)));
+    return names;
+  }
+
+  @Test
+  void testSortedViewUpdatedOnAdd() {
+    Series<MediaElement> series = buildSeries();
+    series.add(buildMedia("c")); // NON-NLS
+    series.add(buildMedia("a")); // NON-NLS
+    assertEquals(List.of("a", "c"), getNames(series.getMedias(null, BY_NAME))); // NON-NLS
+
+    List<MediaElement> sorted = series.getSortedMedias(BY_NAME);
+    series.add(buildMedia("b")); // NON-NLS
+    series.add(0, buildMedia("d")); // NON-NLS
+    series.addAll(List.of(buildMedia("0"), buildMedia("e"))); // NON-NLS
+    // The same view is updated instead of being sorted again
+    assertSame(sorted, series.getSortedMedias(BY_NAME));
+    assertEquals(List.of("0", "a", "b", "c", "d", "e"), getNames(sorted)); // NON-NLS
+    assertEquals(List.of("d", "c", "a", "b", "0", "e"), getNames(series.getMedias(null, null)));
+    assertTrue(series.hasMediaContains(TagW.FileName, "e")); // NON-NLS
+    assertFalse(series.hasMediaContains(TagW.FileName, "f")); // NON-NLS
+  }
+
+  @Test
+  void testFilteredView() {
+    Series<MediaElement> series = buildSeries();
+    for (String name : List.of("b", "e", "a", "d", "c")) { // NON-NLS
+      series.add(buildMedia(name));
+    }
+    List<String> accepted = new ArrayList<>(List.of("a", "c", "e")); // NON-NLS
+    long[] version = {0};
+    Filter<MediaElement> filter =
+        new Filter<>() {
+          @Override
+          public boolean passes(MediaElement item) {
+            return accepted.contains(getName(item));
+          }
+
+          @Override
+          public long getVersion() {
+            return version[0];
+          }
+        };
+
+    assertEquals(3, series.size(filter));
+    assertEquals("c", getName(series.getMedia(1, filter, BY_NAME))); // NON-NLS
+    assertEquals("c", getName(series.getMedia(MEDIA_POSITION.MIDDLE, filter, BY_NAME))); // NON-NLS
+    assertEquals("e", getName(series.getMedia(MEDIA_POSITION.LAST, filter, BY_NAME))); // NON-NLS
+    assertNull(series.getMedia(3, filter, BY_NAME));
+
+    accepted.add("f"); // NON-NLS
+    series.add(buildMedia("f")); // NON-NLS
+    series.add(buildMedia("0")); // NON-NLS
+    assertEquals(List.of("a", "c", "e", "f"), getNames(series.copyOfMedias(filter, BY_NAME)));
+
+    // A new version of the filter rebuilds the view
+    accepted.remove("a"); // NON-NLS
+    version[0]++;
+    assertEquals(List.of("c", "e", "f"), getNames(series.copyOfMedias(filter, BY_NAME))); // NON-NLS
+    assertEquals(3, series.size(filter));
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class BatchWindowTest {
+
+  @Test
+  void testBatchBySize() {
+    BlockingQueue<List<Integer>> batches = new LinkedBlockingQueue<>();
+    BatchWindow<Integer> window = new BatchWindow<>(3, 60_000, batches::add);
+    for (int i = 0; i < 7; i++) {
+      window.add(i);
+    }
+    assertEquals(List.of(List.of(0, 1, 2), List.of(3, 4, 5)), List.copyOf(batches));
+    assertEquals(1, window.getPendingSize());
+
+    batches.clear();
+    window.close();
+    assertEquals(List.of(List.of(6)), List.copyOf(batches));
+    // Once closed, the items are not grouped anymore
+    window.add(7);
+    assertEquals(List.of(List.of(6), List.of(7)), List.copyOf(batches));
+  }
+
+  @Test
+  void testBatchByDelay() throws InterruptedException {
+    BlockingQueue<List<Integer>> batches = new LinkedBlockingQueue<>();
+    BatchWindow<Integer> window = new BatchWindow<>(100, 20, batches::add);
+    window.add(1);
+    window.add(2);
+    assertEquals(List.of(1, 2), batches.poll(5, TimeUnit.SECONDS));
+    assertEquals(0, window.getPendingSize());
+
+    window.add(3);
+    window.flush();
+    assertEquals(List.of(3), batches.poll());
+    // The delayed flush of the previous batch does not process the next one too early
+    window.add(4);
+    assertEquals(List.of(4), batches.poll(5, TimeUnit.SECONDS));
+    assertTrue(batches.isEmpty());
+  }
+}
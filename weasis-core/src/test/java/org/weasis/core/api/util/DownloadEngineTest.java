@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.weasis.core.api.util.DownloadEngine.Transfer;
+
+class DownloadEngineTest {
+
+  @Test
+  void testInvokeAll() throws InterruptedException, ExecutionException {
+    DownloadEngine engine = new DownloadEngine("Test", 2, 4); // NON-NLS
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      int val = i;
+      tasks.add(() -> val * 2);
+    }
+    List<Future<Integer>> futures = engine.invokeAll("series", tasks); // NON-NLS
+    assertEquals(10, futures.size());
+    for (int i = 0; i < 10; i++) {
+      assertTrue(futures.get(i).isDone());
+      assertEquals(i * 2, futures.get(i).get());
+    }
+  }
+
+  @Test
+  void testDecreaseWhenOverloaded() {
+    DownloadEngine engine = new DownloadEngine("Test", 10, 16); // NON-NLS
+    assertEquals(10, engine.getConcurrency());
+
+    // A failure without overload does not change the concurrency
+    engine.startTransfer("series").failed(false); // NON-NLS
+    assertEquals(10, engine.getConcurrency());
+
+    Transfer transfer = engine.startTransfer("series"); // NON-NLS
+    transfer.failed(true);
+    assertEquals((int) (10 * DownloadEngine.BACKOFF_RATIO), engine.getConcurrency());
+    // Ignored when already ended
+    transfer.failed(true);
+    assertEquals((int) (10 * DownloadEngine.BACKOFF_RATIO), engine.getConcurrency());
+  }
+
+  @Test
+  void testThroughput() throws InterruptedException {
+    DownloadEngine engine = new DownloadEngine("Test", 1, 2); // NON-NLS
+    Transfer transfer = engine.startTransfer("series"); // NON-NLS
+    transfer.responseReceived();
+    Thread.sleep(20);
+    transfer.completed(1_000_000);
+
+    double rate = engine.getThroughput("series"); // NON-NLS
+    assertTrue(rate > 0.0);
+    assertTrue(rate <= 1_000_000 / 0.02);
+    assertEquals(rate, engine.getThroughput(), 1.0e-6);
+    assertEquals(0.0, engine.getThroughput("other")); // NON-NLS
+
+    engine.removeGroup("series"); // NON-NLS
+    assertEquals(0.0, engine.getThroughput("series")); // NON-NLS
+  }
+}
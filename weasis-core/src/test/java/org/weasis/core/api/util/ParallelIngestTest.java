@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.junit.jupiter.api.Test;
+
+class ParallelIngestTest {
+
+  @Test
+  void testAllSlicesLoadedOnce() throws InterruptedException, ExecutionException {
+    AtomicIntegerArray loaded = new AtomicIntegerArray(100);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    AtomicInteger progress = new AtomicInteger();
+    ParallelIngest.forEach(
+        "Test", // NON-NLS
+        10,
+        100,
+        3,
+        i -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          loaded.incrementAndGet(i);
+          Thread.sleep(1);
+          running.decrementAndGet();
+        },
+        i -> progress.incrementAndGet());
+
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i < 10 ? 0 : 1, loaded.get(i));
+    }
+    assertEquals(90, progress.get());
+    assertTrue(maxRunning.get() <= 3);
+  }
+
+  @Test
+  void testFailureStopsLoading() {
+    AtomicInteger count = new AtomicInteger();
+    ExecutionException e =
+        assertThrows(
+            ExecutionException.class,
+            () ->
+                ParallelIngest.forEach(
+                    "Test", // NON-NLS
+                    0,
+                    1000,
+                    2,
+                    i -> {
+                      count.incrementAndGet();
+                      if (i == 5) {
+                        throw new IOException("Cannot read"); // NON-NLS
+                      }
+                      Thread.sleep(1);
+                    },
+                    null));
+    assertInstanceOf(IOException.class, e.getCause());
+    assertTrue(count.get() < 1000);
+  }
+
+  @Test
+  void testOrderedSlices() throws InterruptedException, ExecutionException {
+    AtomicInteger loaded = new AtomicInteger();
+    AtomicInteger maxAhead = new AtomicInteger();
+    AtomicInteger taken = new AtomicInteger();
+    try (ParallelIngest.OrderedSlices<Integer> slices =
+        ParallelIngest.loadOrdered(
+            "Test", // NON-NLS
+            5,
+            60,
+            3,
+            6,
+            i -> {
+              maxAhead.accumulateAndGet(loaded.incrementAndGet() - taken.get(), Math::max);
+              Thread.sleep((i * 7) % 3);
+              return i * 2;
+            })) {
+      for (int i = 5; i < 60; i++) {
+        assertTrue(slices.hasNext());
+        assertEquals(i * 2, slices.take());
+        taken.incrementAndGet();
+      }
+      assertFalse(slices.hasNext());
+    }
+    assertEquals(55, loaded.get());
+    // The slice being taken and the slices loaded in advance
+    assertTrue(maxAhead.get() <= 7);
+  }
+
+  @Test
+  void testOrderedSlicesFailure() {
+    try (ParallelIngest.OrderedSlices<Integer> slices =
+        ParallelIngest.loadOrdered(
+            "Test", // NON-NLS
+            0,
+            10,
+            2,
+            4,
+            i -> {
+              if (i == 3) {
+                throw new IOException("Cannot read"); // NON-NLS
+              }
+              return i;
+            })) {
+      for (int i = 0; i < 3; i++) {
+        assertEquals(i, assertDoesNotThrow(slices::take));
+      }
+      ExecutionException e = assertThrows(ExecutionException.class, slices::take);
+      assertInstanceOf(IOException.class, e.getCause());
+    }
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.api.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class StageStatsTest {
+
+  @Test
+  void testConcurrentItems() throws InterruptedException {
+    StageStats stats = new StageStats("test"); // NON-NLS
+    assertEquals(0.0, stats.getLatency());
+
+    IntStream.range(0, 1000).parallel().forEach(_ -> stats.add(System.nanoTime()));
+    Thread.sleep(2);
+    stats.stop();
+    long elapsed = stats.getElapsedTime();
+
+    assertEquals(1000, stats.getCount());
+    assertTrue(elapsed >= 2);
+    assertTrue(stats.getLatency() >= 0.0);
+    assertTrue(stats.getThroughput() > 0.0);
+    // The elapsed time does not change once the stage is stopped
+    Thread.sleep(2);
+    assertEquals(elapsed, stats.getElapsedTime());
+    assertTrue(stats.toString().startsWith("test: 1000 items")); // NON-NLS
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.core.ui.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.weasis.core.ui.model.GraphicSpatialIndex.GraphicList;
+import org.weasis.core.ui.model.graphic.Graphic;
+import org.weasis.core.ui.model.graphic.GraphicLabel;
+
+class GraphicSpatialIndexTest {
+
+  private static Graphic buildGraphic(double x, double y, double size) {
+    Graphic graphic = Mockito.mock(Graphic.class);
+    Mockito.when(graphic.getShape()).thenReturn(new Rectangle2D.Double(x, y, size, size));
+    Mockito.when(graphic.getLineThickness()).thenReturn(1.0f);
+    return graphic;
+  }
+
+  private static Set<Graphic> getCandidates(GraphicSpatialIndex index, double x, double y) {
+    return index.getCandidates(new Rectangle2D.Double(x, y, 0, 0), null);
+  }
+
+  @Test
+  void testCandidatesUpdated() {
+    Graphic g1 = buildGraphic(10, 10, 20);
+    Graphic g2 = buildGraphic(500, 500, 30);
+    Graphic g3 = buildGraphic(-300, -300, 5);
+    GraphicList graphics = new GraphicList(List.of(g1, g2, g3));
+    GraphicSpatialIndex index = new GraphicSpatialIndex();
+    index.update(graphics);
+
+    assertEquals(Set.of(g1), getCandidates(index, 15, 15));
+    assertEquals(Set.of(g3), getCandidates(index, -302, -302));
+    assertTrue(getCandidates(index, 2000, 2000).isEmpty());
+    assertEquals(3, index.getCandidates(new Rectangle2D.Double(-1e9, -1e9, 2e9, 2e9), null).size());
+
+    // A new shape after a drag is indexed again when the graphic notifies the change
+    Mockito.when(g1.getShape()).thenReturn(new Rectangle2D.Double(505, 505, 2, 2));
+    index.update(graphics);
+    assertEquals(Set.of(g1), getCandidates(index, 15, 15));
+    index.graphicChanged(g1);
+    index.update(graphics);
+    assertTrue(getCandidates(index, 15, 15).isEmpty());
+    assertEquals(Set.of(g1, g2), getCandidates(index, 506, 506));
+
+    graphics.remove(g2);
+    index.update(graphics);
+    assertEquals(Set.of(g1), getCandidates(index, 506, 506));
+  }
+
+  @Test
+  void testViewDependentGraphics() {
+    Graphic g1 = buildGraphic(10, 10, 20);
+    Graphic large = buildGraphic(0, 0, 1e6);
+    Graphic noShape = Mockito.mock(Graphic.class);
+
+    GraphicSpatialIndex index = new GraphicSpatialIndex();
+    index.update(new GraphicList(List.of(g1, large, noShape)));
+    assertEquals(Set.of(g1, large, noShape), getCandidates(index, 15, 15));
+    assertEquals(Set.of(large, noShape), getCandidates(index, -5000, -5000));
+  }
+
+  @Test
+  void testLabelAnchor() {
+    Graphic labelled = buildGraphic(-300, -300, 5);
+    GraphicLabel label = Mockito.mock(GraphicLabel.class);
+    Mockito.when(label.getLabels()).thenReturn(new String[] {"Label"}); // NON-NLS
+    Mockito.when(label.getLabelBounds()).thenReturn(new Rectangle2D.Double(100, 100, 50, 20));
+    Mockito.when(label.getOffsetX()).thenReturn(0.0);
+    Mockito.when(label.getOffsetY()).thenReturn(0.0);
+    Mockito.when(labelled.getGraphicLabel()).thenReturn(label);
+
+    GraphicSpatialIndex index = new GraphicSpatialIndex();
+    GraphicList graphics = new GraphicList(List.of(labelled));
+    index.update(graphics);
+    AffineTransform identity = new AffineTransform();
+    Rectangle2D point = new Rectangle2D.Double(15, 15, 0, 0);
+    Rectangle2D farPoint = new Rectangle2D.Double(-5000, -5000, 0, 0);
+    assertEquals(Set.of(labelled), index.getCandidates(point, identity));
+    Rectangle2D shapePoint = new Rectangle2D.Double(-302, -302, 0, 0);
+    assertEquals(Set.of(labelled), index.getCandidates(shapePoint, identity));
+    assertTrue(index.getCandidates(farPoint, identity).isEmpty());
+    // The label has the same size in the view, so it is larger in the image when zooming out
+    AffineTransform zoomOut = AffineTransform.getScaleInstance(0.01, 0.01);
+    assertEquals(Set.of(labelled), index.getCandidates(farPoint, zoomOut));
+
+    // The label is moved
+    Mockito.when(label.getOffsetX()).thenReturn(-5100.0);
+    Mockito.when(label.getOffsetY()).thenReturn(-5100.0);
+    index.graphicChanged(labelled);
+    index.update(graphics);
+    assertEquals(Set.of(labelled), index.getCandidates(farPoint, identity));
+    assertTrue(index.getCandidates(point, identity).isEmpty());
+  }
+
+  @Test
+  void testMaxLineThickness() {
+    Graphic g1 = buildGraphic(10, 10, 20);
+    Graphic thick = buildGraphic(500, 500, 20);
+    Mockito.when(thick.getLineThickness()).thenReturn(500.0f);
+    GraphicList graphics = new GraphicList(List.of(g1, thick));
+    GraphicSpatialIndex index = new GraphicSpatialIndex();
+    index.update(graphics);
+    // The margin of the thick line includes the graphic
+    assertEquals(Set.of(g1), getCandidates(index, 120, 120));
+
+    graphics.remove(thick);
+    index.update(graphics);
+    assertTrue(getCandidates(index, 120, 120).isEmpty());
+  }
+}
@@ -59,7 +59,8 @@ public class DicomVolTexture extends VolumeTexture implements MediaSeriesGroup {
   private final Comparator<DicomImageElement> seriesComparator;
   private final VolumeGeometry volumeGeometry;
   private final PropertyChangeSupport changeSupport;
-  private final SimpleOpManager manager;
+  // One copy of the operations by thread, the images of the volume are built concurrently
+  private final ThreadLocal<SimpleOpManager> manager;
   private final Vector3d scale;
 
   private String pixelValueUnit;
@@ -114,12 +115,13 @@ public DicomVolTexture(
     this.scale = scale == null ? new Vector3d(1.0) : scale;
     if (scale != null
         && (MathUtil.isDifferent(scale.x, 1.0) || MathUtil.isDifferent(scale.y, 1.0))) {
-      this.manager = new SimpleOpManager();
+      SimpleOpManager zoomManager = new SimpleOpManager();
       ZoomOp node = new ZoomOp();
       node.setParam(ZoomOp.P_RATIO_X, scale.x);
       node.setParam(ZoomOp.P_RATIO_Y, scale.y);
       node.setParam(ZoomOp.P_INTERPOLATION, Interpolation.BILINEAR);
-      manager.addImageOperationAction(node);
+      zoomManager.addImageOperationAction(node);
+      this.manager = ThreadLocal.withInitial(zoomManager::copy);
     } else {
       this.manager = null;
     }
@@ -143,9 +145,10 @@ public PlanarImage getModalityLutImage(DicomImageElement image) {
     if (image != null) {
       output = image.getModalityLutImage(null, null);
       if (manager != null) {
-        manager.setFirstNode(output);
-        output = manager.process();
-        manager.clearNodeIOCache();
+        SimpleOpManager ops = manager.get();
+        ops.setFirstNode(output);
+        output = ops.process();
+        ops.clearNodeIOCache();
       } else {
         if (width != output.width() || height != output.height()) {
           output = ImageCV.toImageCV(output.toMat().submat(new Rect(0, 0, width, height)));
@@ -104,7 +104,7 @@ public void removePropertyChangeListener(PropertyChangeListener listener) {
   }
 
   private static PixelFormat getImageDataFormat(DicomImageElement media) {
-    ImageDescriptor desc = media.getMediaReader().getDicomMetaData().getImageDescriptor();
+    ImageDescriptor desc = media.getMediaReader().getImageDescriptor();
     final LookupTableCV mLUTSeq = desc.getModalityLUT().getLut().orElse(null);
     LutParameters params =
         media.getModalityLutParameters(
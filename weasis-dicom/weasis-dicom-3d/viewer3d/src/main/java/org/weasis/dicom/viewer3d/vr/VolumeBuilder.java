@@ -20,6 +20,7 @@
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 import javax.swing.JProgressBar;
 import jogamp.opengl.glu.error.Error;
 import org.dcm4che3.data.Tag;
@@ -33,6 +34,8 @@
 import org.weasis.core.api.gui.util.GuiExecutor;
 import org.weasis.core.api.gui.util.GuiUtils;
 import org.weasis.core.api.media.data.TagW;
+import org.weasis.core.api.util.ParallelIngest;
+import org.weasis.core.api.util.ParallelIngest.OrderedSlices;
 import org.weasis.core.ui.editor.image.ViewCanvas;
 import org.weasis.core.ui.model.graphic.imp.seg.SegContour;
 import org.weasis.core.ui.model.graphic.imp.seg.SegGraphic;
@@ -176,6 +179,51 @@ private TextureSliceDataBuffer setTexImage3DBuffer(GL4 gl4, List<Mat> slices, in
       return textureSliceData;
     }
 
+    private PlanarImage buildSlice(
+        DicomImageElement imageElement, int index, List<SpecialElementRegion> segList) {
+      DicomVolTexture volTexture = volumeBuilder.volTexture;
+      Instant start = Instant.now();
+
+      // Force to get min/max values.
+      if (!imageElement.isImageAvailable()) {
+        imageElement.getImage();
+      }
+
+      PlanarImage imageMLUT;
+      if (segList != null && !segList.isEmpty()) {
+        Mat mask = volTexture.getEmptyImage();
+        for (SpecialElementRegion seg : segList) {
+          if (seg.isVisible() && seg.containsSopInstanceUIDReference(imageElement)) {
+            Collection<SegContour> contours = seg.getContours(imageElement);
+            if (!contours.isEmpty()) {
+              for (SegContour c : contours) {
+                SegGraphic graphic = c.getSegGraphic();
+                if (graphic != null) {
+                  List<MatOfPoint> pts =
+                      ImageProcessor.transformShapeToContour(graphic.getShape(), true);
+                  // TODO check the limit value
+                  int density = c.getAttributes().getId();
+                  Imgproc.fillPoly(mask, pts, new Scalar(density));
+                }
+              }
+            }
+          }
+        }
+        imageMLUT = ImageCV.toImageCV(mask);
+        //          PlanarImage src = volTexture.getModalityLutImage(imageElement);
+        //          imageMLUT = new ImageCV();
+        //          Core.bitwise_and(src.toImageCV(), mask, imageMLUT.toImageCV());
+      } else {
+        imageMLUT = volTexture.getModalityLutImage(imageElement);
+      }
+      imageMLUT = getSuitableImage(imageMLUT);
+      LOGGER.debug(
+          "Time to decode the image {}: {} ms",
+          index,
+          Duration.between(start, Instant.now()).toMillis());
+      return imageMLUT;
+    }
+
     @Override
     public void run() {
       DicomVolTexture volTexture = volumeBuilder.volTexture;
@@ -217,124 +265,102 @@ public void run() {
       double lastPos = 0;
 
       List<DicomImageElement> list = volTexture.getVolumeImages();
-      for (int i = 0; i < list.size(); i++) {
-        if (isInterrupted()) {
-          return;
-        }
-        DicomImageElement imageElement = list.get(i);
-        Instant start = Instant.now();
-
-        // Force to get min/max values.
-        if (!imageElement.isImageAvailable()) {
-          imageElement.getImage();
-        }
+      /*
+       * Decode the images concurrently and take them in the order of the stack. The number of
+       * workers limits the number of files open at the same time, and the number of images
+       * decoded in advance limits the memory.
+       */
+      int parallelism = ParallelIngest.getDefaultParallelism();
+      final List<SpecialElementRegion> segmentations = segList;
+      try (OrderedSlices<PlanarImage> decoded =
+          ParallelIngest.loadOrdered(
+              "Texture 3D decoder", // NON-NLS
+              0,
+              list.size(),
+              parallelism,
+              parallelism * 4,
+              i -> buildSlice(list.get(i), i, segmentations))) {
+        for (int i = 0; i < list.size(); i++) {
+          if (isInterrupted()) {
+            return;
+          }
+          DicomImageElement imageElement = list.get(i);
+          PlanarImage imageMLUT;
+          try {
+            imageMLUT = decoded.take();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          } catch (ExecutionException e) {
+            LOGGER.error("Cannot build the 3D texture", e.getCause());
+            volumeBuilder.hasError = true;
+            volumeBuilder.stop();
+            return;
+          }
+          if (bar != null) {
+            GuiExecutor.execute(
+                () -> {
+                  bar.setValue(bar.getValue() + 1);
+                  view.getJComponent().repaint();
+                });
+          }
 
-        int minValue = (int) imageElement.getMinValue(null);
-        int maxValue = (int) imageElement.getMaxValue(null);
+          int minValue = (int) imageElement.getMinValue(null);
+          int maxValue = (int) imageElement.getMaxValue(null);
 
-        int minInValue = Math.min(maxValue, minValue);
-        int maxInValue = Math.max(maxValue, minValue);
-        if (minInValue < volTexture.getLevelMin()) {
-          volTexture.setLevelMin(minInValue);
-        }
-        if (maxInValue > volTexture.getLevelMax()) {
-          volTexture.setLevelMax(maxInValue);
-        }
-
-        double[] sp = (double[]) imageElement.getTagValue(TagW.SlicePosition);
-        if (sp != null) {
-          Vector3d scale = volTexture.getScale();
-          double pos = sp[0] * scale.x + sp[1] * scale.y + sp[2] * scale.z;
-          if (i > 0) {
-            double space = pos - lastPos;
-            VolumeGeometry geometry = volTexture.getVolumeGeometry();
-            geometry.setLastDepthSpacing(space);
-            double[] pixelSpacing = GeometryUtils.getPixelSpacing(imageElement);
-            if (pixelSpacing != null && pixelSpacing.length > 1) {
-              double[] spacing = new double[2];
-              spacing[0] = pixelSpacing[0] / scale.x;
-              spacing[1] = pixelSpacing[1] / scale.y;
-              geometry.setLastPixelSpacing(spacing);
-            }
-            volTexture.setTexelSize(geometry.getDimensionMFactor());
+          int minInValue = Math.min(maxValue, minValue);
+          int maxInValue = Math.max(maxValue, minValue);
+          if (minInValue < volTexture.getLevelMin()) {
+            volTexture.setLevelMin(minInValue);
+          }
+          if (maxInValue > volTexture.getLevelMax()) {
+            volTexture.setLevelMax(maxInValue);
           }
-          lastPos = pos;
-        }
-
-        double[] or = TagD.getTagValue(imageElement, Tag.ImageOrientationPatient, double[].class);
-        if (i == 0 && or != null && or.length == 6) {
-          volTexture.setPixelSpacingUnit(imageElement.getPixelSpacingUnit());
-          volTexture.getVolumeGeometry().setOrientationPatient(or);
-        }
 
-        LOGGER.debug(
-            "Time preparation of {}: {} ms", i, Duration.between(start, Instant.now()).toMillis());
-
-        PlanarImage imageMLUT;
-
-        if (segList != null && !segList.isEmpty()) {
-          Mat mask = volTexture.getEmptyImage();
-          for (SpecialElementRegion seg : segList) {
-            if (seg.isVisible() && seg.containsSopInstanceUIDReference(imageElement)) {
-              Collection<SegContour> contours = seg.getContours(imageElement);
-              if (!contours.isEmpty()) {
-                for (SegContour c : contours) {
-                  SegGraphic graphic = c.getSegGraphic();
-                  if (graphic != null) {
-                    List<MatOfPoint> pts =
-                        ImageProcessor.transformShapeToContour(graphic.getShape(), true);
-                    // TODO check the limit value
-                    int density = c.getAttributes().getId();
-                    Imgproc.fillPoly(mask, pts, new Scalar(density));
-                  }
-                }
+          double[] sp = (double[]) imageElement.getTagValue(TagW.SlicePosition);
+          if (sp != null) {
+            Vector3d scale = volTexture.getScale();
+            double pos = sp[0] * scale.x + sp[1] * scale.y + sp[2] * scale.z;
+            if (i > 0) {
+              double space = pos - lastPos;
+              VolumeGeometry geometry = volTexture.getVolumeGeometry();
+              geometry.setLastDepthSpacing(space);
+              double[] pixelSpacing = GeometryUtils.getPixelSpacing(imageElement);
+              if (pixelSpacing != null && pixelSpacing.length > 1) {
+                double[] spacing = new double[2];
+                spacing[0] = pixelSpacing[0] / scale.x;
+                spacing[1] = pixelSpacing[1] / scale.y;
+                geometry.setLastPixelSpacing(spacing);
               }
+              volTexture.setTexelSize(geometry.getDimensionMFactor());
             }
+            lastPos = pos;
           }
-          int nbPixels = Core.countNonZero(mask);
-          imageMLUT = ImageCV.toImageCV(mask);
-          //          PlanarImage src = volTexture.getModalityLutImage(imageElement);
-          //          imageMLUT = new ImageCV();
-          //          Core.bitwise_and(src.toImageCV(), mask, imageMLUT.toImageCV());
-        } else {
-          start = Instant.now();
-          imageMLUT = volTexture.getModalityLutImage(imageElement);
-          LOGGER.debug(
-              "Time to get Modality LUT image  {}: {} ms",
-              i,
-              Duration.between(start, Instant.now()).toMillis());
-        }
 
-        start = Instant.now();
-        imageMLUT = getSuitableImage(imageMLUT);
-        LOGGER.debug(
-            "Time to get suitable image  {}: {} ms",
-            i,
-            Duration.between(start, Instant.now()).toMillis());
-
-        sumMemory += imageMLUT.physicalBytes();
-        if (sumMemory > maxMemory) {
-          start = Instant.now();
-          publishVolumeInOpenGL(slices, sliceOffset);
-          LOGGER.debug(
-              "Time to load volume ({} to {}) in OpenGL: {} ms",
-              sliceOffset,
-              sliceOffset + slices.size() - 1,
-              Duration.between(start, Instant.now()).toMillis());
-
-          sliceOffset += slices.size();
-          slices.clear();
-          sumMemory = imageMLUT.physicalBytes();
-
-          volTexture.notifyPartiallyLoaded();
-        }
-        slices.add(imageMLUT.toMat());
-        if (bar != null) {
-          GuiExecutor.execute(
-              () -> {
-                bar.setValue(bar.getValue() + 1);
-                view.getJComponent().repaint();
-              });
+          double[] or =
+              TagD.getTagValue(imageElement, Tag.ImageOrientationPatient, double[].class);
+          if (i == 0 && or != null && or.length == 6) {
+            volTexture.setPixelSpacingUnit(imageElement.getPixelSpacingUnit());
+            volTexture.getVolumeGeometry().setOrientationPatient(or);
+          }
+
+          sumMemory += imageMLUT.physicalBytes();
+          if (sumMemory > maxMemory) {
+            Instant start = Instant.now();
+            publishVolumeInOpenGL(slices, sliceOffset);
+            LOGGER.debug(
+                "Time to load volume ({} to {}) in OpenGL: {} ms",
+                sliceOffset,
+                sliceOffset + slices.size() - 1,
+                Duration.between(start, Instant.now()).toMillis());
+
+            sliceOffset += slices.size();
+            slices.clear();
+            sumMemory = imageMLUT.physicalBytes();
+
+            volTexture.notifyPartiallyLoaded();
+          }
+          slices.add(imageMLUT.toMat());
         }
       }
 
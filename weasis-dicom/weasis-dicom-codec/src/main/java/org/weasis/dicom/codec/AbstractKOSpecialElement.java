@@ -21,6 +21,7 @@
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
@@ -99,6 +100,8 @@ public List<Integer> getFrameList() {
       seriesAndInstanceReferenceMapByStudyUID;
   protected Map<String, HierarchicalSOPInstanceReference>
       hierarchicalSOPInstanceReferenceByStudyUID;
+  // Incremented each time a reference is added or removed
+  private final AtomicLong version = new AtomicLong();
 
   public AbstractKOSpecialElement(DicomMediaIO mediaIO) {
     super(mediaIO);
@@ -306,7 +309,29 @@ public boolean addKeyObject(DicomImageElement dicomImage) {
   }
 
   public boolean addKeyObject(Reference ref) {
+    return updateVersion(addReference(ref));
+  }
+
+  public boolean removeKeyObject(DicomImageElement dicomImage) {
+    return removeKeyObject(new Reference(dicomImage));
+  }
+
+  public boolean removeKeyObject(Reference ref) {
+    return updateVersion(removeReference(ref));
+  }
+
+  /**
+   * Increments the version once the references have been modified, so a filter reading the new
+   * version cannot see the previous references.
+   */
+  private boolean updateVersion(boolean changed) {
+    if (changed) {
+      version.incrementAndGet();
+    }
+    return changed;
+  }
 
+  private boolean addReference(Reference ref) {
     if (hierarchicalSOPInstanceReferenceByStudyUID == null) {
       updateHierarchicalSOPInstanceReference();
     }
@@ -385,12 +410,7 @@ public boolean addKeyObject(Reference ref) {
     return true;
   }
 
-  public boolean removeKeyObject(DicomImageElement dicomImage) {
-    return removeKeyObject(new Reference(dicomImage));
-  }
-
-  public boolean removeKeyObject(Reference ref) {
-
+  private boolean removeReference(Reference ref) {
     if (hierarchicalSOPInstanceReferenceByStudyUID == null) {
       updateHierarchicalSOPInstanceReference();
     }
@@ -475,6 +495,11 @@ public boolean passes(DicomImageElement dicom) {
         return isSopuidInReferencedSeriesSequence(
             getReferencedSOPInstanceUIDObject(seriesInstanceUID), sopInstanceUID, frame);
       }
+
+      @Override
+      public long getVersion() {
+        return version.get();
+      }
     };
   }
 
@@ -12,6 +12,7 @@
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.img.DicomMetaData;
+import org.dcm4che3.img.stream.ImageDescriptor;
 import org.weasis.core.api.media.data.MediaReader;
 import org.weasis.core.api.media.data.MediaSeriesGroup;
 import org.weasis.core.api.media.data.TagW;
@@ -24,12 +25,23 @@ public interface DcmMediaReader extends MediaReader<DicomImageElement> {
 
   Attributes getDicomObject();
 
+  /**
+   * Returns the attributes required for building the data model and displaying the images. Unlike
+   * {@link #getDicomObject()}, it may not contain all the private elements and does not require
+   * reading the file again.
+   *
+   * @return the compact DICOM attributes
+   */
+  default Attributes getCompactDicomObject() {
+    return getDicomObject();
+  }
+
   default void writeMetaData(MediaSeriesGroup group) {
     if (group == null) {
       return;
     }
     // Get the dicom header
-    Attributes header = getDicomObject();
+    Attributes header = getCompactDicomObject();
     DicomMediaUtils.writeMetaData(group, header);
 
     // Series Group
@@ -42,5 +54,10 @@ default void writeMetaData(MediaSeriesGroup group) {
 
   DicomMetaData getDicomMetaData();
 
+  default ImageDescriptor getImageDescriptor() {
+    DicomMetaData md = getDicomMetaData();
+    return md == null ? null : md.getImageDescriptor();
+  }
+
   boolean isEditableDicom();
 }
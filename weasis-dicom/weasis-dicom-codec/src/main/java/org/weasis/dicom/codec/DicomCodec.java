@@ -122,6 +122,12 @@ protected void activate(ComponentContext context) {
     for (IIOServiceProvider p : dcm4cheCodecs) {
       ImageioUtil.registerServiceProvider(p);
     }
+
+    int frameCacheSize =
+        GuiUtils.getUICore()
+            .getSystemPreferences()
+            .getIntProperty(DicomMediaIO.P_FRAME_CACHE_SIZE, 1024);
+    DicomMediaIO.FRAME_CACHE.setMaxSize(frameCacheSize * 1024L * 1024L);
   }
 
   @Deactivate
@@ -130,6 +136,7 @@ protected void deactivate(ComponentContext context) {
     for (IIOServiceProvider p : dcm4cheCodecs) {
       ImageioUtil.deregisterServiceProvider(p);
     }
+    DicomMediaIO.FRAME_CACHE.close();
   }
 
   @Reference(
@@ -0,0 +1,501 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.BulkData;
+import org.dcm4che3.data.Fragments;
+import org.dcm4che3.data.Sequence;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.img.DicomMetaData;
+import org.dcm4che3.io.DicomEncodingOptions;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.gui.util.AppProperties;
+import org.weasis.core.util.StringUtil;
+
+/**
+ * Persistent index of the DICOM headers of the local files. For the images, it contains a compact
+ * copy of the header with only the attributes required for building the data model and displaying
+ * the images. The complete header is only read from the file when required (e.g. the DICOM
+ * attribute viewer or the export).
+ *
+ * <p>There is one index file per folder of DICOM files, so opening a folder reads a single file
+ * instead of parsing the header of each instance. An entry is valid only if the size and the
+ * modification date of the DICOM file and the tags of the data model have not changed. The
+ * records are appended, a truncated record (after a crash) is removed when loading the index file.
+ */
+public final class DicomHeaderIndex {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DicomHeaderIndex.class);
+
+  static final String EXTENSION = ".hdx"; // NON-NLS
+  /** Private elements larger than this value (in bytes) are not kept in the compact header */
+  static final int MAX_PRIVATE_VALUE_LENGTH = 1024;
+
+  /**
+   * Attributes of the images which are read by DicomMediaIO and DicomMediaUtils, in addition to
+   * the tags of the data model (see {@link DicomMediaIO#tagManager}).
+   */
+  static final Set<Integer> IMAGE_TAGS =
+      Set.of(
+          Tag.SpecificCharacterSet,
+          Tag.ImageType,
+          Tag.SOPClassUID,
+          Tag.SOPInstanceUID,
+          Tag.StudyInstanceUID,
+          Tag.SeriesInstanceUID,
+          Tag.Modality,
+          Tag.InstanceNumber,
+          Tag.ConcatenationUID,
+          Tag.ConcatenationFrameOffsetNumber,
+          Tag.PixelPresentation,
+          Tag.AnatomicRegionSequence,
+          Tag.BodyPartExamined,
+          Tag.StationName,
+          Tag.SeriesDescription,
+          Tag.SeriesDate,
+          Tag.SeriesTime,
+          Tag.AcquisitionDate,
+          Tag.AcquisitionTime,
+          Tag.LossyImageCompressionRetired,
+          Tag.PatientOrientation,
+          Tag.PatientWeight,
+          Tag.ImagePositionPatient,
+          Tag.ImageOrientationPatient,
+          Tag.FrameOfReferenceUID,
+          Tag.SliceThickness,
+          Tag.ImagerPixelSpacing,
+          Tag.EstimatedRadiographicMagnificationFactor,
+          Tag.DistanceSourceToDetector,
+          Tag.DistanceSourceToPatient,
+          Tag.NominalScannedPixelSpacing,
+          Tag.FrameTime,
+          Tag.FrameTimeVector,
+          Tag.RecommendedDisplayFrameRate,
+          Tag.CineRate,
+          Tag.PreferredPlaybackSequencing,
+          Tag.SequenceOfUltrasoundRegions,
+          Tag.Units,
+          Tag.CorrectedImage,
+          Tag.DecayCorrection,
+          Tag.RadiopharmaceuticalInformationSequence,
+          Tag.PresentationLUTShape,
+          Tag.SharedFunctionalGroupsSequence,
+          Tag.PerFrameFunctionalGroupsSequence,
+          Tag.MIMETypeOfEncapsulatedDocument,
+          Tag.PixelDataProviderURL,
+          // Private attributes for the SUV of GE and Philips
+          0x00090010,
+          0x0009100d,
+          0x70530010,
+          0x70531000);
+
+  private final Path directory;
+  private final Map<Path, Shard> shards = new ConcurrentHashMap<>();
+
+  public DicomHeaderIndex(File directory) {
+    this.directory = directory.toPath();
+  }
+
+  record Entry(
+      long fileLength,
+      long lastModified,
+      int numberOfFrame,
+      boolean hasPixel,
+      int modelTagsHash,
+      String transferSyntaxUID,
+      long position,
+      int length) {}
+
+  /** Compact header read from the index */
+  public record IndexedHeader(DicomMetaData metaData, int numberOfFrame, boolean hasPixel) {}
+
+  /**
+   * @param file the DICOM file
+   * @param modelTagsHash the hash of the tags of the data model (see {@link
+   *     TagManager#getTagsHash()})
+   * @return the header from the index or null if the file is not indexed or has changed, or when
+   *     the tags of the data model have changed since the image was indexed
+   */
+  public IndexedHeader get(File file, int modelTagsHash) {
+    if (!isIndexable(file)) {
+      return null;
+    }
+    Shard shard = getShard(file);
+    Entry entry = shard.get(file.getName());
+    if (entry == null
+        || entry.fileLength() != file.length()
+        || entry.lastModified() != file.lastModified()
+        || (entry.hasPixel() && entry.modelTagsHash() != modelTagsHash)) {
+      return null;
+    }
+    try {
+      byte[] bytes = shard.read(entry);
+      try (DicomInputStream in =
+          new DicomInputStream(new ByteArrayInputStream(bytes), UID.ExplicitVRLittleEndian)) {
+        Attributes dcm = in.readDataset();
+        return new IndexedHeader(
+            new DicomMetaData(dcm, entry.transferSyntaxUID()),
+            entry.numberOfFrame(),
+            entry.hasPixel());
+      }
+    } catch (Exception e) {
+      LOGGER.warn("Cannot read the indexed header of {}", file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Add the compact header of a DICOM file to the index.
+   *
+   * @param file the DICOM file
+   * @param header the compact header (see {@link #buildCompactMetaData})
+   * @param numberOfFrame the number of frames
+   * @param hasPixel true if the file contains pixel data
+   * @param modelTagsHash the hash of the tags of the data model used for building the header
+   */
+  public void put(
+      File file, DicomMetaData header, int numberOfFrame, boolean hasPixel, int modelTagsHash) {
+    if (header == null || header.getDicomObject() == null || !isIndexable(file)) {
+      return;
+    }
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+      try (DicomOutputStream out = new DicomOutputStream(bytes, UID.ExplicitVRLittleEndian)) {
+        out.writeDataset(null, header.getDicomObject());
+      }
+      String tsuid = header.getTransferSyntaxUID();
+      getShard(file)
+          .append(
+              file.getName(),
+              file.length(),
+              file.lastModified(),
+              numberOfFrame,
+              hasPixel,
+              modelTagsHash,
+              tsuid == null ? UID.ImplicitVRLittleEndian : tsuid,
+              bytes.toByteArray());
+    } catch (Exception e) {
+      LOGGER.warn("Cannot index the header of {}", file, e);
+    }
+  }
+
+  /** Release the entries loaded in memory. */
+  public void clearMemory() {
+    shards.clear();
+  }
+
+  /**
+   * Build a copy of the header without pixel data, without icon, without bulk data and without the
+   * private elements larger than {@value #MAX_PRIVATE_VALUE_LENGTH} bytes.
+   *
+   * <p>With a filter of the model tags, only the attributes required for building the data model
+   * and for displaying the images are kept: the filtered tags, the image pixel and LUT attributes
+   * (group 0028), the overlays, the display shutter, the functional groups and the other
+   * attributes of {@link #IMAGE_TAGS}.
+   *
+   * @param md the complete header
+   * @param modelTags the filter of the tags read in the data model, null for keeping all the
+   *     attributes (e.g. for the objects without pixel data whose content is read from the header)
+   * @return the compact header
+   */
+  public static DicomMetaData buildCompactMetaData(DicomMetaData md, IntPredicate modelTags) {
+    Attributes dcm = new Attributes(md.getDicomObject());
+    List<Integer> toRemove = new ArrayList<>();
+    try {
+      dcm.accept(
+          (attrs, tag, vr, value) -> {
+            if (tag == Tag.PixelData
+                || tag == Tag.FloatPixelData
+                || tag == Tag.DoubleFloatPixelData
+                || tag == Tag.IconImageSequence
+                || value instanceof BulkData
+                || value instanceof Fragments
+                || (modelTags != null && !isImageTag(tag) && !modelTags.test(tag))
+                || (Tag.isPrivateTag(tag) && isLargeValue(value))) {
+              toRemove.add(tag);
+            }
+            return true;
+          },
+          false);
+    } catch (Exception e) {
+      LOGGER.error("Cannot build compact header", e);
+      return md;
+    }
+    for (Integer tag : toRemove) {
+      dcm.remove(tag);
+    }
+    return new DicomMetaData(dcm, md.getTransferSyntaxUID());
+  }
+
+  static boolean isImageTag(int tag) {
+    int group = tag >>> 16;
+    return group == 0x0028
+        || (group & 0xFFE1) == 0x6000 // Overlays
+        || (tag >= Tag.ShutterShape && tag <= Tag.ShutterPresentationColorCIELabValue)
+        || IMAGE_TAGS.contains(tag);
+  }
+
+  private static boolean isLargeValue(Object value) {
+    if (value instanceof byte[] b) {
+      return b.length > MAX_PRIVATE_VALUE_LENGTH;
+    }
+    if (value instanceof Sequence seq) {
+      long length = 0;
+      for (Attributes item : seq) {
+        length += item.calcLength(DicomEncodingOptions.DEFAULT, true);
+        if (length > MAX_PRIVATE_VALUE_LENGTH) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean isIndexable(File file) {
+    // The files of the temporary directory are deleted at the next startup
+    return file != null
+        && file.isFile()
+        && !file.getPath().startsWith(AppProperties.APP_TEMP_DIR.getPath());
+  }
+
+  private Shard getShard(File file) {
+    Path folder = file.getAbsoluteFile().toPath().getParent();
+    return shards.computeIfAbsent(
+        folder,
+        f -> {
+          String name =
+              StringUtil.bytesToMD5(f.toString().getBytes(StandardCharsets.UTF_8)) + EXTENSION;
+          return new Shard(directory.resolve(name));
+        });
+  }
+
+  /** Index file of one folder */
+  static final class Shard {
+    private final Path path;
+    private Map<String, Entry> entries;
+    private int records;
+
+    Shard(Path path) {
+      this.path = path;
+    }
+
+    synchronized Entry get(String name) {
+      load();
+      return entries.get(name);
+    }
+
+    synchronized byte[] read(Entry entry) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(entry.length());
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        while (buffer.hasRemaining()) {
+          if (channel.read(buffer, entry.position() + buffer.position()) < 0) {
+            throw new IOException("Unexpected end of index file");
+          }
+        }
+      }
+      return buffer.array();
+    }
+
+    synchronized void append(
+        String name,
+        long fileLength,
+        long lastModified,
+        int numberOfFrame,
+        boolean hasPixel,
+        int modelTagsHash,
+        String tsuid,
+        byte[] header)
+        throws IOException {
+      load();
+      if (entries.size() > 0 && records > 2 * entries.size() + 16) {
+        compact();
+      }
+      Files.createDirectories(path.getParent());
+      try (FileChannel channel =
+          FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+        long start = channel.size();
+        Entry entry =
+            new Entry(
+                fileLength,
+                lastModified,
+                numberOfFrame,
+                hasPixel,
+                modelTagsHash,
+                tsuid,
+                0,
+                header.length);
+        ByteBuffer record = encode(name, entry, header);
+        // The header is at the end of the record
+        long position = start + record.limit() - header.length;
+        while (record.hasRemaining()) {
+          channel.write(record, start + record.position());
+        }
+        entries.put(
+            name,
+            new Entry(
+                fileLength,
+                lastModified,
+                numberOfFrame,
+                hasPixel,
+                modelTagsHash,
+                tsuid,
+                position,
+                header.length));
+        records++;
+      }
+    }
+
+    private static ByteBuffer encode(String name, Entry entry, byte[] header) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(header.length + 128);
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(0); // Placeholder for the record length
+      out.writeUTF(name);
+      out.writeLong(entry.fileLength());
+      out.writeLong(entry.lastModified());
+      out.writeInt(entry.numberOfFrame());
+      out.writeBoolean(entry.hasPixel());
+      out.writeInt(entry.modelTagsHash());
+      out.writeUTF(entry.transferSyntaxUID());
+      out.write(header);
+      out.flush();
+      ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+      buffer.putInt(0, buffer.limit() - Integer.BYTES);
+      return buffer;
+    }
+
+    private void load() {
+      if (entries != null) {
+        return;
+      }
+      entries = new HashMap<>();
+      records = 0;
+      if (!Files.isReadable(path)) {
+        return;
+      }
+      try (FileChannel channel =
+          FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+        while (position + Integer.BYTES <= size) {
+          lengthBuffer.clear();
+          channel.read(lengthBuffer, position);
+          int length = lengthBuffer.getInt(0);
+          long start = position + Integer.BYTES;
+          if (length <= 0 || start + length > size) {
+            break;
+          }
+          ByteBuffer record = ByteBuffer.allocate(length);
+          while (record.hasRemaining()) {
+            if (channel.read(record, start + record.position()) < 0) {
+              break;
+            }
+          }
+          DataInputStream in = new DataInputStream(new ByteArrayInputStream(record.array()));
+          String name = in.readUTF();
+          long fileLength = in.readLong();
+          long lastModified = in.readLong();
+          int frames = in.readInt();
+          boolean hasPixel = in.readBoolean();
+          int modelTagsHash = in.readInt();
+          String tsuid = in.readUTF();
+          int headerLength = in.available();
+          entries.put(
+              name,
+              new Entry(
+                  fileLength,
+                  lastModified,
+                  frames,
+                  hasPixel,
+                  modelTagsHash,
+                  tsuid,
+                  start + length - headerLength,
+                  headerLength));
+          records++;
+          position = start + length;
+        }
+        if (position < size) {
+          // Remove the incomplete record
+          channel.truncate(position);
+        }
+      } catch (IOException e) {
+        LOGGER.warn("Cannot read the header index {}", path, e);
+        entries.clear();
+      }
+    }
+
+    private void compact() throws IOException {
+      Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+      Map<String, Entry> compacted = new HashMap<>();
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+          FileChannel out =
+              FileChannel.open(
+                  tmp,
+                  StandardOpenOption.CREATE,
+                  StandardOpenOption.WRITE,
+                  StandardOpenOption.TRUNCATE_EXISTING)) {
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+          Entry entry = e.getValue();
+          ByteBuffer header = ByteBuffer.allocate(entry.length());
+          while (header.hasRemaining()) {
+            if (channel.read(header, entry.position() + header.position()) < 0) {
+              throw new IOException("Unexpected end of index file");
+            }
+          }
+          ByteBuffer record = encode(e.getKey(), entry, header.array());
+          long start = out.size();
+          long position = start + record.limit() - entry.length();
+          while (record.hasRemaining()) {
+            out.write(record, start + record.position());
+          }
+          compacted.put(
+              e.getKey(),
+              new Entry(
+                  entry.fileLength(),
+                  entry.lastModified(),
+                  entry.numberOfFrame(),
+                  entry.hasPixel(),
+                  entry.modelTagsHash(),
+                  entry.transferSyntaxUID(),
+                  position,
+                  entry.length()));
+        }
+      }
+      Files.move(
+          tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      entries = compacted;
+      records = compacted.size();
+    }
+  }
+}
@@ -20,6 +20,7 @@
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.data.UID;
 import org.dcm4che3.image.PhotometricInterpretation;
+import org.dcm4che3.imageio.codec.TransferSyntaxType;
 import org.dcm4che3.img.DicomImageAdapter;
 import org.dcm4che3.img.DicomImageReadParam;
 import org.dcm4che3.img.DicomImageReader;
@@ -31,6 +32,7 @@
 import org.dcm4che3.img.stream.BytesWithImageDescriptor;
 import org.dcm4che3.img.stream.ImageAdapter;
 import org.dcm4che3.img.stream.ImageAdapter.AdaptTransferSyntax;
+import org.dcm4che3.img.stream.ImageDescriptor;
 import org.dcm4che3.img.util.DicomUtils;
 import org.joml.Vector3d;
 import org.opencv.core.Core.MinMaxLocResult;
@@ -140,7 +142,7 @@ private void initPixelValueUnit(String modality) {
       pixelValueUnit = "HU";
     } else if (pixelSpacingUnit == Unit.PIXEL && "US".equals(modality)) {
       Attributes spatialCalibration =
-          Ultrasound.getUniqueSpatialRegion(getMediaReader().getDicomObject());
+          Ultrasound.getUniqueSpatialRegion(getMediaReader().getCompactDicomObject());
       if (spatialCalibration != null) {
         Double calibX =
             DicomUtils.getDoubleFromDicomElement(spatialCalibration, Tag.PhysicalDeltaX, null);
@@ -174,6 +176,25 @@ private void initPixelAspectRatio() {
     }
   }
 
+  @Override
+  public double getDecodingCost() {
+    String tsuid = TagD.getTagValue(mediaIO, Tag.TransferSyntaxUID, String.class);
+    if (tsuid == null) {
+      return 1.0;
+    }
+    TransferSyntaxType type = TransferSyntaxType.forUID(tsuid);
+    if (type == TransferSyntaxType.NATIVE) {
+      return 1.0;
+    } else if (type == TransferSyntaxType.RLE) {
+      return 2.0;
+    } else if (type == TransferSyntaxType.JPEG_2000) {
+      return 8.0;
+    } else if (type == TransferSyntaxType.JPEG_LS || type == TransferSyntaxType.JPEG_LOSSLESS) {
+      return 4.0;
+    }
+    return 3.0;
+  }
+
   private double[] getMagnifiedPixelSpacing(boolean useMagnificationFactor) {
     double[] val = TagD.getTagValue(mediaIO, Tag.ImagerPixelSpacing, double[].class);
     // Follows D. Clunie recommendations
@@ -387,9 +408,9 @@ protected void findMinMaxValues(PlanarImage img, boolean exclude8bitImage) {
      */
 
     if (img != null && !isImageAvailable()) {
-      DicomMetaData meta = getMediaReader().getDicomMetaData();
-      if (meta != null) {
-        adapter = new DicomImageAdapter(img, meta.getImageDescriptor());
+      ImageDescriptor desc = getMediaReader().getImageDescriptor();
+      if (desc != null) {
+        adapter = new DicomImageAdapter(img, desc);
         MinMaxLocResult val = adapter.getMinMax();
         if (val != null) {
           this.minPixelValue = val.minVal;
@@ -426,8 +447,7 @@ public PlanarImage getRenderedImage(PlanarImage imageSource, Map<String, Object>
     if (imageSource == null) {
       return null;
     }
-    DicomMetaData meta = getMediaReader().getDicomMetaData();
-    if (meta != null) {
+    if (getMediaReader().getImageDescriptor() != null) {
       DicomImageReadParam readParams = new DicomImageReadParam();
       if (params != null) {
         readParams.setPresentationState(
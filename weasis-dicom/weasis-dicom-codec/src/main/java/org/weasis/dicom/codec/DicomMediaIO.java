@@ -41,6 +41,7 @@
 import org.dcm4che3.img.stream.DicomFileInputStream;
 import org.dcm4che3.img.stream.ImageDescriptor;
 import org.dcm4che3.img.util.DicomUtils;
+import org.dcm4che3.imageio.codec.TransferSyntaxType;
 import org.dcm4che3.io.DicomOutputStream;
 import org.opencv.core.Core;
 import org.opencv.core.CvType;
@@ -50,6 +51,7 @@
 import org.weasis.core.api.explorer.model.DataExplorerModel;
 import org.weasis.core.api.gui.util.AppProperties;
 import org.weasis.core.api.media.data.Codec;
+import org.weasis.core.api.media.data.DiskImageCache;
 import org.weasis.core.api.media.data.FileCache;
 import org.weasis.core.api.media.data.MediaElement;
 import org.weasis.core.api.media.data.SimpleTaggable;
@@ -78,6 +80,19 @@ public class DicomMediaIO implements DcmMediaReader {
       AppProperties.buildAccessibleTempDirectory(
           AppProperties.FILE_CACHE_DIR.getName(), "dcm-rawcv"); // NON-NLS
 
+  /** Maximum size in MB of the disk cache of the decoded compressed frames. 0 disables it. */
+  public static final String P_FRAME_CACHE_SIZE = "weasis.dicom.frame.cache.size";
+  /** Persistent cache of the decoded compressed frames (disabled until its size is set). */
+  public static final DiskImageCache FRAME_CACHE =
+      new DiskImageCache(
+          new File(AppProperties.WEASIS_PATH, "cache" + File.separator + "frames"), // NON-NLS
+          0);
+
+  /** Persistent index of the compact headers of the local files */
+  public static final DicomHeaderIndex HEADER_INDEX =
+      new DicomHeaderIndex(
+          new File(AppProperties.WEASIS_PATH, "cache" + File.separator + "headers")); // NON-NLS
+
   public static final String DICOM_MIMETYPE = "application/dicom"; // NON-NLS
   public static final String IMAGE_MIMETYPE = "image/dicom"; // NON-NLS
   public static final String SERIES_VIDEO_MIMETYPE = "video/dicom"; // NON-NLS
@@ -295,6 +310,8 @@ public void removeElement(Reference<? extends DicomMetaData> soft) {
   // the dcmMetadata is
   // created within the application and is given to the ImageReader constructor
   private DicomMetaData dcmMetadata = null;
+  // Compact header (see DicomHeaderIndex) kept during the life of the reader
+  private DicomMetaData compactMetadata = null;
 
   private URI uri;
   private int numberOfFrame;
@@ -378,7 +395,7 @@ public synchronized Reading getReadingStatus() {
 
   private Reading setMimeType() {
     try {
-      DicomMetaData md = readMetaData();
+      DicomMetaData md = readCompactMetaData();
       Attributes header = md.getDicomObject();
       // Exclude DICOMDIR
       if (md.isMediaStorageDirectory()) {
@@ -490,6 +507,8 @@ private void writeInstanceTags(DicomMetaData md) {
         TagD.get(Tag.SOPInstanceUID), header.getString(Tag.SOPInstanceUID, String.valueOf(instNb)));
     if (fmi != null) {
       setTagNoNull(TagD.get(Tag.TransferSyntaxUID), fmi.getString(Tag.TransferSyntaxUID));
+    } else {
+      setTagNoNull(TagD.get(Tag.TransferSyntaxUID), md.getTransferSyntaxUID());
     }
 
     String concatenationUID = header.getString(Tag.ConcatenationUID);
@@ -664,7 +683,19 @@ public PlanarImage getImageFragment(MediaElement media, int frame, boolean noEmb
         try (DicomFileInputStream inputStream = new DicomFileInputStream(original.get().toPath())) {
           reader.setInput(inputStream);
           ImageDescriptor desc = reader.getImageDescriptor();
-          PlanarImage img = reader.getPlanarImage(frame, null);
+          String cacheKey = getFrameCacheKey(original.get(), frame);
+          PlanarImage img = cacheKey == null ? null : FRAME_CACHE.get(cacheKey);
+          if (img != null
+              && (img.width() != desc.getColumns() || img.height() != desc.getRows())) {
+            FRAME_CACHE.remove(cacheKey);
+            img = null;
+          }
+          if (img == null) {
+            img = reader.getPlanarImage(frame, null);
+            if (cacheKey != null) {
+              FRAME_CACHE.put(cacheKey, img);
+            }
+          }
           if (img.width() != desc.getColumns() || img.height() != desc.getRows()) {
             LOGGER.error(
                 "The native image size ({}x{}) does not match with the DICOM attributes({}x{})",
@@ -682,6 +713,36 @@ public PlanarImage getImageFragment(MediaElement media, int frame, boolean noEmb
     return null;
   }
 
+  /**
+   * Returns the key of a frame in the disk cache. Only the compressed frames are cached because
+   * reading the native ones from the DICOM file is already fast. The key contains the identity of
+   * the file, as the same instance can be received with another content (e.g. lossy and lossless
+   * versions, or a corrected instance).
+   *
+   * @param file the DICOM file
+   * @param frame the frame index
+   * @return the key or null when the frame must not be cached
+   */
+  private String getFrameCacheKey(File file, int frame) {
+    if (FRAME_CACHE.isEnabled()) {
+      String tsuid = TagD.getTagValue(this, Tag.TransferSyntaxUID, String.class);
+      String sopUID = TagD.getTagValue(this, Tag.SOPInstanceUID, String.class);
+      if (StringUtil.hasText(sopUID)
+          && tsuid != null
+          && TransferSyntaxType.forUID(tsuid) != TransferSyntaxType.NATIVE) {
+        return String.join(
+            "_",
+            sopUID,
+            tsuid,
+            file.getAbsolutePath(),
+            Long.toString(file.length()),
+            Long.toString(file.lastModified()),
+            Integer.toString(frame));
+      }
+    }
+    return null;
+  }
+
   private static Mat getMatBuffer(ExtendSegmentedInputImageStream extParams) throws IOException {
     try (RandomAccessFile raf = new RandomAccessFile(extParams.getFile(), "r")) {
 
@@ -846,7 +907,8 @@ public Map<TagW, Object> getMediaFragmentTags(Object key) {
       // Clone the shared tag
       Map<TagW, Object> tagList = new HashMap<>(tags);
       SimpleTaggable taggable = new SimpleTaggable(tagList);
-      if (DicomMediaUtils.writePerFrameFunctionalGroupsSequence(taggable, getDicomObject(), val)) {
+      if (DicomMediaUtils.writePerFrameFunctionalGroupsSequence(
+          taggable, getCompactDicomObject(), val)) {
         DicomMediaUtils.computeSlicePositionVector(taggable);
       }
       return tagList;
@@ -903,6 +965,34 @@ public Attributes getDicomObject() {
     return null;
   }
 
+  @Override
+  public Attributes getCompactDicomObject() {
+    try {
+      return readCompactMetaData().getDicomObject();
+    } catch (Exception e) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.error("Cannot read DICOM:", e);
+      } else {
+        LOGGER.error(e.getMessage());
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public ImageDescriptor getImageDescriptor() {
+    try {
+      return readCompactMetaData().getImageDescriptor();
+    } catch (Exception e) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.error("Cannot read DICOM:", e);
+      } else {
+        LOGGER.error(e.getMessage());
+      }
+    }
+    return null;
+  }
+
   @Override
   public DicomMetaData getDicomMetaData() {
     try {
@@ -917,6 +1007,38 @@ public DicomMetaData getDicomMetaData() {
     return null;
   }
 
+  /**
+   * Returns the compact header from the persistent index, or builds it from the DICOM file and
+   * adds it to the index. Unlike {@link #readMetaData()}, the result is never released.
+   */
+  private synchronized DicomMetaData readCompactMetaData() throws IOException {
+    if (compactMetadata != null) {
+      return compactMetadata;
+    } else if (dcmMetadata != null) {
+      return dcmMetadata;
+    }
+
+    File file = fileCache.getOriginalFile().orElse(null);
+    int tagsHash = tagManager.getTagsHash();
+    DicomHeaderIndex.IndexedHeader indexed = HEADER_INDEX.get(file, tagsHash);
+    if (indexed != null) {
+      this.numberOfFrame = indexed.numberOfFrame();
+      this.hasPixel = indexed.hasPixel();
+      compactMetadata = indexed.metaData();
+    } else {
+      DicomMetaData md = readMetaData();
+      if (md.isMediaStorageDirectory()) {
+        // DICOMDIR is excluded, no need to index it
+        return md;
+      }
+      // The objects without pixel data (e.g. PR, KO, SR) are read from their header
+      compactMetadata =
+          DicomHeaderIndex.buildCompactMetaData(md, hasPixel ? tagManager::contains : null);
+      HEADER_INDEX.put(file, compactMetadata, numberOfFrame, hasPixel, tagsHash);
+    }
+    return compactMetadata;
+  }
+
   /** Reads the DICOM header meta-data, up to, but not including pixel data. */
   private synchronized DicomMetaData readMetaData() throws IOException {
     DicomMetaData header = HEADER_CACHE.get(this);
@@ -10,6 +10,7 @@
 package org.weasis.dicom.codec;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.List;
 import org.dcm4che3.data.Attributes;
@@ -53,6 +54,35 @@ public boolean contains(TagW tag, Level level) {
     return list != null && list.contains(tag);
   }
 
+  /**
+   * @param tagID the DICOM tag
+   * @return true if the tag is read at one of the levels
+   */
+  public boolean contains(int tagID) {
+    for (List<TagW> list : levelMap.values()) {
+      for (TagW tag : list) {
+        if (tag.getId() == tagID) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return a hash of the tags of all the levels, which changes when a tag is added
+   */
+  public int getTagsHash() {
+    int[] ids =
+        levelMap.values().stream()
+            .flatMap(List::stream)
+            .mapToInt(TagW::getId)
+            .distinct()
+            .sorted()
+            .toArray();
+    return Arrays.hashCode(ids);
+  }
+
   public void readTags(Level level, Attributes header, Taggable tags) {
     if (level == null || header == null || tags == null) {
       return;
@@ -13,7 +13,6 @@
 import java.util.Map;
 import java.util.Optional;
 import org.dcm4che3.img.DicomImageReadParam;
-import org.dcm4che3.img.DicomMetaData;
 import org.dcm4che3.img.data.OverlayData;
 import org.dcm4che3.img.data.PrDicomObject;
 import org.dcm4che3.img.stream.ImageDescriptor;
@@ -23,6 +22,7 @@
 import org.weasis.core.api.image.ImageOpEvent;
 import org.weasis.core.api.image.ImageOpEvent.OpEvent;
 import org.weasis.core.api.media.data.ImageElement;
+import org.weasis.core.util.LangUtil;
 import org.weasis.dicom.codec.DicomMediaIO;
 import org.weasis.dicom.codec.PRSpecialElement;
 import org.weasis.opencv.data.PlanarImage;
@@ -76,9 +76,8 @@ public void process() throws Exception {
     if (overlay != null && overlay) {
       ImageElement image = (ImageElement) params.get(P_IMAGE_ELEMENT);
       if (image != null && image.getMediaReader() instanceof DicomMediaIO reader) {
-        DicomMetaData md = reader.getDicomMetaData();
-        if (md != null) {
-          ImageDescriptor desc = md.getImageDescriptor();
+        ImageDescriptor desc = reader.getImageDescriptor();
+        if (desc != null) {
           if (image.getKey() instanceof Integer frame) {
             DicomImageReadParam p = new DicomImageReadParam();
             p.setPresentationState((PrDicomObject) params.get(WindowAndPresetsOp.P_PR_ELEMENT));
@@ -97,4 +96,10 @@ public void process() throws Exception {
     }
     params.put(Param.OUTPUT_IMG, result);
   }
+
+  @Override
+  public boolean isCacheable() {
+    // The color of the overlay comes from the preferences
+    return !LangUtil.getNULLtoFalse((Boolean) params.get(P_SHOW));
+  }
 }
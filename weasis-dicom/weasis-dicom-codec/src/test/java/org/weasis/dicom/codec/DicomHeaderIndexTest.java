@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.codec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.img.DicomMetaData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.weasis.dicom.codec.DicomHeaderIndex.IndexedHeader;
+
+class DicomHeaderIndexTest {
+  @TempDir Path indexDir;
+  @TempDir Path dataDir;
+
+  private static DicomMetaData buildHeader(String sopUID) {
+    Attributes dcm = new Attributes();
+    dcm.setString(Tag.SOPInstanceUID, VR.UI, sopUID);
+    dcm.setString(Tag.Modality, VR.CS, "CT"); // NON-NLS
+    dcm.setInt(Tag.Rows, VR.US, 2);
+    dcm.setInt(Tag.Columns, VR.US, 2);
+    dcm.setBytes(Tag.PixelData, VR.OW, new byte[8]);
+    dcm.setString(0x70530010, VR.LO, "Philips PET Private Group"); // NON-NLS
+    dcm.setDouble(0x70531000, VR.DS, 2.5);
+    dcm.setBytes(0x70531001, VR.OB, new byte[DicomHeaderIndex.MAX_PRIVATE_VALUE_LENGTH + 2]);
+    return new DicomMetaData(dcm, UID.JPEG2000);
+  }
+
+  private static DicomMetaData compact(String sopUID) {
+    return DicomHeaderIndex.buildCompactMetaData(buildHeader(sopUID), null);
+  }
+
+  private File createFile(String name) throws IOException {
+    return Files.writeString(dataDir.resolve(name), name).toFile();
+  }
+
+  @Test
+  void testCompactHeader() {
+    DicomMetaData compact = compact("1.2.3"); // NON-NLS
+    Attributes dcm = compact.getDicomObject();
+    assertEquals("1.2.3", dcm.getString(Tag.SOPInstanceUID)); // NON-NLS
+    assertFalse(dcm.contains(Tag.PixelData));
+    assertFalse(dcm.contains(0x70531001));
+    assertEquals(2.5, dcm.getDouble(0x70531000, 0.0));
+    assertEquals(UID.JPEG2000, compact.getTransferSyntaxUID());
+  }
+
+  @Test
+  void testImageCompactHeader() {
+    DicomMetaData md = buildHeader("1.2.3"); // NON-NLS
+    md.getDicomObject().setString(Tag.StudyDescription, VR.LO, "Study"); // NON-NLS
+    md.getDicomObject().setString(Tag.OperatorsName, VR.PN, "Operator"); // NON-NLS
+    md.getDicomObject().setString(Tag.ProtocolName, VR.LO, "Protocol"); // NON-NLS
+    md.getDicomObject().setString(0x60000022, VR.LO, "Overlay"); // NON-NLS
+
+    Attributes dcm =
+        DicomHeaderIndex.buildCompactMetaData(md, tag -> tag == Tag.StudyDescription)
+            .getDicomObject();
+    // Only the tags of the model and the tags used for the images are kept
+    assertEquals("Study", dcm.getString(Tag.StudyDescription)); // NON-NLS
+    assertEquals("1.2.3", dcm.getString(Tag.SOPInstanceUID)); // NON-NLS
+    assertEquals(2, dcm.getInt(Tag.Rows, 0));
+    assertEquals("Overlay", dcm.getString(0x60000022)); // NON-NLS
+    assertEquals(2.5, dcm.getDouble(0x70531000, 0.0));
+    assertFalse(dcm.contains(Tag.OperatorsName));
+    assertFalse(dcm.contains(Tag.ProtocolName));
+    assertFalse(dcm.contains(0x70531001));
+    assertFalse(dcm.contains(Tag.PixelData));
+  }
+
+  @Test
+  void testPrivateSequence() {
+    DicomMetaData md = buildHeader("1.2.3"); // NON-NLS
+    Attributes item = new Attributes();
+    item.setString(0x70531010, VR.LO, "Small"); // NON-NLS
+    md.getDicomObject().newSequence(0x70531002, 1).add(item);
+    Attributes largeItem = new Attributes();
+    largeItem.setBytes(0x70531010, VR.OB, new byte[DicomHeaderIndex.MAX_PRIVATE_VALUE_LENGTH]);
+    md.getDicomObject().newSequence(0x70531003, 1).add(largeItem);
+
+    Attributes dcm = DicomHeaderIndex.buildCompactMetaData(md, null).getDicomObject();
+    assertTrue(dcm.contains(0x70531002));
+    assertFalse(dcm.contains(0x70531003));
+  }
+
+  @Test
+  void testPersistentIndex() throws IOException {
+    File file1 = createFile("img1"); // NON-NLS
+    File file2 = createFile("img2"); // NON-NLS
+    DicomHeaderIndex index = new DicomHeaderIndex(indexDir.toFile());
+    assertNull(index.get(file1, 1));
+    index.put(file1, compact("1.1"), 1, true, 1);
+    index.put(file2, compact("1.2"), 3, false, 1);
+
+    // New instance reading the index file
+    index = new DicomHeaderIndex(indexDir.toFile());
+    IndexedHeader header = index.get(file2, 1);
+    assertNotNull(header);
+    assertEquals(3, header.numberOfFrame());
+    assertFalse(header.hasPixel());
+    assertEquals("1.2", header.metaData().getDicomObject().getString(Tag.SOPInstanceUID));
+    assertEquals(UID.JPEG2000, header.metaData().getTransferSyntaxUID());
+
+    // An image indexed with other tags in the data model is not valid anymore
+    index.put(file1, compact("1.1"), 1, true, 1);
+    assertNotNull(index.get(file1, 1));
+    assertNull(index.get(file1, 2));
+    assertNotNull(index.get(file2, 2));
+
+    // A modified file is not valid anymore
+    Files.writeString(file1.toPath(), "modified"); // NON-NLS
+    assertNull(index.get(file1, 1));
+  }
+
+  @Test
+  void testTruncatedIndex() throws IOException {
+    File file1 = createFile("img1"); // NON-NLS
+    File file2 = createFile("img2"); // NON-NLS
+    DicomHeaderIndex index = new DicomHeaderIndex(indexDir.toFile());
+    index.put(file1, compact("1.1"), 1, true, 1);
+    index.put(file2, compact("1.2"), 1, true, 1);
+
+    // Simulate a crash while writing the last record
+    try (var stream = Files.list(indexDir)) {
+      File idx = stream.findFirst().orElseThrow().toFile();
+      try (RandomAccessFile raf = new RandomAccessFile(idx, "rw")) {
+        raf.setLength(raf.length() - 10);
+      }
+    }
+
+    index = new DicomHeaderIndex(indexDir.toFile());
+    assertNotNull(index.get(file1, 1));
+    assertNull(index.get(file2, 1));
+    index.put(file2, compact("1.2"), 1, true, 1);
+
+    index = new DicomHeaderIndex(indexDir.toFile());
+    assertNotNull(index.get(file1, 1));
+    assertNotNull(index.get(file2, 1));
+  }
+}
@@ -228,7 +228,7 @@ private void parseSeries(
               TagW.DirectDownloadThumbnail,
               readDicomDirIcon(iconInstance, reader.getTransferSyntaxUID()));
           dicomSeries.setTag(TagW.ReadFromDicomdir, true);
-          final LoadSeries loadSeries = new LoadSeries(dicomSeries, dicomModel, 1, writeInCache);
+          final LoadSeries loadSeries = new LoadSeries(dicomSeries, dicomModel, writeInCache);
           loadSeries.setPriority(new DownloadPriority(patient, study, dicomSeries, false));
           seriesList.add(loadSeries);
         }
@@ -29,6 +29,7 @@
 import java.util.Properties;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
@@ -137,6 +138,8 @@ public class DicomModel implements TreeModel, DataExplorerModel {
       Arrays.asList(TreeModelNode.ROOT, patient, study, series);
 
   private final Tree<MediaSeriesGroup> model;
+  // Patient, study and series nodes indexed by the tag of their level and by their identifier
+  private final Map<TagW, Map<Object, MediaSeriesGroup>> nodeIndex = new ConcurrentHashMap<>();
   private PropertyChangeSupport propertyChange = null;
   private final SplittingRules splittingRules;
 
@@ -169,7 +172,15 @@ public Collection<MediaSeriesGroup> getChildren(MediaSeriesGroup node) {
 
   @Override
   public MediaSeriesGroup getHierarchyNode(MediaSeriesGroup parent, Object valueID) {
-    if (parent != null || valueID != null) {
+    if (parent != null && valueID != null) {
+      TagW childTagID = getChildTagID(parent);
+      if (childTagID != null) {
+        MediaSeriesGroup node = getIndexedNode(childTagID, valueID);
+        if (node == null || isChild(parent, node)) {
+          return node;
+        }
+      }
+      // Not a level of the model or the same identifier is in another branch
       for (MediaSeriesGroup node : getChildren(parent)) {
         if (node.matchIdValue(valueID)) {
           return node;
@@ -179,6 +190,42 @@ public MediaSeriesGroup getHierarchyNode(MediaSeriesGroup parent, Object valueID
     return null;
   }
 
+  private static TagW getChildTagID(MediaSeriesGroup parent) {
+    TagW tagID = parent.getTagID();
+    for (int i = 0; i < modelStructure.size() - 1; i++) {
+      if (modelStructure.get(i).tagElement().equals(tagID)) {
+        return modelStructure.get(i + 1).tagElement();
+      }
+    }
+    return null;
+  }
+
+  private MediaSeriesGroup getIndexedNode(TagW tagID, Object valueID) {
+    Map<Object, MediaSeriesGroup> map = nodeIndex.get(tagID);
+    return map == null ? null : map.get(valueID);
+  }
+
+  private boolean isChild(MediaSeriesGroup parent, MediaSeriesGroup node) {
+    Tree<MediaSeriesGroup> tree = model.getTree(node);
+    Tree<MediaSeriesGroup> p = tree == null ? null : tree.getParent();
+    return p != null && Objects.equals(p.getHead(), parent);
+  }
+
+  private void indexNode(MediaSeriesGroup node) {
+    Object id = node.getTagValue(node.getTagID());
+    if (id != null) {
+      nodeIndex.computeIfAbsent(node.getTagID(), _ -> new ConcurrentHashMap<>()).put(id, node);
+    }
+  }
+
+  private void unindexNode(MediaSeriesGroup node) {
+    Object id = node.getTagValue(node.getTagID());
+    Map<Object, MediaSeriesGroup> map = nodeIndex.get(node.getTagID());
+    if (id != null && map != null) {
+      map.remove(id, node);
+    }
+  }
+
   public void mergePatientUID(String oldPatientUID, String newPatientUID) {
     MediaSeriesGroup pt = getHierarchyNode(MediaSeriesGroupNode.rootNode, oldPatientUID);
     MediaSeriesGroup pt2 = getHierarchyNode(MediaSeriesGroupNode.rootNode, newPatientUID);
@@ -248,40 +295,35 @@ public void mergeStudyUID(String oldStudyUID, String studyUID) {
 
   public MediaSeriesGroup getStudyNode(String studyUID) {
     Objects.requireNonNull(studyUID);
-    for (MediaSeriesGroup pt : getChildren(MediaSeriesGroupNode.rootNode)) {
-      for (MediaSeriesGroup st : getChildren(pt)) {
-        if (st.matchIdValue(studyUID)) {
-          return st;
-        }
-      }
-    }
-    return null;
+    return getIndexedNode(DicomModel.study.tagElement(), studyUID);
   }
 
   public MediaSeriesGroup getSeriesNode(String seriesUID) {
     Objects.requireNonNull(seriesUID);
-    for (MediaSeriesGroup pt : getChildren(MediaSeriesGroupNode.rootNode)) {
-      for (MediaSeriesGroup st : getChildren(pt)) {
-        for (MediaSeriesGroup item : getChildren(st)) {
-          if (item.matchIdValue(seriesUID)) {
-            return item;
-          }
-        }
-      }
-    }
-    return null;
+    return getIndexedNode(DicomModel.series.tagElement(), seriesUID);
   }
 
   @Override
   public void addHierarchyNode(MediaSeriesGroup root, MediaSeriesGroup leaf) {
     model.addLeaf(root, leaf);
+    if (leaf != null) {
+      indexNode(leaf);
+    }
   }
 
   @Override
   public void removeHierarchyNode(MediaSeriesGroup root, MediaSeriesGroup leaf) {
     Tree<MediaSeriesGroup> tree = model.getTree(root);
-    if (tree != null) {
+    if (tree != null && leaf != null) {
+      // The descendants are not reachable anymore from the root
+      for (MediaSeriesGroup st : getChildren(leaf)) {
+        for (MediaSeriesGroup item : getChildren(st)) {
+          unindexNode(item);
+        }
+        unindexNode(st);
+      }
       tree.removeLeaf(leaf);
+      unindexNode(leaf);
     }
   }
 
@@ -317,6 +359,7 @@ public void dispose() {
       }
     }
     model.clear();
+    nodeIndex.clear();
   }
 
   @Override
@@ -13,6 +13,16 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.weasis.core.api.explorer.ObservableEvent;
 import org.weasis.core.api.explorer.model.DataExplorerModel;
 import org.weasis.core.api.gui.util.AppProperties;
@@ -23,6 +33,10 @@
 import org.weasis.core.api.media.data.SeriesEvent;
 import org.weasis.core.api.media.data.SeriesThumbnail;
 import org.weasis.core.api.media.data.TagW;
+import org.weasis.core.api.util.BatchWindow;
+import org.weasis.core.api.util.ParallelIngest;
+import org.weasis.core.api.util.StageStats;
+import org.weasis.core.api.util.ThreadUtil;
 import org.weasis.core.ui.model.GraphicModel;
 import org.weasis.core.ui.serialize.XmlSerializer;
 import org.weasis.core.util.FileUtil;
@@ -32,6 +46,18 @@
 import org.weasis.dicom.explorer.HangingProtocols.OpeningViewer;
 
 public class LoadLocalDicom extends LoadDicom {
+  private static final Logger LOGGER = LoggerFactory.getLogger(LoadLocalDicom.class);
+
+  // Number of headers read in advance by each reader thread
+  private static final int READ_AHEAD = 16;
+  // Maximum number of files added to the model before updating the thumbnails
+  private static final int BATCH_SIZE = 200;
+  private static final Future<LocalFile> END = CompletableFuture.completedFuture(null);
+  // Maximum number of received files and delay in ms before adding them to the model
+  private static final int RECEIVED_BATCH_SIZE = 50;
+  private static final long RECEIVED_BATCH_DELAY = 1000;
+  // Minimum number of read files for logging the throughput of the import at the INFO level
+  private static final int LOG_STATS_MIN_FILES = 1000;
 
   private final File[] files;
   private final boolean recursive;
@@ -56,62 +82,201 @@ protected Boolean doInBackground() throws Exception {
     startLoadingEvent();
     if (files.length > 0) {
       openingStrategy.prepareImport();
-      addSelectionAndNotify(files, true);
+      importFiles();
     }
     return true;
   }
 
-  protected void addSelectionAndNotify(File[] file, boolean firstLevel) {
-    if (file == null || file.length < 1) {
-      return;
+  /**
+   * Imports the files with three stages: one thread walks the folders, a pool of threads reads the
+   * DICOM headers and the current thread updates the model in the order of the walk. The model
+   * notifications are sent by batch.
+   */
+  private void importFiles() throws InterruptedException {
+    int nbThreads = ParallelIngest.getDefaultParallelism();
+    ExecutorService readers =
+        ThreadUtil.buildNewFixedThreadExecutor(nbThreads, "Dicom Header Reader"); // NON-NLS
+    // Limits the number of headers read in advance
+    BlockingQueue<Future<LocalFile>> pending = new ArrayBlockingQueue<>(nbThreads * READ_AHEAD);
+    AtomicBoolean stopped = new AtomicBoolean();
+    StageStats walkStats = new StageStats("walk"); // NON-NLS
+    StageStats readStats = new StageStats("read header"); // NON-NLS
+    StageStats modelStats = new StageStats("update model"); // NON-NLS
+
+    Thread walker =
+        ThreadUtil.getThreadFactory("Dicom Folder Walker") // NON-NLS
+            .newThread(
+                () -> {
+                  try {
+                    walk(files, true, readers, pending, stopped, walkStats, readStats);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  } finally {
+                    walkStats.stop();
+                    putEnd(pending);
+                  }
+                });
+    walker.start();
+
+    List<SeriesThumbnail> thumbs = new ArrayList<>();
+    try {
+      while (true) {
+        Future<LocalFile> future = pending.take();
+        if (future == END) {
+          break;
+        }
+        LocalFile localFile = getResult(future);
+        if (isCancelled()) {
+          break;
+        }
+        if (localFile != null) {
+          long start = System.nanoTime();
+          addToModel(localFile, thumbs);
+          modelStats.add(start);
+          if (thumbs.size() >= BATCH_SIZE || pending.isEmpty()) {
+            updateSeriesThumbnail(thumbs, dicomModel);
+            thumbs.clear();
+          }
+        }
+      }
+    } finally {
+      stopped.set(true);
+      pending.clear();
+      walker.interrupt();
+      readers.shutdownNow();
+      updateSeriesThumbnail(thumbs, dicomModel);
+      modelStats.stop();
+    }
+    if (readStats.getCount() >= LOG_STATS_MIN_FILES) {
+      LOGGER.info("Local DICOM import: {}, {}, {}", walkStats, readStats, modelStats);
+    } else {
+      LOGGER.debug("Local DICOM import: {}, {}, {}", walkStats, readStats, modelStats);
     }
+  }
 
-    ArrayList<SeriesThumbnail> thumbs = new ArrayList<>();
-    ArrayList<File> folders = new ArrayList<>();
-    for (File value : file) {
-      if (isCancelled()) {
+  private void walk(
+      File[] list,
+      boolean firstLevel,
+      ExecutorService readers,
+      BlockingQueue<Future<LocalFile>> pending,
+      AtomicBoolean stopped,
+      StageStats walkStats,
+      StageStats readStats)
+      throws InterruptedException {
+    if (list == null) {
+      return;
+    }
+    List<File> folders = new ArrayList<>();
+    for (File value : list) {
+      if (stopped.get() || isCancelled()) {
         return;
       }
       if (value == null) {
         continue;
       }
-
-      if (value.isDirectory()) {
+      long start = System.nanoTime();
+      boolean directory = value.isDirectory();
+      walkStats.add(start);
+      if (directory) {
         if (firstLevel || recursive) {
           folders.add(value);
         }
-      } else if (value.canRead()
-              && FileUtil.isFileExtensionMatching(value, DicomCodec.FILE_EXTENSIONS)
-          || MimeInspector.isMatchingMimeTypeFromMagicNumber(value, DicomMediaIO.DICOM_MIMETYPE)) {
-        DicomMediaIO loader = new DicomMediaIO(value);
+      } else {
+        pending.put(readers.submit(() -> readHeader(value, readStats)));
+      }
+    }
+
+    // The files of a folder are imported before its sub-folders
+    for (File folder : folders) {
+      long start = System.nanoTime();
+      File[] children = folder.listFiles();
+      walkStats.add(start);
+      walk(children, false, readers, pending, stopped, walkStats, readStats);
+    }
+  }
+
+  private static void putEnd(BlockingQueue<Future<LocalFile>> pending) {
+    try {
+      pending.put(END);
+    } catch (InterruptedException e) {
+      // The import has been stopped, the queue is cleared by the consumer
+      pending.clear();
+      pending.offer(END);
+    }
+  }
+
+  private LocalFile getResult(Future<LocalFile> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      LOGGER.error("Cannot read DICOM file", e.getCause());
+      errors.incrementAndGet();
+    } catch (CancellationException e) {
+      // Stopped while reading
+    }
+    return null;
+  }
+
+  private static LocalFile readHeader(File file, StageStats readStats) {
+    long start = System.nanoTime();
+    try {
+      if (file.canRead() && FileUtil.isFileExtensionMatching(file, DicomCodec.FILE_EXTENSIONS)
+          || MimeInspector.isMatchingMimeTypeFromMagicNumber(file, DicomMediaIO.DICOM_MIMETYPE)) {
+        DicomMediaIO loader = new DicomMediaIO(file);
         Reading reading = loader.getReadingStatus();
+        GraphicModel graphicModel = null;
         if (reading == Reading.READABLE) {
-          if (value.getPath().startsWith(AppProperties.APP_TEMP_DIR.getPath())) {
-            loader.getFileCache().setOriginalTempFile(value);
-          }
-          // Issue: must handle adding image to viewer and building thumbnail (middle image)
-          SeriesThumbnail t = buildDicomStructure(loader);
-          if (t != null) {
-            thumbs.add(t);
-          }
-
-          File gpxFile = new File(value.getPath() + ".xml");
-          GraphicModel graphicModel = XmlSerializer.readPresentationModel(gpxFile);
-          if (graphicModel != null) {
-            loader.setTag(TagW.PresentationModel, graphicModel);
-          }
-        } else if (reading == Reading.ERROR) {
-          errors.incrementAndGet();
+          graphicModel = XmlSerializer.readPresentationModel(new File(file.getPath() + ".xml"));
         }
+        return new LocalFile(file, loader, reading, graphicModel);
       }
+      return null;
+    } finally {
+      readStats.add(start);
     }
-    updateSeriesThumbnail(thumbs, dicomModel);
+  }
 
-    for (File folder : folders) {
-      addSelectionAndNotify(folder.listFiles(), false);
+  private void addToModel(LocalFile localFile, List<SeriesThumbnail> thumbs) {
+    DicomMediaIO loader = localFile.loader();
+    if (localFile.reading() == Reading.READABLE) {
+      if (localFile.file().getPath().startsWith(AppProperties.APP_TEMP_DIR.getPath())) {
+        loader.getFileCache().setOriginalTempFile(localFile.file());
+      }
+      // Issue: must handle adding image to viewer and building thumbnail (middle image)
+      SeriesThumbnail t = buildDicomStructure(loader);
+      if (t != null) {
+        thumbs.add(t);
+      }
+      if (localFile.graphicModel() != null) {
+        loader.setTag(TagW.PresentationModel, localFile.graphicModel());
+      }
+    } else if (localFile.reading() == Reading.ERROR) {
+      errors.incrementAndGet();
     }
   }
 
+  private record LocalFile(
+      File file, DicomMediaIO loader, Reading reading, GraphicModel graphicModel) {}
+
+  /**
+   * Builds the import of the files received one by one, for instance by a DICOM transfer. The files
+   * are added to the model by small batches while the transfer is still running.
+   *
+   * @param dicomModel the model receiving the files
+   * @param openingStrategy the strategy for opening the series in the viewers
+   * @return the batch window receiving the files
+   */
+  public static BatchWindow<File> buildReceivedFilesImport(
+      DicomModel dicomModel, PluginOpeningStrategy openingStrategy) {
+    return new BatchWindow<>(
+        RECEIVED_BATCH_SIZE,
+        RECEIVED_BATCH_DELAY,
+        files ->
+            DicomModel.LOADING_EXECUTOR.execute(
+                new LoadLocalDicom(
+                    files.toArray(File[]::new), false, dicomModel, openingStrategy)));
+  }
+
   public static void updateSeriesThumbnail(List<SeriesThumbnail> thumbs, DicomModel dicomModel) {
     if (dicomModel == null || thumbs == null) {
       return;
@@ -15,15 +15,33 @@
 import java.awt.image.BufferedImage;
 import java.awt.image.IndexColorModel;
 import java.awt.image.Raster;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import javax.swing.BorderFactory;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.JButton;
@@ -47,10 +65,12 @@
 import org.dcm4che3.data.UID;
 import org.dcm4che3.data.VR;
 import org.dcm4che3.imageio.codec.TransferSyntaxType;
+import org.dcm4che3.io.DicomInputStream;
 import org.dcm4che3.img.util.DicomUtils;
 import org.dcm4che3.media.DicomDirWriter;
 import org.dcm4che3.media.RecordType;
 import org.dcm4che3.util.UIDUtils;
+import org.opencv.core.Mat;
 import org.opencv.core.MatOfInt;
 import org.opencv.imgcodecs.Imgcodecs;
 import org.slf4j.Logger;
@@ -65,11 +85,15 @@
 import org.weasis.core.api.image.SimpleOpManager;
 import org.weasis.core.api.image.WindowOp;
 import org.weasis.core.api.image.ZoomOp;
+import org.weasis.core.api.media.data.FileCache;
 import org.weasis.core.api.media.data.MediaElement;
 import org.weasis.core.api.media.data.MediaSeries;
 import org.weasis.core.api.media.data.Series;
 import org.weasis.core.api.media.data.TagW;
 import org.weasis.core.api.util.FontItem;
+import org.weasis.core.api.util.ParallelIngest;
+import org.weasis.core.api.util.StageStats;
+import org.weasis.core.api.util.ThreadUtil;
 import org.weasis.core.ui.model.GraphicModel;
 import org.weasis.core.ui.serialize.XmlSerializer;
 import org.weasis.core.util.FileUtil;
@@ -80,6 +104,7 @@
 import org.weasis.dicom.codec.DicomElement;
 import org.weasis.dicom.codec.DicomElement.DicomExportParameters;
 import org.weasis.dicom.codec.DicomImageElement;
+import org.weasis.dicom.codec.DicomMediaIO;
 import org.weasis.dicom.codec.DicomSeries;
 import org.weasis.dicom.codec.FileExtractor;
 import org.weasis.dicom.codec.TagD;
@@ -107,6 +132,11 @@ public class LocalExport extends AbstractItemDialogPage implements ExportDicom {
   public static final String DICOM_ONLY_RAW = "exp.dicom.only.raw"; // NON-NLS
   public static final String DICOM_NEW_UID = "exp.dicom.new.uid"; // NON-NLS
   public static final String CD_COMPATIBLE = "exp.cd";
+  public static final String IMG_SKIP_EXISTING = "exp.skip.existing"; // NON-NLS
+  public static final String ZIP_STORE_COMPRESSED = "exp.zip.store.compressed"; // NON-NLS
+
+  // Number of DICOM objects encoded in advance by each thread when writing a ZIP file
+  private static final int ZIP_READ_AHEAD = 4;
 
   public enum Format {
     DICOM("DICOM", "dcm"),
@@ -248,6 +278,15 @@ protected void showExportingOptions() {
               Boolean.parseBoolean(pref.getProperty(DICOM_NEW_UID, Boolean.FALSE.toString())));
       options.add(newUidCheckBox);
 
+      JCheckBox storeCompressedCheckBox =
+          new JCheckBox(
+              Messages.getString("LocalExport.zip_store"),
+              Boolean.parseBoolean(
+                  pref.getProperty(ZIP_STORE_COMPRESSED, Boolean.TRUE.toString())));
+      if (dicomZip) {
+        options.add(storeCompressedCheckBox);
+      }
+
       final JCheckBox box1 =
           new JCheckBox(
               Messages.getString("LocalExport.inc_dicomdir"),
@@ -287,6 +326,10 @@ protected void showExportingOptions() {
             StringUtil.getEmptyStringIfNullEnum((TransferSyntax) syntaxComboBox.getSelectedItem()));
         pref.setProperty(DICOM_ONLY_RAW, String.valueOf(onlyUncompressed.isSelected()));
         pref.setProperty(DICOM_NEW_UID, String.valueOf(newUidCheckBox.isSelected()));
+        if (dicomZip) {
+          pref.setProperty(
+              ZIP_STORE_COMPRESSED, String.valueOf(storeCompressedCheckBox.isSelected()));
+        }
         if (!forceDICOMDIR) {
           pref.setProperty(INC_DICOMDIR, String.valueOf(box1.isSelected()));
           pref.setProperty(KEEP_INFO_DIR, String.valueOf(boxKeepNames.isSelected()));
@@ -330,6 +373,11 @@ protected void showExportingOptions() {
       options.add(shutterCheckBox);
       options.add(overlayCheckBox);
       options.add(boxKeepNames);
+      JCheckBox skipExistingCheckBox =
+          new JCheckBox(
+              Messages.getString("LocalExport.skip_existing"),
+              Boolean.parseBoolean(pref.getProperty(IMG_SKIP_EXISTING, Boolean.FALSE.toString())));
+      options.add(skipExistingCheckBox);
 
       int response =
           JOptionPane.showOptionDialog(
@@ -351,6 +399,7 @@ protected void showExportingOptions() {
         pref.setProperty(IMG_SHUTTER, String.valueOf(shutterCheckBox.isSelected()));
         pref.setProperty(IMG_OVERLAY, String.valueOf(overlayCheckBox.isSelected()));
         pref.setProperty(KEEP_INFO_DIR, String.valueOf(boxKeepNames.isSelected()));
+        pref.setProperty(IMG_SKIP_EXISTING, String.valueOf(skipExistingCheckBox.isSelected()));
       }
     }
   }
@@ -468,20 +517,7 @@ protected Boolean doInBackground() throws Exception {
               if (format == Format.DICOM) {
                 writeDicom(this, exportDir, model, pref);
               } else if (format == Format.DICOM_ZIP) {
-                pref.setProperty(INC_DICOMDIR, Boolean.TRUE.toString());
-                pref.setProperty(CD_COMPATIBLE, Boolean.TRUE.toString());
-                File writeDir =
-                    FileUtil.createTempDir(
-                        AppProperties.buildAccessibleTempDirectory(
-                            "tmp", Format.DICOM_ZIP.extension)); // NON-NLS
-                writeDicom(this, writeDir, model, pref);
-                try {
-                  FileUtil.zip(writeDir, exportDir);
-                } catch (Exception e) {
-                  LOGGER.error("Cannot export DICOM ZIP file: {}", exportDir, e);
-                } finally {
-                  FileUtil.recursiveDelete(writeDir);
-                }
+                writeDicomZip(this, exportDir, model, pref);
               } else {
                 writeOther(this, exportDir, model, format, pref);
               }
@@ -525,10 +561,20 @@ protected void writeOther(
     boolean overlay = Boolean.parseBoolean(pref.getProperty(IMG_OVERLAY, Boolean.TRUE.toString()));
     boolean shutter = Boolean.parseBoolean(pref.getProperty(IMG_SHUTTER, Boolean.TRUE.toString()));
     boolean img16 = Boolean.parseBoolean(pref.getProperty(IMG_16_BIT, Boolean.FALSE.toString()));
+    boolean skipExisting =
+        Boolean.parseBoolean(pref.getProperty(IMG_SKIP_EXISTING, Boolean.FALSE.toString()));
     if (format == Format.JPEG) {
       img16 = false;
     }
-
+    ImageEncoding encoding =
+        new ImageEncoding(format, jpegQuality, img16, padding, shutter, overlay);
+
+    // Each image being exported is kept in memory, so the number of pending images is limited
+    int nbThreads = ParallelIngest.getDefaultParallelism();
+    ExecutorService encoders =
+        ThreadUtil.buildNewFixedThreadExecutor(nbThreads, "Image Export"); // NON-NLS
+    Deque<Future<?>> pending = new ArrayDeque<>();
+    ImageExportStats stats = new ImageExportStats();
     try {
       synchronized (exportTree) {
         ArrayList<String> seriesGph = new ArrayList<>();
@@ -554,6 +600,7 @@ protected void writeOther(
           DefaultMutableTreeNode node = (DefaultMutableTreeNode) treePath.getLastPathComponent();
           Object object = node.getUserObject();
 
+          Runnable export = null;
           if (object instanceof MediaElement dcm && object instanceof FileExtractor) {
             File fileSrc = ((FileExtractor) dcm).getExtractFile();
             if (fileSrc != null) {
@@ -565,7 +612,12 @@ protected void writeOther(
 
               File destinationFile =
                   new File(destinationDir, instance + FileUtil.getExtension(fileSrc.getName()));
-              FileUtil.nioCopyFile(fileSrc, destinationFile);
+              if (skipExisting && isExistingFile(destinationFile)) {
+                stats.skipped.incrementAndGet();
+              } else {
+                export =
+                    () -> writeFile(destinationFile, f -> FileUtil.nioCopyFile(fileSrc, f));
+              }
             }
           } else if (object instanceof DicomImageElement img) {
             // Get instance number instead SOPInstanceUID to handle multiframe
@@ -574,44 +626,163 @@ protected void writeOther(
             File destinationDir = new File(exportDir, path);
             destinationDir.mkdirs();
 
-            SimpleOpManager manager =
-                img.buildSimpleOpManager(img16, padding, shutter, overlay, 1.0);
-            PlanarImage image = manager.getFirstNodeInputImage();
-            if (image != null) {
-              PlanarImage rimage = manager.process();
-              if (rimage == null) {
-                rimage = image;
-              }
-              boolean mustBeReleased = !Objects.equals(rimage, image);
-              image = rimage;
-
-              File destinationFile = new File(destinationDir, instance + "." + format.extension);
-              if (format == Format.PNG) {
-                ImageProcessor.writePNG(image.toMat(), destinationFile);
-              } else {
-                MatOfInt map = new MatOfInt();
-                if (format == Format.JPEG) {
-                  map.fromArray(Imgcodecs.IMWRITE_JPEG_QUALITY, jpegQuality);
-                }
-                ImageProcessor.writeImage(image.toMat(), destinationFile, map);
-              }
-              if (mustBeReleased) {
-                ImageConversion.releasePlanarImage(image);
-              }
-              if (seriesGph.contains(img.getTagValue(TagD.get(Tag.SeriesInstanceUID)))) {
-                XmlSerializer.writePresentation(img, destinationFile);
-              }
+            File destinationFile = new File(destinationDir, instance + "." + format.extension);
+            boolean writePresentation =
+                seriesGph.contains(img.getTagValue(TagD.get(Tag.SeriesInstanceUID)));
+            if (skipExisting && isExistingFile(destinationFile)) {
+              stats.skipped.incrementAndGet();
             } else {
-              LOGGER.error(
-                  "Cannot export DICOM file to {}: {}",
-                  format,
-                  img.getFileCache().getOriginalFile().orElse(null));
+              export =
+                  () -> writeImage(img, destinationFile, encoding, writePresentation, stats);
+            }
+          }
+
+          if (export != null) {
+            while (pending.size() >= nbThreads * 2) {
+              waitForExport(pending.poll());
             }
+            pending.add(encoders.submit(export));
+          }
+        }
+        while (!pending.isEmpty()) {
+          if (task.isCancelled()) {
+            return;
           }
+          waitForExport(pending.poll());
         }
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     } catch (Exception e) {
       LOGGER.error("Cannot extract media from DICOM", e);
+    } finally {
+      pending.forEach(f -> f.cancel(true));
+      encoders.shutdownNow();
+      stats.stop();
+      LOGGER.info("Export to {}: {}", format, stats);
+    }
+  }
+
+  private static boolean isExistingFile(File file) {
+    return file.isFile() && file.length() > 0;
+  }
+
+  /**
+   * Writes a temporary file in the destination folder and moves it to the destination file, so an
+   * interrupted export never leaves a partial file that the next export would skip as existing.
+   *
+   * @param destinationFile the final file
+   * @param writer writes the file given as argument and returns true when successful
+   * @return true when the destination file has been written
+   */
+  private static boolean writeFile(File destinationFile, Predicate<File> writer) {
+    Path tmp = null;
+    try {
+      // Keep the same extension, the image encoder is chosen from it
+      tmp =
+          Files.createTempFile(
+              destinationFile.toPath().getParent(),
+              ".export_", // NON-NLS
+              FileUtil.getExtension(destinationFile.getName()));
+      if (writer.test(tmp.toFile())) {
+        Files.move(
+            tmp,
+            destinationFile.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        return true;
+      }
+    } catch (IOException e) {
+      LOGGER.error("Cannot write {}", destinationFile, e);
+    } finally {
+      if (tmp != null) {
+        FileUtil.delete(tmp.toFile());
+      }
+    }
+    return false;
+  }
+
+  private static void waitForExport(Future<?> future) throws InterruptedException {
+    try {
+      future.get();
+    } catch (ExecutionException e) {
+      LOGGER.error("Cannot export image", e.getCause());
+    }
+  }
+
+  private record ImageEncoding(
+      Format format,
+      int jpegQuality,
+      boolean img16,
+      boolean padding,
+      boolean shutter,
+      boolean overlay) {}
+
+  /** Throughput of the stages of the image export. */
+  private static final class ImageExportStats {
+    private final StageStats decode = new StageStats("decode"); // NON-NLS
+    private final StageStats render = new StageStats("render"); // NON-NLS
+    private final StageStats encode = new StageStats("encode"); // NON-NLS
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    void stop() {
+      decode.stop();
+      render.stop();
+      encode.stop();
+    }
+
+    @Override
+    public String toString() {
+      return decode + ", " + render + ", " + encode + ", skipped: " + skipped; // NON-NLS
+    }
+  }
+
+  private static void writeImage(
+      DicomImageElement img,
+      File destinationFile,
+      ImageEncoding encoding,
+      boolean writePresentation,
+      ImageExportStats stats) {
+    long start = System.nanoTime();
+    SimpleOpManager manager =
+        img.buildSimpleOpManager(
+            encoding.img16(), encoding.padding(), encoding.shutter(), encoding.overlay(), 1.0);
+    PlanarImage image = manager.getFirstNodeInputImage();
+    stats.decode.add(start);
+    if (image != null) {
+      start = System.nanoTime();
+      PlanarImage rimage = manager.process();
+      if (rimage == null) {
+        rimage = image;
+      }
+      boolean mustBeReleased = !Objects.equals(rimage, image);
+      image = rimage;
+      stats.render.add(start);
+
+      start = System.nanoTime();
+      Format format = encoding.format();
+      Mat mat = image.toMat();
+      if (format == Format.PNG) {
+        writeFile(destinationFile, f -> ImageProcessor.writePNG(mat, f));
+      } else {
+        MatOfInt map = new MatOfInt();
+        if (format == Format.JPEG) {
+          map.fromArray(Imgcodecs.IMWRITE_JPEG_QUALITY, encoding.jpegQuality());
+        }
+        writeFile(destinationFile, f -> ImageProcessor.writeImage(mat, f, map));
+      }
+      if (mustBeReleased) {
+        ImageConversion.releasePlanarImage(image);
+      }
+      if (writePresentation) {
+        XmlSerializer.writePresentation(img, destinationFile);
+      }
+      stats.encode.add(start);
+    } else {
+      LOGGER.error(
+          "Cannot export DICOM file to {}: {}",
+          encoding.format(),
+          img.getFileCache().getOriginalFile().orElse(null));
     }
   }
 
@@ -737,9 +908,7 @@ protected void writeDicom(
           }
         }
       }
-    } catch (IOException e) {
-      throw e;
-    } catch (Exception e) {
+    } catch (RuntimeException e) {
       LOGGER.error("Cannot export DICOM", e);
     } finally {
       if (writer != null) {
@@ -749,6 +918,263 @@ protected void writeDicom(
     }
   }
 
+  /**
+   * Writes the DICOM files and the DICOMDIR directly into a ZIP file. The DICOM objects are encoded
+   * in parallel and written into the ZIP file in the order of the tree. The original files are
+   * copied into the ZIP without intermediate copy, only the transcoded or modified objects are
+   * written in a temporary file which is deleted once copied.
+   */
+  protected void writeDicomZip(
+      ExplorerTask task, File zipFile, CheckTreeModel model, Properties pref) throws IOException {
+    int jpegQuality = StringUtil.getInt(pref.getProperty(IMG_QUALITY), 80);
+    int compressionRatio = 100 - jpegQuality; // Ratio from 0 to 99
+    boolean newUID =
+        Boolean.parseBoolean(pref.getProperty(DICOM_NEW_UID, Boolean.FALSE.toString()));
+    boolean onlyRaw =
+        Boolean.parseBoolean(pref.getProperty(DICOM_ONLY_RAW, Boolean.TRUE.toString()));
+    TransferSyntax tsuid =
+        TransferSyntax.getTransferSyntax(pref.getProperty(DICOM_TSUID, TransferSyntax.NONE.name()));
+    if (tsuid != TransferSyntax.NONE && DicomUtils.isNative(tsuid.getTransferSyntaxUID())) {
+      onlyRaw = false;
+    }
+    boolean storeCompressed =
+        Boolean.parseBoolean(pref.getProperty(ZIP_STORE_COMPRESSED, Boolean.TRUE.toString()));
+    DefaultAttributeEditor editor = new DefaultAttributeEditor(newUID, null);
+    List<AttributeEditor> dicomEditors = getAttributeEditors(editor);
+
+    File writeDir =
+        FileUtil.createTempDir(
+            AppProperties.buildAccessibleTempDirectory(
+                "tmp", Format.DICOM_ZIP.extension)); // NON-NLS
+    int nbThreads = ParallelIngest.getDefaultParallelism();
+    ExecutorService encoders =
+        ThreadUtil.buildNewFixedThreadExecutor(nbThreads, "DICOM ZIP Encoder"); // NON-NLS
+    Deque<Future<ZipItem>> pending = new ArrayDeque<>();
+    DicomDirWriter writer = null;
+    boolean completed = false;
+    try (ZipOutputStream zip =
+        new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(zipFile)))) {
+      File dicomdir = new File(writeDir, "DICOMDIR");
+      writer = DicomDirLoader.open(dicomdir);
+
+      synchronized (exportTree) {
+        Set<String> uids = new HashSet<>();
+        for (TreePath treePath : model.getCheckingPaths()) {
+          if (task.isCancelled()) {
+            return;
+          }
+
+          DefaultMutableTreeNode node = (DefaultMutableTreeNode) treePath.getLastPathComponent();
+          if (node.getUserObject() instanceof DicomElement dcm) {
+            boolean image = dcm instanceof DicomImageElement;
+            Attributes uidTags = getUIDs(editor, (MediaElement) dcm);
+            String iuid = uidTags.getString(Tag.SOPInstanceUID);
+            // Write only once the file for multiframe
+            if (image && !uids.add(iuid)) {
+              continue;
+            }
+            String fileID = makeFileIDs(iuid);
+            String path = buildPath((MediaElement) dcm, false, true, node, uidTags);
+            File destinationFile = new File(new File(writeDir, path), fileID);
+            DicomExportParameters params =
+                new DicomExportParameters(
+                    image ? tsuid : null, onlyRaw, dicomEditors, jpegQuality, compressionRatio);
+
+            while (pending.size() >= nbThreads * ZIP_READ_AHEAD) {
+              writeZipEntry(zip, writer, pending.poll(), storeCompressed);
+            }
+            pending.add(
+                encoders.submit(() -> encodeZipItem(dcm, params, destinationFile, node, fileID)));
+          } else if (node.getUserObject() instanceof Series) {
+            MediaSeries<?> s = (MediaSeries<?>) node.getUserObject();
+            if (LangUtil.getNULLtoFalse((Boolean) s.getTagValue(TagW.ObjectToSave))) {
+              Series<?> series = (Series<?>) s.getTagValue(CheckTreeModel.SourceSeriesForPR);
+              if (series != null) {
+                // Keep the order of the tree in the ZIP file
+                while (!pending.isEmpty()) {
+                  writeZipEntry(zip, writer, pending.poll(), storeCompressed);
+                }
+                writeZipPR(zip, writer, writeDir, series, node, editor);
+              }
+            }
+          }
+        }
+        while (!pending.isEmpty()) {
+          if (task.isCancelled()) {
+            return;
+          }
+          writeZipEntry(zip, writer, pending.poll(), storeCompressed);
+        }
+      }
+
+      // Commit DICOMDIR changes and close the file
+      writer.close();
+      writer = null;
+      zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+      writeZipFile(zip, dicomdir, dicomdir.getName());
+      completed = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      LOGGER.error("Cannot export DICOM ZIP file: {}", zipFile, e);
+    } finally {
+      pending.forEach(f -> f.cancel(true));
+      encoders.shutdownNow();
+      if (writer != null) {
+        writer.close();
+      }
+      FileUtil.recursiveDelete(writeDir);
+      if (!completed) {
+        FileUtil.delete(zipFile);
+      }
+    }
+  }
+
+  /**
+   * A DICOM object ready to be written into the ZIP file.
+   *
+   * @param source the file to copy into the ZIP
+   * @param tempFile true when the source is a temporary file to delete once copied
+   * @param compressed true when the pixel data are already compressed
+   * @param attributes the attributes for the DICOMDIR record
+   * @param destinationFile the location of the file relative to the DICOMDIR
+   */
+  private record ZipItem(
+      File source,
+      boolean tempFile,
+      boolean compressed,
+      Attributes attributes,
+      DefaultMutableTreeNode node,
+      String fileID,
+      File destinationFile) {}
+
+  private static ZipItem encodeZipItem(
+      DicomElement dcm,
+      DicomExportParameters params,
+      File destinationFile,
+      DefaultMutableTreeNode node,
+      String fileID) {
+    DcmMediaReader reader = dcm.getMediaReader();
+    FileCache fileCache = reader.getFileCache();
+    Optional<File> original = fileCache.getOriginalFile();
+    boolean sameSyntax = params.syntax() == null || params.syntax() == TransferSyntax.NONE;
+    // Only the DICOM reader has the DICOM file as original file (not the raw files of MPR or MIP)
+    if (sameSyntax
+        && reader instanceof DicomMediaIO
+        && params.dicomEditors().isEmpty()
+        && !reader.isEditableDicom()
+        && !fileCache.isElementInMemory()
+        && original.isPresent()) {
+      Attributes attributes = reader.getDicomObject();
+      String tsuid = reader.getDicomMetaData().getTransferSyntaxUID();
+      return new ZipItem(
+          original.get(),
+          false,
+          isCompressedSyntax(tsuid),
+          attributes == null ? null : new Attributes(attributes),
+          node,
+          fileID,
+          destinationFile);
+    }
+
+    destinationFile.getParentFile().mkdirs();
+    Attributes attributes = dcm.saveToFile(destinationFile, params);
+    if (attributes == null || !destinationFile.exists()) {
+      FileUtil.delete(destinationFile);
+      return null;
+    }
+    String tsuid = null;
+    try (DicomInputStream dis = new DicomInputStream(destinationFile)) {
+      tsuid = dis.getTransferSyntax();
+    } catch (IOException e) {
+      LOGGER.warn("Cannot read the transfer syntax of {}", destinationFile, e);
+    }
+    return new ZipItem(
+        destinationFile,
+        true,
+        isCompressedSyntax(tsuid),
+        attributes,
+        node,
+        fileID,
+        destinationFile);
+  }
+
+  private static boolean isCompressedSyntax(String tsuid) {
+    return tsuid != null && !DicomUtils.isNative(tsuid);
+  }
+
+  private static void writeZipEntry(
+      ZipOutputStream zip, DicomDirWriter writer, Future<ZipItem> future, boolean storeCompressed)
+      throws IOException, InterruptedException {
+    ZipItem item;
+    try {
+      item = future.get();
+    } catch (ExecutionException e) {
+      LOGGER.error("Cannot export DICOM file", e.getCause());
+      return;
+    }
+    if (item == null) {
+      return;
+    }
+    try {
+      // Deflating compressed pixel data takes time for almost no gain
+      zip.setLevel(
+          storeCompressed && item.compressed()
+              ? Deflater.NO_COMPRESSION
+              : Deflater.DEFAULT_COMPRESSION);
+      writeZipFile(zip, item.source(), getZipEntryName(item.destinationFile(), writer));
+      writeInDicomDir(
+          writer, item.attributes(), item.node(), item.fileID(), item.destinationFile());
+    } finally {
+      if (item.tempFile()) {
+        FileUtil.delete(item.source());
+      }
+    }
+  }
+
+  private static void writeZipPR(
+      ZipOutputStream zip,
+      DicomDirWriter writer,
+      File writeDir,
+      Series<?> series,
+      DefaultMutableTreeNode node,
+      DefaultAttributeEditor editor)
+      throws IOException {
+    String seriesInstanceUID = UIDUtils.createUID();
+    for (MediaElement dcm : series.getMedias(null, null)) {
+      Attributes imgAttributes =
+          dcm.getMediaReader() instanceof DcmMediaReader reader ? reader.getDicomObject() : null;
+      if (imgAttributes != null) {
+        String path = buildPath(dcm, false, true, node, getUIDs(editor, dcm));
+        File prFile =
+            writePR(
+                dcm,
+                imgAttributes,
+                false,
+                new File(writeDir, path),
+                writer,
+                node,
+                seriesInstanceUID);
+        if (prFile != null) {
+          zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+          writeZipFile(zip, prFile, getZipEntryName(prFile, writer));
+          FileUtil.delete(prFile);
+        }
+      }
+    }
+  }
+
+  private static String getZipEntryName(File file, DicomDirWriter writer) {
+    return String.join("/", writer.toFileIDs(file));
+  }
+
+  private static void writeZipFile(ZipOutputStream zip, File file, String entryName)
+      throws IOException {
+    zip.putNextEntry(new ZipEntry(entryName));
+    Files.copy(file.toPath(), zip);
+    zip.closeEntry();
+  }
+
   private static List<AttributeEditor> getAttributeEditors(DefaultAttributeEditor editor) {
     if (editor.isGenerateUIDs() || editor.getTagToOverride() != null) {
       return List.of(editor);
@@ -766,24 +1192,40 @@ public static Attributes buildAndWritePR(
     Attributes imgAttributes =
         img.getMediaReader() instanceof DcmMediaReader reader ? reader.getDicomObject() : null;
     if (imgAttributes != null) {
-      GraphicModel grModel = (GraphicModel) img.getTagValue(TagW.PresentationModel);
-      if (grModel != null && grModel.hasSerializableGraphics()) {
-        String prUid = UIDUtils.createUID();
-        File outputFile = new File(destinationDir, keepNames ? prUid : makeFileIDs(prUid));
-        destinationDir.mkdirs();
-        Attributes prAttributes =
-            DicomPrSerializer.writePresentation(
-                grModel, imgAttributes, outputFile, seriesInstanceUID, prUid);
-        if (prAttributes != null) {
-          try {
-            writeInDicomDir(writer, prAttributes, node, outputFile.getName(), outputFile);
-          } catch (IOException e) {
-            LOGGER.error("Writing DICOMDIR", e);
-          }
+      writePR(img, imgAttributes, keepNames, destinationDir, writer, node, seriesInstanceUID);
+    }
+    return imgAttributes;
+  }
+
+  /**
+   * @return the file of the presentation state, or null when nothing has been written
+   */
+  private static File writePR(
+      MediaElement img,
+      Attributes imgAttributes,
+      boolean keepNames,
+      File destinationDir,
+      DicomDirWriter writer,
+      DefaultMutableTreeNode node,
+      String seriesInstanceUID) {
+    GraphicModel grModel = (GraphicModel) img.getTagValue(TagW.PresentationModel);
+    if (grModel != null && grModel.hasSerializableGraphics()) {
+      String prUid = UIDUtils.createUID();
+      File outputFile = new File(destinationDir, keepNames ? prUid : makeFileIDs(prUid));
+      destinationDir.mkdirs();
+      Attributes prAttributes =
+          DicomPrSerializer.writePresentation(
+              grModel, imgAttributes, outputFile, seriesInstanceUID, prUid);
+      if (prAttributes != null) {
+        try {
+          writeInDicomDir(writer, prAttributes, node, outputFile.getName(), outputFile);
+        } catch (IOException e) {
+          LOGGER.error("Writing DICOMDIR", e);
         }
+        return outputFile;
       }
     }
-    return imgAttributes;
+    return null;
   }
 
   public static String buildPath(
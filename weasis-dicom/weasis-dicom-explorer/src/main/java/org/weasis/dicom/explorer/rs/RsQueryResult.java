@@ -592,9 +592,6 @@ private DicomSeries getSeries(
               dicomSeries,
               rsQueryParams.getDicomModel(),
               authMethod,
-              GuiUtils.getUICore()
-                  .getSystemPreferences()
-                  .getIntProperty(LoadSeries.CONCURRENT_DOWNLOADS_IN_SERIES, 4),
               true,
               startDownloading);
       loadSeries.setPriority(
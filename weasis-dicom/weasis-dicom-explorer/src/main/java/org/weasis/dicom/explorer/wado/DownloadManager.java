@@ -10,15 +10,15 @@
 package org.weasis.dicom.explorer.wado;
 
 import java.io.BufferedInputStream;
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +28,7 @@
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.zip.GZIPInputStream;
 import javax.swing.JOptionPane;
 import javax.swing.SwingWorker.StateValue;
@@ -37,22 +38,18 @@
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
-import javax.xml.transform.stax.StAXSource;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
-import javax.xml.validation.Validator;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.api.auth.AuthMethod;
 import org.weasis.core.api.explorer.ObservableEvent;
-import org.weasis.core.api.gui.util.AppProperties;
 import org.weasis.core.api.gui.util.GuiExecutor;
 import org.weasis.core.api.gui.util.GuiUtils;
 import org.weasis.core.api.gui.util.WinUtil;
-import org.weasis.core.api.media.MimeInspector;
 import org.weasis.core.api.media.data.MediaSeriesGroup;
 import org.weasis.core.api.media.data.MediaSeriesGroupNode;
 import org.weasis.core.api.media.data.TagUtil;
@@ -60,6 +57,7 @@
 import org.weasis.core.api.media.data.Thumbnail;
 import org.weasis.core.api.util.BiConsumerWithException;
 import org.weasis.core.api.util.ClosableURLConnection;
+import org.weasis.core.api.util.DownloadEngine;
 import org.weasis.core.api.util.NetworkUtil;
 import org.weasis.core.api.util.ThreadUtil;
 import org.weasis.core.api.util.URLParameters;
@@ -97,7 +95,6 @@
 import org.weasis.dicom.mf.SopInstance;
 import org.weasis.dicom.mf.WadoParameters;
 import org.weasis.dicom.mf.Xml;
-import org.xml.sax.SAXException;
 
 public class DownloadManager {
 
@@ -124,6 +121,17 @@ public class DownloadManager {
           PRIORITY_QUEUE,
           ThreadUtil.getThreadFactory("Series Downloader")); // NON-NLS
 
+  public static final String CONCURRENT_MAX_IMAGES = "download.concurrent.max.images";
+
+  // Downloader of images shared by all the series
+  public static final DownloadEngine DOWNLOAD_ENGINE =
+      new DownloadEngine(
+          "Image Downloader", // NON-NLS
+          GuiUtils.getUICore()
+              .getSystemPreferences()
+              .getIntProperty(LoadSeries.CONCURRENT_DOWNLOADS_IN_SERIES, 4),
+          GuiUtils.getUICore().getSystemPreferences().getIntProperty(CONCURRENT_MAX_IMAGES, 32));
+
   public static class PriorityTaskComparator implements Comparator<Runnable> {
 
     @Override
@@ -278,7 +286,23 @@ private interface LoadSeriesHandler {
 
   public static Collection<LoadSeries> buildDicomSeriesFromXml(URI uri, final DicomModel model)
       throws DownloadException {
-    Map<String, LoadSeries> seriesMap = new HashMap<>();
+    return buildDicomSeriesFromXml(uri, model, null);
+  }
+
+  /**
+   * Reads a manifest from the network stream. The manifest is validated with the XSD schemas while
+   * it is parsed.
+   *
+   * @param uri the URI of the manifest
+   * @param model the model for adding the patients, studies and series
+   * @param seriesListener called with the series of a study at the end of its element, so the
+   *     series can start downloading before the end of the manifest. Can be null.
+   * @return the series to download
+   */
+  public static Collection<LoadSeries> buildDicomSeriesFromXml(
+      URI uri, final DicomModel model, Consumer<LoadSeries> seriesListener)
+      throws DownloadException {
+    Map<String, LoadSeries> seriesMap = new LinkedHashMap<>();
     XMLStreamReader xmler = null;
     InputStream stream = null;
     try {
@@ -298,58 +322,18 @@ public static Collection<LoadSeries> buildDicomSeriesFromXml(URI uri, final Dico
           NetworkUtil.getUrlConnection(uri.toURL(), urlParameters);
 
       LOGGER.info("Downloading XML manifest: {}", path);
-      InputStream urlInputStream = urlConnection.getInputStream();
-
-      if (path.endsWith(".gz")) {
-        stream = new BufferedInputStream(new GZIPInputStream(urlInputStream));
-      } else if (path.endsWith(".xml")) {
-        stream = urlInputStream;
-      } else {
-        // In case wado file has no extension
-        File outFile = File.createTempFile("wado_", "", AppProperties.APP_TEMP_DIR); // NON-NLS
-        FileUtil.writeStreamWithIOException(urlInputStream, outFile);
-        if (MimeInspector.isMatchingMimeTypeFromMagicNumber(
-            outFile, "application/x-gzip")) { // NON-NLS
-          stream = new BufferedInputStream(new GZIPInputStream(new FileInputStream(outFile)));
-        } else {
-          stream = new FileInputStream(outFile);
-        }
-      }
-
-      File tempFile;
-      if (uri.toString().startsWith("file:") && path.endsWith(".xml")) { // NON-NLS
-        tempFile = new File(path);
-      } else {
-        tempFile = File.createTempFile("wado_", ".xml", AppProperties.APP_TEMP_DIR); // NON-NLS
-        FileUtil.writeStreamWithIOException(stream, tempFile);
-      }
-      xmler = factory.createXMLStreamReader(new FileInputStream(tempFile));
-
-      Source xmlFile = new StAXSource(xmler);
-      SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-      try {
-        Schema schema =
-            schemaFactory.newSchema(
-                new Source[] {
-                  new StreamSource(
-                      DownloadManager.class.getResource("/config/wado_query.xsd").toExternalForm()),
-                  new StreamSource(
-                      DownloadManager.class.getResource("/config/manifest.xsd").toExternalForm())
-                });
-        Validator validator = schema.newValidator();
-        validator.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, StringUtil.EMPTY_STRING);
-        validator.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, StringUtil.EMPTY_STRING);
-        validator.validate(xmlFile);
-        LOGGER.info("[Validate with XSD schema] wado_query is valid");
-      } catch (SAXException e) {
-        LOGGER.error("[Validate with XSD schema] wado_query is NOT valid", e);
-      } catch (Exception e) {
-        LOGGER.error("Error when validate XSD schema.", e);
+      stream = new BufferedInputStream(urlConnection.getInputStream());
+      // In case wado file has no extension, check the gzip magic number
+      if (path.endsWith(".gz") || !path.endsWith(".xml") && isGzipStream(stream)) {
+        stream = new BufferedInputStream(new GZIPInputStream(stream));
       }
 
-      ReaderParams params = new ReaderParams(model, seriesMap);
+      ValidatingStreamReader validatingReader =
+          new ValidatingStreamReader(
+              factory.createXMLStreamReader(stream), ManifestSchema.SCHEMA);
+      xmler = validatingReader;
       // Try to read the xml even it is not valid.
-      xmler = factory.createXMLStreamReader(new FileInputStream(tempFile));
+      ReaderParams params = new ReaderParams(model, seriesMap, seriesListener);
 
       BiConsumerWithException<XMLStreamReader, ReaderParams, XMLStreamException> method =
           (x, r) -> {
@@ -382,6 +366,19 @@ public static Collection<LoadSeries> buildDicomSeriesFromXml(URI uri, final Dico
           };
       readElement(xmler, ArcParameters.TAG_DOCUMENT_ROOT, method, params);
 
+      // Read the end of the document for completing the validation
+      while (xmler.hasNext()) {
+        xmler.next();
+      }
+      if (validatingReader.isValidating()) {
+        if (validatingReader.getValidationError() == null) {
+          LOGGER.info("[Validate with XSD schema] wado_query is valid");
+        } else {
+          LOGGER.error(
+              "[Validate with XSD schema] wado_query is NOT valid",
+              validatingReader.getValidationError());
+        }
+      }
     } catch (StreamIOException e) {
       throw new DownloadException(getErrorMessage(uri), e); // rethrow network issue
     } catch (Exception e) {
@@ -413,6 +410,35 @@ public static Collection<LoadSeries> buildDicomSeriesFromXml(URI uri, final Dico
     return seriesMap.values();
   }
 
+  private static boolean isGzipStream(InputStream stream) throws IOException {
+    stream.mark(2);
+    int b1 = stream.read();
+    int b2 = stream.read();
+    stream.reset();
+    return b1 == 0x1f && b2 == 0x8b;
+  }
+
+  /** The XSD schemas of the manifests, built once at the first use. */
+  private static final class ManifestSchema {
+    static final Schema SCHEMA = buildSchema();
+
+    private static Schema buildSchema() {
+      SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+      try {
+        return schemaFactory.newSchema(
+            new Source[] {
+              new StreamSource(
+                  DownloadManager.class.getResource("/config/wado_query.xsd").toExternalForm()),
+              new StreamSource(
+                  DownloadManager.class.getResource("/config/manifest.xsd").toExternalForm())
+            });
+      } catch (Exception e) {
+        LOGGER.error("Error when validate XSD schema.", e);
+        return null;
+      }
+    }
+  }
+
   private static String getErrorMessage(URI uri) {
     StringBuilder buf = new StringBuilder(Messages.getString("DownloadManager.error_load_xml"));
     buf.append(StringUtil.COLON_AND_SPACE);
@@ -519,13 +545,6 @@ private static void readQuery(
             }
           });
     }
-    for (LoadSeries loadSeries : params.getSeriesMap().values()) {
-      String modality = TagD.getTagValue(loadSeries.getDicomSeries(), Tag.Modality, String.class);
-      boolean ps = "PR".equals(modality) || "KO".equals(modality); // NON-NLS
-      if (!ps) {
-        loadSeries.startDownloadImageReference(wadoParameters);
-      }
-    }
   }
 
   private static MediaSeriesGroup readPatient(
@@ -599,8 +618,13 @@ private static MediaSeriesGroup readStudy(
     BiConsumerWithException<XMLStreamReader, ReaderParams, XMLStreamException> method =
         (x, r) -> readSeries(x, r, patient, study2, wadoParameters);
 
-    readElement(
-        xmler, TagD.Level.SERIES.getTagName(), TagD.Level.STUDY.getTagName(), method, params);
+    try {
+      readElement(
+          xmler, TagD.Level.SERIES.getTagName(), TagD.Level.STUDY.getTagName(), method, params);
+    } finally {
+      // The series read completely can be downloaded even when the rest is not readable
+      params.startStudySeries();
+    }
 
     return study;
   }
@@ -680,20 +704,26 @@ private static DicomSeries readSeries(
         xmler, TagD.Level.INSTANCE.getTagName(), TagD.Level.SERIES.getTagName(), method, params);
     dicomSeries.setTag(TagW.WadoInstanceReferenceList, seriesInstanceList);
 
-    if (!seriesInstanceList.isEmpty()) {
+    // When a series appears several times before it starts downloading, its instances are merged
+    // in the list of the series already read. When it has already started, a new task downloads
+    // the missing instances.
+    boolean started = params.startedSeries.contains(seriesUID);
+    if (!seriesInstanceList.isEmpty()
+        && (started || !params.getSeriesMap().containsKey(seriesUID))) {
       AuthMethod authMethod = params.wadoUri == null ? null : params.wadoUri.getAuthMethod();
-      final LoadSeries loadSeries =
-          new LoadSeries(
-              dicomSeries,
-              model,
-              authMethod,
-              GuiUtils.getUICore()
-                  .getSystemPreferences()
-                  .getIntProperty(LoadSeries.CONCURRENT_DOWNLOADS_IN_SERIES, 4),
-              true,
-              true);
+      final LoadSeries loadSeries = new LoadSeries(dicomSeries, model, authMethod, true, true);
       loadSeries.setPriority(new DownloadPriority(patient, study, dicomSeries, true));
       params.getSeriesMap().put(seriesUID, loadSeries);
+
+      String modality = TagD.getTagValue(dicomSeries, Tag.Modality, String.class);
+      boolean ps = "PR".equals(modality) || "KO".equals(modality); // NON-NLS
+      if (!ps && !started) {
+        loadSeries.startDownloadImageReference(wadoParameters);
+      }
+      if (params.seriesListener != null) {
+        params.studySeries.put(seriesUID, loadSeries);
+        params.startedSeries.remove(seriesUID);
+      }
     }
     return dicomSeries;
   }
@@ -742,6 +772,10 @@ private static void readPresentation(XMLStreamReader xmler, ReaderParams params)
                 }
               }
             }
+            if (params.seriesListener != null) {
+              // The series may have started downloading before reading the presentations
+              series.applyPresentationModels();
+            }
           }
         }
       }
@@ -875,11 +909,17 @@ private static void readElement(
   static class ReaderParams {
     private final DicomModel model;
     private final Map<String, LoadSeries> seriesMap;
+    private final Consumer<LoadSeries> seriesListener;
+    // The series of the study being read, given to the listener at the end of the study element
+    private final Map<String, LoadSeries> studySeries = new LinkedHashMap<>();
+    private final Set<String> startedSeries = new HashSet<>();
     private DicomWebNode wadoUri;
 
-    public ReaderParams(DicomModel model, Map<String, LoadSeries> seriesMap) {
+    public ReaderParams(
+        DicomModel model, Map<String, LoadSeries> seriesMap, Consumer<LoadSeries> seriesListener) {
       this.model = model;
       this.seriesMap = seriesMap;
+      this.seriesListener = seriesListener;
     }
 
     public DicomModel getModel() {
@@ -889,5 +929,19 @@ public DicomModel getModel() {
     public Map<String, LoadSeries> getSeriesMap() {
       return seriesMap;
     }
+
+    /**
+     * Gives the series of the study to the listener, so they can be downloaded before reading the
+     * rest of the manifest.
+     */
+    void startStudySeries() {
+      if (seriesListener != null) {
+        for (Map.Entry<String, LoadSeries> entry : studySeries.entrySet()) {
+          startedSeries.add(entry.getKey());
+          seriesListener.accept(entry.getValue());
+        }
+      }
+      studySeries.clear();
+    }
   }
 }
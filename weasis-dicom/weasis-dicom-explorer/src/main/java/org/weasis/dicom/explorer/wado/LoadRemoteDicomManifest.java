@@ -18,6 +18,7 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import javax.swing.JOptionPane;
@@ -45,7 +46,9 @@ public class LoadRemoteDicomManifest extends ExplorerTask<Boolean, String> {
   private final DicomModel dicomModel;
   private final List<String> xmlFiles;
   private final AtomicInteger retryNb = new AtomicInteger(0);
-  private final List<LoadSeries> loadSeriesList = new ArrayList<>();
+  // Written by the manifest reader and by the model events
+  private final CopyOnWriteArrayList<LoadSeries> loadSeriesList = new CopyOnWriteArrayList<>();
+  private volatile boolean manifestsRead;
   private final PropertyChangeListener propertyChangeListener =
       evt -> {
         if (evt instanceof ObservableEvent event
@@ -54,9 +57,8 @@ public class LoadRemoteDicomManifest extends ExplorerTask<Boolean, String> {
           if (ObservableEvent.BasicAction.LOADING_STOP.equals(cmd)
               || ObservableEvent.BasicAction.LOADING_CANCEL.equals(cmd)) {
             checkDownloadIssues(series);
-          } else if (ObservableEvent.BasicAction.LOADING_START.equals(cmd)
-              && !loadSeriesList.contains(series)) {
-            loadSeriesList.add(series);
+          } else if (ObservableEvent.BasicAction.LOADING_START.equals(cmd)) {
+            loadSeriesList.addIfAbsent(series);
           }
         }
       };
@@ -71,12 +73,14 @@ public LoadRemoteDicomManifest(List<String> xmlFiles, DataExplorerModel explorer
   }
 
   private void checkDownloadIssues(LoadSeries loadSeries) {
-    if (!loadSeries.hasDownloadFailed()) {
+    if (loadSeries != null && !loadSeries.hasDownloadFailed()) {
       loadSeriesList.remove(loadSeries);
     }
 
-    if (DownloadManager.getTasks().isEmpty()
-        || DownloadManager.getTasks().stream().allMatch(LoadSeries::isStopped)) {
+    // The series are downloaded while reading the manifests, the end is checked once all are read
+    if (manifestsRead
+        && (DownloadManager.getTasks().isEmpty()
+            || DownloadManager.getTasks().stream().allMatch(LoadSeries::isStopped))) {
       if (!loadSeriesList.isEmpty() && tryDownloadingAgain(null)) {
         LOGGER.info("Try downloading ({}) the missing elements", retryNb.get());
         List<LoadSeries> oldList = new ArrayList<>(loadSeriesList);
@@ -141,6 +145,8 @@ protected void done() {
 
   @Override
   protected Boolean doInBackground() throws Exception {
+    // Add listener to know when download of series ends
+    dicomModel.addPropertyChangeListener(propertyChangeListener);
     try {
       for (String xmlFile : xmlFiles) {
         downloadManifest(xmlFile);
@@ -153,25 +159,41 @@ protected Boolean doInBackground() throws Exception {
         mf.retryNb.set(retryNb.get());
         mf.execute();
       }
+    } finally {
+      manifestsRead = true;
+      // The events are received in the EDT, check the series which have already been downloaded
+      GuiExecutor.execute(() -> checkDownloadIssues(null));
     }
-
-    // Add listener to know when download of series ends
-    dicomModel.addPropertyChangeListener(propertyChangeListener);
-
     return true;
   }
 
   private void downloadManifest(String path) throws DownloadException {
     try {
       URI uri = NetworkUtil.getURI(path);
-      Collection<LoadSeries> wadoTasks = DownloadManager.buildDicomSeriesFromXml(uri, dicomModel);
-
-      loadSeriesList.addAll(wadoTasks);
       boolean downloadImmediately =
           GuiUtils.getUICore()
               .getSystemPreferences()
               .getBooleanProperty(DicomExplorerPrefView.DOWNLOAD_IMMEDIATELY, true);
-      startDownloadingSeries(wadoTasks, downloadImmediately);
+      PluginOpeningStrategy openingStrategy =
+          new PluginOpeningStrategy(DownloadManager.getOpeningViewer());
+      openingStrategy.prepareImport();
+      // Each series starts downloading as soon as it has been read in the manifest
+      Collection<LoadSeries> wadoTasks =
+          DownloadManager.buildDicomSeriesFromXml(
+              uri,
+              dicomModel,
+              loadSeries -> {
+                loadSeriesList.addIfAbsent(loadSeries);
+                loadSeries.setPOpeningStrategy(openingStrategy);
+                DownloadManager.addLoadSeries(loadSeries, dicomModel, downloadImmediately);
+                DownloadManager.CONCURRENT_EXECUTOR.prestartAllCoreThreads();
+              });
+
+      if (!wadoTasks.isEmpty()) {
+        // Sort tasks from the download priority order (low number has a higher priority), TASKS
+        // is sorted from low to high priority.
+        DownloadManager.getTasks().sort(Collections.reverseOrder(new PriorityTaskComparator()));
+      }
     } catch (URISyntaxException | MalformedURLException e) {
       LOGGER.error("Loading manifest", e);
     }
@@ -16,7 +16,6 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.api.explorer.model.DataExplorerModel;
-import org.weasis.core.api.gui.util.GuiUtils;
 import org.weasis.core.api.media.data.MediaSeriesGroup;
 import org.weasis.core.api.media.data.MediaSeriesGroupNode;
 import org.weasis.core.api.media.data.TagW;
@@ -111,14 +110,7 @@ protected Boolean doInBackground() throws Exception {
       if (!seriesInstanceList.isEmpty()) {
         String modality = TagD.getTagValue(dicomSeries, Tag.Modality, String.class);
         boolean ps = "PR".equals(modality) || "KO".equals(modality); // NON-NLS
-        final LoadSeries loadSeries =
-            new LoadSeries(
-                dicomSeries,
-                dicomModel,
-                GuiUtils.getUICore()
-                    .getSystemPreferences()
-                    .getIntProperty(LoadSeries.CONCURRENT_DOWNLOADS_IN_SERIES, 4),
-                true);
+        final LoadSeries loadSeries = new LoadSeries(dicomSeries, dicomModel, true);
         if (!ps) {
           loadSeries.startDownloadImageReference(wadoParameters);
         }
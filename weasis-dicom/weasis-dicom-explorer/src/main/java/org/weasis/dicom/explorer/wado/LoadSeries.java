@@ -21,6 +21,7 @@
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -28,8 +29,8 @@
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -37,7 +38,6 @@
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -46,9 +46,7 @@
 import org.dcm4che3.data.ElementDictionary;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.io.DicomInputStream;
-import org.dcm4che3.io.DicomInputStream.IncludeBulkData;
 import org.dcm4che3.io.DicomOutputStream;
-import org.dcm4che3.util.SafeClose;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.api.auth.AuthMethod;
@@ -69,10 +67,11 @@
 import org.weasis.core.api.service.AuditLog;
 import org.weasis.core.api.util.AuthResponse;
 import org.weasis.core.api.util.ClosableURLConnection;
+import org.weasis.core.api.util.DownloadEngine;
+import org.weasis.core.api.util.DownloadEngine.Transfer;
 import org.weasis.core.api.util.HttpResponse;
 import org.weasis.core.api.util.NetworkUtil;
 import org.weasis.core.api.util.ResourceUtil.ResourceIconPath;
-import org.weasis.core.api.util.ThreadUtil;
 import org.weasis.core.api.util.URLParameters;
 import org.weasis.core.ui.model.GraphicModel;
 import org.weasis.core.ui.model.ReferencedImage;
@@ -99,6 +98,10 @@ public class LoadSeries extends ExplorerTask<Boolean, String> implements SeriesI
 
   private static final Logger LOGGER = LoggerFactory.getLogger(LoadSeries.class);
   public static final String CONCURRENT_DOWNLOADS_IN_SERIES = "download.concurrent.series.images";
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+  private static final int COPY_BUFFER_SIZE = 256 * 1024;
+  /** Retrieve a WADO-RS series with a single request instead of one request per instance */
+  public static final String WADORS_SERIES_RETRIEVE = "weasis.dicom.wadors.series.retrieve";
 
   public static final File DICOM_TMP_DIR =
       AppProperties.buildAccessibleTempDirectory("downloading"); // NON-NLS
@@ -127,7 +130,6 @@ public enum Status {
     ERROR
   }
 
-  public final int concurrentDownloads;
   private final DicomModel dicomModel;
   private final DicomSeries dicomSeries;
   private final SeriesInstanceList seriesInstanceList;
@@ -141,30 +143,17 @@ public enum Status {
   private final AtomicInteger errors;
   private volatile boolean hasError = false;
 
-  public LoadSeries(
-      DicomSeries dicomSeries,
-      DicomModel dicomModel,
-      int concurrentDownloads,
-      boolean writeInCache) {
-    this(dicomSeries, dicomModel, null, concurrentDownloads, writeInCache, true);
+  public LoadSeries(DicomSeries dicomSeries, DicomModel dicomModel, boolean writeInCache) {
+    this(dicomSeries, dicomModel, null, writeInCache, true);
   }
 
   public LoadSeries(
       DicomSeries dicomSeries,
       DicomModel dicomModel,
       AuthMethod authMethod,
-      int concurrentDownloads,
       boolean writeInCache,
       boolean startDownloading) {
-    this(
-        dicomSeries,
-        dicomModel,
-        authMethod,
-        null,
-        concurrentDownloads,
-        writeInCache,
-        startDownloading,
-        false);
+    this(dicomSeries, dicomModel, authMethod, null, writeInCache, startDownloading, false);
   }
 
   public LoadSeries(
@@ -172,18 +161,9 @@ public LoadSeries(
       DicomModel dicomModel,
       AuthMethod authMethod,
       JProgressBar progressBar,
-      int concurrentDownloads,
       boolean writeInCache,
       boolean startDownloading) {
-    this(
-        dicomSeries,
-        dicomModel,
-        authMethod,
-        progressBar,
-        concurrentDownloads,
-        writeInCache,
-        startDownloading,
-        true);
+    this(dicomSeries, dicomModel, authMethod, progressBar, writeInCache, startDownloading, true);
   }
 
   public LoadSeries(
@@ -191,7 +171,6 @@ public LoadSeries(
       DicomModel dicomModel,
       AuthMethod authMethod,
       JProgressBar progressBar,
-      int concurrentDownloads,
       boolean writeInCache,
       boolean startDownloading,
       boolean externalProgress) {
@@ -212,7 +191,6 @@ public LoadSeries(
       this.progressBar.setVisible(false);
     }
     this.dicomSeries.setSeriesLoader(this);
-    this.concurrentDownloads = concurrentDownloads;
     this.urlParams =
         new URLParameters(
             getHttpTags((WadoParameters) dicomSeries.getTagValue(TagW.WadoParameters)));
@@ -289,6 +267,14 @@ protected void done() {
           time,
           rate,
           downloadErrors);
+      DownloadEngine engine = DownloadManager.DOWNLOAD_ENGINE;
+      LOGGER.debug(
+          "Download throughput of series {}: {} B/s, all downloads: {} B/s, concurrency: {}",
+          seriesUID,
+          (long) engine.getThroughput(dicomSeries),
+          (long) engine.getThroughput(),
+          engine.getConcurrency());
+      engine.removeGroup(dicomSeries);
 
       if (LOAD_TYPE_WADO.equals(loadType)) {
         String statisticServicePath = GuiUtils.getUICore().getStatisticServiceUrl();
@@ -392,10 +378,10 @@ private int getImageNumber() {
       if (study != null) {
         String uid = TagD.getTagValue(dicomSeries, Tag.SeriesInstanceUID, String.class);
         if (uid != null) {
-          Collection<MediaSeriesGroup> list = dicomModel.getChildren(study);
-          list.remove(dicomSeries);
-          for (MediaSeriesGroup s : list) {
-            if (s instanceof Series && uid.equals(TagD.getTagValue(s, Tag.SeriesInstanceUID))) {
+          for (MediaSeriesGroup s : dicomModel.getChildren(study)) {
+            if (s != dicomSeries
+                && s instanceof Series
+                && uid.equals(TagD.getTagValue(s, Tag.SeriesInstanceUID))) {
               val += ((Series<?>) s).size(null);
             }
           }
@@ -467,16 +453,44 @@ private Boolean startDownload() {
     }
 
     List<SopInstance> sopList = seriesInstanceList.getSortedList();
+    dicomSeries.setTag(DOWNLOAD_START_TIME, System.currentTimeMillis());
 
-    ExecutorService imageDownloader =
-        ThreadUtil.buildNewFixedThreadExecutor(concurrentDownloads, "Image Downloader"); // NON-NLS
-    ArrayList<Callable<Boolean>> tasks = new ArrayList<>(sopList.size());
-    int[] dindex = generateDownloadOrder(sopList.size());
     GuiExecutor.execute(
         () -> {
           progressBar.setMaximum(sopList.size());
           progressBar.setValue(0);
         });
+
+    Set<String> received = Set.of();
+    String seriesURL = TagD.getTagValue(dicomSeries, Tag.RetrieveURL, String.class);
+    if (wado.isWadoRS()
+        && StringUtil.hasText(seriesURL)
+        && sopList.size() > 1
+        && dicomSeries.size(null) == 0
+        && GuiUtils.getUICore()
+            .getSystemPreferences()
+            .getBooleanProperty(WADORS_SERIES_RETRIEVE, true)) {
+      SeriesDownload seriesDownload =
+          new SeriesDownload(seriesURL + wado.getAdditionnalParameters(), study);
+      seriesDownload.call();
+      if (isCancelled()) {
+        return true;
+      }
+      // The missing instances are downloaded individually
+      received = seriesDownload.getReceivedInstances();
+      int count = 0;
+      for (SopInstance instance : sopList) {
+        if (received.contains(instance.getSopInstanceUID())) {
+          count++;
+        }
+      }
+      // Adjust the progress which has counted all the parts of the series response
+      int receivedCount = count;
+      GuiExecutor.execute(() -> progressBar.setValue(receivedCount));
+    }
+
+    ArrayList<Callable<Boolean>> tasks = new ArrayList<>(sopList.size());
+    int[] dindex = generateDownloadOrder(sopList.size());
     for (int k = 0; k < sopList.size(); k++) {
       SopInstance instance = sopList.get(dindex[k]);
       if (isCancelled()) {
@@ -489,6 +503,11 @@ private Boolean startDownload() {
         continue;
       }
 
+      if (received.contains(instance.getSopInstanceUID())) {
+        // Already counted in the progress bar
+        continue;
+      }
+
       // Test if SOPInstanceUID already exists
       if (isSOPInstanceUIDExist(study, dicomSeries, instance.getSopInstanceUID())) {
         incrementProgressBarValue();
@@ -535,13 +554,10 @@ private Boolean startDownload() {
     }
 
     try {
-      dicomSeries.setTag(DOWNLOAD_START_TIME, System.currentTimeMillis());
-      imageDownloader.invokeAll(tasks);
+      DownloadManager.DOWNLOAD_ENGINE.invokeAll(dicomSeries, tasks);
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
     }
-
-    imageDownloader.shutdown();
     return true;
   }
 
@@ -800,15 +816,16 @@ private int[] generateDownloadOrder(final int size) {
 
   class Download implements Callable<Boolean> {
 
-    private final String url; // download URL
+    protected final String url; // download URL
     private Status status; // current status of download
+    private Transfer transfer;
 
     public Download(String url) {
       this.url = url;
       this.status = Status.DOWNLOADING;
     }
 
-    private void error() {
+    void error() {
       status = Status.ERROR;
       dicomSeries.setTag(DOWNLOAD_ERRORS, errors.incrementAndGet());
     }
@@ -834,21 +851,27 @@ private HttpResponse replaceToDefaultTSUID() throws IOException {
 
     @Override
     public Boolean call() {
+      transfer = DownloadManager.DOWNLOAD_ENGINE.startTransfer(dicomSeries);
       try {
         process();
       } catch (StreamIOException es) {
+        transfer.failed(true);
         hasError = true; // network issue (allow retrying)
         error();
         LOGGER.error("Downloading", es);
       } catch (IOException | URISyntaxException e) {
+        transfer.failed(e instanceof SocketTimeoutException);
         error();
         LOGGER.error("Downloading", e);
+      } finally {
+        // No effect when the transfer is already completed
+        transfer.failed(false);
       }
       return Boolean.TRUE;
     }
 
     // Solves missing tmp folder problem (on Windows).
-    private File getDicomTmpDir() {
+    File getDicomTmpDir() {
       if (!DICOM_TMP_DIR.exists()) {
         LOGGER.info("DICOM tmp dir not found. Re-creating it!");
         AppProperties.buildAccessibleTempDirectory("downloading"); // NON-NLS
@@ -863,7 +886,9 @@ private boolean process() throws IOException, URISyntaxException {
       DicomMediaIO dicomReader = null;
       HttpResponse urlcon = NetworkUtil.getHttpResponse(url, urlParams, authMethod);
       int code = urlcon.getResponseCode();
+      transfer.responseReceived();
       if (code >= HttpURLConnection.HTTP_BAD_REQUEST) {
+        transfer.failed(isServerOverloaded(code));
         if (authMethod != null && code == HttpURLConnection.HTTP_UNAUTHORIZED) {
           authMethod.resetToken();
           authMethod.getToken();
@@ -889,6 +914,7 @@ private boolean process() throws IOException, URISyntaxException {
             int bytesTransferred = downloadInFileCache(urlcon, tempFile);
             if (bytesTransferred == -1) {
               LOGGER.info("End of downloading {} ", url);
+              transfer.completed(tempFile.length());
             } else if (bytesTransferred >= 0) {
               return false;
             }
@@ -899,33 +925,12 @@ private boolean process() throws IOException, URISyntaxException {
             }
           } else {
             tempFile = new File(NetworkUtil.getURI(url));
+            transfer.completed(tempFile.length());
           }
           // Ensure the stream is closed if image is not written in cache
           FileUtil.safeClose(stream);
 
-          dicomReader = new DicomMediaIO(tempFile);
-          if (dicomReader.isReadableDicom() && dicomSeries.size(null) == 0) {
-            // Override the group (patient, study and series) by the dicom fields except the UID of
-            // the group
-            MediaSeriesGroup patient = dicomModel.getParent(dicomSeries, DicomModel.patient);
-            dicomReader.writeMetaData(patient);
-            MediaSeriesGroup study = dicomModel.getParent(dicomSeries, DicomModel.study);
-            dicomReader.writeMetaData(study);
-            dicomReader.writeMetaData(dicomSeries);
-            GuiExecutor.invokeAndWait(
-                () -> {
-                  Thumbnail thumb = (Thumbnail) dicomSeries.getTagValue(TagW.Thumbnail);
-                  if (thumb != null) {
-                    thumb.repaint();
-                  }
-                  dicomModel.firePropertyChange(
-                      new ObservableEvent(
-                          ObservableEvent.BasicAction.UPDATE_PARENT,
-                          dicomModel,
-                          null,
-                          dicomSeries));
-                });
-          }
+          dicomReader = readDicom(tempFile);
         }
       }
 
@@ -933,18 +938,7 @@ private boolean process() throws IOException, URISyntaxException {
       if (status == Status.DOWNLOADING) {
         status = Status.COMPLETE;
         if (tempFile != null && dicomSeries != null) {
-          Reading reading = dicomReader.getReadingStatus();
-          if (reading == Reading.READABLE) {
-            if (tempFile.getPath().startsWith(AppProperties.APP_TEMP_DIR.getPath())) {
-              dicomReader.getFileCache().setOriginalTempFile(tempFile);
-            }
-            final DicomMediaIO reader = dicomReader;
-            // Necessary to wait the runnable because the dicomSeries must be added to the
-            // dicomModel before reaching done() of SwingWorker
-            GuiExecutor.invokeAndWait(() -> updateUI(reader));
-          } else if (reading == Reading.ERROR) {
-            errors.incrementAndGet();
-          }
+          addDicom(dicomReader, tempFile);
         }
       }
       // Increment progress bar in EDT and repaint when downloaded
@@ -952,6 +946,44 @@ private boolean process() throws IOException, URISyntaxException {
       return true;
     }
 
+    DicomMediaIO readDicom(File file) {
+      DicomMediaIO dicomReader = new DicomMediaIO(file);
+      if (dicomReader.isReadableDicom() && dicomSeries.size(null) == 0) {
+        // Override the group (patient, study and series) by the dicom fields except the UID of
+        // the group
+        MediaSeriesGroup patient = dicomModel.getParent(dicomSeries, DicomModel.patient);
+        dicomReader.writeMetaData(patient);
+        MediaSeriesGroup study = dicomModel.getParent(dicomSeries, DicomModel.study);
+        dicomReader.writeMetaData(study);
+        dicomReader.writeMetaData(dicomSeries);
+        GuiExecutor.invokeAndWait(
+            () -> {
+              Thumbnail thumb = (Thumbnail) dicomSeries.getTagValue(TagW.Thumbnail);
+              if (thumb != null) {
+                thumb.repaint();
+              }
+              dicomModel.firePropertyChange(
+                  new ObservableEvent(
+                      ObservableEvent.BasicAction.UPDATE_PARENT, dicomModel, null, dicomSeries));
+            });
+      }
+      return dicomReader;
+    }
+
+    void addDicom(DicomMediaIO dicomReader, File file) {
+      Reading reading = dicomReader.getReadingStatus();
+      if (reading == Reading.READABLE) {
+        if (file.getPath().startsWith(AppProperties.APP_TEMP_DIR.getPath())) {
+          dicomReader.getFileCache().setOriginalTempFile(file);
+        }
+        // Necessary to wait the runnable because the dicomSeries must be added to the
+        // dicomModel before reaching done() of SwingWorker
+        GuiExecutor.invokeAndWait(() -> updateUI(dicomReader));
+      } else if (reading == Reading.ERROR) {
+        errors.incrementAndGet();
+      }
+    }
+
     private int downloadInFileCache(HttpResponse response, File tempFile) throws IOException {
       final WadoParameters wadoParams =
           (WadoParameters) dicomSeries.getTagValue(TagW.WadoParameters);
@@ -975,18 +1007,8 @@ private int downloadInFileCache(HttpResponse response, File tempFile) throws IOE
                 }
               };
 
-          if (response instanceof ClosableURLConnection urlConnection) {
-            Multipart.parseMultipartRelated(
-                urlConnection.getUrlConnection().getContentType(),
-                response.getInputStream(),
-                handler);
-          } else {
-            AuthResponse authResponse = (AuthResponse) response;
-            Multipart.parseMultipartRelated(
-                authResponse.getResponse().getHeader("Content-Type"), // NON-NLS
-                response.getInputStream(),
-                handler);
-          }
+          Multipart.parseMultipartRelated(
+              getContentType(response), response.getInputStream(), handler);
           bytesTransferred = readBytes[0];
         } else {
           bytesTransferred =
@@ -1035,22 +1057,11 @@ public int writFile(InputStream in, File tempFile, int[] overrideList)
         return 0;
       }
 
-      DicomInputStream dis = null;
-      DicomOutputStream dos = null;
-
-      try {
-        String tsuid;
-        Attributes dataset;
-        dis = new DicomInputStream(in);
-        try {
-          dis.setIncludeBulkData(IncludeBulkData.URI);
-          dataset = dis.readDataset();
-          tsuid = dis.getTransferSyntax();
-        } finally {
-          dis.close();
-        }
-
-        dos = new DicomOutputStream(tempFile);
+      try (DicomInputStream dis = new DicomInputStream(in);
+          DicomOutputStream dos = new DicomOutputStream(tempFile)) {
+        // Only the attributes before the pixel data are read in memory
+        Attributes dataset = dis.readDatasetUntilPixelData();
+        String tsuid = dis.getTransferSyntax();
 
         if (overrideList != null) {
           MediaSeriesGroup study = dicomModel.getParent(dicomSeries, DicomModel.study);
@@ -1071,6 +1082,15 @@ public int writFile(InputStream in, File tempFile, int[] overrideList)
           }
         }
         dos.writeDataset(dataset.createFileMetaInformation(tsuid), dataset);
+        if (dis.tag() == Tag.PixelData) {
+          // Copy the pixel data and the following attributes without decoding them
+          dos.writeHeader(Tag.PixelData, dis.vr(), dis.length());
+          byte[] buf = new byte[COPY_BUFFER_SIZE];
+          int n;
+          while ((n = dis.read(buf)) > 0) {
+            dos.write(buf, 0, n);
+          }
+        }
         dos.finish();
         dos.flush();
         return -1;
@@ -1085,16 +1105,6 @@ public int writFile(InputStream in, File tempFile, int[] overrideList)
         FileUtil.delete(tempFile);
         LOGGER.error("Writing DICOM temp file", e);
         return 0;
-      } finally {
-        SafeClose.close(dos);
-        if (dis != null) {
-          List<File> blkFiles = dis.getBulkDataFiles();
-          if (blkFiles != null) {
-            for (File file : blkFiles) {
-              FileUtil.delete(file);
-            }
-          }
-        }
       }
     }
 
@@ -1153,6 +1163,147 @@ private void updateUI(final DicomMediaIO reader) {
     }
   }
 
+  /**
+   * Downloads all the instances of the series with a single WADO-RS request. Each part of the
+   * multipart response is added to the model as soon as it is received. When the server does not
+   * support series-level retrieval, nothing is received and the instances are downloaded
+   * individually. The instances of the parts that cannot be read are also downloaded
+   * individually, and only a failure of this download is counted as an error.
+   */
+  class SeriesDownload extends Download {
+    private final MediaSeriesGroup study;
+    private final Set<String> received = new HashSet<>();
+    private long bytesReceived;
+
+    SeriesDownload(String url, MediaSeriesGroup study) {
+      super(url);
+      this.study = study;
+    }
+
+    Set<String> getReceivedInstances() {
+      return received;
+    }
+
+    @Override
+    public Boolean call() {
+      try {
+        processSeries();
+      } catch (StreamIOException es) {
+        hasError = true; // network issue (allow retrying)
+        LOGGER.error("Downloading series", es);
+      } catch (IOException | IllegalStateException e) {
+        LOGGER.error("Downloading series", e);
+      }
+      LOGGER.info("Received {} instances with the series request {}", received.size(), url);
+      return Boolean.TRUE;
+    }
+
+    private void processSeries() throws IOException {
+      Transfer seriesTransfer = DownloadManager.DOWNLOAD_ENGINE.startTransfer(dicomSeries);
+      try {
+        processSeries(seriesTransfer);
+      } finally {
+        seriesTransfer.completed(bytesReceived);
+      }
+    }
+
+    private void processSeries(Transfer seriesTransfer) throws IOException {
+      HttpResponse response = NetworkUtil.getHttpResponse(url, urlParams, authMethod);
+      int code = response.getResponseCode();
+      seriesTransfer.responseReceived();
+      if (code >= HttpURLConnection.HTTP_BAD_REQUEST) {
+        seriesTransfer.failed(isServerOverloaded(code));
+        if (authMethod != null && code == HttpURLConnection.HTTP_UNAUTHORIZED) {
+          authMethod.resetToken();
+          authMethod.getToken();
+        }
+        throw new IllegalStateException("Response code of server: " + code);
+      }
+
+      int[] overrideList =
+          Optional.ofNullable((WadoParameters) dicomSeries.getTagValue(TagW.WadoParameters))
+              .map(WadoParameters::getOverrideDicomTagIDList)
+              .orElse(null);
+      progressBar.setIndeterminate(false);
+      try (InputStream stream = response.getInputStream()) {
+        Multipart.parseMultipartRelated(
+            getContentType(response),
+            stream,
+            (multipartReader, partNumber, headers) -> {
+              if (isCancelled()) {
+                throw new InterruptedIOException("Download cancelled");
+              }
+              try (InputStream in = multipartReader.newPartInputStream()) {
+                addPart(in, overrideList);
+              }
+            });
+      }
+    }
+
+    private void addPart(InputStream in, int[] overrideList) throws IOException {
+      incrementProgressBarValue();
+      File tempFile = File.createTempFile("image_", ".dcm", getDicomTmpDir()); // NON-NLS
+      int bytesTransferred;
+      if (overrideList == null) {
+        bytesTransferred =
+            FileUtil.writeStream(new SeriesProgressMonitor(dicomSeries, in), tempFile, false);
+      } else {
+        bytesTransferred =
+            writFile(new SeriesProgressMonitor(dicomSeries, in), tempFile, overrideList);
+      }
+      if (bytesTransferred != -1) {
+        // Not an error yet: the instance is not received and will be downloaded individually
+        FileUtil.delete(tempFile);
+        LOGGER.warn("Cannot read a part of the series response {}", url);
+        return;
+      }
+
+      bytesReceived += tempFile.length();
+      File renameFile = new File(DicomMediaIO.DICOM_EXPORT_DIR, tempFile.getName());
+      if (tempFile.renameTo(renameFile)) {
+        tempFile = renameFile;
+      }
+      DicomMediaIO dicomReader = readDicom(tempFile);
+      String sopUID = TagD.getTagValue(dicomReader, Tag.SOPInstanceUID, String.class);
+      if (sopUID != null && isSOPInstanceUIDExist(study, dicomSeries, sopUID)) {
+        FileUtil.delete(tempFile);
+      } else {
+        addDicom(dicomReader, tempFile);
+      }
+      if (sopUID != null) {
+        received.add(sopUID);
+      }
+    }
+  }
+
+  private static boolean isServerOverloaded(int code) {
+    return code == HTTP_TOO_MANY_REQUESTS || code == HttpURLConnection.HTTP_UNAVAILABLE;
+  }
+
+  private static String getContentType(HttpResponse response) {
+    if (response instanceof ClosableURLConnection urlConnection) {
+      return urlConnection.getUrlConnection().getContentType();
+    }
+    return ((AuthResponse) response).getResponse().getHeader("Content-Type"); // NON-NLS
+  }
+
+  /** Applies the presentation models to the images of the series that are already loaded. */
+  void applyPresentationModels() {
+    String seriesUID = TagD.getTagValue(dicomSeries, Tag.SeriesInstanceUID, String.class);
+    MediaSeriesGroup study = dicomModel.getParent(dicomSeries, DicomModel.study);
+    if (study == null) {
+      dicomSeries.copyOfMedias(null, null).forEach(this::applyPresentationModel);
+      return;
+    }
+    // Includes the series split by the splitting rules
+    for (MediaSeriesGroup group : dicomModel.getChildren(study)) {
+      if (group instanceof DicomSeries s
+          && Objects.equals(seriesUID, TagD.getTagValue(s, Tag.SeriesInstanceUID, String.class))) {
+        s.copyOfMedias(null, null).forEach(this::applyPresentationModel);
+      }
+    }
+  }
+
   private void applyPresentationModel(DicomImageElement media) {
     String sopUID = TagD.getTagValue(media, Tag.SOPInstanceUID, String.class);
 
@@ -1225,7 +1376,6 @@ public LoadSeries cancelAndReplace(LoadSeries s) {
             dicomModel,
             s.authMethod,
             s.getProgressBar(),
-            s.getConcurrentDownloads(),
             s.writeInCache,
             s.startDownloading);
     s.cancel();
@@ -1241,8 +1391,4 @@ public LoadSeries cancelAndReplace(LoadSeries s) {
 
     return taskResume;
   }
-
-  public int getConcurrentDownloads() {
-    return concurrentDownloads;
-  }
 }
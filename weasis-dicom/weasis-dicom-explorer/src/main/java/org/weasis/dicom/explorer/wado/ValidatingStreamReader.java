@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.explorer.wado;
+
+import java.util.Objects;
+import javax.xml.XMLConstants;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.util.StringUtil;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Validates an XML document against a schema while it is read. Each event read by the caller is
+ * forwarded to the validator, so the document is parsed only once. The validation errors are only
+ * recorded, and the document can be read until the end even when it is not valid.
+ */
+final class ValidatingStreamReader extends StreamReaderDelegate {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ValidatingStreamReader.class);
+
+  private ValidatorHandler handler;
+  private SAXParseException validationError;
+
+  /**
+   * @param reader the reader of the XML document, it must be positioned at the start of the
+   *     document
+   * @param schema the schema for validating the document, can be null for no validation
+   */
+  ValidatingStreamReader(XMLStreamReader reader, Schema schema) {
+    super(reader);
+    if (schema != null) {
+      handler = schema.newValidatorHandler();
+      handler.setErrorHandler(
+          new ErrorHandler() {
+            @Override
+            public void warning(SAXParseException exception) {
+              // Ignore warnings
+            }
+
+            @Override
+            public void error(SAXParseException exception) {
+              if (validationError == null) {
+                validationError = exception;
+              }
+            }
+
+            @Override
+            public void fatalError(SAXParseException exception) {
+              error(exception);
+            }
+          });
+      try {
+        handler.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, StringUtil.EMPTY_STRING);
+        handler.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, StringUtil.EMPTY_STRING);
+        handler.setDocumentLocator(new StreamLocator());
+        handler.startDocument();
+      } catch (SAXException e) {
+        stopValidation(e);
+      }
+    }
+  }
+
+  /**
+   * @return true when the document is validated, false when there is no schema or when the
+   *     validation cannot be done
+   */
+  boolean isValidating() {
+    return handler != null;
+  }
+
+  /**
+   * @return the first validation error, or null when the document read so far is valid
+   */
+  SAXParseException getValidationError() {
+    return validationError;
+  }
+
+  @Override
+  public int next() throws XMLStreamException {
+    int event = super.next();
+    if (handler != null) {
+      forward(event);
+    }
+    return event;
+  }
+
+  // The methods below are implemented with next() for not skipping events of the validation
+
+  @Override
+  public int nextTag() throws XMLStreamException {
+    int event = next();
+    while (event == CHARACTERS && isWhiteSpace()
+        || event == CDATA && isWhiteSpace()
+        || event == SPACE
+        || event == PROCESSING_INSTRUCTION
+        || event == COMMENT) {
+      event = next();
+    }
+    if (event != START_ELEMENT && event != END_ELEMENT) {
+      throw new XMLStreamException("Expected start or end tag", getLocation());
+    }
+    return event;
+  }
+
+  @Override
+  public String getElementText() throws XMLStreamException {
+    if (getEventType() != START_ELEMENT) {
+      throw new XMLStreamException("Expected start tag for reading the text", getLocation());
+    }
+    StringBuilder buf = new StringBuilder();
+    int event = next();
+    while (event != END_ELEMENT) {
+      if (event == CHARACTERS || event == CDATA || event == SPACE || event == ENTITY_REFERENCE) {
+        buf.append(getText());
+      } else if (event == START_ELEMENT || event == END_DOCUMENT) {
+        throw new XMLStreamException("Unexpected event when reading the text", getLocation());
+      }
+      event = next();
+    }
+    return buf.toString();
+  }
+
+  private void forward(int event) {
+    try {
+      switch (event) {
+        case START_ELEMENT -> startElement();
+        case END_ELEMENT -> endElement();
+        case CHARACTERS, CDATA, SPACE ->
+            handler.characters(getTextCharacters(), getTextStart(), getTextLength());
+        case END_DOCUMENT -> handler.endDocument();
+        default -> {
+          // Not required for the validation
+        }
+      }
+    } catch (SAXException e) {
+      stopValidation(e);
+    }
+  }
+
+  private void startElement() throws SAXException {
+    for (int i = 0; i < getNamespaceCount(); i++) {
+      handler.startPrefixMapping(
+          emptyIfNull(getNamespacePrefix(i)), emptyIfNull(getNamespaceURI(i)));
+    }
+    AttributesImpl attributes = new AttributesImpl();
+    for (int i = 0; i < getAttributeCount(); i++) {
+      String localName = getAttributeLocalName(i);
+      attributes.addAttribute(
+          emptyIfNull(getAttributeNamespace(i)),
+          localName,
+          getQName(getAttributePrefix(i), localName),
+          getAttributeType(i),
+          getAttributeValue(i));
+    }
+    handler.startElement(
+        emptyIfNull(getNamespaceURI()),
+        getLocalName(),
+        getQName(getPrefix(), getLocalName()),
+        attributes);
+  }
+
+  private void endElement() throws SAXException {
+    handler.endElement(
+        emptyIfNull(getNamespaceURI()), getLocalName(), getQName(getPrefix(), getLocalName()));
+    for (int i = 0; i < getNamespaceCount(); i++) {
+      handler.endPrefixMapping(emptyIfNull(getNamespacePrefix(i)));
+    }
+  }
+
+  private void stopValidation(SAXException e) {
+    LOGGER.error("Error when validate XSD schema.", e);
+    handler = null;
+  }
+
+  private static String getQName(String prefix, String localName) {
+    return StringUtil.hasText(prefix) ? prefix + ":" + localName : localName;
+  }
+
+  private static String emptyIfNull(String value) {
+    return Objects.requireNonNullElse(value, StringUtil.EMPTY_STRING);
+  }
+
+  private class StreamLocator implements Locator {
+
+    @Override
+    public String getPublicId() {
+      Location location = getLocation();
+      return location == null ? null : location.getPublicId();
+    }
+
+    @Override
+    public String getSystemId() {
+      Location location = getLocation();
+      return location == null ? null : location.getSystemId();
+    }
+
+    @Override
+    public int getLineNumber() {
+      Location location = getLocation();
+      return location == null ? -1 : location.getLineNumber();
+    }
+
+    @Override
+    public int getColumnNumber() {
+      Location location = getLocation();
+      return location == null ? -1 : location.getColumnNumber();
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.explorer.wado;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ValidatingStreamReaderTest {
+  private static final String MANIFEST =
+      """
+      <?xml version="1.0" encoding="UTF-8"?>
+      <manifest xmlns="http://www.weasis.org/xsd/2.5">
+        <arcQuery arcId="1001" baseUrl="http://localhost:8080/dcm4chee-arc/aets/DCM4CHEE/wado">
+          <Patient PatientID="12345" PatientName="Doe^John" PatientSex="%s">
+            <Study StudyInstanceUID="1.2.3" StudyDate="20240115">
+              <Series SeriesInstanceUID="1.2.3.4" Modality="CT" SeriesNumber="1">
+                <Instance SOPInstanceUID="1.2.3.4.1" InstanceNumber="1"/>
+                <Instance SOPInstanceUID="1.2.3.4.2" InstanceNumber="2"/>
+              </Series>
+            </Study>
+          </Patient>
+        </arcQuery>
+      </manifest>
+      """;
+
+  private static Schema schema;
+
+  @BeforeAll
+  static void buildSchema() throws Exception {
+    SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+    schema =
+        factory.newSchema(
+            new StreamSource(
+                ValidatingStreamReaderTest.class
+                    .getResource("/config/manifest.xsd")
+                    .toExternalForm()));
+  }
+
+  private static XMLStreamReader createReader(String xml) throws XMLStreamException {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    return factory.createXMLStreamReader(new StringReader(xml));
+  }
+
+  /** Reads the document until the end and returns the SOPInstanceUID of the instances. */
+  private static List<String> readInstances(XMLStreamReader reader) throws XMLStreamException {
+    List<String> instances = new ArrayList<>();
+    while (reader.hasNext()) {
+      if (reader.next() == XMLStreamConstants.START_ELEMENT
+          && "Instance".equals(reader.getLocalName())) {
+        instances.add(reader.getAttributeValue(null, "SOPInstanceUID"));
+      }
+    }
+    return instances;
+  }
+
+  @Test
+  void testValidManifest() throws XMLStreamException {
+    ValidatingStreamReader reader =
+        new ValidatingStreamReader(createReader(MANIFEST.formatted("M")), schema);
+    assertTrue(reader.isValidating());
+
+    assertEquals(List.of("1.2.3.4.1", "1.2.3.4.2"), readInstances(reader));
+    assertTrue(reader.isValidating());
+    assertNull(reader.getValidationError());
+  }
+
+  @Test
+  void testInvalidManifest() throws XMLStreamException {
+    // PatientSex is not in the enumerated values of the schema
+    ValidatingStreamReader reader =
+        new ValidatingStreamReader(createReader(MANIFEST.formatted("X")), schema);
+
+    // The document is read until the end even when it is not valid
+    assertEquals(List.of("1.2.3.4.1", "1.2.3.4.2"), readInstances(reader));
+    assertTrue(reader.isValidating());
+    assertNotNull(reader.getValidationError());
+    assertEquals(4, reader.getValidationError().getLineNumber());
+  }
+
+  @Test
+  void testMissingRequiredAttribute() throws XMLStreamException {
+    String xml = MANIFEST.formatted("F").replace(" SOPInstanceUID=\"1.2.3.4.2\"", "");
+    ValidatingStreamReader reader = new ValidatingStreamReader(createReader(xml), schema);
+
+    assertEquals(2, readInstances(reader).size());
+    assertNotNull(reader.getValidationError());
+    assertEquals(8, reader.getValidationError().getLineNumber());
+  }
+
+  @Test
+  void testWithoutSchema() throws XMLStreamException {
+    ValidatingStreamReader reader =
+        new ValidatingStreamReader(createReader(MANIFEST.formatted("X")), null);
+    assertFalse(reader.isValidating());
+
+    assertEquals(2, readInstances(reader).size());
+    assertNull(reader.getValidationError());
+  }
+
+  @Test
+  void testNextTagAndElementText() throws XMLStreamException {
+    String xml =
+        """
+        <manifest xmlns="http://www.weasis.org/xsd/2.5">
+          <presentations>text</presentations>
+        </manifest>
+        """;
+    ValidatingStreamReader reader = new ValidatingStreamReader(createReader(xml), schema);
+
+    assertEquals(XMLStreamConstants.START_ELEMENT, reader.nextTag());
+    assertEquals("manifest", reader.getLocalName());
+    assertEquals(XMLStreamConstants.START_ELEMENT, reader.nextTag());
+    assertEquals("text", reader.getElementText());
+    assertEquals(XMLStreamConstants.END_ELEMENT, reader.nextTag());
+    assertEquals("manifest", reader.getLocalName());
+    readInstances(reader);
+    assertNull(reader.getValidationError());
+  }
+}
@@ -79,6 +79,7 @@
 import org.weasis.core.api.media.data.TagW;
 import org.weasis.core.api.service.BundlePreferences;
 import org.weasis.core.api.service.WProperties;
+import org.weasis.core.api.util.BatchWindow;
 import org.weasis.core.api.util.ResourceUtil;
 import org.weasis.core.api.util.ResourceUtil.OtherIcon;
 import org.weasis.core.api.util.ThreadUtil;
@@ -292,6 +293,7 @@ protected JPopupMenu getPopupMenu() {
       new JComboBox<>(RetrieveType.values());
   private final JComboBox<AbstractDicomNode> comboCallingNode = new JComboBox<>();
   private final DicomListener dicomListener;
+  private BatchWindow<File> listenerImport;
   private final ExecutorService executor =
       ThreadUtil.buildNewFixedThreadExecutor(3, "Dicom Q/R task"); // NON-NLS
   private final JSpinner limitSpinner = new JSpinner();
@@ -320,16 +322,11 @@ public DicomQrView() {
       openingStrategy.setFullImportSession(false);
       DataExplorerView dicomView = GuiUtils.getUICore().getExplorerPlugin(DicomExplorer.NAME);
       if (dicomView != null && dicomView.getDataExplorerModel() instanceof DicomModel model) {
+        BatchWindow<File> receivedFiles =
+            LoadLocalDicom.buildReceivedFilesImport(model, openingStrategy);
         DicomProgress progress = new DicomProgress();
-        progress.addProgressListener(
-            p -> {
-              File current = p.getProcessedFile();
-              if (current != null && p.getAttributes() == null) {
-                LoadLocalDicom task =
-                    new LoadLocalDicom(new File[] {current}, false, model, openingStrategy);
-                DicomModel.LOADING_EXECUTOR.execute(task);
-              }
-            });
+        RetrieveTask.addReceivedFilesListener(progress, receivedFiles);
+        listenerImport = receivedFiles;
         dcmListener = new DicomListener(getSessionTempFolder(), progress);
       } else {
         dcmListener = new DicomListener(getSessionTempFolder());
@@ -783,6 +780,13 @@ private void dicomQuery() {
       // props.setProperty(RsQueryParams.P_QUERY_EXT, "&includedefaults=false");
       this.retrieveNode = node;
       RsQuery rsquery = new RsQuery(new DicomModel(), props, p, authMethod, node.getHeaders());
+      // Shows the studies received so far while the next pages are requested
+      rsquery.setPageListener(
+          () -> {
+            if (running.get()) {
+              GuiExecutor.execute(() -> showStudies(rsquery.getDicomModel()));
+            }
+          });
       Runnable runnable =
           () -> {
             try {
@@ -797,9 +801,7 @@ private void dicomQuery() {
                     () -> {
                       progressBar.setEnabled(false);
                       progressBar.setIndeterminate(false);
-                      tree.setRetrieveTreeModel(new RetrieveTreeModel(rsquery.getDicomModel()));
-                      tree.revalidate();
-                      tree.repaint();
+                      showStudies(rsquery.getDicomModel());
                     });
               }
             } catch (Exception e) {
@@ -811,6 +813,20 @@ private void dicomQuery() {
     }
   }
 
+  /**
+   * Shows the studies of the model. When the tree already displays this model, only the new
+   * studies are inserted for keeping the selection and the expanded nodes.
+   */
+  private void showStudies(DicomModel dicomModel) {
+    if (tree.getRetrieveTreeModel().getDicomModel() == dicomModel) {
+      tree.insertNewStudies();
+    } else {
+      tree.setRetrieveTreeModel(new RetrieveTreeModel(dicomModel));
+    }
+    tree.revalidate();
+    tree.repaint();
+  }
+
   private static void addReturnTags(List<DicomParam> list, DicomParam p) {
     if (list.stream().noneMatch(d -> d.getTag() == p.getTag())) {
       list.add(p);
@@ -1070,6 +1086,14 @@ public DicomListener getDicomListener() {
     return dicomListener;
   }
 
+  /**
+   * @return the import of the files received by the DICOM listener, or null when the received files
+   *     are not imported while being received
+   */
+  public BatchWindow<File> getListenerImport() {
+    return listenerImport;
+  }
+
   public DicomModel getDicomModel() {
     return tree.getRetrieveTreeModel().getDicomModel();
   }
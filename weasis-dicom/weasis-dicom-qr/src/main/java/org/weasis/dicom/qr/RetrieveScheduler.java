@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.qr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.net.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.util.ThreadUtil;
+import org.weasis.dicom.param.CancelListener;
+import org.weasis.dicom.param.DicomParam;
+import org.weasis.dicom.param.DicomProgress;
+import org.weasis.dicom.param.DicomState;
+
+/**
+ * Splits a C-MOVE or C-GET retrieve into one sub-operation per study, so the archive can transfer
+ * the studies over several associations in parallel. The studies are started in the order of the
+ * list, and a failed study is retried alone. A warning (e.g. some instances not transferred) is not
+ * a failure and the study is not retried. The progress of all the sub-operations is merged into one
+ * percentage.
+ */
+final class RetrieveScheduler implements CancelListener {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RetrieveScheduler.class);
+
+  /** Maximum number of associations opened at the same time for retrieving the studies. */
+  static final String RETRIEVE_ASSOCIATIONS = "weasis.dicom.qr.retrieve.associations"; // NON-NLS
+
+  private static final int MAX_ATTEMPTS = 2;
+
+  @FunctionalInterface
+  interface SubOperation {
+
+    /**
+     * @param progress the progress of this sub-operation
+     * @param keys the keys identifying the study
+     * @return the state of the sub-operation
+     */
+    DicomState retrieve(DicomProgress progress, DicomParam... keys);
+  }
+
+  private final List<String> studies;
+  private final int associations;
+  private final List<Consumer<DicomProgress>> progressInitializers = new CopyOnWriteArrayList<>();
+  private final IntConsumer progressListener;
+  private final double[] studyProgress;
+  private final List<DicomProgress> running = new CopyOnWriteArrayList<>();
+  private volatile boolean cancelled;
+
+  /**
+   * @param studies the StudyInstanceUIDs, by order of priority
+   * @param associations the maximum number of parallel associations
+   * @param progressListener receives the global progress in percent, can be null
+   */
+  RetrieveScheduler(List<String> studies, int associations, IntConsumer progressListener) {
+    this.studies = List.copyOf(studies);
+    this.associations = Math.max(1, associations);
+    this.progressListener = progressListener;
+    this.studyProgress = new double[this.studies.size()];
+  }
+
+  /**
+   * @param initializer called for each new progress of a sub-operation, for instance for adding a
+   *     listener
+   */
+  void addProgressInitializer(Consumer<DicomProgress> initializer) {
+    progressInitializers.add(initializer);
+  }
+
+  /**
+   * Runs the sub-operations and waits until all of them are finished.
+   *
+   * @param operation the retrieve of one study
+   * @return the state of the first study in error, otherwise the state of the first study
+   *     cancelled or with a warning, otherwise the state of the last study
+   */
+  DicomState process(SubOperation operation) throws InterruptedException {
+    if (studies.isEmpty()) {
+      return new DicomState(Status.Success, null, null);
+    }
+    int nbThreads = Math.min(associations, studies.size());
+    ExecutorService executor =
+        ThreadUtil.buildNewFixedThreadExecutor(nbThreads, "DICOM Retrieve"); // NON-NLS
+    try {
+      // The pool takes the tasks in the order of submission, so by order of priority
+      List<Future<DicomState>> futures = new ArrayList<>(studies.size());
+      for (int i = 0; i < studies.size(); i++) {
+        int index = i;
+        futures.add(executor.submit(() -> retrieveStudy(index, operation)));
+      }
+
+      DicomState failure = null;
+      DicomState notSuccess = null;
+      DicomState last = null;
+      for (Future<DicomState> future : futures) {
+        DicomState state;
+        try {
+          state = future.get();
+        } catch (ExecutionException e) {
+          LOGGER.error("Retrieving study", e.getCause());
+          state = new DicomState(Status.UnableToProcess, e.getCause().getMessage(), null);
+        }
+        if (failure == null && isFailure(state)) {
+          failure = state;
+        }
+        if (notSuccess == null && state.getStatus() != Status.Success) {
+          notSuccess = state;
+        }
+        last = state;
+      }
+      if (failure != null) {
+        return failure;
+      }
+      return notSuccess == null ? last : notSuccess;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Override
+  public void cancel() {
+    cancelled = true;
+    running.forEach(DicomProgress::cancel);
+  }
+
+  private DicomState retrieveStudy(int index, SubOperation operation) {
+    String studyUID = studies.get(index);
+    DicomState state = new DicomState(Status.Cancel, null, null);
+    for (int attempt = 1; attempt <= MAX_ATTEMPTS && !cancelled; attempt++) {
+      DicomProgress progress = new DicomProgress();
+      progressInitializers.forEach(i -> i.accept(progress));
+      progress.addProgressListener(p -> updateProgress(index, p));
+      running.add(progress);
+      try {
+        state = operation.retrieve(progress, new DicomParam(Tag.StudyInstanceUID, studyUID));
+      } finally {
+        running.remove(progress);
+      }
+      if (!isFailure(state)) {
+        break;
+      }
+      LOGGER.warn(
+          "Cannot retrieve the study {} (attempt {}): {}", studyUID, attempt, state.getMessage());
+    }
+    setStudyProgress(index, 1.0);
+    return state;
+  }
+
+  private static boolean isFailure(DicomState state) {
+    int status = state.getStatus();
+    return status != Status.Success && status != Status.Cancel && !isWarning(status);
+  }
+
+  /**
+   * @param status the DICOM status
+   * @return true for the warning statuses of the retrieve (0xBxxx), for instance {@link
+   *     Status#OneOrMoreFailures} when some instances have not been transferred
+   */
+  private static boolean isWarning(int status) {
+    return (status & 0xF000) == 0xB000;
+  }
+
+  private void updateProgress(int index, DicomProgress p) {
+    int c = p.getNumberOfCompletedSuboperations() + p.getNumberOfFailedSuboperations();
+    int t = c + p.getNumberOfRemainingSuboperations();
+    if (t > 0) {
+      setStudyProgress(index, (double) c / t);
+    }
+  }
+
+  private void setStudyProgress(int index, double value) {
+    int percent;
+    synchronized (studyProgress) {
+      studyProgress[index] = value;
+      double sum = 0.0;
+      for (double v : studyProgress) {
+        sum += v;
+      }
+      percent = (int) (sum * 100 / studyProgress.length);
+    }
+    if (progressListener != null) {
+      progressListener.accept(percent);
+    }
+  }
+}
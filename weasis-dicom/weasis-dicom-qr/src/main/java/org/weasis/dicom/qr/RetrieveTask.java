@@ -9,12 +9,11 @@
  */
 package org.weasis.dicom.qr;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -22,15 +21,20 @@
 import java.util.Objects;
 import java.util.Properties;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.swing.JOptionPane;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
+import org.dcm4che3.img.util.DicomUtils;
 import org.dcm4che3.net.Status;
+import org.dcm4che3.net.service.QueryRetrieveLevel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.weasis.core.api.auth.AuthMethod;
 import org.weasis.core.api.explorer.ObservableEvent;
 import org.weasis.core.api.gui.task.CircularProgressBar;
-import org.weasis.core.api.gui.util.AppProperties;
 import org.weasis.core.api.gui.util.GuiExecutor;
 import org.weasis.core.api.gui.util.GuiUtils;
 import org.weasis.core.api.gui.util.WinUtil;
@@ -38,9 +42,10 @@
 import org.weasis.core.api.media.data.MediaSeriesGroupNode;
 import org.weasis.core.api.media.data.Series;
 import org.weasis.core.api.media.data.TagW;
+import org.weasis.core.api.util.BatchWindow;
 import org.weasis.core.api.util.ResourceUtil;
+import org.weasis.core.api.util.ThreadUtil;
 import org.weasis.core.api.util.URLParameters;
-import org.weasis.core.util.FileUtil;
 import org.weasis.core.util.StringUtil;
 import org.weasis.dicom.codec.DicomSeries;
 import org.weasis.dicom.codec.TagD;
@@ -61,19 +66,19 @@
 import org.weasis.dicom.explorer.wado.DownloadManager;
 import org.weasis.dicom.explorer.wado.DownloadManager.PriorityTaskComparator;
 import org.weasis.dicom.explorer.wado.DownloadPriority;
-import org.weasis.dicom.explorer.wado.LoadRemoteDicomManifest;
 import org.weasis.dicom.explorer.wado.LoadSeries;
-import org.weasis.dicom.mf.ArcQuery;
+import org.weasis.dicom.mf.SopInstance;
 import org.weasis.dicom.mf.WadoParameters;
+import org.weasis.dicom.op.CFind;
 import org.weasis.dicom.op.CGet;
 import org.weasis.dicom.op.CMove;
 import org.weasis.dicom.param.AdvancedParams;
 import org.weasis.dicom.param.ConnectOptions;
+import org.weasis.dicom.param.DicomNode;
 import org.weasis.dicom.param.DicomParam;
 import org.weasis.dicom.param.DicomProgress;
 import org.weasis.dicom.param.DicomState;
 import org.weasis.dicom.param.ListenerParams;
-import org.weasis.dicom.qr.manisfest.CFindQueryResult;
 import org.weasis.dicom.tool.DicomListener;
 import org.weasis.dicom.web.Multipart;
 
@@ -102,23 +107,15 @@ protected ExplorerTask<Boolean, String> doInBackground() throws Exception {
     ExplorerTask<Boolean, String> loadingTask = null;
     String errorMessage = null;
     final CircularProgressBar progressBar = getBar();
-    DicomProgress progress = new DicomProgress();
-    progress.addProgressListener(
-        p ->
-            GuiExecutor.execute(
-                () -> {
-                  int c =
-                      p.getNumberOfCompletedSuboperations() + p.getNumberOfFailedSuboperations();
-                  int r = p.getNumberOfRemainingSuboperations();
-                  int t = c + r;
-                  if (t > 0) {
-                    progressBar.setValue((c * 100) / t);
-                  }
-                }));
-
-    addCancelListener(progress);
-
-    DicomParam[] dcmParams = {new DicomParam(Tag.StudyInstanceUID, studies.toArray(new String[0]))};
+    // Each study is retrieved with its own association and its own progress
+    RetrieveScheduler scheduler =
+        new RetrieveScheduler(
+            studies,
+            GuiUtils.getUICore()
+                .getSystemPreferences()
+                .getIntProperty(RetrieveScheduler.RETRIEVE_ASSOCIATIONS, 2),
+            percent -> GuiExecutor.execute(() -> progressBar.setValue(percent)));
+    addCancelListener(scheduler);
 
     File tempFolder = null;
     Object selectedItem = dicomQrView.getComboDestinationNode().getSelectedItem();
@@ -147,27 +144,26 @@ protected ExplorerTask<Boolean, String> doInBackground() throws Exception {
               LOGGER.error("SOP Class url conversion", e);
             }
           }
-          tempFolder = DicomQrView.getSessionTempFolder();
           openingStrategy.setFullImportSession(false);
-          progress.addProgressListener(
-              p -> {
-                File current = p.getProcessedFile();
-                if (current != null && p.getAttributes() == null) {
-                  LoadLocalDicom task =
-                      new LoadLocalDicom(
-                          new File[] {current}, false, explorerDcmModel, openingStrategy);
-                  DicomModel.LOADING_EXECUTOR.execute(task);
-                }
-              });
-          state =
-              CGet.process(
-                  params,
-                  callingNode.getDicomNodeWithOnlyAET(),
-                  node.getDicomNode(),
-                  progress,
-                  tempFolder,
-                  url,
-                  dcmParams);
+          // The received files are added to the model during the transfer
+          try (BatchWindow<File> receivedFiles =
+              LoadLocalDicom.buildReceivedFilesImport(explorerDcmModel, openingStrategy)) {
+            scheduler.addProgressInitializer(
+                progress -> addReceivedFilesListener(progress, receivedFiles));
+            File storageDir = DicomQrView.getSessionTempFolder();
+            URL sopClassUrl = url;
+            state =
+                scheduler.process(
+                    (progress, keys) ->
+                        CGet.process(
+                            params,
+                            callingNode.getDicomNodeWithOnlyAET(),
+                            node.getDicomNode(),
+                            progress,
+                            storageDir,
+                            sopClassUrl,
+                            keys));
+          }
         } else if (RetrieveType.CMOVE == type) {
           DicomListener dicomListener = dicomQrView.getDicomListener();
           try {
@@ -195,16 +191,24 @@ protected ExplorerTask<Boolean, String> doInBackground() throws Exception {
             state = new DicomState(Status.UnableToProcess, errorMessage, null);
           } else {
             state =
-                CMove.process(
-                    params,
-                    callingNode.getDicomNode(),
-                    node.getDicomNode(),
-                    callingNode.getAeTitle(),
-                    progress,
-                    dcmParams);
+                scheduler.process(
+                    (progress, keys) ->
+                        CMove.process(
+                            params,
+                            callingNode.getDicomNode(),
+                            node.getDicomNode(),
+                            callingNode.getAeTitle(),
+                            progress,
+                            keys));
             if (dicomListener != null) {
               dicomListener.stop();
             }
+            BatchWindow<File> listenerImport = dicomQrView.getListenerImport();
+            if (listenerImport != null) {
+              // The received files have been added to the model during the transfer
+              listenerImport.flush();
+              tempFolder = null;
+            }
           }
         } else if (RetrieveType.WADO == type) {
           List<AbstractDicomNode> webNodes =
@@ -220,36 +224,16 @@ protected ExplorerTask<Boolean, String> doInBackground() throws Exception {
                   "local", wnode.getUrl().toString(), false, null, null, null); // NON-NLS
           wnode.getHeaders().forEach(wadoParameters::addHttpTag);
 
-          CFindQueryResult query = new CFindQueryResult(wadoParameters);
-          query.fillSeries(
-              params,
-              callingNode.getDicomNodeWithOnlyAET(),
-              node.getDicomNode(),
-              dicomModel,
-              studies);
-          ArcQuery arquery = new ArcQuery(Collections.singletonList(query));
-          String wadoXmlGenerated = arquery.xmlManifest(null);
-          if (wadoXmlGenerated == null) {
-            state =
-                new DicomState(
-                    Status.UnableToProcess,
-                    Messages.getString("RetrieveTask.msg_build_manifest"),
-                    null);
-          } else {
-            List<String> xmlFiles = new ArrayList<>(1);
-            try {
-              File tempFile = File.createTempFile("wado_", ".xml", AppProperties.APP_TEMP_DIR);
-              FileUtil.writeStreamWithIOException(
-                  new ByteArrayInputStream(wadoXmlGenerated.getBytes(StandardCharsets.UTF_8)),
-                  tempFile);
-              xmlFiles.add(tempFile.getPath());
-
-            } catch (Exception e) {
-              LOGGER.info("ungzip manifest", e);
-            }
-
-            return new LoadRemoteDicomManifest(xmlFiles, explorerDcmModel);
-          }
+          // The series are loaded from the C-FIND results without building a manifest
+          DicomState failure =
+              fillSeries(
+                  params,
+                  callingNode.getDicomNodeWithOnlyAET(),
+                  node.getDicomNode(),
+                  dicomModel,
+                  wadoParameters,
+                  wnode.getAuthMethod());
+          state = failure == null ? new DicomState(Status.Success, null, null) : failure;
         } else {
           state =
               new DicomState(
@@ -361,6 +345,23 @@ && getHostname(url.getHost()).contains(host)) {
     return wadoURLs.getFirst();
   }
 
+  /**
+   * Adds the files stored by a C-GET or by the DICOM listener to a batch importing them into the
+   * model during the transfer.
+   *
+   * @param progress the progress of the storage operation
+   * @param receivedFiles the batch receiving the stored files
+   */
+  static void addReceivedFilesListener(DicomProgress progress, BatchWindow<File> receivedFiles) {
+    progress.addProgressListener(
+        p -> {
+          File current = p.getProcessedFile();
+          if (current != null && p.getAttributes() == null) {
+            receivedFiles.add(current);
+          }
+        });
+  }
+
   static String getHostname(String host) {
     if ("127.0.0.1".equals(host) || "127.0.1.1".equals(host) || "::1".equals(host)) { // NON-NLS
       return "localhost"; // NON-NLS
@@ -368,7 +369,7 @@ static String getHostname(String host) {
     return host;
   }
 
-  private void fillSeries() {
+  private void fillSeries() throws InterruptedException {
     DicomModel dicomModel = dicomQrView.getDicomModel();
     if (dicomModel == null) {
       return;
@@ -380,12 +381,6 @@ private void fillSeries() {
     props.setProperty(RsQueryParams.P_DICOMWEB_URL, baseUrl);
     props.setProperty(RsQueryParams.P_ACCEPT_EXT, "transfer-syntax=*"); // NON-NLS
 
-    Map<String, LoadSeries> loadMap = new HashMap<>();
-    boolean startDownloading =
-        GuiUtils.getUICore()
-            .getSystemPreferences()
-            .getBooleanProperty(DicomExplorerPrefView.DOWNLOAD_IMMEDIATELY, true);
-
     WadoParameters wadoParameters = new WadoParameters("", true, true);
 
     retrieveNode.getHeaders().forEach(wadoParameters::addHttpTag);
@@ -397,44 +392,244 @@ private void fillSeries() {
             + "\";"
             + props.getProperty(RsQueryParams.P_ACCEPT_EXT));
 
-    for (String studyInstanceUID : studies) {
-      MediaSeriesGroup study = getStudyNode(dicomModel, studyInstanceUID);
+    WadoParameters wp = new WadoParameters("", true, true);
+    retrieveNode.getHeaders().forEach(wp::addHttpTag);
+    wp.addHttpTag("Accept", "image/jpeg"); // NON-NLS
+
+    AuthMethod authMethod = dicomQrView.getAuthMethod();
+    URLParameters urlParameters = new URLParameters(retrieveNode.getHeaders());
+    StudyQuery query =
+        new StudyQuery() {
+          @Override
+          public List<Attributes> findSeries(String studyUID) throws Exception {
+            StringBuilder buf = new StringBuilder(baseUrl);
+            buf.append("/studies/"); // NON-NLS
+            buf.append(studyUID);
+            buf.append("/series?includefield="); // NON-NLS
+            buf.append(RsQueryResult.SERIES_QUERY);
+            buf.append(props.getProperty(RsQueryParams.P_QUERY_EXT, ""));
+            LOGGER.debug(RsQueryResult.QIDO_REQUEST, buf);
+            return RsQueryResult.parseJSON(buf.toString(), authMethod, urlParameters);
+          }
 
-      StringBuilder buf = new StringBuilder(baseUrl);
-      buf.append("/studies/"); // NON-NLS
-      buf.append(studyInstanceUID);
-      buf.append("/series?includefield="); // NON-NLS
-      buf.append(RsQueryResult.SERIES_QUERY);
-      buf.append(props.getProperty(RsQueryParams.P_QUERY_EXT, ""));
-
-      try {
-        LOGGER.debug(RsQueryResult.QIDO_REQUEST, buf);
-        URLParameters urlParameters = new URLParameters(retrieveNode.getHeaders());
-        List<Attributes> series =
-            RsQueryResult.parseJSON(buf.toString(), dicomQrView.getAuthMethod(), urlParameters);
-        if (!series.isEmpty()) {
-          for (Attributes seriesDataset : series) {
-            Series<?> dicomSeries =
-                getSeries(study, seriesDataset, loadMap, wadoParameters, baseUrl, startDownloading);
-            fillInstance(seriesDataset, dicomSeries, props, urlParameters);
+          @Override
+          public List<Attributes> findInstances(
+              String studyUID, Attributes seriesDataset, Series<?> dicomSeries) throws Exception {
+            String seriesRetrieveURL =
+                TagD.getTagValue(dicomSeries, Tag.RetrieveURL, String.class);
+            if (!StringUtil.hasText(seriesDataset.getString(Tag.SeriesInstanceUID))
+                || !StringUtil.hasText(seriesRetrieveURL)) {
+              return Collections.emptyList();
+            }
+            StringBuilder buf = new StringBuilder(seriesRetrieveURL);
+            buf.append("/instances?includefield="); // NON-NLS
+            buf.append(RsQueryResult.INSTANCE_QUERY);
+            buf.append(props.getProperty(RsQueryParams.P_QUERY_EXT, ""));
+            LOGGER.debug(RsQueryResult.QIDO_REQUEST, buf);
+            return RsQueryResult.parseJSON(buf.toString(), authMethod, urlParameters);
+          }
+
+          @Override
+          public void addInstance(
+              Attributes instanceDataSet,
+              SeriesInstanceList seriesInstanceList,
+              Series<?> dicomSeries) {
+            RsQueryResult.addSopInstance(
+                instanceDataSet,
+                seriesInstanceList,
+                TagD.getTagValue(dicomSeries, Tag.RetrieveURL, String.class));
+          }
+        };
+    loadStudies(dicomModel, query, wadoParameters, baseUrl, authMethod, wp);
+  }
+
+  /**
+   * Loads the series of the studies from the C-FIND queries of their series and instances.
+   *
+   * @return the state of the first query that has failed, or null when all have succeeded
+   */
+  private DicomState fillSeries(
+      AdvancedParams params,
+      DicomNode callingNode,
+      DicomNode calledNode,
+      DicomModel dicomModel,
+      WadoParameters wadoParameters,
+      AuthMethod authMethod)
+      throws InterruptedException {
+    AtomicReference<DicomState> failure = new AtomicReference<>();
+    StudyQuery query =
+        new StudyQuery() {
+          @Override
+          public List<Attributes> findSeries(String studyUID) {
+            DicomParam[] keysSeries = {
+              // Matching Keys
+              new DicomParam(Tag.StudyInstanceUID, studyUID),
+              // Return Keys
+              CFind.SeriesInstanceUID,
+              CFind.Modality,
+              CFind.SeriesNumber,
+              CFind.SeriesDescription
+            };
+            return getResponses(
+                CFind.process(
+                    params, callingNode, calledNode, 0, QueryRetrieveLevel.SERIES, keysSeries),
+                studyUID,
+                failure);
+          }
+
+          @Override
+          public List<Attributes> findInstances(
+              String studyUID, Attributes seriesDataset, Series<?> dicomSeries) {
+            String seriesInstanceUID = seriesDataset.getString(Tag.SeriesInstanceUID);
+            if (!StringUtil.hasText(seriesInstanceUID)) {
+              return Collections.emptyList();
+            }
+            DicomParam[] keysInstance = {
+              // Matching Keys
+              new DicomParam(Tag.StudyInstanceUID, studyUID),
+              new DicomParam(Tag.SeriesInstanceUID, seriesInstanceUID),
+              // Return Keys
+              CFind.SOPInstanceUID,
+              CFind.InstanceNumber
+            };
+            return getResponses(
+                CFind.process(
+                    params, callingNode, calledNode, 0, QueryRetrieveLevel.IMAGE, keysInstance),
+                seriesInstanceUID,
+                failure);
+          }
+
+          @Override
+          public void addInstance(
+              Attributes instanceDataSet,
+              SeriesInstanceList seriesInstanceList,
+              Series<?> dicomSeries) {
+            Integer frame =
+                DicomUtils.getIntegerFromDicomElement(instanceDataSet, Tag.InstanceNumber, null);
+            String sopUID = instanceDataSet.getString(Tag.SOPInstanceUID);
+            if (seriesInstanceList.getSopInstance(sopUID, frame) == null) {
+              seriesInstanceList.addSopInstance(new SopInstance(sopUID, frame));
+            }
+          }
+        };
+    loadStudies(dicomModel, query, wadoParameters, null, authMethod, wadoParameters);
+    return failure.get();
+  }
+
+  private static List<Attributes> getResponses(
+      DicomState state, String uid, AtomicReference<DicomState> failure) {
+    if (state.getStatus() != Status.Success) {
+      LOGGER.error("C-FIND with UID {}: {}", uid, state.getMessage());
+      failure.compareAndSet(null, state);
+    }
+    List<Attributes> items = state.getDicomRSP();
+    return items == null ? Collections.emptyList() : items;
+  }
+
+  /**
+   * Loads the series of the studies into the explorer model. The queries of the series of all the
+   * studies and the queries of their instances are run concurrently, and each study is added to
+   * the model and starts downloading in the order of the list as soon as its queries are done.
+   *
+   * @param dicomModel the model of the query results
+   * @param query the queries of the series and instances
+   * @param wadoParameters the parameters for downloading the instances
+   * @param baseUrl the DICOMweb URL for building the RetrieveURL of the series, can be null
+   * @param authMethod the authentication for downloading the instances
+   * @param thumbnailParameters the parameters for downloading the thumbnails
+   */
+  private void loadStudies(
+      DicomModel dicomModel,
+      StudyQuery query,
+      WadoParameters wadoParameters,
+      String baseUrl,
+      AuthMethod authMethod,
+      WadoParameters thumbnailParameters)
+      throws InterruptedException {
+    boolean startDownloading =
+        GuiUtils.getUICore()
+            .getSystemPreferences()
+            .getBooleanProperty(DicomExplorerPrefView.DOWNLOAD_IMMEDIATELY, true);
+    int nbThreads =
+        GuiUtils.getUICore()
+            .getSystemPreferences()
+            .getIntProperty(RetrieveScheduler.RETRIEVE_ASSOCIATIONS, 2);
+    ExecutorService executor =
+        ThreadUtil.buildNewFixedThreadExecutor(Math.max(1, nbThreads), "DICOM Query"); // NON-NLS
+    try {
+      // The pool takes the queries in the order of submission, so by order of the studies
+      List<Future<List<Attributes>>> seriesQueries = new ArrayList<>(studies.size());
+      for (String studyUID : studies) {
+        seriesQueries.add(executor.submit(() -> query.findSeries(studyUID)));
+      }
+
+      openingStrategy.prepareImport();
+      for (int i = 0; i < studies.size() && !isCancelled(); i++) {
+        String studyUID = studies.get(i);
+        List<Attributes> seriesList = getQueryResult(seriesQueries.get(i), studyUID);
+        if (seriesList.isEmpty()) {
+          continue;
+        }
+
+        List<DicomSeries> seriesNodes = new ArrayList<>(seriesList.size());
+        List<Future<List<Attributes>>> instanceQueries = new ArrayList<>(seriesList.size());
+        for (Attributes seriesDataset : seriesList) {
+          DicomSeries dicomSeries = buildSeries(studyUID, seriesDataset, wadoParameters, baseUrl);
+          seriesNodes.add(dicomSeries);
+          instanceQueries.add(
+              executor.submit(() -> query.findInstances(studyUID, seriesDataset, dicomSeries)));
+        }
+
+        // Only the series with instances are added to the model, with their study
+        MediaSeriesGroup study = null;
+        Map<String, LoadSeries> loadMap = new HashMap<>();
+        for (int j = 0; j < seriesNodes.size(); j++) {
+          DicomSeries dicomSeries = seriesNodes.get(j);
+          String seriesUID = seriesList.get(j).getString(Tag.SeriesInstanceUID);
+          List<Attributes> instances = getQueryResult(instanceQueries.get(j), seriesUID);
+          if (instances.isEmpty()) {
+            continue;
+          }
+          if (study == null) {
+            study = getStudyNode(dicomModel, studyUID);
+            if (study == null) {
+              break;
+            }
+          }
+          DicomSeries series = addSeries(study, dicomSeries, loadMap, authMethod, startDownloading);
+          SeriesInstanceList seriesInstanceList =
+              (SeriesInstanceList) series.getTagValue(TagW.WadoInstanceReferenceList);
+          if (seriesInstanceList != null) {
+            for (Attributes instanceDataSet : instances) {
+              query.addInstance(instanceDataSet, seriesInstanceList, series);
+            }
           }
         }
-      } catch (Exception e) {
-        LOGGER.error("QIDO-RS all series with studyUID {}", studyInstanceUID, e);
+        startLoadSeries(loadMap.values(), thumbnailParameters);
       }
+    } finally {
+      executor.shutdownNow();
     }
+  }
 
-    if (!loadMap.isEmpty()) {
-      openingStrategy.prepareImport();
-      WadoParameters wp = new WadoParameters("", true, true);
-      retrieveNode.getHeaders().forEach(wp::addHttpTag);
-      wp.addHttpTag("Accept", "image/jpeg"); // NON-NLS
+  private static List<Attributes> getQueryResult(Future<List<Attributes>> future, String uid)
+      throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      LOGGER.error("Query with UID {}", uid, e.getCause());
+      return Collections.emptyList();
+    }
+  }
 
-      for (final LoadSeries loadSeries : loadMap.values()) {
+  private void startLoadSeries(
+      Collection<LoadSeries> loadSeriesList, WadoParameters thumbnailParameters) {
+    if (!loadSeriesList.isEmpty()) {
+      for (final LoadSeries loadSeries : loadSeriesList) {
         String modality = TagD.getTagValue(loadSeries.getDicomSeries(), Tag.Modality, String.class);
         boolean ps = "PR".equals(modality) || "KO".equals(modality); // NON-NLS
         if (!ps) {
-          loadSeries.startDownloadImageReference(wp);
+          loadSeries.startDownloadImageReference(thumbnailParameters);
         }
         loadSeries.setPOpeningStrategy(openingStrategy);
         DownloadManager.addLoadSeries(
@@ -481,89 +676,74 @@ public MediaSeriesGroup getStudyNode(DicomModel dicomModel, String studyUID) {
     return null;
   }
 
-  private DicomSeries getSeries(
-      MediaSeriesGroup study,
-      final Attributes seriesDataset,
-      Map<String, LoadSeries> loadMap,
-      WadoParameters wadoParameters,
-      String baseUrl,
-      boolean startDownloading) {
+  /**
+   * Builds the series node of a query result, which is added to the explorer model only when it
+   * has instances.
+   */
+  private DicomSeries buildSeries(
+      String studyUID, Attributes seriesDataset, WadoParameters wadoParameters, String baseUrl) {
     if (seriesDataset == null) {
       throw new IllegalArgumentException("seriesDataset cannot be null");
     }
     String seriesUID = seriesDataset.getString(Tag.SeriesInstanceUID);
-    DicomSeries dicomSeries = (DicomSeries) explorerDcmModel.getHierarchyNode(study, seriesUID);
-    if (dicomSeries == null) {
-      dicomSeries = new DicomSeries(seriesUID);
-      dicomSeries.setTag(TagD.get(Tag.SeriesInstanceUID), seriesUID);
-      dicomSeries.setTag(TagW.ExplorerModel, explorerDcmModel);
-      dicomSeries.setTag(TagW.WadoParameters, wadoParameters);
-      dicomSeries.setTag(TagW.WadoInstanceReferenceList, new SeriesInstanceList());
-
-      TagW[] tags =
-          TagD.getTagFromIDs(
-              Tag.Modality, Tag.SeriesNumber, Tag.SeriesDescription, Tag.RetrieveURL);
-      for (TagW tag : tags) {
-        tag.readValue(seriesDataset, dicomSeries);
-      }
-      if (!StringUtil.hasText(TagD.getTagValue(dicomSeries, Tag.RetrieveURL, String.class))) {
-        StringBuilder buf = new StringBuilder(baseUrl);
-        buf.append("/studies/"); // NON-NLS
-        buf.append(study.getTagValue(TagD.get(Tag.StudyInstanceUID)));
-        buf.append("/series/"); // NON-NLS
-        buf.append(seriesUID);
-        dicomSeries.setTag(TagD.get(Tag.RetrieveURL), buf.toString());
-      }
+    DicomSeries dicomSeries = new DicomSeries(seriesUID);
+    dicomSeries.setTag(TagD.get(Tag.SeriesInstanceUID), seriesUID);
+    dicomSeries.setTag(TagW.ExplorerModel, explorerDcmModel);
+    dicomSeries.setTag(TagW.WadoParameters, wadoParameters);
+    dicomSeries.setTag(TagW.WadoInstanceReferenceList, new SeriesInstanceList());
+
+    TagW[] tags =
+        TagD.getTagFromIDs(Tag.Modality, Tag.SeriesNumber, Tag.SeriesDescription, Tag.RetrieveURL);
+    for (TagW tag : tags) {
+      tag.readValue(seriesDataset, dicomSeries);
+    }
+    if (baseUrl != null
+        && !StringUtil.hasText(TagD.getTagValue(dicomSeries, Tag.RetrieveURL, String.class))) {
+      StringBuilder buf = new StringBuilder(baseUrl);
+      buf.append("/studies/"); // NON-NLS
+      buf.append(studyUID);
+      buf.append("/series/"); // NON-NLS
+      buf.append(seriesUID);
+      dicomSeries.setTag(TagD.get(Tag.RetrieveURL), buf.toString());
+    }
+    return dicomSeries;
+  }
 
+  /**
+   * Adds the series to the explorer model with its download task, or returns the series already in
+   * the model.
+   */
+  private DicomSeries addSeries(
+      MediaSeriesGroup study,
+      DicomSeries dicomSeries,
+      Map<String, LoadSeries> loadMap,
+      AuthMethod authMethod,
+      boolean startDownloading) {
+    String seriesUID = TagD.getTagValue(dicomSeries, Tag.SeriesInstanceUID, String.class);
+    DicomSeries series = (DicomSeries) explorerDcmModel.getHierarchyNode(study, seriesUID);
+    if (series == null) {
       explorerDcmModel.addHierarchyNode(study, dicomSeries);
 
       final LoadSeries loadSeries =
-          new LoadSeries(
-              dicomSeries,
-              explorerDcmModel,
-              dicomQrView.getAuthMethod(),
-              GuiUtils.getUICore()
-                  .getSystemPreferences()
-                  .getIntProperty(LoadSeries.CONCURRENT_DOWNLOADS_IN_SERIES, 4),
-              true,
-              startDownloading);
+          new LoadSeries(dicomSeries, explorerDcmModel, authMethod, true, startDownloading);
       loadSeries.setPriority(
           new DownloadPriority(
               explorerDcmModel.getParent(study, DicomModel.patient), study, dicomSeries, true));
-      loadMap.put(TagD.getTagValue(dicomSeries, Tag.SeriesInstanceUID, String.class), loadSeries);
+      loadMap.put(seriesUID, loadSeries);
+      series = dicomSeries;
     }
-    return dicomSeries;
+    return series;
   }
 
-  private void fillInstance(
-      Attributes seriesDataset,
-      Series<?> dicomSeries,
-      Properties props,
-      URLParameters urlParameters) {
-    String serieInstanceUID = seriesDataset.getString(Tag.SeriesInstanceUID);
-    String seriesRetrieveURL = TagD.getTagValue(dicomSeries, Tag.RetrieveURL, String.class);
-    if (StringUtil.hasText(serieInstanceUID) && StringUtil.hasText(seriesRetrieveURL)) {
-      StringBuilder buf = new StringBuilder(seriesRetrieveURL);
-      buf.append("/instances?includefield="); // NON-NLS
-      buf.append(RsQueryResult.INSTANCE_QUERY);
-      buf.append(props.getProperty(RsQueryParams.P_QUERY_EXT, ""));
-
-      try {
-        LOGGER.debug(RsQueryResult.QIDO_REQUEST, buf);
-        List<Attributes> instances =
-            RsQueryResult.parseJSON(buf.toString(), dicomQrView.getAuthMethod(), urlParameters);
-        if (!instances.isEmpty()) {
-          SeriesInstanceList seriesInstanceList =
-              (SeriesInstanceList) dicomSeries.getTagValue(TagW.WadoInstanceReferenceList);
-          if (seriesInstanceList != null) {
-            for (Attributes instanceDataSet : instances) {
-              RsQueryResult.addSopInstance(instanceDataSet, seriesInstanceList, seriesRetrieveURL);
-            }
-          }
-        }
-      } catch (Exception e) {
-        LOGGER.error("QIDO-RS all instances with seriesUID {}", serieInstanceUID, e);
-      }
-    }
+  /** The queries of the series and of the instances of a study, called from several threads. */
+  private interface StudyQuery {
+
+    List<Attributes> findSeries(String studyUID) throws Exception;
+
+    List<Attributes> findInstances(String studyUID, Attributes seriesDataset, Series<?> dicomSeries)
+        throws Exception;
+
+    void addInstance(
+        Attributes instanceDataSet, SeriesInstanceList seriesInstanceList, Series<?> dicomSeries);
   }
 }
@@ -19,6 +19,7 @@
 import java.util.Objects;
 import java.util.Set;
 import javax.swing.JPanel;
+import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.TreePath;
 import org.weasis.core.ui.util.TreeBuilder;
 import org.weasis.dicom.explorer.DicomModel;
@@ -109,6 +110,18 @@ public String getToolTipText(MouseEvent evt) {
     add(checkboxTree, BorderLayout.CENTER);
   }
 
+  /**
+   * Shows the studies added to the DICOM model of the current tree model, keeping the selection
+   * and the expanded nodes. The new patients are expanded up to the study level.
+   */
+  public void insertNewStudies() {
+    List<DefaultMutableTreeNode> patients = retrieveTreeModel.insertNewStudies();
+    CheckboxTree checkboxTree = getCheckboxTree();
+    for (DefaultMutableTreeNode patient : patients) {
+      checkboxTree.expandPath(new TreePath(patient.getPath()));
+    }
+  }
+
   public CheckboxTree getCheckboxTree() {
     for (int i = 0; i < getComponentCount(); i++) {
       Component c = getComponent(i);
@@ -14,6 +14,7 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import javax.swing.tree.DefaultMutableTreeNode;
@@ -83,46 +84,99 @@ public List<TreePath> getDefaultSelectedPaths() {
 
   private static void buildSeries(DefaultMutableTreeNode studyNode, Series<?> series) {
     DefaultMutableTreeNode seriesNode = new ToolTipSeriesNode(series, true);
-
-    List<?> children = Collections.list(studyNode.children());
-    int index = Collections.binarySearch(children, seriesNode, DicomSorter.SERIES_COMPARATOR);
-    index = index < 0 ? -(index + 1) : index;
-    studyNode.insert(seriesNode, index);
+    studyNode.insert(seriesNode, getIndex(studyNode, seriesNode, DicomSorter.SERIES_COMPARATOR));
   }
 
   public static synchronized DefaultTreeModel buildModel(DicomModel dicomModel) {
     Collection<MediaSeriesGroup> patients = dicomModel.getChildren(MediaSeriesGroupNode.rootNode);
-    DefaultMutableTreeNode rootNode =
-        new DefaultMutableTreeNode(
-            patients.isEmpty()
-                ? Messages.getString("RetrieveTreeModel.no_pat")
-                : DicomExplorer.ALL_PATIENTS);
+    DefaultMutableTreeNode rootNode = new DefaultMutableTreeNode(getRootName(patients));
     for (MediaSeriesGroup pt : patients) {
       DefaultMutableTreeNode patientNode = new DefaultMutableTreeNode(pt, true);
       for (MediaSeriesGroup study : dicomModel.getChildren(pt)) {
-        DefaultMutableTreeNode studyNode = new ToolTipStudyNode(study, true);
-        for (MediaSeriesGroup item : dicomModel.getChildren(study)) {
-          if (item instanceof Series) {
-            buildSeries(studyNode, (Series<?>) item);
-          }
+        DefaultMutableTreeNode studyNode = buildStudy(dicomModel, study);
+        patientNode.insert(
+            studyNode, getIndex(patientNode, studyNode, DicomSorter.STUDY_COMPARATOR));
+      }
+      rootNode.insert(
+          patientNode, getIndex(rootNode, patientNode, DicomSorter.PATIENT_COMPARATOR));
+    }
+    return new DefaultTreeModel(rootNode, false);
+  }
+
+  /**
+   * Inserts the patients and the studies added to the DICOM model since the tree has been built.
+   * The existing nodes are kept, so the selection and the expanded nodes of the tree are not
+   * modified. Must be called from the EDT.
+   *
+   * @return the nodes of the new patients
+   */
+  public synchronized List<DefaultMutableTreeNode> insertNewStudies() {
+    Collection<MediaSeriesGroup> patients = dicomModel.getChildren(MediaSeriesGroupNode.rootNode);
+    String rootName = getRootName(patients);
+    if (!rootName.equals(rootNode.getUserObject())) {
+      rootNode.setUserObject(rootName);
+      model.nodeChanged(rootNode);
+    }
+
+    List<DefaultMutableTreeNode> newPatients = new ArrayList<>();
+    for (MediaSeriesGroup pt : patients) {
+      DefaultMutableTreeNode patientNode = getChild(rootNode, pt);
+      if (patientNode == null) {
+        patientNode = new DefaultMutableTreeNode(pt, true);
+        for (MediaSeriesGroup study : dicomModel.getChildren(pt)) {
+          DefaultMutableTreeNode studyNode = buildStudy(dicomModel, study);
+          patientNode.insert(
+              studyNode, getIndex(patientNode, studyNode, DicomSorter.STUDY_COMPARATOR));
         }
-        List<?> children = Collections.list(patientNode.children());
-        int index = Collections.binarySearch(children, studyNode, DicomSorter.STUDY_COMPARATOR);
-        if (index < 0) {
-          patientNode.insert(studyNode, -(index + 1));
-        } else {
-          patientNode.insert(studyNode, index);
+        model.insertNodeInto(
+            patientNode, rootNode, getIndex(rootNode, patientNode, DicomSorter.PATIENT_COMPARATOR));
+        newPatients.add(patientNode);
+      } else {
+        for (MediaSeriesGroup study : dicomModel.getChildren(pt)) {
+          if (getChild(patientNode, study) == null) {
+            DefaultMutableTreeNode studyNode = buildStudy(dicomModel, study);
+            model.insertNodeInto(
+                studyNode,
+                patientNode,
+                getIndex(patientNode, studyNode, DicomSorter.STUDY_COMPARATOR));
+          }
         }
       }
-      List<?> children = Collections.list(rootNode.children());
-      int index = Collections.binarySearch(children, patientNode, DicomSorter.PATIENT_COMPARATOR);
-      if (index < 0) {
-        rootNode.insert(patientNode, -(index + 1));
-      } else {
-        rootNode.insert(patientNode, index);
+    }
+    return newPatients;
+  }
+
+  private static String getRootName(Collection<MediaSeriesGroup> patients) {
+    return patients.isEmpty()
+        ? Messages.getString("RetrieveTreeModel.no_pat")
+        : DicomExplorer.ALL_PATIENTS;
+  }
+
+  private static DefaultMutableTreeNode buildStudy(DicomModel dicomModel, MediaSeriesGroup study) {
+    DefaultMutableTreeNode studyNode = new ToolTipStudyNode(study, true);
+    for (MediaSeriesGroup item : dicomModel.getChildren(study)) {
+      if (item instanceof Series) {
+        buildSeries(studyNode, (Series<?>) item);
       }
     }
-    return new DefaultTreeModel(rootNode, false);
+    return studyNode;
+  }
+
+  private static DefaultMutableTreeNode getChild(DefaultMutableTreeNode parent, Object userObject) {
+    for (int i = 0; i < parent.getChildCount(); i++) {
+      DefaultMutableTreeNode child = (DefaultMutableTreeNode) parent.getChildAt(i);
+      if (child.getUserObject() == userObject) {
+        return child;
+      }
+    }
+    return null;
+  }
+
+  private static int getIndex(
+      DefaultMutableTreeNode parent, DefaultMutableTreeNode node, Comparator<Object> comparator) {
+    List<?> children = Collections.list(parent.children());
+    int index = Collections.binarySearch(children, node, comparator);
+    return index < 0 ? -(index + 1) : index;
   }
 
   static class ToolTipStudyNode extends DefaultMutableTreeNode {
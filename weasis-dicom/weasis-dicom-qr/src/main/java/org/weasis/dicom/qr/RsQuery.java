@@ -12,13 +12,19 @@
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.util.TagUtils;
@@ -29,6 +35,7 @@
 import org.weasis.core.api.media.data.MediaSeriesGroupNode;
 import org.weasis.core.api.media.data.TagUtil;
 import org.weasis.core.api.media.data.TagW;
+import org.weasis.core.api.util.ThreadUtil;
 import org.weasis.core.api.util.URLParameters;
 import org.weasis.core.util.StringUtil;
 import org.weasis.dicom.codec.TagD;
@@ -43,11 +50,17 @@
 public class RsQuery implements Callable<Boolean> {
   private static final Logger LOGGER = LoggerFactory.getLogger(RsQuery.class);
 
+  /** Number of studies by request when the user has not set a limit. */
+  static final int STUDY_PAGE_SIZE = 100;
+
+  private static final int SERIES_QUERY_THREADS = 4;
+
   private final DicomModel dicomModel;
   private final Properties properties;
   private final Map<String, String> queryHeaders;
   protected final List<DicomParam> queries;
   private final AuthMethod authMethod;
+  private Runnable pageListener;
 
   public RsQuery(
       DicomModel dicomModel,
@@ -74,6 +87,14 @@ public DicomModel getDicomModel() {
     return dicomModel;
   }
 
+  /**
+   * @param pageListener called from the query thread each time a page of studies has been added to
+   *     the model, can be null
+   */
+  public void setPageListener(Runnable pageListener) {
+    this.pageListener = pageListener;
+  }
+
   public String getBaseUrl() {
     return properties.getProperty(RsQueryParams.P_DICOMWEB_URL);
   }
@@ -120,23 +141,80 @@ public Boolean call() throws Exception {
   }
 
   public void buildQueries(StringBuilder buf) {
+    // The series of all the pages are queried with the same threads
+    ExecutorService executor =
+        ThreadUtil.buildNewFixedThreadExecutor(SERIES_QUERY_THREADS, "QIDO-RS Series"); // NON-NLS
     try {
       buf.append(RsQueryResult.STUDY_QUERY);
       buf.append(properties.getProperty(RsQueryParams.P_QUERY_EXT, ""));
-      buf.append(properties.getProperty(RsQueryParams.P_PAGE_EXT, ""));
-
-      LOGGER.debug(RsQueryResult.QIDO_REQUEST, buf);
-      List<Attributes> studies =
-          RsQueryResult.parseJSON(buf.toString(), authMethod, new URLParameters(queryHeaders));
-      for (Attributes studyDataSet : studies) {
-        fillSeries(studyDataSet);
+      String pageExt = properties.getProperty(RsQueryParams.P_PAGE_EXT);
+      if (pageExt != null) {
+        buf.append(pageExt);
+        fillStudies(buf.toString(), new HashSet<>(), executor);
+      } else {
+        // Without limit, the studies are requested by pages for showing the first results early
+        Set<String> studyUIDs = new HashSet<>();
+        for (int offset = 0; ; offset += STUDY_PAGE_SIZE) {
+          String url =
+              buf + String.format("&limit=%d&offset=%d", STUDY_PAGE_SIZE, offset); // NON-NLS
+          // Stops also when the server ignores the paging and sends again the same studies
+          int nbStudies = fillStudies(url, studyUIDs, executor);
+          if (nbStudies < STUDY_PAGE_SIZE || Thread.currentThread().isInterrupted()) {
+            break;
+          }
+        }
       }
     } catch (Exception e) {
       LOGGER.error("QIDO-RS", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * @param url the QIDO-RS request of the studies
+   * @param studyUIDs the StudyInstanceUIDs already received
+   * @param executor the executor of the series queries
+   * @return the number of new studies returned by the request
+   */
+  private int fillStudies(String url, Set<String> studyUIDs, ExecutorService executor)
+      throws Exception {
+    LOGGER.debug(RsQueryResult.QIDO_REQUEST, url);
+    List<Attributes> studies =
+        RsQueryResult.parseJSON(url, authMethod, new URLParameters(queryHeaders)).stream()
+            .filter(s -> studyUIDs.add(s.getString(Tag.StudyInstanceUID, "")))
+            .toList();
+    if (studies.isEmpty()) {
+      return 0;
     }
+
+    List<Future<Boolean>> hasSeries = new ArrayList<>(studies.size());
+    try {
+      for (Attributes studyDataSet : studies) {
+        hasSeries.add(executor.submit(() -> hasSeries(studyDataSet)));
+      }
+      // The model is filled in the order of the response
+      for (int i = 0; i < studies.size(); i++) {
+        try {
+          if (hasSeries.get(i).get()) {
+            RsQuery.populateDicomModel(dicomModel, studies.get(i));
+          }
+        } catch (ExecutionException e) {
+          LOGGER.error("QIDO-RS series", e.getCause());
+        }
+      }
+    } finally {
+      // Do not keep the queries of an interrupted page
+      hasSeries.forEach(f -> f.cancel(true));
+    }
+
+    if (pageListener != null) {
+      pageListener.run();
+    }
+    return studies.size();
   }
 
-  private void fillSeries(Attributes studyDataSet) {
+  private boolean hasSeries(Attributes studyDataSet) {
     String studyInstanceUID = studyDataSet.getString(Tag.StudyInstanceUID);
     if (StringUtil.hasText(studyInstanceUID)) {
       StringBuilder buf = new StringBuilder(getBaseUrl());
@@ -150,13 +228,12 @@ private void fillSeries(Attributes studyDataSet) {
         LOGGER.debug(RsQueryResult.QIDO_REQUEST, buf);
         List<Attributes> series =
             RsQueryResult.parseJSON(buf.toString(), authMethod, new URLParameters(queryHeaders));
-        if (!series.isEmpty()) {
-          RsQuery.populateDicomModel(dicomModel, studyDataSet);
-        }
+        return !series.isEmpty();
       } catch (Exception e) {
         LOGGER.error("QIDO-RS all series with studyUID {}", studyInstanceUID, e);
       }
     }
+    return false;
   }
 
   static void populateDicomModel(DicomModel dicomModel, Attributes item) {
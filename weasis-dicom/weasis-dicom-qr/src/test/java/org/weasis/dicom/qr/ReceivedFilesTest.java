@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.qr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.io.DicomOutputStream;
+import org.dcm4che3.net.Status;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.weasis.core.api.util.BatchWindow;
+import org.weasis.dicom.op.CStore;
+import org.weasis.dicom.param.AdvancedParams;
+import org.weasis.dicom.param.DicomNode;
+import org.weasis.dicom.param.DicomProgress;
+import org.weasis.dicom.param.DicomState;
+import org.weasis.dicom.param.ListenerParams;
+import org.weasis.dicom.tool.DicomListener;
+
+class ReceivedFilesTest {
+  private static final String STUDY_UID = "1.2.826.0.1.3680043.2.1143.1"; // NON-NLS
+  private static final String SERIES_UID = STUDY_UID + ".1"; // NON-NLS
+  private static final int NB_FILES = 3;
+
+  @TempDir Path tempDir;
+
+  private List<String> writeFiles(Path folder) throws IOException {
+    Files.createDirectories(folder);
+    List<String> files = new ArrayList<>(NB_FILES);
+    for (int i = 1; i <= NB_FILES; i++) {
+      Attributes attrs = new Attributes();
+      attrs.setString(Tag.SOPClassUID, VR.UI, UID.SecondaryCaptureImageStorage);
+      attrs.setString(Tag.SOPInstanceUID, VR.UI, SERIES_UID + "." + i);
+      attrs.setString(Tag.StudyInstanceUID, VR.UI, STUDY_UID);
+      attrs.setString(Tag.SeriesInstanceUID, VR.UI, SERIES_UID);
+      attrs.setString(Tag.PatientID, VR.LO, "TEST"); // NON-NLS
+      attrs.setString(Tag.Modality, VR.CS, "OT"); // NON-NLS
+      attrs.setInt(Tag.InstanceNumber, VR.IS, i);
+      File file = folder.resolve("img" + i + ".dcm").toFile(); // NON-NLS
+      try (DicomOutputStream dos = new DicomOutputStream(file)) {
+        dos.writeDataset(attrs.createFileMetaInformation(UID.ExplicitVRLittleEndian), attrs);
+      }
+      files.add(file.getPath());
+    }
+    return files;
+  }
+
+  private static int getFreePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static boolean waitForSize(List<?> list, int size) throws InterruptedException {
+    long end = System.currentTimeMillis() + 5000;
+    while (list.size() < size && System.currentTimeMillis() < end) {
+      Thread.sleep(20);
+    }
+    return list.size() >= size;
+  }
+
+  @Test
+  void testImportDuringRetrieve() throws Exception {
+    List<String> files = writeFiles(tempDir.resolve("archive")); // NON-NLS
+    File storageDir = Files.createDirectories(tempDir.resolve("received")).toFile(); // NON-NLS
+
+    // Stands for the model: records the batches passed to the import
+    List<File> imported = new CopyOnWriteArrayList<>();
+    AtomicInteger importedDuringRetrieve = new AtomicInteger(-1);
+    try (BatchWindow<File> receivedFiles = new BatchWindow<>(2, 100, imported::addAll)) {
+      DicomProgress listenerProgress = new DicomProgress();
+      RetrieveTask.addReceivedFilesListener(listenerProgress, receivedFiles);
+      DicomListener listener = new DicomListener(storageDir, listenerProgress);
+      DicomNode scpNode = new DicomNode("WEASIS-TEST", "localhost", getFreePort()); // NON-NLS
+      listener.start(scpNode, new ListenerParams(new AdvancedParams(), true));
+      try {
+        // The archive sends the instances to the listener as the sub-operations of a C-MOVE
+        RetrieveScheduler scheduler = new RetrieveScheduler(List.of(STUDY_UID), 1, null);
+        DicomState state =
+            scheduler.process(
+                (progress, _) -> {
+                  DicomState s =
+                      CStore.process(
+                          new AdvancedParams(),
+                          new DicomNode("ARCHIVE"), // NON-NLS
+                          scpNode,
+                          files,
+                          progress);
+                  try {
+                    // The retrieve is not finished and the batch has been neither flushed nor
+                    // closed: the files must be imported by the batch window alone
+                    waitForSize(imported, NB_FILES);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                  importedDuringRetrieve.set(imported.size());
+                  return s;
+                });
+        assertEquals(Status.Success, state.getStatus());
+      } finally {
+        listener.stop();
+      }
+    }
+
+    assertEquals(NB_FILES, importedDuringRetrieve.get());
+    assertEquals(NB_FILES, imported.size());
+    for (File file : imported) {
+      assertTrue(file.isFile());
+      assertTrue(file.toPath().startsWith(storageDir.toPath()));
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.qr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.dcm4che3.net.Status;
+import org.junit.jupiter.api.Test;
+import org.weasis.dicom.param.DicomParam;
+import org.weasis.dicom.param.DicomProgress;
+import org.weasis.dicom.param.DicomState;
+
+class RetrieveSchedulerTest {
+  private static final List<String> STUDIES = List.of("1.1", "1.2", "1.3"); // NON-NLS
+
+  /** Sub-operation returning the given statuses for each study, one status by attempt */
+  static class FakeOperation implements RetrieveScheduler.SubOperation {
+    private final Map<String, int[]> statuses;
+    final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+    FakeOperation(Map<String, int[]> statuses) {
+      this.statuses = statuses;
+    }
+
+    @Override
+    public DicomState retrieve(DicomProgress progress, DicomParam... keys) {
+      String studyUID = keys[0].getValues()[0];
+      int attempt = attempts.computeIfAbsent(studyUID, _ -> new AtomicInteger()).getAndIncrement();
+      int[] list = statuses.getOrDefault(studyUID, new int[] {Status.Success});
+      int status = list[Math.min(attempt, list.length - 1)];
+      return new DicomState(status, studyUID, null);
+    }
+
+    int getAttempts(String studyUID) {
+      AtomicInteger count = attempts.get(studyUID);
+      return count == null ? 0 : count.get();
+    }
+  }
+
+  @Test
+  void testAllSucceeded() throws InterruptedException {
+    FakeOperation operation = new FakeOperation(Map.of());
+    AtomicInteger percent = new AtomicInteger();
+    RetrieveScheduler scheduler = new RetrieveScheduler(STUDIES, 2, percent::set);
+    DicomState state = scheduler.process(operation);
+
+    assertEquals(Status.Success, state.getStatus());
+    assertEquals("1.3", state.getMessage()); // NON-NLS
+    assertEquals(100, percent.get());
+    STUDIES.forEach(s -> assertEquals(1, operation.getAttempts(s)));
+  }
+
+  @Test
+  void testRetry() throws InterruptedException {
+    FakeOperation operation =
+        new FakeOperation(Map.of("1.2", new int[] {Status.UnableToProcess, Status.Success}));
+    DicomState state = new RetrieveScheduler(STUDIES, 2, null).process(operation);
+
+    assertEquals(Status.Success, state.getStatus());
+    assertEquals(1, operation.getAttempts("1.1")); // NON-NLS
+    assertEquals(2, operation.getAttempts("1.2")); // NON-NLS
+    assertEquals(1, operation.getAttempts("1.3")); // NON-NLS
+  }
+
+  @Test
+  void testFirstFailure() throws InterruptedException {
+    FakeOperation operation =
+        new FakeOperation(
+            Map.of(
+                "1.1", new int[] {Status.OneOrMoreFailures},
+                "1.2", new int[] {Status.UnableToProcess},
+                "1.3", new int[] {Status.OutOfResources}));
+    DicomState state = new RetrieveScheduler(STUDIES, 1, null).process(operation);
+
+    // The warning of the first study is not retried and is not selected before the failures
+    assertEquals(Status.UnableToProcess, state.getStatus());
+    assertEquals("1.2", state.getMessage()); // NON-NLS
+    assertEquals(1, operation.getAttempts("1.1")); // NON-NLS
+    assertEquals(2, operation.getAttempts("1.2")); // NON-NLS
+    assertEquals(2, operation.getAttempts("1.3")); // NON-NLS
+  }
+
+  @Test
+  void testWarning() throws InterruptedException {
+    FakeOperation operation =
+        new FakeOperation(Map.of("1.2", new int[] {Status.OneOrMoreFailures}));
+    DicomState state = new RetrieveScheduler(STUDIES, 2, null).process(operation);
+
+    assertEquals(Status.OneOrMoreFailures, state.getStatus());
+    assertEquals(1, operation.getAttempts("1.2")); // NON-NLS
+  }
+
+  @Test
+  void testCancel() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch cancelled = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    RetrieveScheduler scheduler = new RetrieveScheduler(STUDIES, 1, null);
+    RetrieveScheduler.SubOperation operation =
+        (progress, _) -> {
+          calls.incrementAndGet();
+          started.countDown();
+          try {
+            cancelled.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          // Status returned by the association when it is cancelled
+          return new DicomState(Status.UnableToProcess, null, null);
+        };
+
+    AtomicReference<DicomState> result = new AtomicReference<>();
+    Thread thread =
+        new Thread(
+            () -> {
+              try {
+                result.set(scheduler.process(operation));
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    thread.start();
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    scheduler.cancel();
+    cancelled.countDown();
+    thread.join(5000);
+
+    assertFalse(thread.isAlive());
+    assertEquals(Status.UnableToProcess, result.get().getStatus());
+    // The running study is not retried and the next ones are not started
+    assertEquals(1, calls.get());
+  }
+}
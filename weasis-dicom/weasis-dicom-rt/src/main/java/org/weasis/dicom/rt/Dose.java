@@ -17,6 +17,7 @@
 import java.awt.geom.Point2D;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.DoubleStream;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Sequence;
@@ -32,10 +33,12 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.api.media.data.MediaElement;
+import org.weasis.core.api.util.ParallelIngest;
 import org.weasis.core.ui.model.graphic.imp.seg.SegContour;
 import org.weasis.dicom.codec.*;
 import org.weasis.dicom.codec.geometry.GeometryOfSlice;
 import org.weasis.opencv.data.ImageCV;
+import org.weasis.opencv.data.PlanarImage;
 import org.weasis.opencv.op.ImageConversion;
 import org.weasis.opencv.seg.Segment;
 
@@ -364,29 +367,41 @@ public void initDoseSet(double rxDose, RtSet rtSet) {
       //           opacity), "", rxDose)));
       Map<String, Set<SegContour>> map = refMap.computeIfAbsent(seriesUID, _ -> new HashMap<>());
       Set<KeyDouble> zSet = new LinkedHashSet<>();
-      // Go through whole imaging grid (CT)
-      for (DicomImageElement image : rtSet.getSeries().getMedias(null, null)) {
-        Set<SegContour> contours = new LinkedHashSet<>();
+      List<IsoDoseRegion> reverseValues = new ArrayList<>(isoDoseSet.values());
+      Collections.reverse(reverseValues);
+      GeometryOfSlice geometry = rtSet.getPatientImage().getImage().getDispSliceGeometry();
+
+      // Go through whole imaging grid (CT), the slices are computed concurrently
+      List<DicomImageElement> images = rtSet.getSeries().copyOfMedias(null, null);
+      List<List<StructContour>> results = new ArrayList<>(Collections.nCopies(images.size(), null));
+      try {
+        ParallelIngest.forEach(
+            "Isodose builder", // NON-NLS
+            0,
+            images.size(),
+            ParallelIngest.getDefaultParallelism(),
+            i -> {
+              KeyDouble z = new KeyDouble(images.get(i).getSliceGeometry().getTLHC().z);
+              results.set(i, getIsoDoseContours(z, reverseValues, geometry));
+            },
+            null);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        LOGGER.error("Cannot build the isodose contours", e.getCause());
+      }
+
+      for (int i = 0; i < images.size(); i++) {
+        DicomImageElement image = images.get(i);
         // Image slice UID and position
         String sopUID = TagD.getTagValue(image, Tag.SOPInstanceUID, String.class);
-        KeyDouble z = new KeyDouble(image.getSliceGeometry().getTLHC().z);
-
-        List<IsoDoseRegion> reverseValues = new ArrayList<>(isoDoseSet.values());
-        Collections.reverse(reverseValues);
-        for (IsoDoseRegion doseRegion : reverseValues) {
-          zSet.add(z);
-          double isoDoseThreshold = doseRegion.getAbsoluteDose();
-
-          StructContour isoContour = getIsoDoseContour(z, isoDoseThreshold, doseRegion, rtSet);
-          if (isoContour == null) {
-            continue;
-          }
-          contours.add(isoContour);
-        }
-        if (contours.isEmpty()) {
+        zSet.add(new KeyDouble(image.getSliceGeometry().getTLHC().z));
+        List<StructContour> contours = results.get(i);
+        if (contours == null || contours.isEmpty()) {
           map.remove(sopUID);
         } else {
-          map.put(sopUID, contours);
+          map.put(sopUID, new LinkedHashSet<>(contours));
         }
       }
 
@@ -547,24 +562,79 @@ public StructContour getIsoDoseContour(
       //  region.setMeasurableLayer(getMeasurableLayer(img, contour));
     }
 
-    // Convert from threshold in cCy to raw pixel value threshold
-    double rawThreshold = (isoDoseThreshold / 100) / this.doseGridScaling;
-    DicomImageElement dosePlane =
-        (DicomImageElement) this.getDosePlaneBySlice(slicePosition.getValue());
+    Mat src = getDosePlane(slicePosition);
+    if (src == null) {
+      return null;
+    }
+    try {
+      GeometryOfSlice geometry = rtSet.getPatientImage().getImage().getDispSliceGeometry();
+      return buildIsoDoseContour(src, slicePosition, isoDoseThreshold, region, geometry);
+    } finally {
+      ImageConversion.releaseMat(src);
+    }
+  }
 
-    int rows = dosePlane.getImage().toMat().rows();
-    int cols = dosePlane.getImage().toMat().cols();
+  /**
+   * Build the contours of several isodose levels at a slice position. The dose plane is read and
+   * converted only once for all the levels, and the levels above the maximum dose of the plane are
+   * skipped. This method can be called concurrently for different slices.
+   *
+   * @param slicePosition the position of the slice
+   * @param regions the isodose levels
+   * @param geometry the geometry of the patient image
+   * @return the contours in the order of the levels, the levels without contour are not included
+   */
+  public List<StructContour> getIsoDoseContours(
+      KeyDouble slicePosition, List<IsoDoseRegion> regions, GeometryOfSlice geometry) {
+    Mat src = getDosePlane(slicePosition);
+    if (src == null) {
+      return Collections.emptyList();
+    }
+    try {
+      double maxValue = minMaxLoc(src).maxVal;
+      List<StructContour> contours = new ArrayList<>();
+      for (IsoDoseRegion region : regions) {
+        double isoDoseThreshold = region.getAbsoluteDose();
+        if (toRawDose(isoDoseThreshold) >= maxValue) {
+          continue;
+        }
+        StructContour isoContour =
+            buildIsoDoseContour(src, slicePosition, isoDoseThreshold, region, geometry);
+        if (isoContour != null) {
+          contours.add(isoContour);
+        }
+      }
+      return contours;
+    } finally {
+      ImageConversion.releaseMat(src);
+    }
+  }
 
-    Mat src = new Mat(rows, cols, CvType.CV_32FC1);
-    Mat thr = new Mat(rows, cols, CvType.CV_32FC1);
+  private double toRawDose(double isoDoseThreshold) {
+    // Convert from threshold in cCy to raw pixel value threshold
+    return (isoDoseThreshold / 100) / this.doseGridScaling;
+  }
 
-    dosePlane.getImage().toMat().convertTo(src, CvType.CV_32FC1);
+  private Mat getDosePlane(KeyDouble slicePosition) {
+    DicomImageElement dosePlane =
+        (DicomImageElement) this.getDosePlaneBySlice(slicePosition.getValue());
+    PlanarImage img = dosePlane == null ? null : dosePlane.getImage();
+    if (img == null) {
+      return null;
+    }
+    Mat src = new Mat(img.height(), img.width(), CvType.CV_32FC1);
+    img.toMat().convertTo(src, CvType.CV_32FC1);
+    return src;
+  }
 
-    Imgproc.threshold(src, thr, rawThreshold, 255, Imgproc.THRESH_BINARY);
-    ImageConversion.releaseMat(src);
-    Mat thrSrc = new Mat(rows, cols, CvType.CV_8U);
-    thr.convertTo(thrSrc, CvType.CV_8U);
-    ImageConversion.releaseMat(thr);
+  private StructContour buildIsoDoseContour(
+      Mat src,
+      KeyDouble slicePosition,
+      double isoDoseThreshold,
+      IsoDoseRegion region,
+      GeometryOfSlice geometry) {
+    Mat thrSrc = new Mat(src.rows(), src.cols(), CvType.CV_8U);
+    Core.compare(src, new Scalar(toRawDose(isoDoseThreshold)), thrSrc, Core.CMP_GT);
 
     List<Segment> segmentList = SegContour.buildSegmentList(ImageCV.toImageCV(thrSrc));
     if (segmentList.isEmpty()) {
@@ -575,7 +645,6 @@ public StructContour getIsoDoseContour(
     int nbPixels = Core.countNonZero(thrSrc);
     ImageConversion.releaseMat(thrSrc);
 
-    GeometryOfSlice geometry = rtSet.getPatientImage().getImage().getDispSliceGeometry();
     Vector3d voxelSpacing = geometry.getVoxelSpacing();
     if (voxelSpacing.x < 0.00001 || voxelSpacing.y < 0.00001) {
       return null;
@@ -587,7 +656,9 @@ public StructContour getIsoDoseContour(
     StructContour segContour =
         new StructContour(String.valueOf(slicePosition.getKey()), segmentList, nbPixels);
     segContour.setPositionZ(z);
-    region.addPixels(segContour);
+    synchronized (region) {
+      region.addPixels(segContour);
+    }
     segContour.setAttributes(region);
     return segContour;
   }
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.rt;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import org.joml.Vector3d;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.weasis.core.api.media.data.MediaElement;
+import org.weasis.core.api.media.data.MediaSeries.MEDIA_POSITION;
+import org.weasis.dicom.codec.DicomImageElement;
+import org.weasis.opencv.data.PlanarImage;
+
+/**
+ * Computes the DVHs of the structures from the dose grid of one RTDOSE.
+ *
+ * <p>Each dose plane is converted to cGy only once and shared by all the structures. Each plane of
+ * a structure is voxelized once onto the dose grid: all the contours of the plane are combined with
+ * the even-odd rule, so the inner contours are subtracted from the outer ones. The planes are
+ * processed in parallel and can be called concurrently for different structures.
+ */
+final class DvhCalculator {
+
+  private final Dose dose;
+  private final double[] columnsMm;
+  private final double[] rowsMm;
+  private final double pixelArea;
+  private final int nbBins;
+  private final Map<MediaElement, float[]> dosePlanes = new ConcurrentHashMap<>();
+
+  DvhCalculator(Dose dose) {
+    this.dose = dose;
+    AbstractMap.SimpleImmutableEntry<double[], double[]> lut = dose.getDoseMmLUT();
+    this.columnsMm = lut.getKey();
+    this.rowsMm = lut.getValue();
+    DicomImageElement doseImage = dose.getSeries().getMedia(MEDIA_POSITION.FIRST, null, null);
+    Vector3d spacing = doseImage.getSliceGeometry().getVoxelSpacing();
+    this.pixelArea = spacing.x * spacing.y;
+    this.nbBins = (int) (dose.getDoseMax() * dose.getDoseGridScaling() * 100);
+  }
+
+  /**
+   * @param region the structure
+   * @return the differential DVH in cm^3 with bins of 1 cGy, or null when the structure has no
+   *     plane
+   */
+  double[] calculateDifferentialDvh(StructRegion region) {
+    Map<KeyDouble, List<StructContour>> planes = region.getPlanes();
+    if (planes == null || planes.isEmpty() || nbBins < 1) {
+      return null;
+    }
+
+    long[] counts =
+        planes.entrySet().parallelStream()
+            .map(this::calculatePlaneHistogram)
+            .reduce(
+                new long[nbBins],
+                (h1, h2) -> {
+                  long[] sum = new long[nbBins];
+                  for (int i = 0; i < nbBins; i++) {
+                    sum[i] = h1[i] + h2[i];
+                  }
+                  return sum;
+                });
+
+    // Volume units are given in cm^3
+    double voxelVolume = pixelArea * region.getThickness() / 1000;
+    double[] histogram = new double[nbBins];
+    for (int i = 0; i < nbBins; i++) {
+      histogram[i] = counts[i] * voxelVolume;
+    }
+    return histogram;
+  }
+
+  static double[] convertDifferentialToCumulativeDvh(double[] difHistogram) {
+    if (difHistogram == null) {
+      return new double[0];
+    }
+    double[] cumDvh = new double[difHistogram.length];
+    double sum = 0.0;
+    for (int i = difHistogram.length - 1; i >= 0; i--) {
+      sum += difHistogram[i];
+      cumDvh[i] = sum;
+    }
+    return cumDvh;
+  }
+
+  private long[] calculatePlaneHistogram(Entry<KeyDouble, List<StructContour>> plane) {
+    long[] hist = new long[nbBins];
+    float[] doses = getDosePlane(plane.getKey().getValue());
+    if (doses == null) {
+      return hist;
+    }
+
+    for (int index : voxelize(plane.getValue())) {
+      float d = doses[index];
+      if (d >= 0) {
+        hist[Math.min((int) d, nbBins - 1)]++;
+      }
+    }
+    return hist;
+  }
+
+  /** Returns the dose plane in cGy, or null when no plane matches the slice position. */
+  private float[] getDosePlane(double slicePosition) {
+    MediaElement dosePlane = dose.getDosePlaneBySlice(slicePosition);
+    if (!(dosePlane instanceof DicomImageElement element)) {
+      return null;
+    }
+    float[] doses =
+        dosePlanes.computeIfAbsent(
+            dosePlane,
+            _ -> {
+              PlanarImage img = element.getImage();
+              if (img == null || img.width() * img.height() != columnsMm.length * rowsMm.length) {
+                return new float[0];
+              }
+              Mat src = new Mat();
+              img.toMat().convertTo(src, CvType.CV_32FC1, dose.getDoseGridScaling() * 100);
+              float[] data = new float[img.width() * img.height()];
+              src.get(0, 0, data);
+              src.release();
+              return data;
+            });
+    return doses.length == 0 ? null : doses;
+  }
+
+  /**
+   * Voxelizes the contours of a plane onto the dose grid with a scanline even-odd fill.
+   *
+   * @param contours the contours of the structure in the plane
+   * @return the indexes of the dose pixels inside the structure
+   */
+  private int[] voxelize(List<StructContour> contours) {
+    int cols = columnsMm.length;
+    int[] indexes = new int[16];
+    int size = 0;
+    double[] crossings = new double[16];
+
+    for (int j = 0; j < rowsMm.length; j++) {
+      double y = rowsMm[j];
+      int nbCrossings = 0;
+      for (StructContour contour : contours) {
+        double[] points = contour.getPoints();
+        if (points == null || points.length < 9 || points.length % 3 != 0) {
+          continue;
+        }
+        int n = points.length / 3;
+        for (int i = 0, k = n - 1; i < n; k = i++) {
+          double yi = points[i * 3 + 1];
+          double yk = points[k * 3 + 1];
+          if ((yi <= y) != (yk <= y)) {
+            double xi = points[i * 3];
+            double xk = points[k * 3];
+            if (nbCrossings == crossings.length) {
+              crossings = Arrays.copyOf(crossings, nbCrossings * 2);
+            }
+            crossings[nbCrossings++] = xi + (y - yi) * (xk - xi) / (yk - yi);
+          }
+        }
+      }
+      if (nbCrossings < 2) {
+        continue;
+      }
+      Arrays.sort(crossings, 0, nbCrossings);
+
+      for (int i = 0; i < cols; i++) {
+        double x = columnsMm[i];
+        if (x <= crossings[0] || x >= crossings[nbCrossings - 1]) {
+          continue;
+        }
+        int pos = Arrays.binarySearch(crossings, 0, nbCrossings, x);
+        // Number of crossings on the left of the pixel, a pixel on the border is outside
+        if (pos < 0 && (-pos - 1) % 2 == 1) {
+          if (size == indexes.length) {
+            indexes = Arrays.copyOf(indexes, size * 2);
+          }
+          indexes[size++] = j * cols + i;
+        }
+      }
+    }
+    return Arrays.copyOf(indexes, size);
+  }
+}
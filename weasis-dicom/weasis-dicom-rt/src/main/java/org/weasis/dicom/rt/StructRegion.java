@@ -154,32 +154,7 @@ private double calculateVolume() {
     // Iterate over structure planes (z)
     int n = 0;
     for (List<StructContour> structurePlaneContours : this.planes.values()) {
-
-      // Calculate the area for each contour in the current plane
-      AbstractMap.SimpleImmutableEntry<Integer, Double> maxContour =
-          this.calculateLargestContour(structurePlaneContours);
-      int maxContourIndex = maxContour.getKey();
-      double maxContourArea = maxContour.getValue();
-
-      for (int i = 0; i < structurePlaneContours.size(); i++) {
-        StructContour polygon = structurePlaneContours.get(i);
-
-        // Find the largest polygon of contour
-        if (polygon.getArea() > maxContourArea) {
-          maxContourArea = polygon.getArea();
-          maxContourIndex = i;
-        }
-      }
-
-      // Sum the area of contours in the current plane
-      StructContour largestPolygon = structurePlaneContours.get(maxContourIndex);
-      double area = largestPolygon.getArea();
-      for (int i = 0; i < structurePlaneContours.size(); i++) {
-        StructContour polygon = structurePlaneContours.get(i);
-        if (i != maxContourIndex) {
-          area += polygon.getArea();
-        }
-      }
+      double area = calculatePlaneArea(structurePlaneContours);
 
       // For first and last plane calculate with half of thickness
       if ((n == 0) || (n == this.planes.size() - 1)) {
@@ -196,6 +171,54 @@ private double calculateVolume() {
     return structureVolume / 1000;
   }
 
+  /**
+   * Calculates the area of a plane with the even-odd rule used for the DVH: a contour inside an odd
+   * number of other contours is a hole, so its area is subtracted.
+   *
+   * @param planeContours the contours of the structure in the plane
+   * @return the area of the structure in the plane
+   */
+  static double calculatePlaneArea(List<StructContour> planeContours) {
+    double area = 0.0;
+    for (StructContour polygon : planeContours) {
+      int depth = 0;
+      for (StructContour other : planeContours) {
+        if (other != polygon && contains(other.getPoints(), polygon.getPoints())) {
+          depth++;
+        }
+      }
+      area += depth % 2 == 0 ? polygon.getArea() : -polygon.getArea();
+    }
+    return Math.max(area, 0.0);
+  }
+
+  /**
+   * @param outer the points (x, y, z) of the outer contour
+   * @param inner the points (x, y, z) of the inner contour
+   * @return true when the first point of the inner contour is inside the outer contour
+   */
+  private static boolean contains(double[] outer, double[] inner) {
+    if (outer == null || inner == null || outer.length < 9 || inner.length < 3) {
+      return false;
+    }
+    double x = inner[0];
+    double y = inner[1];
+    boolean inside = false;
+    int n = outer.length / 3;
+    for (int i = 0, k = n - 1; i < n; k = i++) {
+      double yi = outer[i * 3 + 1];
+      double yk = outer[k * 3 + 1];
+      if ((yi <= y) != (yk <= y)) {
+        double xi = outer[i * 3];
+        double xk = outer[k * 3];
+        if (x < xi + (y - yi) * (xk - xi) / (yk - yi)) {
+          inside = !inside;
+        }
+      }
+    }
+    return inside;
+  }
+
   @Override
   public int compareTo(RegionAttributes o) {
     if (o instanceof StructRegion) {
@@ -218,6 +218,7 @@ public void initContours(DicomImageElement img) {
               if (plane == null) {
                 continue;
               }
+              plane.setPoints(contour.getDoubles(Tag.ContourData));
 
               // Each plane which coincides with an image slice will have a unique ID
               // take the first one
@@ -226,7 +227,6 @@ public void initContours(DicomImageElement img) {
                 for (Attributes attributes : contImgSeq) {
                   String sopUID = attributes.getString(Tag.ReferencedSOPInstanceUID);
                   if (StringUtil.hasText(sopUID)) {
-                    plane.setPoints(contour.getDoubles(Tag.ContourData));
                     refMap
                         .get(seriesUID)
                         .computeIfAbsent(sopUID, _ -> new LinkedHashSet<>())
@@ -235,15 +235,10 @@ public void initContours(DicomImageElement img) {
                 }
               }
 
-              // Add each plane to the planes' dictionary of the current ROI
+              // Add each plane to the planes' dictionary of the current ROI, a z position can have
+              // several contours (e.g. disjoint parts or inner contours)
               KeyDouble z = new KeyDouble(plane.getPositionZ());
-
-              // If there are no contour on specific z position
-              if (!planes.containsKey(z)) {
-                List<StructContour> stack = new ArrayList<>();
-                stack.add(plane);
-                planes.put(z, stack);
-              }
+              planes.computeIfAbsent(z, _ -> new ArrayList<>()).add(plane);
             }
           }
 
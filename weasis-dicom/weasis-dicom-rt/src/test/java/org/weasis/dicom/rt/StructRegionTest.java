@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.rt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class StructRegionTest {
+
+  /** Square contour of the given size centered on (0, 0) at the z position. */
+  private static StructContour buildSquare(double size, double z) {
+    double h = size / 2.0;
+    StructContour contour = Mockito.mock(StructContour.class);
+    Mockito.when(contour.getPoints())
+        .thenReturn(new double[] {-h, -h, z, h, -h, z, h, h, z, -h, h, z});
+    Mockito.when(contour.getArea()).thenReturn(size * size);
+    return contour;
+  }
+
+  @Test
+  void testPlaneAreaWithHoles() {
+    StructContour outer = buildSquare(10, 0);
+    StructContour hole = buildSquare(6, 0);
+    StructContour island = buildSquare(2, 0);
+
+    assertEquals(100.0, StructRegion.calculatePlaneArea(List.of(outer)), 1e-9);
+    assertEquals(64.0, StructRegion.calculatePlaneArea(List.of(hole, outer)), 1e-9);
+    // A contour inside a hole is a part of the structure again
+    assertEquals(68.0, StructRegion.calculatePlaneArea(List.of(island, outer, hole)), 1e-9);
+  }
+
+  @Test
+  void testRingVolume() {
+    Map<KeyDouble, List<StructContour>> planes = new LinkedHashMap<>();
+    for (int i = 0; i < 3; i++) {
+      double z = i * 2.0;
+      planes.put(new KeyDouble(z), List.of(buildSquare(10, z), buildSquare(4, z)));
+    }
+    StructRegion region = new StructRegion(1, "Ring", Color.RED); // NON-NLS
+    region.setThickness(2.0);
+    region.setPlanes(planes);
+
+    // (100 - 16) mm^2 with half thickness for the first and last planes
+    assertEquals(84.0 * 2.0 * 2.0 / 1000, region.getVolume(), 1e-9);
+    assertEquals(DataSource.CALCULATED, region.getVolumeSource());
+  }
+}
@@ -379,19 +379,6 @@ public SliderChangeListener[] getActions() {
     }
   }
 
-  @Override
-  public void setSelectedImagePaneFromFocus(ViewCanvas<DicomImageElement> viewCanvas) {
-    setSelectedImagePane(viewCanvas);
-    if (viewCanvas != null && viewCanvas.getSeries() instanceof DicomSeries series) {
-      DicomSeries.startPreloading(
-          series,
-          series.copyOfMedias(
-              (Filter<DicomImageElement>) viewCanvas.getActionValue(ActionW.FILTERED_SERIES.cmd()),
-              viewCanvas.getCurrentSortComparator()),
-          viewCanvas.getFrameIndex());
-    }
-  }
-
   @Override
   public JMenu fillSelectedPluginMenu(JMenu menuRoot) {
     if (menuRoot != null) {
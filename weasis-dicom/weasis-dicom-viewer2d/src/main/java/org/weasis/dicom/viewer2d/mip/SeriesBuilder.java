@@ -46,6 +46,7 @@
 import org.weasis.dicom.viewer2d.mpr.RawImageIO;
 import org.weasis.opencv.data.FileRawImage;
 import org.weasis.opencv.data.PlanarImage;
+import org.weasis.opencv.op.ImageConversion;
 
 public class SeriesBuilder {
   private static final Logger LOGGER = LoggerFactory.getLogger(SeriesBuilder.class);
@@ -63,7 +64,6 @@ public static void applyMipParameters(
       Integer extend,
       boolean fullSeries) {
 
-    PlanarImage curImage;
     if (series != null) {
       SeriesComparator sort = (SeriesComparator) view.getActionValue(ActionW.SORT_STACK.cmd());
       Boolean reverse = (Boolean) view.getActionValue(ActionW.INVERSE_STACK.cmd());
@@ -88,6 +88,47 @@ public static void applyMipParameters(
       adaptWindowLevel(view, cpTags);
       String seriesUID = UIDUtils.createUID();
 
+      File dir = fullSeries ? new File(MIP_CACHE_DIR, seriesUID) : MIP_CACHE_DIR;
+      if (fullSeries) {
+        dir.mkdirs();
+        // Each image of the series is read once, whatever the thickness of the slab
+        List<DicomImageElement> stack = new ArrayList<>();
+        medias.forEach(stack::add);
+        DicomImageElement[] results = new DicomImageElement[Math.max(0, maxImg - minImg + 1)];
+        boolean complete = false;
+        try {
+          new SlabProjection(stack, mipType, extend)
+              .project(
+                  minImg,
+                  maxImg,
+                  (index, curImage) -> {
+                    int startIndex = Math.max(0, index - extend);
+                    List<DicomImageElement> sources =
+                        stack.subList(startIndex, Math.min(stack.size(), index + extend + 1));
+                    DicomImageElement dcm =
+                        buildMipImage(curImage, sources, dir, img, cpTags, seriesUID, index);
+                    // The image is written in the raw file
+                    ImageConversion.releasePlanarImage(curImage);
+                    results[index - minImg] = dcm;
+                    return dcm != null;
+                  });
+          for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+              LOGGER.error("Cannot build the MIP series, the image {} is missing", minImg + i + 1);
+              return;
+            }
+          }
+          dicoms.addAll(Arrays.asList(results));
+          complete = true;
+        } finally {
+          if (!complete) {
+            // Remove the raw files of an incomplete series
+            FileUtil.recursiveDelete(dir);
+          }
+        }
+        return;
+      }
+
       for (int index = minImg; index <= maxImg; index++) {
         Iterator<DicomImageElement> iter = medias.iterator();
         final List<ImageElement> sources = new ArrayList<>();
@@ -110,83 +151,90 @@ public static void applyMipParameters(
         }
 
         if (sources.size() > 1) {
-          curImage = addCollectionOperation(mipType, sources);
-        } else {
-          curImage = null;
-        }
-
-        if (curImage != null) {
-          DicomImageElement imgRef = (DicomImageElement) sources.get(sources.size() / 2);
-          FileRawImage raw = null;
-          try {
-            File dir = MIP_CACHE_DIR;
-            if (fullSeries) {
-              dir = new File(MIP_CACHE_DIR, seriesUID);
-              dir.mkdirs();
-            }
-            raw = new FileRawImage(File.createTempFile("mip_", ".wcv", dir)); // NON-NLS
-            if (!raw.write(curImage)) {
-              raw = null;
-            }
-          } catch (Exception e) {
-            if (raw != null) {
-              FileUtil.delete(raw.file());
-              raw = null;
+          PlanarImage curImage = addCollectionOperation(mipType, sources);
+          if (curImage != null) {
+            DicomImageElement dcm =
+                buildMipImage(curImage, sources, dir, img, cpTags, seriesUID, index);
+            if (dcm == null) {
+              return;
             }
-            LOGGER.error("Writing MIP", e);
+            dicoms.add(dcm);
           }
-          if (raw == null) {
-            return;
-          }
-          RawImageIO rawIO = new RawImageIO(raw, null);
-          rawIO.getFileCache().setOriginalTempFile(raw.file());
-          rawIO.setBaseAttributes(cpTags);
+        }
+      }
+    }
+  }
 
-          // Tags with same values for all the Series
-          rawIO.setTag(TagD.get(Tag.Columns), curImage.width());
-          rawIO.setTag(TagD.get(Tag.Rows), curImage.height());
-          rawIO.setTag(TagD.get(Tag.BitsAllocated), imgRef.getBitsAllocated());
-          rawIO.setTag(TagD.get(Tag.BitsStored), imgRef.getBitsStored());
+  private static DicomImageElement buildMipImage(
+      PlanarImage curImage,
+      List<? extends ImageElement> sources,
+      File dir,
+      DicomImageElement img,
+      Attributes cpTags,
+      String seriesUID,
+      int index) {
+    DicomImageElement imgRef = (DicomImageElement) sources.get(sources.size() / 2);
+    FileRawImage raw = null;
+    try {
+      raw = new FileRawImage(File.createTempFile("mip_", ".wcv", dir)); // NON-NLS
+      if (!raw.write(curImage)) {
+        raw = null;
+      }
+    } catch (Exception e) {
+      if (raw != null) {
+        FileUtil.delete(raw.file());
+        raw = null;
+      }
+      LOGGER.error("Writing MIP", e);
+    }
+    if (raw == null) {
+      return null;
+    }
+    RawImageIO rawIO = new RawImageIO(raw, null);
+    rawIO.getFileCache().setOriginalTempFile(raw.file());
+    rawIO.setBaseAttributes(cpTags);
 
-          int lastIndex = sources.size() - 1;
-          double thickness =
-              DicomMediaUtils.getThickness(sources.getFirst(), sources.get(lastIndex));
-          if (thickness <= 0.0) {
-            thickness = sources.size();
-          }
-          rawIO.setTag(TagD.get(Tag.SliceThickness), thickness);
-          double[] loc = (double[]) imgRef.getTagValue(TagW.SlicePosition);
-          if (loc != null) {
-            rawIO.setTag(TagW.SlicePosition, loc);
-            rawIO.setTag(TagD.get(Tag.SliceLocation), loc[0] + loc[1] + loc[2]);
-          }
+    // Tags with same values for all the Series
+    rawIO.setTag(TagD.get(Tag.Columns), curImage.width());
+    rawIO.setTag(TagD.get(Tag.Rows), curImage.height());
+    rawIO.setTag(TagD.get(Tag.BitsAllocated), imgRef.getBitsAllocated());
+    rawIO.setTag(TagD.get(Tag.BitsStored), imgRef.getBitsStored());
 
-          rawIO.setTag(TagD.get(Tag.SeriesInstanceUID), seriesUID);
+    int lastIndex = sources.size() - 1;
+    double thickness = DicomMediaUtils.getThickness(sources.getFirst(), sources.get(lastIndex));
+    if (thickness <= 0.0) {
+      thickness = sources.size();
+    }
+    rawIO.setTag(TagD.get(Tag.SliceThickness), thickness);
+    double[] loc = (double[]) imgRef.getTagValue(TagW.SlicePosition);
+    if (loc != null) {
+      rawIO.setTag(TagW.SlicePosition, loc);
+      rawIO.setTag(TagD.get(Tag.SliceLocation), loc[0] + loc[1] + loc[2]);
+    }
 
-          // Mandatory tags
-          org.weasis.dicom.viewer2d.mpr.SeriesBuilder.copyMandatoryTags(img, rawIO);
-          TagW[] tagList2;
+    rawIO.setTag(TagD.get(Tag.SeriesInstanceUID), seriesUID);
 
-          tagList2 =
-              TagD.getTagFromIDs(
-                  Tag.ImageOrientationPatient,
-                  Tag.ImagePositionPatient,
-                  Tag.PixelPaddingValue,
-                  Tag.PixelPaddingRangeLimit,
-                  Tag.PixelSpacing,
-                  Tag.ImagerPixelSpacing,
-                  Tag.NominalScannedPixelSpacing,
-                  Tag.PixelSpacingCalibrationDescription,
-                  Tag.PixelAspectRatio);
-          rawIO.copyTags(tagList2, imgRef, false);
+    // Mandatory tags
+    org.weasis.dicom.viewer2d.mpr.SeriesBuilder.copyMandatoryTags(img, rawIO);
+    TagW[] tagList2;
 
-          // Image specific tags
-          rawIO.setTag(TagD.get(Tag.SOPInstanceUID), UIDUtils.createUID());
-          rawIO.setTag(TagD.get(Tag.InstanceNumber), index + 1);
-          dicoms.add(org.weasis.dicom.viewer2d.mpr.SeriesBuilder.buildDicomImageElement(rawIO));
-        }
-      }
-    }
+    tagList2 =
+        TagD.getTagFromIDs(
+            Tag.ImageOrientationPatient,
+            Tag.ImagePositionPatient,
+            Tag.PixelPaddingValue,
+            Tag.PixelPaddingRangeLimit,
+            Tag.PixelSpacing,
+            Tag.ImagerPixelSpacing,
+            Tag.NominalScannedPixelSpacing,
+            Tag.PixelSpacingCalibrationDescription,
+            Tag.PixelAspectRatio);
+    rawIO.copyTags(tagList2, imgRef, false);
+
+    // Image specific tags
+    rawIO.setTag(TagD.get(Tag.SOPInstanceUID), UIDUtils.createUID());
+    rawIO.setTag(TagD.get(Tag.InstanceNumber), index + 1);
+    return org.weasis.dicom.viewer2d.mpr.SeriesBuilder.buildDicomImageElement(rawIO);
   }
 
   private static Attributes getBaseAttributes(Attributes attributes) {
@@ -0,0 +1,533 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.viewer2d.mip;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiPredicate;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.weasis.core.api.gui.task.TaskInterruptionException;
+import org.weasis.core.api.media.data.ImageElement;
+import org.weasis.core.api.util.ThreadUtil;
+import org.weasis.dicom.viewer2d.mip.MipView.Type;
+import org.weasis.opencv.data.ImageCV;
+import org.weasis.opencv.data.PlanarImage;
+
+/**
+ * Thick-slab projection (minimum, mean or maximum) computed at all the positions of a stack of
+ * images.
+ *
+ * <p>The window moves along the slices and its cost does not depend on the thickness of the slab:
+ * the mean uses a running sum, the minimum and the maximum use the van Herk/Gil-Werman algorithm
+ * (suffix and prefix projections of blocks having the size of the window). The positions are split
+ * in chunks computed in parallel, each source image is decoded once per chunk.
+ */
+final class SlabProjection {
+
+  /**
+   * Receives the projected images, can be called concurrently from different threads. The images
+   * belong to the receiver which must release them.
+   */
+  @FunctionalInterface
+  interface Output {
+
+    /**
+     * @param index the position of the center of the slab
+     * @param image the projected image
+     * @return false to stop the projection
+     */
+    boolean accept(int index, PlanarImage image);
+  }
+
+  private final List<? extends ImageElement> slices;
+  private final Type type;
+  private final int extend;
+  private final int window;
+  private final AtomicBoolean stopped = new AtomicBoolean();
+
+  private int width;
+  private int height;
+  private int cvType;
+
+  SlabProjection(List<? extends ImageElement> slices, Type type, int extend) {
+    this.slices = slices;
+    this.type = type;
+    this.extend = Math.max(1, extend);
+    this.window = 2 * this.extend + 1;
+  }
+
+  /**
+   * Compute the projections from minIndex to maxIndex. The slab of a position contains the images
+   * from index - extend to index + extend, limited to the bounds of the stack.
+   *
+   * @param minIndex the first position
+   * @param maxIndex the last position (included)
+   * @param output the receiver of the projected images
+   */
+  void project(int minIndex, int maxIndex, Output output) {
+    int from = Math.max(0, minIndex);
+    int to = Math.min(slices.size() - 1, maxIndex);
+    if (from > to || !initReference(from)) {
+      return;
+    }
+
+    int nbThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    int count = to - from + 1;
+    // For the minimum and the maximum, a chunk contains whole blocks
+    int chunkSize = Math.max(window, (count + nbThreads - 1) / nbThreads);
+    chunkSize = ((chunkSize + window - 1) / window) * window;
+    List<int[]> chunks = new ArrayList<>();
+    for (int start = from; start <= to; start += chunkSize) {
+      chunks.add(new int[] {start, Math.min(to, start + chunkSize - 1)});
+    }
+
+    if (chunks.size() == 1) {
+      projectChunk(from, to, output);
+      return;
+    }
+
+    ExecutorService executor =
+        ThreadUtil.buildNewFixedThreadExecutor(
+            Math.min(nbThreads, chunks.size()), "Slab Projection"); // NON-NLS
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int[] chunk : chunks) {
+        futures.add(executor.submit(() -> projectChunk(chunk[0], chunk[1], output)));
+      }
+      for (Future<?> f : futures) {
+        f.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TaskInterruptionException("Slab projection interrupted"); // NON-NLS
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      stopped.set(true);
+      executor.shutdownNow();
+    }
+  }
+
+  private boolean initReference(int index) {
+    ImageElement element = slices.get(index);
+    PlanarImage img = element.getImage(null, false);
+    if (img == null || img.width() < 1) {
+      return false;
+    }
+    width = img.width();
+    height = img.height();
+    cvType = img.type();
+    return true;
+  }
+
+  private void projectChunk(int from, int to, Output output) {
+    if (Type.MEAN.equals(type)) {
+      projectMean(from, to, output);
+    } else {
+      projectMinMax(from, to, output);
+    }
+  }
+
+  private void checkInterruption() {
+    if (Thread.currentThread().isInterrupted() || stopped.get()) {
+      throw new TaskInterruptionException("Slab projection interrupted"); // NON-NLS
+    }
+  }
+
+  private int getStart(int index) {
+    return Math.max(0, index - extend);
+  }
+
+  private int getEnd(int index) {
+    return Math.min(slices.size() - 1, index + extend);
+  }
+
+  /** Returns the image pinned in the cache, or null when not compatible with the first one. */
+  private Mat load(int index) {
+    checkInterruption();
+    ImageElement element = slices.get(index);
+    element.pinImage();
+    PlanarImage img = element.getImage(null, false);
+    if (img instanceof Mat mat
+        && img.width() == width
+        && img.height() == height
+        && img.type() == cvType) {
+      return mat;
+    }
+    element.unpinImage();
+    return null;
+  }
+
+  private void unload(int index, Mat mat) {
+    if (mat != null) {
+      slices.get(index).unpinImage();
+    }
+  }
+
+  private Mat combine(Mat m1, Mat m2) {
+    if (m1 == null) {
+      return m2;
+    }
+    if (m2 == null) {
+      return m1;
+    }
+    ImageCV dst = new ImageCV();
+    if (Type.MIN.equals(type)) {
+      Core.min(m1, m2, dst);
+    } else {
+      Core.max(m1, m2, dst);
+    }
+    return dst;
+  }
+
+  private static ImageCV copy(Mat mat) {
+    ImageCV dst = new ImageCV();
+    mat.copyTo(dst);
+    return dst;
+  }
+
+  private boolean send(Output output, int index, Mat result) {
+    if (result == null) {
+      return true;
+    }
+    PlanarImage img;
+    if (result instanceof PlanarImage p) {
+      img = p;
+    } else {
+      img = copy(result);
+      result.release();
+    }
+    if (!output.accept(index, img)) {
+      stopped.set(true);
+      return false;
+    }
+    return true;
+  }
+
+  private void projectMinMax(int from, int to, Output output) {
+    new MinMaxWindow<>(
+            slices.size(),
+            extend,
+            new WindowOperations<Mat>() {
+              @Override
+              public Mat load(int index) {
+                return SlabProjection.this.load(index);
+              }
+
+              @Override
+              public void unload(int index, Mat source) {
+                SlabProjection.this.unload(index, source);
+              }
+
+              @Override
+              public Mat combine(Mat m1, Mat m2) {
+                return SlabProjection.this.combine(m1, m2);
+              }
+
+              @Override
+              public Mat copy(Mat source) {
+                return SlabProjection.copy(source);
+              }
+
+              @Override
+              public void release(Mat value) {
+                value.release();
+              }
+
+              @Override
+              public void checkInterruption() {
+                SlabProjection.this.checkInterruption();
+              }
+            })
+        .project(from, to, (index, mat) -> send(output, index, mat));
+  }
+
+  /** Operations on the images of the sliding window, the values are never null. */
+  interface WindowOperations<T> {
+
+    /**
+     * @return the source at this index, or null when it cannot be used
+     */
+    T load(int index);
+
+    void unload(int index, T source);
+
+    /**
+     * @return a new value combining the two values
+     */
+    T combine(T v1, T v2);
+
+    T copy(T source);
+
+    /** Release an intermediate value, never called on a source or on a sent value */
+    void release(T value);
+
+    void checkInterruption();
+  }
+
+  /**
+   * Minimum or maximum of a sliding window with the van Herk/Gil-Werman algorithm: the sources are
+   * split in blocks having the size of the window, and the projection of a position combines the
+   * suffix projection of a block with the prefix projection of the next block.
+   *
+   * <p>The values sent to the output belong to the receiver. The other values created by {@link
+   * WindowOperations#combine(Object, Object)} are released when the block is finished or when the
+   * projection is stopped.
+   *
+   * @param <T> the type of the values
+   */
+  static final class MinMaxWindow<T> {
+    private final int size;
+    private final int extend;
+    private final int window;
+    private final WindowOperations<T> ops;
+
+    private List<T> raw;
+    private List<T> nextRaw;
+    private final Set<T> sent = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * @param size the number of sources
+     * @param extend the number of sources on each side of the position
+     * @param ops the operations on the values
+     */
+    MinMaxWindow(int size, int extend, WindowOperations<T> ops) {
+      this.size = size;
+      this.extend = Math.max(1, extend);
+      this.window = 2 * this.extend + 1;
+      this.ops = ops;
+    }
+
+    private int getStart(int index) {
+      return Math.max(0, index - extend);
+    }
+
+    private int getEnd(int index) {
+      return Math.min(size - 1, index + extend);
+    }
+
+    /**
+     * @param from the first position
+     * @param to the last position (included)
+     * @param output receives the values, returns false to stop the projection
+     */
+    void project(int from, int to, BiPredicate<Integer, T> output) {
+      int lastBlock = getStart(to) / window;
+      int rawStart = 0;
+      int nextRawStart = 0;
+      List<T> suffix = null;
+      List<T> prefix = null;
+      try {
+        for (int block = getStart(from) / window; block <= lastBlock; block++) {
+          int blockStart = block * window;
+          int blockEnd = Math.min(size - 1, blockStart + window - 1);
+          raw = nextRaw == null ? loadBlock(blockStart, blockEnd) : nextRaw;
+          rawStart = blockStart;
+          nextRaw = null;
+
+          // Suffix projections of the current block
+          suffix = new ArrayList<>(Collections.nCopies(raw.size(), null));
+          for (int j = raw.size() - 1; j >= 0; j--) {
+            suffix.set(
+                j, j == raw.size() - 1 ? raw.get(j) : combine(raw.get(j), suffix.get(j + 1)));
+          }
+
+          // Positions having the beginning of the slab in this block
+          int first = Math.max(from, block == 0 ? 0 : blockStart + extend);
+          int last = Math.min(to, blockEnd + extend);
+
+          // Prefix projections of the next block
+          int nextStart = blockEnd + 1;
+          if (first <= last && getEnd(last) >= nextStart) {
+            nextRaw = loadBlock(nextStart, Math.min(size - 1, nextStart + window - 1));
+            nextRawStart = nextStart;
+            prefix = new ArrayList<>(Collections.nCopies(nextRaw.size(), null));
+            for (int j = 0; j < nextRaw.size(); j++) {
+              prefix.set(j, j == 0 ? nextRaw.get(j) : combine(prefix.get(j - 1), nextRaw.get(j)));
+            }
+          }
+
+          for (int index = first; index <= last; index++) {
+            ops.checkInterruption();
+            int start = getStart(index);
+            int end = getEnd(index);
+            T result;
+            if (end >= nextStart) {
+              result = combine(suffix.get(start - blockStart), prefix.get(end - nextStart));
+            } else if (end == blockEnd) {
+              result = suffix.get(start - blockStart);
+            } else {
+              // Slab truncated at the beginning of the stack
+              result = raw.get(start - blockStart);
+              for (int j = start + 1; j <= end; j++) {
+                T next = combine(result, raw.get(j - blockStart));
+                if (next != result && result != null && !isSource(result)) {
+                  ops.release(result);
+                }
+                result = next;
+              }
+            }
+            if (result != null) {
+              // The sources belong to the cache
+              if (isSource(result)) {
+                result = ops.copy(result);
+              }
+              sent.add(result);
+              if (!output.test(index, result)) {
+                return;
+              }
+            }
+          }
+          releaseIntermediates(suffix, prefix);
+          suffix = null;
+          prefix = null;
+          unloadBlock(blockStart, raw);
+          raw = null;
+        }
+      } finally {
+        releaseIntermediates(suffix, prefix);
+        unloadBlock(rawStart, raw);
+        unloadBlock(nextRawStart, nextRaw);
+        raw = null;
+        nextRaw = null;
+      }
+    }
+
+    private T combine(T v1, T v2) {
+      if (v1 == null) {
+        return v2;
+      }
+      if (v2 == null) {
+        return v1;
+      }
+      return ops.combine(v1, v2);
+    }
+
+    private boolean isSource(T value) {
+      return contains(raw, value) || contains(nextRaw, value);
+    }
+
+    private static <T> boolean contains(List<T> values, T value) {
+      if (values != null) {
+        for (T v : values) {
+          if (v == value) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    /** Releases the values which are neither a source nor sent to the output. */
+    private void releaseIntermediates(List<T> suffix, List<T> prefix) {
+      Set<T> released = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (List<T> values : Arrays.asList(suffix, prefix)) {
+        if (values != null) {
+          for (T v : values) {
+            if (v != null && !isSource(v) && !sent.contains(v) && released.add(v)) {
+              ops.release(v);
+            }
+          }
+        }
+      }
+      sent.clear();
+    }
+
+    private List<T> loadBlock(int start, int end) {
+      List<T> values = new ArrayList<>(end - start + 1);
+      try {
+        for (int i = start; i <= end; i++) {
+          values.add(ops.load(i));
+        }
+      } catch (RuntimeException e) {
+        unloadBlock(start, values);
+        throw e;
+      }
+      return values;
+    }
+
+    private void unloadBlock(int start, List<T> values) {
+      if (values != null) {
+        for (int i = 0; i < values.size(); i++) {
+          T v = values.get(i);
+          if (v != null) {
+            ops.unload(start + i, v);
+          }
+        }
+      }
+    }
+  }
+
+  private void projectMean(int from, int to, Output output) {
+    Mat sum = Mat.zeros(height, width, CvType.CV_64F);
+    Mat buf = new Mat();
+    // Images of the current slab, indexed by position modulo the window size
+    Mat[] images = new Mat[window];
+    int nbImages = 0;
+    int lo = getStart(from);
+    int hi = lo - 1;
+    try {
+      for (int index = from; index <= to; index++) {
+        int start = getStart(index);
+        int end = getEnd(index);
+        while (hi < end) {
+          hi++;
+          Mat mat = load(hi);
+          images[hi % window] = mat;
+          if (mat != null) {
+            mat.convertTo(buf, CvType.CV_64F);
+            Core.add(sum, buf, sum);
+            nbImages++;
+          }
+        }
+        while (lo < start) {
+          Mat mat = images[lo % window];
+          images[lo % window] = null;
+          if (mat != null) {
+            mat.convertTo(buf, CvType.CV_64F);
+            Core.subtract(sum, buf, sum);
+            nbImages--;
+            unload(lo, mat);
+          }
+          lo++;
+        }
+
+        if (nbImages > 0) {
+          ImageCV dst = new ImageCV();
+          Core.divide(sum, new Scalar(nbImages), buf);
+          buf.convertTo(dst, cvType);
+          if (!send(output, index, dst)) {
+            return;
+          }
+        }
+      }
+    } finally {
+      for (int i = lo; i <= hi; i++) {
+        unload(i, images[i % window]);
+      }
+      sum.release();
+      buf.release();
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.viewer2d.mpr;
+
+import java.io.File;
+import java.util.Objects;
+import org.dcm4che3.data.Tag;
+import org.joml.Vector3d;
+import org.opencv.core.CvType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.media.data.MediaElement;
+import org.weasis.core.api.media.data.TagReadable;
+import org.weasis.core.util.FileUtil;
+import org.weasis.dicom.codec.TagD;
+import org.weasis.opencv.data.FileRawImage;
+import org.weasis.opencv.data.ImageCV;
+import org.weasis.opencv.data.PlanarImage;
+
+/**
+ * Reader of an MPR image computed on demand from a plane of a {@link MprVolume}. The raw image file
+ * is only written when the image is exported. The slice thickness of the image defines the
+ * thickness of the slab averaged along the normal of the plane.
+ */
+class MprImageIO extends RawImageIO {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MprImageIO.class);
+
+  private final MprVolume volume;
+  private final Vector3d origin;
+  private final Vector3d colStep;
+  private final Vector3d rowStep;
+  private final int width;
+  private final int height;
+  private final double normalSpacing;
+
+  /**
+   * @param normalSpacing the size in mm of a voxel along the normal of the plane
+   */
+  MprImageIO(
+      FileRawImage imageCV,
+      MprVolume volume,
+      Vector3d origin,
+      Vector3d colStep,
+      Vector3d rowStep,
+      int width,
+      int height,
+      double normalSpacing) {
+    super(imageCV, null);
+    this.volume = Objects.requireNonNull(volume);
+    this.origin = origin;
+    this.colStep = colStep;
+    this.rowStep = rowStep;
+    this.width = width;
+    this.height = height;
+    this.normalSpacing = normalSpacing;
+  }
+
+  private ImageCV reslice(TagReadable tags) {
+    return volume.reslice(origin, colStep, rowStep, width, height, getThickness(tags));
+  }
+
+  /**
+   * @param tags the image or this reader
+   * @return the thickness of the slab in voxels, computed from the slice thickness in mm
+   */
+  private double getThickness(TagReadable tags) {
+    Double thickness = TagD.getTagValue(tags, Tag.SliceThickness, Double.class);
+    if (thickness == null || normalSpacing <= 0.0) {
+      return 1.0;
+    }
+    return Math.max(1.0, thickness / normalSpacing);
+  }
+
+  @Override
+  public PlanarImage getImageFragment(MediaElement media) throws Exception {
+    if (media != null) {
+      return reslice(media);
+    }
+    return null;
+  }
+
+  @Override
+  public synchronized File getRawFile() {
+    File file = imageCV.file();
+    if (!file.exists()) {
+      boolean written = false;
+      try (ImageCV img = reslice(this)) {
+        written = img != null && imageCV.write(img);
+        if (!written) {
+          LOGGER.error("Cannot write the MPR image {}", file);
+        }
+      } catch (Exception e) {
+        LOGGER.error("Cannot write the MPR image {}", file, e);
+      }
+      if (!written) {
+        // Do not keep a partial file which would be considered as valid afterwards
+        FileUtil.delete(file);
+      }
+    }
+    return file;
+  }
+
+  @Override
+  protected long getRawDataLength(File file) {
+    return (long) width * height * CvType.ELEM_SIZE(volume.getType());
+  }
+}
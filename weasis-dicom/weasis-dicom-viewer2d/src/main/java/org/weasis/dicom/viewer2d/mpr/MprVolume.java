@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.viewer2d.mpr;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+import org.joml.Vector3d;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.weasis.opencv.data.ImageCV;
+
+/**
+ * Voxels of a whole series stored once in a memory-mapped file, outside the Java heap.
+ *
+ * <p>The coordinates are expressed in voxels: x is the column, y is the row and z is the index of
+ * the slice in the stack. A plane can be resliced at any orientation with a trilinear
+ * interpolation, so the images of the MPR views are computed on demand instead of being written in
+ * advance.
+ */
+final class MprVolume {
+  private static final double EPSILON = 1.0e-6;
+
+  private final int width;
+  private final int height;
+  private final int depth;
+  private final int cvType;
+  private final int cvDepth;
+  private final int channels;
+  private final ByteBuffer[] slices;
+  private double background = Double.MAX_VALUE;
+
+  MprVolume(int width, int height, int depth, int cvType, File dir) throws IOException {
+    this.width = width;
+    this.height = height;
+    this.depth = depth;
+    this.cvType = cvType;
+    this.cvDepth = CvType.depth(cvType);
+    this.channels = CvType.channels(cvType);
+    this.slices = new ByteBuffer[depth];
+
+    long sliceLength = (long) width * height * CvType.ELEM_SIZE(cvType);
+    if (sliceLength > Integer.MAX_VALUE) {
+      throw new IOException("The size of the image is too large for building a volume");
+    }
+    dir.mkdirs();
+    File file = File.createTempFile("volume_", ".raw", dir); // NON-NLS
+    try (FileChannel channel =
+        FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      for (int z = 0; z < depth; z++) {
+        slices[z] =
+            channel
+                .map(MapMode.READ_WRITE, z * sliceLength, sliceLength)
+                .order(ByteOrder.nativeOrder());
+      }
+    } finally {
+      // The mapping remains valid after deleting the file (except on Windows)
+      if (!file.delete()) {
+        file.deleteOnExit();
+      }
+    }
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public int getType() {
+    return cvType;
+  }
+
+  /**
+   * Copy an image of the stack into the volume.
+   *
+   * @param z the index of the slice
+   * @param image the image, must have the same size and type as the volume
+   * @return false when the image is not compatible with the volume
+   */
+  boolean setSlice(int z, Mat image) {
+    if (image.width() != width || image.height() != height || image.type() != cvType) {
+      return false;
+    }
+    ByteBuffer buf = slices[z].duplicate().order(ByteOrder.nativeOrder());
+    buf.clear();
+    int length = width * height * channels;
+    switch (cvDepth) {
+      case CvType.CV_8U, CvType.CV_8S -> {
+        byte[] data = new byte[length];
+        image.get(0, 0, data);
+        buf.put(data);
+      }
+      case CvType.CV_16U, CvType.CV_16S -> {
+        short[] data = new short[length];
+        image.get(0, 0, data);
+        buf.asShortBuffer().put(data);
+      }
+      case CvType.CV_32S -> {
+        int[] data = new int[length];
+        image.get(0, 0, data);
+        buf.asIntBuffer().put(data);
+      }
+      case CvType.CV_32F -> {
+        float[] data = new float[length];
+        image.get(0, 0, data);
+        buf.asFloatBuffer().put(data);
+      }
+      default -> {
+        double[] data = new double[length];
+        image.get(0, 0, data);
+        buf.asDoubleBuffer().put(data);
+      }
+    }
+    if (channels == 1) {
+      synchronized (this) {
+        background = Math.min(background, Core.minMaxLoc(image).minVal);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Compute the image of a plane crossing the volume. The pixels outside the volume have the
+   * minimum value of the volume.
+   *
+   * @param origin the position of the first pixel of the image (top left)
+   * @param colStep the displacement from one column to the next one
+   * @param rowStep the displacement from one row to the next one
+   * @param dstWidth the width of the image
+   * @param dstHeight the height of the image
+   * @param thickness the thickness of the slab in voxels along the normal of the plane, the mean of
+   *     the values is computed when the thickness is greater than 1
+   * @return the image having the type of the volume
+   */
+  ImageCV reslice(
+      Vector3d origin,
+      Vector3d colStep,
+      Vector3d rowStep,
+      int dstWidth,
+      int dstHeight,
+      double thickness) {
+    Vector3d normal = new Vector3d(colStep).cross(rowStep);
+    int nbSamples = 1;
+    if (thickness > 1.0 && normal.lengthSquared() > 0.0) {
+      normal.normalize();
+      nbSamples = (int) Math.round(thickness);
+    }
+    final int samples = nbSamples;
+    final double outside = background == Double.MAX_VALUE ? 0.0 : background;
+    double[] data = new double[dstWidth * dstHeight * channels];
+
+    IntStream.range(0, dstHeight)
+        .parallel()
+        .forEach(
+            r -> {
+              int offset = r * dstWidth * channels;
+              for (int c = 0; c < dstWidth; c++) {
+                double x = origin.x + c * colStep.x + r * rowStep.x;
+                double y = origin.y + c * colStep.y + r * rowStep.y;
+                double z = origin.z + c * colStep.z + r * rowStep.z;
+                for (int k = 0; k < samples; k++) {
+                  double shift = k - (samples - 1) / 2.0;
+                  double sx = x + shift * normal.x;
+                  double sy = y + shift * normal.y;
+                  double sz = z + shift * normal.z;
+                  for (int b = 0; b < channels; b++) {
+                    data[offset + b] += sample(sx, sy, sz, b, outside);
+                  }
+                }
+                if (samples > 1) {
+                  for (int b = 0; b < channels; b++) {
+                    data[offset + b] /= samples;
+                  }
+                }
+                offset += channels;
+              }
+            });
+
+    Mat buf = new Mat(dstHeight, dstWidth, CvType.makeType(CvType.CV_64F, channels));
+    buf.put(0, 0, data);
+    ImageCV dst = new ImageCV();
+    buf.convertTo(dst, cvType);
+    buf.release();
+    return dst;
+  }
+
+  private double sample(double x, double y, double z, int band, double outside) {
+    if (x < -EPSILON
+        || y < -EPSILON
+        || z < -EPSILON
+        || x > width - 1 + EPSILON
+        || y > height - 1 + EPSILON
+        || z > depth - 1 + EPSILON) {
+      return outside;
+    }
+    x = Math.min(Math.max(x, 0.0), width - 1.0);
+    y = Math.min(Math.max(y, 0.0), height - 1.0);
+    z = Math.min(Math.max(z, 0.0), depth - 1.0);
+    int x0 = (int) x;
+    int y0 = (int) y;
+    int z0 = (int) z;
+    double fx = x - x0;
+    double fy = y - y0;
+    double fz = z - z0;
+    double v = interpolatePlane(x0, fx, y0, fy, z0, band);
+    return fz > EPSILON ? v + (interpolatePlane(x0, fx, y0, fy, z0 + 1, band) - v) * fz : v;
+  }
+
+  private double interpolatePlane(int x0, double fx, int y0, double fy, int z, int band) {
+    double v = interpolateRow(x0, fx, y0, z, band);
+    return fy > EPSILON ? v + (interpolateRow(x0, fx, y0 + 1, z, band) - v) * fy : v;
+  }
+
+  private double interpolateRow(int x0, double fx, int y, int z, int band) {
+    double v = getValue(x0, y, z, band);
+    return fx > EPSILON ? v + (getValue(x0 + 1, y, z, band) - v) * fx : v;
+  }
+
+  private double getValue(int x, int y, int z, int band) {
+    ByteBuffer buf = slices[z];
+    int index = (y * width + x) * channels + band;
+    return switch (cvDepth) {
+      case CvType.CV_8U -> buf.get(index) & 0xFF;
+      case CvType.CV_8S -> buf.get(index);
+      case CvType.CV_16U -> buf.getShort(index * 2) & 0xFFFF;
+      case CvType.CV_16S -> buf.getShort(index * 2);
+      case CvType.CV_32S -> buf.getInt(index * 4);
+      case CvType.CV_32F -> buf.getFloat(index * 4);
+      default -> buf.getDouble(index * 8);
+    };
+  }
+}
@@ -80,14 +80,7 @@ public void setBaseAttributes(Attributes attributes) {
   public File getDicomFile() {
     Attributes dcm = getDicomObject();
 
-    File file = imageCV.file();
-    BulkData bdl =
-        new BulkData(
-            file.toURI().toString(),
-            FileRawImage.HEADER_LENGTH,
-            file.length() - FileRawImage.HEADER_LENGTH,
-            false);
-    dcm.setValue(Tag.PixelData, VR.OW, bdl);
+    dcm.setValue(Tag.PixelData, VR.OW, buildPixelData(getRawFile()));
     File tmpFile = new File(DicomMediaIO.DICOM_EXPORT_DIR, dcm.getString(Tag.SOPInstanceUID));
     try (DicomOutputStream out = new DicomOutputStream(tmpFile)) {
       out.writeDataset(dcm.createFileMetaInformation(UID.ImplicitVRLittleEndian), dcm);
@@ -98,6 +91,27 @@ public File getDicomFile() {
     return tmpFile;
   }
 
+  /**
+   * @return the file containing the raw image, it is written first when the image is computed on
+   *     demand
+   */
+  public File getRawFile() {
+    return imageCV.file();
+  }
+
+  /**
+   * @param file the file containing the raw image
+   * @return the length of the pixel data in the file
+   */
+  protected long getRawDataLength(File file) {
+    return file.length() - FileRawImage.HEADER_LENGTH;
+  }
+
+  private BulkData buildPixelData(File file) {
+    return new BulkData(
+        file.toURI().toString(), FileRawImage.HEADER_LENGTH, getRawDataLength(file), false);
+  }
+
   @Override
   public PlanarImage getImageFragment(MediaElement media) throws Exception {
     if (media != null && media.getFile() != null) {
@@ -240,14 +254,7 @@ private synchronized DicomMetaData readMetaData() {
     dcm.setSpecificCharacterSet(cs.toCodes());
     DicomMediaUtils.fillAttributes(tags, dcm);
     dcm.addAll(attributes);
-    File file = imageCV.file();
-    BulkData bdl =
-        new BulkData(
-            file.toURI().toString(),
-            FileRawImage.HEADER_LENGTH,
-            file.length() - FileRawImage.HEADER_LENGTH,
-            false);
-    dcm.setValue(Tag.PixelData, VR.OW, bdl);
+    dcm.setValue(Tag.PixelData, VR.OW, buildPixelData(imageCV.file()));
     header = new DicomMetaData(dcm, UID.ImplicitVRLittleEndian);
     HEADER_CACHE.put(this, header);
     return header;
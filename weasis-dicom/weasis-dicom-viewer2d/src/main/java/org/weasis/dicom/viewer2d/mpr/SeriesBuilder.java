@@ -18,6 +18,7 @@
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import javax.imageio.IIOException;
 import javax.swing.JOptionPane;
 import javax.swing.JProgressBar;
@@ -41,6 +42,7 @@
 import org.weasis.core.api.media.data.MediaSeriesGroup;
 import org.weasis.core.api.media.data.TagW;
 import org.weasis.core.api.media.data.TagW.TagType;
+import org.weasis.core.api.util.ParallelIngest;
 import org.weasis.core.util.FileUtil;
 import org.weasis.core.util.MathUtil;
 import org.weasis.dicom.codec.DcmMediaReader;
@@ -54,7 +56,6 @@
 import org.weasis.dicom.viewer2d.Messages;
 import org.weasis.dicom.viewer2d.mpr.MprView.SliceOrientation;
 import org.weasis.opencv.data.FileRawImage;
-import org.weasis.opencv.data.ImageCV;
 import org.weasis.opencv.data.PlanarImage;
 import org.weasis.opencv.op.ImageProcessor;
 
@@ -88,18 +89,10 @@ public static void createMissingSeries(
         if (img != null && img.getMediaReader() instanceof DcmMediaReader) {
           GeometryOfSlice geometry = img.getDispSliceGeometry();
           if (geometry != null) {
-            int width = TagD.getTagValue(img, Tag.Columns, Integer.class);
-            int height = TagD.getTagValue(img, Tag.Rows, Integer.class);
             // abort needs to be final array to be changed on "invokeAndWait()" block.
             final boolean[] abort = new boolean[] {false, false};
 
-            if (MathUtil.isDifferent(img.getRescaleX(), img.getRescaleY())) {
-              // confirmMessage(view, Messages.getString("SeriesBuilder.non_square"), abort);
-              //
-              width = img.getRescaleWidth(width);
-              height = img.getRescaleHeight(height);
-            }
-
+            // The size of the volume is given by the images rescaled to square pixels
             Double tilt = TagD.getTagValue(img, Tag.GantryDetectorTilt, Double.class);
             if (tilt != null && MathUtil.isDifferentFromZero(tilt)) {
               confirmMessage(view, Messages.getString("SeriesBuilder.gantry"), abort);
@@ -278,44 +271,44 @@ public static void createMissingSeries(
                       MediaSeries.MEDIA_POSITION.MIDDLE, filter, SortSeriesStack.slicePosition);
               final Attributes attributes = img.getMediaReader().getDicomObject();
 
+              List<MprView> buildViews = new ArrayList<>();
               for (int i = 0; i < 2; i++) {
                 if (needBuild[i]) {
-                  final MprView mprView = recView[i];
-                  final ViewParameter viewParams = recParams[i];
-
-                  Iterable<DicomImageElement> medias =
-                      series.copyOfMedias(
-                          filter,
-                          viewParams.reverseSeriesOrder
-                              ? SortSeriesStack.slicePosition.getReversOrderComparator()
-                              : SortSeriesStack.slicePosition);
-                  double origPixSize = img.getPixelSize();
+                  buildViews.add(recView[i]);
+                }
+              }
+              if (buildViews.isEmpty()) {
+                return;
+              }
 
-                  FileRawImage[] secSeries = new FileRawImage[i == 0 ? height : width];
-                  /*
-                   * Write the new image by tacking the lines (from first to last) of all the images
-                   * of the original series stack
-                   */
-                  double sPixSize =
-                      writeBlock(secSeries, medias, viewParams, mprView, thread, abort, size);
+              /*
+               * Load the images of the original series stack only once in a volume shared by the
+               * reconstructed views. Their images are resliced on demand from the volume.
+               */
+              List<DicomImageElement> medias =
+                  series.copyOfMedias(filter, SortSeriesStack.slicePosition);
+              double[] sliceSpace = new double[1];
+              MprVolume volume = buildVolume(medias, buildViews, thread, abort, sliceSpace);
+              if (volume == null || thread.isInterrupted()) {
+                return;
+              }
+              double origPixSize = img.getPixelSize();
 
-                  if (thread.isInterrupted()) {
-                    return;
-                  }
+              for (int i = 0; i < 2; i++) {
+                if (needBuild[i]) {
+                  final MprView mprView = recView[i];
                   /*
                    * Reconstruct dicom files, adapt position, orientation, pixel spacing, instance
                    * number and UIDs.
                    */
                   final DicomSeries dicomSeries =
-                      buildDicomSeriesFromRaw(
-                          secSeries,
-                          new Dimension(i == 0 ? width : height, size),
+                      buildDicomSeries(
+                          volume,
                           img,
-                          viewParams,
+                          recParams[i],
                           origPixSize,
-                          sPixSize,
+                          sliceSpace[0],
                           geometry,
-                          mprView,
                           attributes);
 
                   if (dicomSeries.size(null) > 0) {
@@ -353,41 +346,72 @@ public static void createMissingSeries(
     }
   }
 
-  private static DicomSeries buildDicomSeriesFromRaw(
-      final FileRawImage[] newSeries,
-      Dimension dim,
+  private static DicomSeries buildDicomSeries(
+      MprVolume volume,
       DicomImageElement img,
       ViewParameter params,
       double origPixSize,
       double sPixSize,
       GeometryOfSlice geometry,
-      final MprView view,
-      final Attributes attributes)
-      throws Exception {
+      final Attributes attributes) {
 
     int bitsAllocated = img.getBitsAllocated();
     int bitsStored = img.getBitsStored();
     double[] pixSpacing = new double[] {sPixSize, origPixSize};
 
-    final JProgressBar bar = view.getProgressBar();
-
-    if (params.rotateOutputImg) {
-      if (bar != null) {
-        GuiExecutor.execute(
-            () -> {
-              bar.setMaximum(newSeries.length);
-              bar.setValue(0);
-              // Force to reset the progress bar
-              bar.updateUI();
-              view.repaint();
-            });
+    // Plane of the first image in the volume, before rotating the output image
+    int width = volume.getWidth();
+    int height = volume.getHeight();
+    int nbImages;
+    int imgWidth;
+    Vector3d colStep;
+    Vector3d firstOrigin;
+    Vector3d nextOrigin;
+    switch (params.rotateCvType) {
+      case Core.ROTATE_90_CLOCKWISE -> {
+        nbImages = width;
+        imgWidth = height;
+        colStep = new Vector3d(0, -1, 0);
+        firstOrigin = new Vector3d(0, height - 1.0, 0);
+        nextOrigin = new Vector3d(1, 0, 0);
+      }
+      case Core.ROTATE_90_COUNTERCLOCKWISE -> {
+        nbImages = width;
+        imgWidth = height;
+        colStep = new Vector3d(0, 1, 0);
+        firstOrigin = new Vector3d(width - 1.0, 0, 0);
+        nextOrigin = new Vector3d(-1, 0, 0);
+      }
+      case Core.ROTATE_180 -> {
+        nbImages = height;
+        imgWidth = width;
+        colStep = new Vector3d(-1, 0, 0);
+        firstOrigin = new Vector3d(width - 1.0, height - 1.0, 0);
+        nextOrigin = new Vector3d(0, -1, 0);
       }
+      default -> {
+        nbImages = height;
+        imgWidth = width;
+        colStep = new Vector3d(1, 0, 0);
+        firstOrigin = new Vector3d(0, 0, 0);
+        nextOrigin = new Vector3d(0, 1, 0);
+      }
+    }
+    int depth = volume.getDepth();
+    Vector3d rowStep = new Vector3d(0, 0, params.reverseSeriesOrder ? -1 : 1);
+    if (params.reverseSeriesOrder) {
+      firstOrigin.z = depth - 1.0;
+    }
+    Dimension dim = new Dimension(imgWidth, depth);
+    if (params.rotateOutputImg) {
+      // Rotate the output image clockwise
+      firstOrigin.fma(depth - 1.0, rowStep);
+      Vector3d tmp = colStep;
+      colStep = rowStep.negate(new Vector3d());
+      rowStep = tmp;
 
       pixSpacing = new double[] {origPixSize, sPixSize};
-
-      int tmp = dim.width;
-      dim.width = dim.height;
-      dim.height = tmp;
+      dim = new Dimension(depth, imgWidth);
     }
 
     final int[] COPIED_ATTRS = {
@@ -446,29 +470,18 @@ private static DicomSeries buildDicomSeriesFromRaw(
     cpTags.setString(Tag.ImageType, VR.CS, "DERIVED", "SECONDARY", "MPR"); // NON-NLS
     cpTags.setString(Tag.FrameOfReferenceUID, VR.UI, params.frameOfReferenceUID);
 
-    int last = newSeries.length;
+    int last = nbImages;
     List<DicomImageElement> dcms = new ArrayList<>();
-
-    for (int i = 0; i < newSeries.length; i++) {
-      if (params.rotateOutputImg) {
-        try {
-          newSeries[i].write(
-              ImageProcessor.getRotatedImage(newSeries[i].read(), Core.ROTATE_90_CLOCKWISE));
-        } catch (Exception e) {
-          FileUtil.delete(newSeries[i].file());
-          throw e;
-        }
-
-        if (bar != null) {
-          GuiExecutor.execute(
-              () -> {
-                bar.setValue(bar.getValue() + 1);
-                view.repaint();
-              });
-        }
-      }
-      RawImageIO rawIO = new RawImageIO(newSeries[i], null);
-      rawIO.getFileCache().setOriginalTempFile(newSeries[i].file());
+    File dir = new File(MPR_CACHE_DIR, params.seriesUID);
+    dir.mkdirs();
+
+    for (int i = 0; i < nbImages; i++) {
+      FileRawImage raw = new FileRawImage(new File(dir, "mpr_" + (i + 1) + ".wcv")); // NON-NLS
+      Vector3d origin = new Vector3d(nextOrigin).mul(i).add(firstOrigin);
+      RawImageIO rawIO =
+          new MprImageIO(
+              raw, volume, origin, colStep, rowStep, dim.width, dim.height, origPixSize);
+      rawIO.getFileCache().setOriginalTempFile(raw.file());
       rawIO.setBaseAttributes(cpTags);
 
       // Tags with same values for all the Series
@@ -532,6 +545,8 @@ public Attributes saveToFile(File output, DicomExportParameters params) {
           FileUtil.nioCopyFile(reader.getDicomFile(), output);
           return new Attributes();
         }
+        // Write the image computed on demand before reading the pixel data
+        reader.getRawFile();
         return super.saveToFile(output, params);
       }
     };
@@ -563,114 +578,129 @@ public static void copyMandatoryTags(DicomImageElement img, RawImageIO rawIO) {
     rawIO.setTag(TagW.MonoChrome, img.getTagValue(TagW.MonoChrome));
   }
 
-  private static double writeBlock(
-      FileRawImage[] newSeries,
-      Iterable<DicomImageElement> medias,
-      ViewParameter params,
-      final MprView view,
+  private static MprVolume buildVolume(
+      List<DicomImageElement> medias,
+      List<MprView> views,
       Thread thread,
       final boolean[] abort,
-      int dstHeight)
+      double[] sliceSpace)
       throws IOException {
-    ImageCV[] builImgs = new ImageCV[newSeries.length];
-
     // TODO should return the more frequent space!
-    final JProgressBar bar = view.getProgressBar();
-    try {
-
-      double epsilon = 1e-3;
-      double lastPos = 0.0;
-      double lastSpace = 0.0;
-      int index = 0;
-      for (DicomImageElement media : medias) {
-        if (thread.isInterrupted()) {
-          return lastSpace;
-        }
-        DicomImageElement dcm = media;
-        double[] sp = (double[]) dcm.getTagValue(TagW.SlicePosition);
-        boolean validSp = sp != null && sp.length == 3;
-        if (!validSp && !abort[1]) {
-          confirmMessage(view, Messages.getString("SeriesBuilder.space_missing"), abort);
-        } else if (validSp) {
-          double pos = sp[0] + sp[1] + sp[2];
-          if (index > 0) {
-            double space = Math.abs(pos - lastPos);
-            if (!abort[1]
-                && (MathUtil.isEqualToZero(space)
-                    || (index > 1 && Math.abs(lastSpace - space) > epsilon))) {
-              confirmMessage(view, Messages.getString("SeriesBuilder.space"), abort);
-            }
-            lastSpace = space;
-          }
-          lastPos = pos;
-          index++;
-          if (bar != null) {
-            GuiExecutor.execute(
-                () -> {
-                  bar.setValue(bar.getValue() + 1);
-                  view.repaint();
-                });
-          }
-        }
-
-        // TODO do not open more than 512 files (Limitation to open 1024 in the same time on Ubuntu)
-        PlanarImage image = dcm.getImage(null, false);
-        if (image == null) {
-          abort[0] = true;
-          throw new IIOException("Cannot read an image!");
-        }
-        if (MathUtil.isDifferent(dcm.getRescaleX(), dcm.getRescaleY())) {
-          Dimension dim =
-              new Dimension(
-                  (int) (Math.abs(dcm.getRescaleX()) * image.width()),
-                  (int) (Math.abs(dcm.getRescaleY()) * image.height()));
-          try (ImageCV rimg = ImageProcessor.scale(image.toImageCV(), dim, Imgproc.INTER_LINEAR)) {
-            writeRasterInRaw(rimg, newSeries, builImgs, params, dstHeight, index);
+    final MprView view = views.get(0);
+    double epsilon = 1e-3;
+    double lastPos = 0.0;
+    double lastSpace = 0.0;
+    int index = 0;
+    for (DicomImageElement dcm : medias) {
+      double[] sp = (double[]) dcm.getTagValue(TagW.SlicePosition);
+      boolean validSp = sp != null && sp.length == 3;
+      if (!validSp && !abort[1]) {
+        confirmMessage(view, Messages.getString("SeriesBuilder.space_missing"), abort);
+      } else if (validSp) {
+        double pos = sp[0] + sp[1] + sp[2];
+        if (index > 0) {
+          double space = Math.abs(pos - lastPos);
+          if (!abort[1]
+              && (MathUtil.isEqualToZero(space)
+                  || (index > 1 && Math.abs(lastSpace - space) > epsilon))) {
+            confirmMessage(view, Messages.getString("SeriesBuilder.space"), abort);
           }
-        } else {
-          writeRasterInRaw(image, newSeries, builImgs, params, dstHeight, index);
+          lastSpace = space;
         }
+        lastPos = pos;
+        index++;
       }
+    }
+    sliceSpace[0] = lastSpace;
 
-      return lastSpace;
+    if (medias.isEmpty() || thread.isInterrupted()) {
+      return null;
+    }
+    // The first image gives the size and the type of the volume
+    MprVolume volume;
+    DicomImageElement dcmFirst = medias.get(0);
+    dcmFirst.pinImage();
+    try {
+      PlanarImage first = getSquarePixelImage(dcmFirst, abort);
+      volume =
+          new MprVolume(first.width(), first.height(), medias.size(), first.type(), MPR_CACHE_DIR);
+      volume.setSlice(0, first.toMat());
+      releaseSquarePixelImage(dcmFirst, first);
     } finally {
-      for (int i = 0; i < newSeries.length; i++) {
-        if (newSeries[i] != null) {
-          if (abort[0]) {
-            FileUtil.delete(newSeries[i].file());
-          } else {
-            newSeries[i].write(builImgs[i]);
-          }
-          builImgs[i].release();
-        }
+      dcmFirst.unpinImage();
+    }
+    incrementProgress(views);
+
+    /*
+     * Decode the other images concurrently and copy each one at its position in the volume. The
+     * number of workers limits the number of files open at the same time.
+     */
+    try {
+      ParallelIngest.forEach(
+          "MPR volume builder", // NON-NLS
+          1,
+          medias.size(),
+          ParallelIngest.getDefaultParallelism(),
+          z -> copySlice(volume, z, medias.get(z), abort),
+          z -> incrementProgress(views));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioe) {
+        throw ioe;
       }
+      throw new IOException(e.getCause());
     }
+    return volume;
   }
 
-  private static void writeRasterInRaw(
-      PlanarImage image,
-      FileRawImage[] newSeries,
-      ImageCV[] buildImg,
-      ViewParameter params,
-      int dstHeight,
-      int imgIndex)
-      throws IOException {
-    ImageCV img = ImageProcessor.getRotatedImage(image.toMat(), params.rotateCvType);
-    if (newSeries != null && img != null && img.height() == newSeries.length) {
-      if (newSeries[0] == null) {
-        File dir = new File(MPR_CACHE_DIR, params.seriesUID);
-        dir.mkdirs();
-        for (int i = 0; i < newSeries.length; i++) {
-          newSeries[i] = new FileRawImage(new File(dir, "mpr_" + (i + 1) + ".wcv")); // NON-NLS
-          buildImg[i] = new ImageCV(dstHeight, img.width(), img.type());
-        }
-      }
+  private static void copySlice(
+      MprVolume volume, int z, DicomImageElement dcm, final boolean[] abort) throws IIOException {
+    // Keep the image in the cache while it is copied
+    dcm.pinImage();
+    try {
+      PlanarImage image = getSquarePixelImage(dcm, abort);
+      volume.setSlice(z, image.toMat());
+      releaseSquarePixelImage(dcm, image);
+    } finally {
+      dcm.unpinImage();
+    }
+  }
 
-      for (int j = 0; j < newSeries.length; j++) {
-        img.row(j).copyTo(buildImg[j].row(imgIndex - 1));
-      }
-      if (!img.equals(image)) {
-        img.release();
+  private static PlanarImage getSquarePixelImage(DicomImageElement dcm, final boolean[] abort)
+      throws IIOException {
+    PlanarImage image = dcm.getImage(null, false);
+    if (image == null) {
+      abort[0] = true;
+      throw new IIOException("Cannot read an image!");
+    }
+    if (MathUtil.isDifferent(dcm.getRescaleX(), dcm.getRescaleY())) {
+      Dimension dim =
+          new Dimension(
+              (int) (Math.abs(dcm.getRescaleX()) * image.width()),
+              (int) (Math.abs(dcm.getRescaleY()) * image.height()));
+      return ImageProcessor.scale(image.toImageCV(), dim, Imgproc.INTER_LINEAR);
+    }
+    return image;
+  }
+
+  private static void releaseSquarePixelImage(DicomImageElement dcm, PlanarImage image) {
+    // Only the rescaled image does not belong to the cache
+    if (MathUtil.isDifferent(dcm.getRescaleX(), dcm.getRescaleY())) {
+      image.release();
+    }
+  }
+
+  private static void incrementProgress(List<MprView> views) {
+    for (MprView v : views) {
+      final JProgressBar bar = v.getProgressBar();
+      if (bar != null) {
+        GuiExecutor.execute(
+            () -> {
+              bar.setValue(bar.getValue() + 1);
+              v.repaint();
+            });
       }
     }
   }
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2024 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.viewer2d.mip;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.weasis.dicom.viewer2d.mip.SlabProjection.MinMaxWindow;
+import org.weasis.dicom.viewer2d.mip.SlabProjection.WindowOperations;
+
+class SlabProjectionTest {
+  private static final int NB_PIXELS = 4;
+
+  /** Small synthetic image */
+  static final class Value {
+    final int[] data;
+    final boolean source;
+    boolean released;
+
+    Value(int[] data, boolean source) {
+      this.data = data;
+      this.source = source;
+    }
+  }
+
+  static final class Operations implements WindowOperations<Value> {
+    final Value[] sources;
+    final boolean max;
+    final int[] pins;
+    final List<Value> created = new ArrayList<>();
+
+    Operations(Value[] sources, boolean max) {
+      this.sources = sources;
+      this.max = max;
+      this.pins = new int[sources.length];
+    }
+
+    @Override
+    public Value load(int index) {
+      Value v = sources[index];
+      if (v != null) {
+        pins[index]++;
+      }
+      return v;
+    }
+
+    @Override
+    public void unload(int index, Value source) {
+      assertSame(sources[index], source);
+      pins[index]--;
+    }
+
+    @Override
+    public Value combine(Value v1, Value v2) {
+      assertFalse(v1.released || v2.released);
+      int[] data = new int[NB_PIXELS];
+      for (int i = 0; i < NB_PIXELS; i++) {
+        data[i] = max ? Math.max(v1.data[i], v2.data[i]) : Math.min(v1.data[i], v2.data[i]);
+      }
+      return create(data);
+    }
+
+    @Override
+    public Value copy(Value source) {
+      return create(source.data.clone());
+    }
+
+    private Value create(int[] data) {
+      Value v = new Value(data, false);
+      created.add(v);
+      return v;
+    }
+
+    @Override
+    public void release(Value value) {
+      assertFalse(value.source, "A source cannot be released");
+      assertFalse(value.released, "Released twice");
+      value.released = true;
+    }
+
+    @Override
+    public void checkInterruption() {
+      // Never interrupted
+    }
+  }
+
+  private static Value[] buildSources(int size, long seed, int... missing) {
+    Random random = new Random(seed);
+    Value[] sources = new Value[size];
+    for (int i = 0; i < size; i++) {
+      int[] data = new int[NB_PIXELS];
+      for (int k = 0; k < NB_PIXELS; k++) {
+        data[k] = random.nextInt(1000);
+      }
+      sources[i] = new Value(data, true);
+    }
+    for (int i : missing) {
+      sources[i] = null;
+    }
+    return sources;
+  }
+
+  /** Brute-force projection of the slab, or null when the slab has no source */
+  private static int[] bruteForce(Value[] sources, int index, int extend, boolean max) {
+    int[] result = null;
+    for (int i = Math.max(0, index - extend);
+        i <= Math.min(sources.length - 1, index + extend);
+        i++) {
+      if (sources[i] != null) {
+        if (result == null) {
+          result = sources[i].data.clone();
+        } else {
+          for (int k = 0; k < NB_PIXELS; k++) {
+            int v = sources[i].data[k];
+            result[k] = max ? Math.max(result[k], v) : Math.min(result[k], v);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  private static Map<Integer, Value> project(Operations ops, int extend, int from, int to) {
+    Map<Integer, Value> results = new TreeMap<>();
+    new MinMaxWindow<>(ops.sources.length, extend, ops)
+        .project(
+            from,
+            to,
+            (index, v) -> {
+              assertNull(results.put(index, v), "Position sent twice");
+              return true;
+            });
+    return results;
+  }
+
+  private static void assertNoLeak(Operations ops, Map<Integer, Value> results) {
+    for (int pin : ops.pins) {
+      assertEquals(0, pin, "The sources must be unloaded");
+    }
+    for (Value v : ops.created) {
+      // The sent values belong to the receiver, all the other ones must be released
+      assertEquals(!results.containsValue(v), v.released);
+    }
+  }
+
+  private static void assertProjection(Value[] sources, int extend, int from, int to, boolean max) {
+    Operations ops = new Operations(sources, max);
+    Map<Integer, Value> results = project(ops, extend, from, to);
+    for (int index = from; index <= to; index++) {
+      int[] expected = bruteForce(sources, index, extend, max);
+      Value v = results.get(index);
+      if (expected == null) {
+        assertNull(v);
+      } else {
+        assertNotNull(v, "Missing position " + index);
+        assertFalse(v.source, "A source cannot be sent");
+        assertArrayEquals(expected, v.data, "Position " + index);
+      }
+    }
+    assertEquals(to - from + 1, results.size() + countEmpty(sources, extend, from, to, max));
+    assertNoLeak(ops, results);
+  }
+
+  private static int countEmpty(Value[] sources, int extend, int from, int to, boolean max) {
+    int count = 0;
+    for (int index = from; index <= to; index++) {
+      if (bruteForce(sources, index, extend, max) == null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void testAllPositions(boolean max) {
+    for (int size = 1; size <= 14; size++) {
+      for (int extend = 1; extend <= 4; extend++) {
+        // Slabs truncated at the start and at the end of the stack
+        assertProjection(buildSources(size, size * 31L + extend), extend, 0, size - 1, max);
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void testChunks(boolean max) {
+    Value[] sources = buildSources(23, 7L);
+    int extend = 2;
+    // The chunks of the parallel projection
+    assertProjection(sources, extend, 0, 9, max);
+    assertProjection(sources, extend, 10, 19, max);
+    assertProjection(sources, extend, 20, 22, max);
+    assertProjection(sources, extend, 3, 3, max);
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void testMissingSources(boolean max) {
+    assertProjection(buildSources(12, 3L, 0, 5, 6, 11), 1, 0, 11, max);
+    assertProjection(buildSources(12, 5L, 2, 3, 4, 5, 6), 1, 0, 11, max);
+    assertProjection(buildSources(9, 11L, 0, 1, 2, 3, 4, 5, 6, 7, 8), 2, 0, 8, max);
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void testStoppedByOutput(boolean max) {
+    Operations ops = new Operations(buildSources(20, 13L), max);
+    Map<Integer, Value> results = new TreeMap<>();
+    new MinMaxWindow<>(ops.sources.length, 2, ops)
+        .project(
+            0,
+            19,
+            (index, v) -> {
+              results.put(index, v);
+              return index < 7;
+            });
+    assertEquals(8, results.size());
+    assertNoLeak(ops, results);
+  }
+}
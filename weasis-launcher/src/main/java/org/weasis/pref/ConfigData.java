@@ -71,6 +71,7 @@ public class ConfigData {
   public static final String P_GOSH_ARGS = "gosh.args";
   public static final String P_WEASIS_CLEAN_CACHE = "weasis.clean.cache";
   public static final String P_HTTP_AUTHORIZATION = "http.authorization";
+  public static final String P_HTTP_MAX_CONNECTIONS = "http.maxConnections";
   public static final String P_NATIVE_LIB_SPEC = "native.library.spec";
   public static final String P_WEASIS_MIN_NATIVE_VERSION = "weasis.min.native.version";
   public static final String P_WEASIS_RESOURCES_URL = "weasis.resources.url";
@@ -216,6 +217,14 @@ private void initWeasisProperties(AppPreferences preferences) {
     // Define the http user agent
     addProperty("http.agent", getHttpAgent(version, profile));
 
+    // Keep alive the HTTP connections of all the concurrent downloads (5 by default). It is read
+    // by the JVM when opening the first HTTP connection.
+    if (System.getProperty(P_HTTP_MAX_CONNECTIONS) == null) {
+      addProperty(
+          P_HTTP_MAX_CONNECTIONS,
+          preferences.getValue("download.concurrent.max.images", "32")); // NON-NLS
+    }
+
     String portable = properties.getProperty("weasis.portable.dir");
     if (portable != null) {
       LOGGER.info("Set default relative folders");